@@ -9,6 +9,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.ObjLongConsumer;
 import nl.ramsolutions.sw.magik.Location;
 import nl.ramsolutions.sw.magik.MagikFile;
 import nl.ramsolutions.sw.magik.MagikVisitor;
@@ -79,9 +80,47 @@ public abstract class MagikCheck extends MagikVisitor {
    */
   public List<MagikIssue> scanFileForIssues(final MagikFile magikFile) {
     this.scanFile(magikFile);
+    return this.getIssues();
+  }
+
+  /**
+   * Get the issues found so far.
+   *
+   * @return List of issues.
+   */
+  public List<MagikIssue> getIssues() {
     return Collections.unmodifiableList(this.issues);
   }
 
+  /**
+   * Scan the file for issues with multiple checks, walking the tree only once.
+   *
+   * @param magikFile File to use.
+   * @param checks Checks to scan with.
+   * @return List of issues of all checks.
+   */
+  public static List<MagikIssue> scanFileForIssues(
+      final MagikFile magikFile, final List<? extends MagikCheck> checks) {
+    return MagikCheck.scanFileForIssues(magikFile, checks, null);
+  }
+
+  /**
+   * Scan the file for issues with multiple checks, walking the tree only once.
+   *
+   * @param <T> Type of check.
+   * @param magikFile File to use.
+   * @param checks Checks to scan with.
+   * @param timeConsumer If given, receives the time spent in each check, in nanoseconds.
+   * @return List of issues of all checks.
+   */
+  public static <T extends MagikCheck> List<MagikIssue> scanFileForIssues(
+      final MagikFile magikFile,
+      final List<T> checks,
+      final @Nullable ObjLongConsumer<? super T> timeConsumer) {
+    MagikVisitor.scanFile(magikFile, checks, timeConsumer);
+    return checks.stream().flatMap(check -> check.getIssues().stream()).toList();
+  }
+
   /**
    * Add a new issue.
    *
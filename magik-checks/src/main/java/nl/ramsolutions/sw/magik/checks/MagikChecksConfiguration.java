@@ -1,10 +1,17 @@
 package nl.ramsolutions.sw.magik.checks;
 
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import nl.ramsolutions.sw.MagikToolsProperties;
 import org.sonar.check.Rule;
@@ -16,9 +23,14 @@ public class MagikChecksConfiguration {
   private static final String KEY_DISABLED_CHECKS = "disabled";
   private static final String KEY_ENABLED_CHECKS = "enabled";
   private static final String KEY_IGNORED_PATHS = "ignore";
+  private static final int MAX_CACHE_SIZE = 64;
+  private static final Map<List<Object>, MagikChecksConfiguration> CACHE =
+      new ConcurrentHashMap<>();
 
   private final MagikToolsProperties properties;
   private final List<Class<? extends MagikCheck>> checkClasses;
+  private List<MagikCheckHolder> holders;
+  private List<PathMatcher> ignoreMatchers;
 
   /**
    * Constructor which reads properties from {@code path}.
@@ -32,16 +44,73 @@ public class MagikChecksConfiguration {
     this.properties = properties;
   }
 
+  /**
+   * Get a {@link MagikChecksConfiguration}, reusing an earlier created configuration for equal
+   * {@code checkClasses} and {@code properties}. This reuses the created {@link MagikCheckHolder}s
+   * and ignore-matchers.
+   *
+   * @param checkClasses {@link Class}es of {@link MagikCheck}s.
+   * @param properties Properties to use.
+   * @return Configuration.
+   */
+  public static MagikChecksConfiguration of(
+      final List<Class<? extends MagikCheck>> checkClasses, final MagikToolsProperties properties) {
+    final MagikChecksConfiguration cachedConfig =
+        MagikChecksConfiguration.CACHE.get(List.of(checkClasses, properties));
+    if (cachedConfig != null) {
+      return cachedConfig;
+    }
+
+    if (MagikChecksConfiguration.CACHE.size() >= MAX_CACHE_SIZE) {
+      MagikChecksConfiguration.CACHE.clear();
+    }
+
+    // Copy the properties, as the given properties might be modified later on.
+    final MagikToolsProperties propertiesCopy =
+        MagikToolsProperties.merge(MagikToolsProperties.DEFAULT_PROPERTIES, properties);
+    final MagikChecksConfiguration config =
+        new MagikChecksConfiguration(checkClasses, propertiesCopy);
+    MagikChecksConfiguration.CACHE.put(List.of(checkClasses, propertiesCopy), config);
+    return config;
+  }
+
   public List<String> getIgnores() {
     return this.properties.getPropertyList(KEY_IGNORED_PATHS);
   }
 
+  /**
+   * Test if the path is ignored by any of the ignore-patterns.
+   *
+   * @param path Path to test.
+   * @return True if ignored, false otherwise.
+   */
+  public boolean isIgnored(final Path path) {
+    return this.getIgnoreMatchers().stream().anyMatch(matcher -> matcher.matches(path));
+  }
+
+  private synchronized List<PathMatcher> getIgnoreMatchers() {
+    if (this.ignoreMatchers == null) {
+      final FileSystem fs = FileSystems.getDefault();
+      this.ignoreMatchers = this.getIgnores().stream().map(fs::getPathMatcher).toList();
+    }
+
+    return this.ignoreMatchers;
+  }
+
   /**
    * Get {@link MagikCheck}s, each contained by a {@link MagikCheckHolder}.
    *
    * @return
    */
-  public List<MagikCheckHolder> getAllChecks() {
+  public synchronized List<MagikCheckHolder> getAllChecks() {
+    if (this.holders == null) {
+      this.holders = Collections.unmodifiableList(this.createHolders());
+    }
+
+    return this.holders;
+  }
+
+  private List<MagikCheckHolder> createHolders() {
     final List<MagikCheckHolder> holders = new ArrayList<>();
 
     final List<String> disableds = this.properties.getPropertyList(KEY_DISABLED_CHECKS);
@@ -0,0 +1,323 @@
+package nl.ramsolutions.sw.magik.checks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Profiler for checking files, e.g., by magik-lint.
+ *
+ * <p>Records per {@link Phase} the wall time, thread CPU time and thread allocated bytes, the time
+ * spent per check and the slowest files. Per check only the wall time is recorded, as it is
+ * measured for every dispatched node, and querying the thread CPU time that often is too costly.
+ *
+ * <p>Thread safe, a file is recorded by the thread checking it.
+ */
+public class MagikChecksProfiler {
+
+  /** Phase of checking a file. */
+  public enum Phase {
+    READ,
+    PARSE,
+    SCOPE,
+    TYPE_REASONING,
+    CHECKS,
+    SUPPRESSION,
+  }
+
+  /** Disabled profiler, only runs the measured work. */
+  public static final MagikChecksProfiler NULL_PROFILER = new MagikChecksProfiler(false);
+
+  private static final int WORST_FILES_COUNT = 10;
+  private static final double NANOS_PER_SECOND = 1000000000.0;
+  private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+  private final boolean enabled;
+  private final Map<Phase, Measurement> phaseMeasurements = new EnumMap<>(Phase.class);
+  private final Map<String, LongAdder> checkNanos = new ConcurrentHashMap<>();
+  private final LongAdder fileCount = new LongAdder();
+  private final PriorityQueue<FileRecorder> worstFiles =
+      new PriorityQueue<>(Comparator.comparingLong(FileRecorder::getWallNanos));
+
+  /**
+   * Constructor.
+   *
+   * @param enabled Enable profiling.
+   */
+  public MagikChecksProfiler(final boolean enabled) {
+    this.enabled = enabled;
+    for (final Phase phase : Phase.values()) {
+      this.phaseMeasurements.put(phase, new Measurement());
+    }
+
+    if (enabled) {
+      MagikChecksProfiler.enableThreadMeasurements();
+    }
+  }
+
+  /**
+   * Test if profiling is enabled.
+   *
+   * @return {@code true} if enabled.
+   */
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Start recording a file, on the current thread.
+   *
+   * @param uri URI of file.
+   * @return Recorder for the file.
+   */
+  public FileRecorder startFile(final URI uri) {
+    return new FileRecorder(uri);
+  }
+
+  /**
+   * Write the report as JSON.
+   *
+   * @param path Path to write to.
+   * @throws IOException -
+   */
+  public void writeJson(final Path path) throws IOException {
+    final Map<String, Object> report = new LinkedHashMap<>();
+    report.put("file_count", this.fileCount.sum());
+
+    final Map<String, Object> phases = new LinkedHashMap<>();
+    this.phaseMeasurements.forEach(
+        (phase, measurement) ->
+            phases.put(phase.name().toLowerCase(Locale.ENGLISH), measurement.toMap()));
+    report.put("phases", phases);
+
+    final List<Map<String, Object>> checks = new ArrayList<>();
+    this.getCheckNanosSorted()
+        .forEach(
+            (checkKey, nanos) -> {
+              final Map<String, Object> check = new LinkedHashMap<>();
+              check.put("check", checkKey);
+              check.put("wall_nanos", nanos);
+              checks.add(check);
+            });
+    report.put("checks", checks);
+
+    final List<Map<String, Object>> files = new ArrayList<>();
+    for (final FileRecorder recorder : this.getWorstFiles()) {
+      final Map<String, Object> file = new LinkedHashMap<>();
+      file.put("uri", recorder.uri.toString());
+      file.putAll(recorder.fileMeasurement.toMap());
+      files.add(file);
+    }
+    report.put("worst_files", files);
+
+    final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      gson.toJson(report, writer);
+    }
+  }
+
+  /**
+   * Write the report as a summary table.
+   *
+   * @param writer Writer to write to.
+   */
+  public void writeSummary(final Writer writer) {
+    final PrintWriter printWriter = new PrintWriter(writer);
+    printWriter.printf("Profiled files: %d%n%n", this.fileCount.sum());
+
+    printWriter.printf("%-16s %12s %12s %16s%n", "Phase", "Wall (s)", "CPU (s)", "Allocated (MB)");
+    this.phaseMeasurements.forEach(
+        (phase, measurement) ->
+            printWriter.printf(
+                "%-16s %12.3f %12.3f %16.1f%n",
+                phase.name().toLowerCase(Locale.ENGLISH),
+                measurement.wallNanos.sum() / NANOS_PER_SECOND,
+                measurement.cpuNanos.sum() / NANOS_PER_SECOND,
+                measurement.allocatedBytes.sum() / BYTES_PER_MEGABYTE));
+
+    final Map<String, Long> checks = this.getCheckNanosSorted();
+    final long totalCheckNanos = checks.values().stream().mapToLong(Long::longValue).sum();
+    printWriter.printf("%n%-48s %12s %8s%n", "Check", "Wall (s)", "%");
+    checks.forEach(
+        (checkKey, nanos) ->
+            printWriter.printf(
+                "%-48s %12.3f %8.1f%n",
+                checkKey,
+                nanos / NANOS_PER_SECOND,
+                totalCheckNanos != 0 ? nanos * 100.0 / totalCheckNanos : 0.0));
+
+    printWriter.printf("%n%-12s %s%n", "Wall (s)", "Slowest files");
+    for (final FileRecorder recorder : this.getWorstFiles()) {
+      printWriter.printf("%12.3f %s%n", recorder.getWallNanos() / NANOS_PER_SECOND, recorder.uri);
+    }
+
+    printWriter.flush();
+  }
+
+  private Map<String, Long> getCheckNanosSorted() {
+    final Map<String, Long> sorted = new LinkedHashMap<>();
+    this.checkNanos.entrySet().stream()
+        .sorted(
+            Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum())
+                .reversed())
+        .forEach(entry -> sorted.put(entry.getKey(), entry.getValue().sum()));
+    return sorted;
+  }
+
+  private List<FileRecorder> getWorstFiles() {
+    synchronized (this.worstFiles) {
+      return this.worstFiles.stream()
+          .sorted(Comparator.comparingLong(FileRecorder::getWallNanos).reversed())
+          .toList();
+    }
+  }
+
+  private static ThreadMXBean getThreadMxBean() {
+    return ManagementFactory.getThreadMXBean();
+  }
+
+  private static void enableThreadMeasurements() {
+    final ThreadMXBean threadMxBean = MagikChecksProfiler.getThreadMxBean();
+    if (threadMxBean.isCurrentThreadCpuTimeSupported()) {
+      threadMxBean.setThreadCpuTimeEnabled(true);
+    }
+
+    if (threadMxBean instanceof com.sun.management.ThreadMXBean sunThreadMxBean
+        && sunThreadMxBean.isThreadAllocatedMemorySupported()) {
+      sunThreadMxBean.setThreadAllocatedMemoryEnabled(true);
+    }
+  }
+
+  private static long getCurrentThreadCpuNanos() {
+    final ThreadMXBean threadMxBean = MagikChecksProfiler.getThreadMxBean();
+    return threadMxBean.isCurrentThreadCpuTimeSupported()
+        ? threadMxBean.getCurrentThreadCpuTime()
+        : 0L;
+  }
+
+  private static long getCurrentThreadAllocatedBytes() {
+    final ThreadMXBean threadMxBean = MagikChecksProfiler.getThreadMxBean();
+    if (threadMxBean instanceof com.sun.management.ThreadMXBean sunThreadMxBean
+        && sunThreadMxBean.isThreadAllocatedMemoryEnabled()) {
+      return sunThreadMxBean.getCurrentThreadAllocatedBytes();
+    }
+
+    return 0L;
+  }
+
+  /** Measured wall time, thread CPU time and thread allocated bytes. */
+  private static final class Measurement {
+
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    void add(final long wall, final long cpu, final long allocated) {
+      this.wallNanos.add(wall);
+      this.cpuNanos.add(cpu);
+      this.allocatedBytes.add(allocated);
+    }
+
+    Map<String, Object> toMap() {
+      final Map<String, Object> map = new LinkedHashMap<>();
+      map.put("wall_nanos", this.wallNanos.sum());
+      map.put("cpu_nanos", this.cpuNanos.sum());
+      map.put("allocated_bytes", this.allocatedBytes.sum());
+      return map;
+    }
+  }
+
+  /** Recorder for a single file. */
+  public final class FileRecorder {
+
+    private final URI uri;
+    private final Measurement fileMeasurement = new Measurement();
+
+    private FileRecorder(final URI uri) {
+      this.uri = uri;
+    }
+
+    /**
+     * Measure a phase.
+     *
+     * @param <T> Type of result.
+     * @param phase Phase to measure.
+     * @param supplier Work to measure.
+     * @return Result of work.
+     */
+    public <T> T measure(final Phase phase, final Supplier<T> supplier) {
+      if (!MagikChecksProfiler.this.enabled) {
+        return supplier.get();
+      }
+
+      final long startWall = System.nanoTime();
+      final long startCpu = MagikChecksProfiler.getCurrentThreadCpuNanos();
+      final long startAllocated = MagikChecksProfiler.getCurrentThreadAllocatedBytes();
+      try {
+        return supplier.get();
+      } finally {
+        final long wall = System.nanoTime() - startWall;
+        final long cpu = MagikChecksProfiler.getCurrentThreadCpuNanos() - startCpu;
+        final long allocated =
+            MagikChecksProfiler.getCurrentThreadAllocatedBytes() - startAllocated;
+        MagikChecksProfiler.this.phaseMeasurements.get(phase).add(wall, cpu, allocated);
+        this.fileMeasurement.add(wall, cpu, allocated);
+      }
+    }
+
+    /**
+     * Record the time spent in a check.
+     *
+     * @param check Check.
+     * @param nanos Time spent, in nanoseconds.
+     */
+    public void recordCheck(final MagikCheck check, final long nanos) {
+      final MagikCheckHolder holder = check.getHolder();
+      final String checkKey =
+          holder != null ? holder.getCheckKeyKebabCase() : check.getClass().getSimpleName();
+      MagikChecksProfiler.this
+          .checkNanos
+          .computeIfAbsent(checkKey, key -> new LongAdder())
+          .add(nanos);
+    }
+
+    /** Finish recording the file. */
+    public void finish() {
+      if (!MagikChecksProfiler.this.enabled) {
+        return;
+      }
+
+      MagikChecksProfiler.this.fileCount.increment();
+      final PriorityQueue<FileRecorder> worstFiles = MagikChecksProfiler.this.worstFiles;
+      synchronized (worstFiles) {
+        worstFiles.add(this);
+        if (worstFiles.size() > WORST_FILES_COUNT) {
+          worstFiles.poll();
+        }
+      }
+    }
+
+    private long getWallNanos() {
+      return this.fileMeasurement.wallNanos.sum();
+    }
+  }
+}
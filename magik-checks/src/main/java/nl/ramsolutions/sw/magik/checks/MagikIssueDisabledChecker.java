@@ -1,16 +1,18 @@
 package nl.ramsolutions.sw.magik.checks;
 
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import nl.ramsolutions.sw.magik.MagikFile;
 import nl.ramsolutions.sw.magik.analysis.scope.GlobalScope;
 import nl.ramsolutions.sw.magik.analysis.scope.Scope;
 import nl.ramsolutions.sw.magik.parser.CommentInstructionReader;
 
-/** Check if {@link MagikIssue} is disabled via an annotation/comment. */
+/**
+ * Check if {@link MagikIssue} is disabled via an annotation/comment.
+ *
+ * <p>The disabled checks are parsed once per {@link MagikFile}, per line and per scope.
+ */
 public final class MagikIssueDisabledChecker {
 
   private static final String NAME_MLINT = "mlint";
@@ -42,32 +44,20 @@ public final class MagikIssueDisabledChecker {
     final Integer columnNo = magikIssue.startColumn();
     final Integer fileLineNo = issueLineNo - 1; // 0-based.
 
-    final Map<String, String> statementInstructions =
+    final Set<String> statementDisableds =
         magikFile
-            .getStatementInstructions(MLINT_STATEMENT_INSTRUCTION)
-            .getOrDefault(fileLineNo, Collections.emptyMap());
-    final String[] statementDisableds =
-        statementInstructions.getOrDefault(MagikIssueDisabledChecker.KEY_DISABLE, "").split(",");
-    final boolean statementDisabled = List.of(statementDisableds).contains(checkKey);
-    if (statementDisabled) {
+            .getStatementInstructionValues(MLINT_STATEMENT_INSTRUCTION, KEY_DISABLE)
+            .getOrDefault(fileLineNo, Collections.emptySet());
+    if (statementDisableds.contains(checkKey)) {
       return true;
     }
 
     final GlobalScope globalScope = magikFile.getGlobalScope();
     final Scope issueScope = globalScope.getScopeForLineColumn(issueLineNo, columnNo);
     Objects.requireNonNull(issueScope);
-    return issueScope.getSelfAndAncestorScopes().stream()
-        .map(
-            scope ->
-                magikFile
-                    .getScopeInstructions(MLINT_SCOPE_INSTRUCTION)
-                    .getOrDefault(scope, Collections.emptyMap()))
-        .map(
-            scopeInstructions ->
-                scopeInstructions
-                    .getOrDefault(MagikIssueDisabledChecker.KEY_DISABLE, "")
-                    .split(","))
-        .flatMap(Arrays::stream)
-        .anyMatch(disabled -> disabled.equals(checkKey));
+    return magikFile
+        .getScopeInstructionValues(MLINT_SCOPE_INSTRUCTION, KEY_DISABLE)
+        .getOrDefault(issueScope, Collections.emptySet())
+        .contains(checkKey);
   }
 }
@@ -4,8 +4,10 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.api.Token;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 import nl.ramsolutions.sw.magik.api.MagikGrammar;
@@ -15,7 +17,11 @@ import nl.ramsolutions.sw.magik.parser.MagikParser;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 
-/** Check for commented code. */
+/**
+ * Check for commented code.
+ *
+ * <p>Comment blocks are first classified lexically, only blocks which look like code are parsed.
+ */
 @Rule(key = CommentedCodeCheck.CHECK_KEY)
 public class CommentedCodeCheck extends MagikCheck {
 
@@ -26,6 +32,24 @@ public class CommentedCodeCheck extends MagikCheck {
 
   private static final int DEFAULT_MIN_LINES = 3;
 
+  /** Keywords opening a block, and the keywords closing them, at the same index. */
+  private static final List<String> BLOCK_START_KEYWORDS =
+      List.of("_method", "_proc", "_block", "_if", "_loop", "_try", "_protect", "_catch", "_lock");
+
+  private static final String CODE_PUNCTUATION = "($[{";
+
+  private static final List<String> BLOCK_END_KEYWORDS =
+      List.of(
+          "_endmethod",
+          "_endproc",
+          "_endblock",
+          "_endif",
+          "_endloop",
+          "_endtry",
+          "_endprotect",
+          "_endcatch",
+          "_endlock");
+
   /** Minimum number of lines before flagging. */
   @RuleProperty(
       key = "min lines",
@@ -35,6 +59,8 @@ public class CommentedCodeCheck extends MagikCheck {
   @SuppressWarnings("checkstyle:VisibilityModifier")
   public int minLines = DEFAULT_MIN_LINES;
 
+  private final MagikParser parser = new MagikParser();
+
   @Override
   protected void walkPreMagik(final AstNode node) {
     final Map<Token, List<Token>> commentBlocks = this.extractCommentBlocks(node);
@@ -49,9 +75,12 @@ public class CommentedCodeCheck extends MagikCheck {
         .filter(tokens -> tokens.size() >= minLines)
         .filter(
             tokens -> {
+              // Strip the leading `#` of each comment.
               final String block =
-                  tokens.stream().map(Token::getValue).collect(Collectors.joining("\n"));
-              return this.isCommentedCode(block);
+                  tokens.stream()
+                      .map(token -> token.getValue().substring(1))
+                      .collect(Collectors.joining("\n"));
+              return CommentedCodeCheck.looksLikeCode(block) && this.isCommentedCode(block);
             })
         .forEach(
             tokens -> {
@@ -105,11 +134,148 @@ public class CommentedCodeCheck extends MagikCheck {
     return commentBlocks;
   }
 
+  /**
+   * Cheap, lexical, test if a comment block can be code. Rejects blocks without any keyword or
+   * operator, and blocks with unbalanced block keywords, such as {@code _block}/{@code _endblock}.
+   * Strings, characters, {@code |quoted|} parts and trailing comments are skipped.
+   *
+   * @param block Comment block, without leading {@code #}s.
+   * @return {@code false} if block cannot be code, {@code true} if it might be.
+   */
+  static boolean looksLikeCode(final String block) {
+    return new CodeClassifier(block).looksLikeCode();
+  }
+
+  /** Lexical classifier of a comment block, see {@link #looksLikeCode(String)}. */
+  private static final class CodeClassifier {
+
+    private final String block;
+    private final int[] blockDepths = new int[BLOCK_START_KEYWORDS.size()];
+    private boolean hasCodeIndicator;
+    private int index;
+
+    CodeClassifier(final String block) {
+      this.block = block;
+    }
+
+    boolean looksLikeCode() {
+      while (this.index < this.block.length()) {
+        if (!this.readNext()) {
+          return false;
+        }
+      }
+
+      return this.hasCodeIndicator && Arrays.stream(this.blockDepths).allMatch(depth -> depth == 0);
+    }
+
+    /**
+     * Read the next part of the block.
+     *
+     * @return {@code false} if the block cannot be code.
+     */
+    private boolean readNext() {
+      final char chr = this.block.charAt(this.index);
+      if (chr == '"' || chr == '|') {
+        // String or quoted identifier/symbol.
+        this.skipQuoted(chr);
+      } else if (chr == '%') {
+        // Character, skip the character itself.
+        this.index += 2;
+      } else if (chr == '#') {
+        // Trailing comment.
+        this.skipLine();
+      } else if (chr == '_' || Character.isLetter(chr)) {
+        return this.readWord();
+      } else {
+        this.readOperator(chr);
+      }
+
+      return true;
+    }
+
+    private void skipQuoted(final char quote) {
+      // Skip to the closing quote, on the same line.
+      int end = this.index + 1;
+      while (end < this.block.length()
+          && this.block.charAt(end) != quote
+          && this.block.charAt(end) != '\n') {
+        end++;
+      }
+      this.index = end + 1;
+    }
+
+    private void skipLine() {
+      final int end = this.block.indexOf('\n', this.index);
+      this.index = end != -1 ? end : this.block.length();
+    }
+
+    private boolean readWord() {
+      final int start = this.index;
+      this.index++;
+      while (this.index < this.block.length()
+          && CommentedCodeCheck.isIdentifierPart(this.block.charAt(this.index))) {
+        this.index++;
+      }
+
+      if (this.block.charAt(start) != '_' || this.index == start + 1) {
+        return true;
+      }
+
+      this.hasCodeIndicator = true;
+      final String keyword = this.block.substring(start, this.index).toLowerCase(Locale.ENGLISH);
+      return this.countBlockKeyword(keyword);
+    }
+
+    /**
+     * Count block start/end keywords.
+     *
+     * @param keyword Keyword.
+     * @return {@code false} if a block is closed before it is opened.
+     */
+    private boolean countBlockKeyword(final String keyword) {
+      final int startIndex = BLOCK_START_KEYWORDS.indexOf(keyword);
+      if (startIndex != -1) {
+        this.blockDepths[startIndex]++;
+      }
+
+      final int endIndex = BLOCK_END_KEYWORDS.indexOf(keyword);
+      return endIndex == -1 || --this.blockDepths[endIndex] >= 0;
+    }
+
+    private void readOperator(final char chr) {
+      final char nextChr =
+          this.index + 1 < this.block.length() ? this.block.charAt(this.index + 1) : ' ';
+      if (CommentedCodeCheck.isCodeOperator(chr, nextChr)) {
+        this.hasCodeIndicator = true;
+      }
+      this.index++;
+    }
+  }
+
+  /**
+   * Test if a character, followed by the next character, is an operator or punctuation typical for
+   * code: {@code <<}, {@code >>}, {@code (}, {@code $}, {@code {}, {@code [}, or {@code .}/{@code
+   * :} followed by an identifier.
+   */
+  private static boolean isCodeOperator(final char chr, final char nextChr) {
+    if (CODE_PUNCTUATION.indexOf(chr) != -1) {
+      return true;
+    }
+
+    if (chr == '<' || chr == '>') {
+      return nextChr == chr;
+    }
+
+    return (chr == '.' || chr == ':') && CommentedCodeCheck.isIdentifierPart(nextChr);
+  }
+
+  private static boolean isIdentifierPart(final char chr) {
+    return Character.isLetterOrDigit(chr) || chr == '_' || chr == '!' || chr == '?';
+  }
+
   private boolean isCommentedCode(final String comment) {
-    final String bareComment = comment.replaceAll("^#", "").replace("\n#", "\n");
-    final MagikParser parser = new MagikParser();
     try {
-      final AstNode magikNode = parser.parseSafe(bareComment);
+      final AstNode magikNode = this.parser.parseSafe(comment);
       return magikNode.getChildren().stream().allMatch(node -> !node.is(MagikGrammar.SYNTAX_ERROR));
     } catch (RecognitionException exception) {
       return false;
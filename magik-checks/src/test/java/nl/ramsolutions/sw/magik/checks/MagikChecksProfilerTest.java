@@ -0,0 +1,72 @@
+package nl.ramsolutions.sw.magik.checks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+import nl.ramsolutions.sw.magik.MagikFile;
+import nl.ramsolutions.sw.magik.checks.checks.ForbiddenCallCheck;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link MagikChecksProfiler}. */
+class MagikChecksProfilerTest {
+
+  private static final URI DEFAULT_URI = URI.create("memory://source.magik");
+
+  private List<MagikIssue> checkFile(final MagikChecksProfiler profiler)
+      throws ReflectiveOperationException {
+    final MagikFile magikFile = new MagikFile(DEFAULT_URI, "show(1)\n");
+    final MagikCheckHolder holder =
+        new MagikCheckHolder(ForbiddenCallCheck.class, Collections.emptySet(), true);
+    final List<MagikCheck> checks = List.of(holder.createCheck());
+
+    final MagikChecksProfiler.FileRecorder recorder = profiler.startFile(DEFAULT_URI);
+    recorder.measure(MagikChecksProfiler.Phase.PARSE, () -> magikFile.getTopNode());
+    final ObjLongConsumer<MagikCheck> checkTimeConsumer =
+        profiler.isEnabled() ? recorder::recordCheck : null;
+    final List<MagikIssue> issues =
+        recorder.measure(
+            MagikChecksProfiler.Phase.CHECKS,
+            () -> MagikCheck.scanFileForIssues(magikFile, checks, checkTimeConsumer));
+    recorder.finish();
+    return issues;
+  }
+
+  @Test
+  void testProfile(@TempDir final Path tempDir) throws IOException, ReflectiveOperationException {
+    final MagikChecksProfiler profiler = new MagikChecksProfiler(true);
+    final List<MagikIssue> issues = this.checkFile(profiler);
+    assertThat(issues).hasSize(1);
+
+    final Path reportPath = tempDir.resolve("profile.json");
+    profiler.writeJson(reportPath);
+    final String report = Files.readString(reportPath);
+    assertThat(report)
+        .contains("\"file_count\": 1")
+        .contains("\"parse\"")
+        .contains("\"check\": \"forbidden-call\"")
+        .contains("\"uri\": \"memory://source.magik\"");
+
+    final StringWriter writer = new StringWriter();
+    profiler.writeSummary(writer);
+    assertThat(writer.toString()).contains("Profiled files: 1").contains("forbidden-call");
+  }
+
+  @Test
+  void testNullProfiler() throws ReflectiveOperationException {
+    final MagikChecksProfiler profiler = MagikChecksProfiler.NULL_PROFILER;
+    final List<MagikIssue> issues = this.checkFile(profiler);
+    assertThat(issues).hasSize(1);
+
+    final StringWriter writer = new StringWriter();
+    profiler.writeSummary(writer);
+    assertThat(writer.toString()).contains("Profiled files: 0");
+  }
+}
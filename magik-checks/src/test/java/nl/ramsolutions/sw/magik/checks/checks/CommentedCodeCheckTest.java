@@ -142,4 +142,28 @@ class CommentedCodeCheckTest extends MagikCheckTestBase {
     final List<MagikIssue> issues = this.runCheck(code, check);
     assertThat(issues).hasSize(2);
   }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        " This is\n just a\n message",
+        " Author : Me\n Date written : 01/95",
+        "_block\n  write(1)\n",
+        "write(1)\n_endblock\n",
+        " \"_block\" is a keyword\n and so on\n",
+      })
+  void testNotLooksLikeCode(final String block) {
+    assertThat(CommentedCodeCheck.looksLikeCode(block)).isFalse();
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "_local x << _self.call()\nx +<< 10\nwrite(x)",
+        "_block\n  write(\"_endblock\") # _endblock\n_endblock",
+        "_IF a _THEN\n  b\n_ENDIF",
+      })
+  void testLooksLikeCode(final String block) {
+    assertThat(CommentedCodeCheck.looksLikeCode(block)).isTrue();
+  }
 }
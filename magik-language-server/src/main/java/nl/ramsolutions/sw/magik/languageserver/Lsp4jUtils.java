@@ -7,6 +7,8 @@ import nl.ramsolutions.sw.magik.MagikTypedFile;
 import org.eclipse.lsp4j.CodeAction;
 import org.eclipse.lsp4j.CodeActionKind;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextDocumentEdit;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
@@ -61,4 +63,72 @@ public final class Lsp4jUtils {
     codeAction.setEdit(workspaceEdit);
     return codeAction;
   }
+
+  /**
+   * Apply {@link TextDocumentContentChangeEvent}s to a text, in order.
+   *
+   * <p>Events without a {@link Range} replace the whole text.
+   *
+   * @param text Text to apply the changes to.
+   * @param contentChangeEvents Changes to apply.
+   * @return Text with changes applied.
+   */
+  public static String applyContentChanges(
+      final String text, final List<TextDocumentContentChangeEvent> contentChangeEvents) {
+    String newText = text;
+    for (final TextDocumentContentChangeEvent contentChangeEvent : contentChangeEvents) {
+      final Range range = contentChangeEvent.getRange();
+      if (range == null) {
+        newText = contentChangeEvent.getText();
+        continue;
+      }
+
+      final int startOffset = Lsp4jUtils.getOffset(newText, range.getStart());
+      final int endOffset = Lsp4jUtils.getOffset(newText, range.getEnd());
+      newText =
+          new StringBuilder(newText.length() + contentChangeEvent.getText().length())
+              .append(newText, 0, startOffset)
+              .append(contentChangeEvent.getText())
+              .append(newText, endOffset, newText.length())
+              .toString();
+    }
+    return newText;
+  }
+
+  /**
+   * Get the offset of a {@link Position} in a text. Positions past the end of a line are clamped to
+   * the end of that line, positions past the last line to the end of the text.
+   *
+   * @param text Text.
+   * @param position Position to get the offset for.
+   * @return Offset in text.
+   */
+  static int getOffset(final String text, final Position position) {
+    int offset = 0;
+    for (int line = 0; line < position.getLine(); ++line) {
+      final int lineBreakOffset = Lsp4jUtils.findLineBreak(text, offset);
+      if (lineBreakOffset == text.length()) {
+        return text.length();
+      }
+
+      final boolean isCrLf =
+          text.charAt(lineBreakOffset) == '\r'
+              && lineBreakOffset + 1 < text.length()
+              && text.charAt(lineBreakOffset + 1) == '\n';
+      offset = lineBreakOffset + (isCrLf ? 2 : 1);
+    }
+
+    final int lineEndOffset = Lsp4jUtils.findLineBreak(text, offset);
+    return Math.min(offset + position.getCharacter(), lineEndOffset);
+  }
+
+  private static int findLineBreak(final String text, final int fromOffset) {
+    for (int i = fromOffset; i < text.length(); ++i) {
+      final char chr = text.charAt(i);
+      if (chr == '\n' || chr == '\r') {
+        return i;
+      }
+    }
+    return text.length();
+  }
 }
@@ -30,6 +30,7 @@ public class MagikLanguageServer implements LanguageServer, LanguageClientAware
 
   private final MagikToolsProperties languageServerProperties;
   private final IDefinitionKeeper definitionKeeper;
+  private final RequestExecutor requestExecutor;
   private final List<MagikWorkspaceFolder> workspaceFolders = new ArrayList<>();
   private final MagikTextDocumentService magikTextDocumentService;
   private final MagikWorkspaceService magikWorkspaceService;
@@ -45,6 +46,7 @@ public class MagikLanguageServer implements LanguageServer, LanguageClientAware
     this.languageServerProperties = new MagikToolsProperties();
     // We assume the DefinitionKeeper gets its types from a types database (.jsonl file).
     this.definitionKeeper = new DefinitionKeeper(false);
+    this.requestExecutor = new RequestExecutor();
     this.magikTextDocumentService =
         new MagikTextDocumentService(this, this.languageServerProperties, this.definitionKeeper);
     this.magikWorkspaceService =
@@ -116,7 +118,9 @@ public class MagikLanguageServer implements LanguageServer, LanguageClientAware
 
     return CompletableFuture.supplyAsync(
         () -> {
+          this.magikTextDocumentService.shutdown();
           this.magikWorkspaceService.shutdown();
+          this.requestExecutor.shutdown();
 
           return null;
         });
@@ -158,6 +162,15 @@ public class MagikLanguageServer implements LanguageServer, LanguageClientAware
     return this.languageClient;
   }
 
+  /**
+   * Get the {@link RequestExecutor} to handle requests on.
+   *
+   * @return Request executor.
+   */
+  public RequestExecutor getRequestExecutor() {
+    return this.requestExecutor;
+  }
+
   /**
    * Get the {@link MagikWorkspaceFolder}s.
    *
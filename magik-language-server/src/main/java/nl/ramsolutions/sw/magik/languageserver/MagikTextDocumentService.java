@@ -1,22 +1,26 @@
 package nl.ramsolutions.sw.magik.languageserver;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import nl.ramsolutions.sw.ConfigurationReader;
 import nl.ramsolutions.sw.MagikToolsProperties;
 import nl.ramsolutions.sw.OpenedFile;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
+import nl.ramsolutions.sw.magik.MagikTypedFileCache;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.languageserver.RequestExecutor.Priority;
 import nl.ramsolutions.sw.magik.languageserver.callhierarchy.CallHierarchyProvider;
 import nl.ramsolutions.sw.magik.languageserver.codeactions.CodeActionProvider;
 import nl.ramsolutions.sw.magik.languageserver.completion.CompletionProvider;
 import nl.ramsolutions.sw.magik.languageserver.definitions.DefinitionsProvider;
 import nl.ramsolutions.sw.magik.languageserver.diagnostics.DiagnosticsProvider;
+import nl.ramsolutions.sw.magik.languageserver.diagnostics.DiagnosticsScheduler;
 import nl.ramsolutions.sw.magik.languageserver.documentsymbols.DocumentSymbolProvider;
 import nl.ramsolutions.sw.magik.languageserver.folding.FoldingRangeProvider;
 import nl.ramsolutions.sw.magik.languageserver.formatting.FormattingProvider;
@@ -74,7 +78,10 @@ import org.eclipse.lsp4j.RenameParams;
 import org.eclipse.lsp4j.SelectionRange;
 import org.eclipse.lsp4j.SelectionRangeParams;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
 import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.SignatureHelp;
 import org.eclipse.lsp4j.SignatureHelpParams;
@@ -109,6 +116,7 @@ public class MagikTextDocumentService implements TextDocumentService {
   private final MagikToolsProperties properties;
   private final IDefinitionKeeper definitionKeeper;
   private final DiagnosticsProvider diagnosticsProvider;
+  private final DiagnosticsScheduler diagnosticsScheduler;
   private final HoverProvider hoverProvider;
   private final ImplementationProvider implementationProvider;
   private final SignatureHelpProvider signatureHelpProvider;
@@ -125,7 +133,8 @@ public class MagikTextDocumentService implements TextDocumentService {
   private final CodeActionProvider codeActionProvider;
   private final SelectionRangeProvider selectionRangeProvider;
   private final CallHierarchyProvider callHierarchyProvider;
-  private final Map<TextDocumentIdentifier, OpenedFile> openedFiles = new HashMap<>();
+  private final RequestExecutor requestExecutor;
+  private final Map<TextDocumentIdentifier, OpenedFile> openedFiles = new ConcurrentHashMap<>();
 
   /**
    * Constructor.
@@ -140,8 +149,14 @@ public class MagikTextDocumentService implements TextDocumentService {
     this.languageServer = languageServer;
     this.properties = properties;
     this.definitionKeeper = definitionKeeper;
+    this.requestExecutor = languageServer.getRequestExecutor();
 
     this.diagnosticsProvider = new DiagnosticsProvider(this.properties);
+    this.diagnosticsScheduler =
+        new DiagnosticsScheduler(
+            this.diagnosticsProvider,
+            publishParams ->
+                this.languageServer.getLanguageClient().publishDiagnostics(publishParams));
     this.hoverProvider = new HoverProvider();
     this.implementationProvider = new ImplementationProvider();
     this.signatureHelpProvider = new SignatureHelpProvider();
@@ -157,7 +172,20 @@ public class MagikTextDocumentService implements TextDocumentService {
     this.inlayHintProvider = new InlayHintProvider(this.properties);
     this.codeActionProvider = new CodeActionProvider(this.properties);
     this.selectionRangeProvider = new SelectionRangeProvider();
-    this.callHierarchyProvider = new CallHierarchyProvider(this.definitionKeeper);
+    final MagikTypedFileCache magikFileCache =
+        new MagikTypedFileCache(
+            this.definitionKeeper,
+            this::getOpenedMagikFile,
+            MagikTypedFileCache.DEFAULT_MAX_WEIGHT);
+    this.callHierarchyProvider = new CallHierarchyProvider(this.definitionKeeper, magikFileCache);
+  }
+
+  @CheckForNull
+  private MagikTypedFile getOpenedMagikFile(final URI uri) {
+    final TextDocumentIdentifier textDocumentIdentifier =
+        new TextDocumentIdentifier(uri.toString());
+    final OpenedFile openedFile = this.openedFiles.get(textDocumentIdentifier);
+    return openedFile instanceof MagikTypedFile magikFile ? magikFile : null;
   }
 
   /**
@@ -166,7 +194,7 @@ public class MagikTextDocumentService implements TextDocumentService {
    * @param capabilities Server capabilities to set.
    */
   public void setCapabilities(final ServerCapabilities capabilities) {
-    capabilities.setTextDocumentSync(TextDocumentSyncKind.Full);
+    capabilities.setTextDocumentSync(TextDocumentSyncKind.Incremental);
 
     this.diagnosticsProvider.setCapabilities(capabilities);
     this.hoverProvider.setCapabilities(capabilities);
@@ -227,8 +255,8 @@ public class MagikTextDocumentService implements TextDocumentService {
               new MagikTypedFile(fileProperties, uri, text, this.definitionKeeper);
           openedFile = magikFile;
 
-          // Publish diagnostics to client.
-          this.publishDiagnostics(magikFile);
+          // Publish diagnostics to client, in the background.
+          this.diagnosticsScheduler.schedule(magikFile, false);
           break;
         }
 
@@ -262,11 +290,6 @@ public class MagikTextDocumentService implements TextDocumentService {
       throw new IllegalStateException(exception);
     }
 
-    // Update file contents.
-    final List<TextDocumentContentChangeEvent> contentChangeEvents = params.getContentChanges();
-    final TextDocumentContentChangeEvent contentChangeEvent = contentChangeEvents.get(0);
-    final String text = contentChangeEvent.getText();
-
     // Find original TextDocumentIdentifier.
     final TextDocumentIdentifier realTextDocumentIdentifier = new TextDocumentIdentifier(uriStr);
     final OpenedFile existingOpenedFile = this.openedFiles.get(realTextDocumentIdentifier);
@@ -275,6 +298,11 @@ public class MagikTextDocumentService implements TextDocumentService {
       return;
     }
 
+    // Update file contents.
+    final List<TextDocumentContentChangeEvent> contentChangeEvents = params.getContentChanges();
+    final String text =
+        Lsp4jUtils.applyContentChanges(existingOpenedFile.getSource(), contentChangeEvents);
+
     final String languageId = existingOpenedFile.getLanguageId();
     final OpenedFile openedFile;
     switch (languageId) {
@@ -292,12 +320,18 @@ public class MagikTextDocumentService implements TextDocumentService {
 
       case "magik":
         {
+          // Reuse the parse of the previous version, where possible.
           final MagikTypedFile magikFile =
-              new MagikTypedFile(fileProperties, uri, text, this.definitionKeeper);
+              new MagikTypedFile(
+                  fileProperties,
+                  uri,
+                  text,
+                  this.definitionKeeper,
+                  (MagikTypedFile) existingOpenedFile);
           openedFile = magikFile;
 
-          // Publish diagnostics to client.
-          this.publishDiagnostics(magikFile);
+          // Publish diagnostics to client, in the background, after typing has settled.
+          this.diagnosticsScheduler.schedule(magikFile, true);
           break;
         }
 
@@ -325,8 +359,10 @@ public class MagikTextDocumentService implements TextDocumentService {
     this.openedFiles.remove(textDocumentIdentifier);
 
     // Clear published diagnostics.
-    final List<Diagnostic> diagnostics = Collections.emptyList();
     final String uriStr = textDocumentIdentifier.getUri();
+    this.diagnosticsScheduler.cancel(URI.create(uriStr));
+    this.semanticTokenProver.forget(URI.create(uriStr));
+    final List<Diagnostic> diagnostics = Collections.emptyList();
     final PublishDiagnosticsParams publishParams =
         new PublishDiagnosticsParams(uriStr, diagnostics);
     final LanguageClient languageClient = this.languageServer.getLanguageClient();
@@ -354,14 +390,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     }
   }
 
-  private void publishDiagnostics(final MagikTypedFile magikFile) {
-    final List<Diagnostic> diagnostics = this.diagnosticsProvider.provideDiagnostics(magikFile);
-
-    // Publish to client.
-    final String uri = magikFile.getUri().toString();
-    final PublishDiagnosticsParams publishParams = new PublishDiagnosticsParams(uri, diagnostics);
-    final LanguageClient languageClient = this.languageServer.getLanguageClient();
-    languageClient.publishDiagnostics(publishParams);
+  /** Handle shutdown. */
+  public void shutdown() {
+    this.diagnosticsScheduler.shutdown();
   }
 
   @Override
@@ -378,7 +409,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     final Position position = params.getPosition();
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
 
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/hover",
+        Priority.INTERACTIVE,
         () -> {
           final Hover hover;
           if (openedFile == null) {
@@ -419,14 +452,16 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(() -> Either.forLeft(Collections.emptyList()));
+      return CompletableFuture.completedFuture(Either.forLeft(Collections.emptyList()));
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final Position lsp4jPosition = params.getPosition();
     final nl.ramsolutions.sw.magik.Position position =
         Lsp4jConversion.positionFromLsp4j(lsp4jPosition);
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/implementation",
+        Priority.INTERACTIVE,
         () -> {
           final List<nl.ramsolutions.sw.magik.Location> locations =
               this.implementationProvider.provideImplementations(magikFile, position);
@@ -457,12 +492,14 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(SignatureHelp::new);
+      return CompletableFuture.completedFuture(new SignatureHelp());
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final Position position = params.getPosition();
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/signatureHelp",
+        Priority.INTERACTIVE,
         () -> {
           final SignatureHelp signatureHelp =
               this.signatureHelpProvider.provideSignatureHelp(magikFile, position);
@@ -487,7 +524,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     LOGGER.debug("foldingRange, uri: {}", textDocument.getUri());
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/foldingRange",
+        Priority.BACKGROUND,
         () -> {
           final List<FoldingRange> foldingRanges;
           if (openedFile == null) {
@@ -524,7 +563,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     final nl.ramsolutions.sw.magik.Position position =
         Lsp4jConversion.positionFromLsp4j(lsp4jPosition);
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/definition",
+        Priority.INTERACTIVE,
         () -> {
           final List<nl.ramsolutions.sw.magik.Location> locations;
           if (openedFile == null) {
@@ -562,7 +603,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     final nl.ramsolutions.sw.magik.Position position =
         Lsp4jConversion.positionFromLsp4j(lsp4jPosition);
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/references",
+        Priority.INTERACTIVE,
         () -> {
           final List<Location> references;
           if (openedFile == null) {
@@ -610,12 +653,14 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(() -> Either.forLeft(Collections.emptyList()));
+      return CompletableFuture.completedFuture(Either.forLeft(Collections.emptyList()));
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final Position position = params.getPosition();
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/completion",
+        Priority.INTERACTIVE,
         () -> {
           final List<CompletionItem> completions =
               this.completionProvider.provideCompletions(magikFile, position);
@@ -641,12 +686,14 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(Collections::emptyList);
+      return CompletableFuture.completedFuture(Collections.emptyList());
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final FormattingOptions options = params.getOptions();
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/formatting",
+        Priority.INTERACTIVE,
         () -> {
           if (!this.formattingProvider.canFormat(magikFile)) {
             LOGGER.warn("Cannot format due to syntax error");
@@ -673,7 +720,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     LOGGER.debug("semanticTokensFull, uri: {}", textDocument.getUri());
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/semanticTokens/full",
+        Priority.BACKGROUND,
         () -> {
           final SemanticTokens semanticTokens;
           if (openedFile == null) {
@@ -698,6 +747,69 @@ public class MagikTextDocumentService implements TextDocumentService {
         });
   }
 
+  @Override
+  public CompletableFuture<Either<SemanticTokens, SemanticTokensDelta>> semanticTokensFullDelta(
+      final SemanticTokensDeltaParams params) {
+    final long start = System.nanoTime();
+
+    final TextDocumentIdentifier textDocument = params.getTextDocument();
+    LOGGER.debug(
+        "semanticTokensFullDelta, uri: {}, previous result id: {}",
+        textDocument.getUri(),
+        params.getPreviousResultId());
+
+    final OpenedFile openedFile = this.openedFiles.get(textDocument);
+    if (openedFile == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final String previousResultId = params.getPreviousResultId();
+    return this.requestExecutor.submit(
+        "textDocument/semanticTokens/full/delta",
+        Priority.BACKGROUND,
+        () -> {
+          final Either<SemanticTokens, SemanticTokensDelta> semanticTokens =
+              this.semanticTokenProver.provideSemanticTokensFullDelta(openedFile, previousResultId);
+          if (LOGGER_DURATION.isTraceEnabled()) {
+            LOGGER_DURATION.trace(
+                "Duration: {} semanticTokensFullDelta, uri: {}",
+                String.format("%.3f", (System.nanoTime() - start) / 1000000000.0),
+                textDocument.getUri());
+          }
+          return semanticTokens;
+        });
+  }
+
+  @Override
+  public CompletableFuture<SemanticTokens> semanticTokensRange(
+      final SemanticTokensRangeParams params) {
+    final long start = System.nanoTime();
+
+    final TextDocumentIdentifier textDocument = params.getTextDocument();
+    LOGGER.debug("semanticTokensRange, uri: {}", textDocument.getUri());
+
+    final OpenedFile openedFile = this.openedFiles.get(textDocument);
+    if (openedFile == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final Range range = params.getRange();
+    return this.requestExecutor.submit(
+        "textDocument/semanticTokens/range",
+        Priority.INTERACTIVE,
+        () -> {
+          final SemanticTokens semanticTokens =
+              this.semanticTokenProver.provideSemanticTokensRange(openedFile, range);
+          if (LOGGER_DURATION.isTraceEnabled()) {
+            LOGGER_DURATION.trace(
+                "Duration: {} semanticTokensRange, uri: {}",
+                String.format("%.3f", (System.nanoTime() - start) / 1000000000.0),
+                textDocument.getUri());
+          }
+          return semanticTokens;
+        });
+  }
+
   @Override
   public CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>>
       prepareRename(final PrepareRenameParams params) {
@@ -712,12 +824,14 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(() -> null);
+      return CompletableFuture.completedFuture(null);
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final Position position = params.getPosition();
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/prepareRename",
+        Priority.INTERACTIVE,
         () -> {
           final Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior> prepareRename =
               this.renameProvider.providePrepareRename(magikFile, position);
@@ -746,13 +860,15 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(() -> null);
+      return CompletableFuture.completedFuture(null);
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final Position position = params.getPosition();
     final String newName = params.getNewName();
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/rename",
+        Priority.INTERACTIVE,
         () -> {
           final WorkspaceEdit rename =
               this.renameProvider.provideRename(magikFile, position, newName);
@@ -778,11 +894,13 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(Collections::emptyList);
+      return CompletableFuture.completedFuture(Collections.emptyList());
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/documentSymbol",
+        Priority.BACKGROUND,
         () -> {
           final List<Either<SymbolInformation, DocumentSymbol>> documentSymbols =
               this.documentSymbolProvider.provideDocumentSymbols(magikFile);
@@ -805,13 +923,15 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(Collections::emptyList);
+      return CompletableFuture.completedFuture(Collections.emptyList());
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final List<nl.ramsolutions.sw.magik.Position> positions =
         params.getPositions().stream().map(Lsp4jConversion::positionFromLsp4j).toList();
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/selectionRange",
+        Priority.INTERACTIVE,
         () -> {
           final List<SelectionRange> selectionRanges =
               this.selectionRangeProvider.provideSelectionRanges(magikFile, positions);
@@ -839,13 +959,15 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(() -> null);
+      return CompletableFuture.completedFuture(null);
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final Position position = params.getPosition();
 
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/prepareTypeHierarchy",
+        Priority.INTERACTIVE,
         () -> {
           final List<TypeHierarchyItem> typeHierarchy =
               this.typeHierarchyProvider.prepareTypeHierarchy(magikFile, position);
@@ -869,7 +991,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     final TypeHierarchyItem item = params.getItem();
     LOGGER.debug("typeHierarchySubtypes, item: {}", item.getName());
 
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "typeHierarchy/subtypes",
+        Priority.INTERACTIVE,
         () -> {
           final List<TypeHierarchyItem> subtypes =
               this.typeHierarchyProvider.typeHierarchySubtypes(item);
@@ -891,7 +1015,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     final TypeHierarchyItem item = params.getItem();
     LOGGER.debug("typeHierarchySupertypes, item: {}", item.getName());
 
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "typeHierarchy/supertypes",
+        Priority.INTERACTIVE,
         () -> {
           final List<TypeHierarchyItem> supertypes =
               this.typeHierarchyProvider.typeHierarchySupertypes(item);
@@ -921,11 +1047,13 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(Collections::emptyList);
+      return CompletableFuture.completedFuture(Collections.emptyList());
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/inlayHint",
+        Priority.BACKGROUND,
         () -> {
           List<InlayHint> inlayHints = this.inlayHintProvider.provideInlayHints(magikFile, range);
           if (LOGGER_DURATION.isTraceEnabled()) {
@@ -959,13 +1087,15 @@ public class MagikTextDocumentService implements TextDocumentService {
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
     if (!(openedFile instanceof MagikTypedFile)) {
-      return CompletableFuture.supplyAsync(Collections::emptyList);
+      return CompletableFuture.completedFuture(Collections.emptyList());
     }
 
     final MagikTypedFile magikFile = (MagikTypedFile) openedFile;
     final nl.ramsolutions.sw.magik.Range magikRange = Lsp4jConversion.rangeFromLsp4j(range);
     final CodeActionContext context = params.getContext();
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/codeAction",
+        Priority.BACKGROUND,
         () -> {
           final List<nl.ramsolutions.sw.magik.CodeAction> codeActions =
               this.codeActionProvider.provideCodeActions(magikFile, magikRange, context);
@@ -1008,7 +1138,9 @@ public class MagikTextDocumentService implements TextDocumentService {
         Lsp4jConversion.positionFromLsp4j(position);
 
     final OpenedFile openedFile = this.openedFiles.get(textDocument);
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "textDocument/prepareCallHierarchy",
+        Priority.INTERACTIVE,
         () -> {
           final List<CallHierarchyItem> items =
               openedFile instanceof MagikTypedFile magikFile
@@ -1034,7 +1166,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     final CallHierarchyItem item = params.getItem();
     LOGGER.debug("callHierarchyIncomingCalls, item: {}", item.getName());
 
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "callHierarchy/incomingCalls",
+        Priority.INTERACTIVE,
         () -> {
           final List<CallHierarchyIncomingCall> items =
               this.callHierarchyProvider.callHierarchyIncomingCalls(item);
@@ -1056,7 +1190,9 @@ public class MagikTextDocumentService implements TextDocumentService {
     final CallHierarchyItem item = params.getItem();
     LOGGER.debug("callHierarchyOutgoingCalls, item: {}", item.getName());
 
-    return CompletableFuture.supplyAsync(
+    return this.requestExecutor.submit(
+        "callHierarchy/outgoingCalls",
+        Priority.INTERACTIVE,
         () -> {
           final List<CallHierarchyOutgoingCall> items =
               this.callHierarchyProvider.callHierarchyOutgoingCalls(item);
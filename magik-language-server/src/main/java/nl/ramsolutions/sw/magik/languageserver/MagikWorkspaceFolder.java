@@ -23,8 +23,9 @@ import nl.ramsolutions.sw.magik.analysis.MagikAnalysisSettings;
 import nl.ramsolutions.sw.magik.analysis.definitions.FilterableDefinitionKeeperAdapter;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
 import nl.ramsolutions.sw.magik.analysis.definitions.MagikFileDefinition;
-import nl.ramsolutions.sw.magik.analysis.definitions.io.JsonDefinitionReader;
-import nl.ramsolutions.sw.magik.analysis.definitions.io.JsonDefinitionWriter;
+import nl.ramsolutions.sw.magik.analysis.definitions.io.BinaryDefinitionWriter;
+import nl.ramsolutions.sw.magik.analysis.definitions.io.TypesDatabaseReader;
+import nl.ramsolutions.sw.magik.analysis.indexer.IndexerProgressListener;
 import nl.ramsolutions.sw.magik.analysis.indexer.MagikIndexer;
 import nl.ramsolutions.sw.magik.analysis.indexer.ModuleIndexer;
 import nl.ramsolutions.sw.magik.analysis.indexer.ProductIndexer;
@@ -41,14 +42,16 @@ import org.slf4j.LoggerFactory;
  *
  * <p>Handles things like: - updating definitions on file events - loading of existing type database
  * with definitions (on start up) - dumping type database with definitions (on shut down) - re-index
- * of existing definitions, in case of timestamp differences
+ * of existing definitions, in case of timestamp differences, skipping magik files with unchanged
+ * content
  *
  * <p>One handler is to be instantiated per workspace.
  */
 public class MagikWorkspaceFolder {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MagikWorkspaceFolder.class);
-  private static final String TYPES_DB_FILENAME = "types.jsonl";
+  private static final String TYPES_DB_FILENAME = "types.db";
+  private static final String LEGACY_TYPES_DB_FILENAME = "types.jsonl";
 
   private final WorkspaceFolder workspaceFolder;
   private final IDefinitionKeeper definitionKeeper;
@@ -83,9 +86,10 @@ public class MagikWorkspaceFolder {
   /**
    * Init handler.
    *
+   * @param progressListener Listener to report indexing progress to.
    * @throws IOException If an error occurs.
    */
-  public void onInit() throws IOException {
+  public void onInit(final IndexerProgressListener progressListener) throws IOException {
     LOGGER.debug("On init: {}", this);
 
     final MagikAnalysisSettings settings = new MagikAnalysisSettings(this.languageServerProperties);
@@ -93,9 +97,10 @@ public class MagikWorkspaceFolder {
       this.readExistingTypesDatabase();
     }
 
-    this.runProductIndexer();
-    this.runModuleIndexer();
-    this.runMagikIndexer();
+    final int parallelism = settings.getTypingIndexParallelism();
+    this.runProductIndexer(parallelism);
+    this.runModuleIndexer(parallelism);
+    this.runMagikIndexer(parallelism, progressListener);
 
     LOGGER.debug("Done on init: {}", this);
   }
@@ -116,16 +121,25 @@ public class MagikWorkspaceFolder {
     LOGGER.debug("Done on shutdown: {}", this);
   }
 
-  private void readExistingTypesDatabase() throws IOException {
+  private void readExistingTypesDatabase() {
     final Path workspacePath = this.getWorkspacePath();
-    final Path typesDbPath = workspacePath.resolve(TYPES_DB_FILENAME);
+    final Path binaryTypesDbPath = workspacePath.resolve(TYPES_DB_FILENAME);
+    final Path typesDbPath =
+        Files.exists(binaryTypesDbPath)
+            ? binaryTypesDbPath
+            : workspacePath.resolve(LEGACY_TYPES_DB_FILENAME);
     if (Files.exists(typesDbPath)) {
       LOGGER.debug("Reading types database for workspace: {}, path: {}", this, typesDbPath);
-      JsonDefinitionReader.readTypes(typesDbPath, this.definitionKeeper);
+      try {
+        TypesDatabaseReader.readTypes(typesDbPath, this.definitionKeeper);
+      } catch (final IOException exception) {
+        // Indexing continues. A corrupt binary database adds nothing, all files are indexed.
+        LOGGER.warn("Unable to read types database: " + typesDbPath, exception);
+      }
     }
   }
 
-  private void runProductIndexer() throws IOException {
+  private void runProductIndexer(final int parallelism) throws IOException {
     LOGGER.debug("Running ProductIndexer for: {}", this);
 
     final ProductDefFileScanner scanner = new ProductDefFileScanner(this.ignoreHandler);
@@ -141,12 +155,11 @@ public class MagikWorkspaceFolder {
     final Collection<FileEvent> fileEvents =
         this.buildFileEventsForDifferences(indexableFiles, indexedProductDefinitions);
     LOGGER.debug("Product file event count: {}", fileEvents.size());
-    for (final FileEvent fileEvent : fileEvents) {
-      this.productIndexer.handleFileEvent(fileEvent);
-    }
+    this.productIndexer.handleFileEvents(
+        fileEvents, parallelism, IndexerProgressListener.NULL_LISTENER);
   }
 
-  private void runModuleIndexer() throws IOException {
+  private void runModuleIndexer(final int parallelism) throws IOException {
     LOGGER.debug("Running ModuleIndexer for: {}", this);
 
     final ModuleDefFileScanner scanner = new ModuleDefFileScanner(this.ignoreHandler);
@@ -159,12 +172,12 @@ public class MagikWorkspaceFolder {
     final Collection<FileEvent> fileEvents =
         this.buildFileEventsForDifferences(indexableFiles, indexedModuleDefinitions);
     LOGGER.debug("Module file event count: {}", fileEvents.size());
-    for (final FileEvent fileEvent : fileEvents) {
-      this.moduleIndexer.handleFileEvent(fileEvent);
-    }
+    this.moduleIndexer.handleFileEvents(
+        fileEvents, parallelism, IndexerProgressListener.NULL_LISTENER);
   }
 
-  private void runMagikIndexer() throws IOException {
+  private void runMagikIndexer(
+      final int parallelism, final IndexerProgressListener progressListener) throws IOException {
     LOGGER.debug("Running MagikIndexer for: {}", this);
 
     final Path workspaceFolderPath = this.getWorkspacePath();
@@ -178,22 +191,18 @@ public class MagikWorkspaceFolder {
         this.buildFileEventsForDifferences(indexableFiles, indexedMagikFileDefinitions);
 
     LOGGER.debug("Magik file event count: {}", fileEvents.size());
-    for (final FileEvent fileEvent : fileEvents) {
-      this.magikIndexer.handleFileEvent(fileEvent);
-    }
+    this.magikIndexer.handleFileEvents(fileEvents, parallelism, progressListener);
   }
 
   private void writeTypesDatabase() throws IOException {
     final Path workspacePath = this.getWorkspacePath();
     final Path typesDbPath = workspacePath.resolve(TYPES_DB_FILENAME);
-    if (Files.exists(typesDbPath)) {
-      Files.delete(typesDbPath);
-    }
+    Files.deleteIfExists(workspacePath.resolve(LEGACY_TYPES_DB_FILENAME));
 
     LOGGER.debug("Writing types database for workspace: {}, path: {}", this, typesDbPath);
     final FilterableDefinitionKeeperAdapter filteredDefinitionKeeper =
         this.getWorkspaceFilteredDefinitionKeeper();
-    JsonDefinitionWriter.write(typesDbPath, filteredDefinitionKeeper);
+    BinaryDefinitionWriter.write(typesDbPath, filteredDefinitionKeeper);
   }
 
   private FilterableDefinitionKeeperAdapter getWorkspaceFilteredDefinitionKeeper() {
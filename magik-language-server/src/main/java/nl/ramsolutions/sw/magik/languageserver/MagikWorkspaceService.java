@@ -2,6 +2,7 @@ package nl.ramsolutions.sw.magik.languageserver;
 
 import com.google.gson.JsonObject;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -10,10 +11,14 @@ import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import nl.ramsolutions.sw.ConfigurationLocator;
 import nl.ramsolutions.sw.IgnoreHandler;
 import nl.ramsolutions.sw.MagikToolsProperties;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
-import nl.ramsolutions.sw.magik.analysis.definitions.io.JsonDefinitionReader;
+import nl.ramsolutions.sw.magik.analysis.definitions.io.TypesDatabaseReader;
+import nl.ramsolutions.sw.magik.analysis.indexer.IndexerProgressListener;
 import nl.ramsolutions.sw.magik.analysis.indexer.MagikIndexer;
 import nl.ramsolutions.sw.magik.analysis.indexer.ModuleIndexer;
 import nl.ramsolutions.sw.magik.analysis.indexer.ProductIndexer;
@@ -30,6 +35,7 @@ import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.WorkDoneProgressBegin;
 import org.eclipse.lsp4j.WorkDoneProgressCreateParams;
 import org.eclipse.lsp4j.WorkDoneProgressEnd;
+import org.eclipse.lsp4j.WorkDoneProgressReport;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
@@ -137,7 +143,7 @@ public class MagikWorkspaceService implements WorkspaceService {
           }
 
           try {
-            JsonDefinitionReader.readTypes(path, this.definitionKeeper);
+            TypesDatabaseReader.readTypes(path, this.definitionKeeper);
           } catch (final IOException exception) {
             LOGGER.error(exception.getMessage(), exception);
           }
@@ -161,6 +167,11 @@ public class MagikWorkspaceService implements WorkspaceService {
                 return;
               }
 
+              // Configuration files might be added or removed, locate configurations again.
+              if (MagikWorkspaceService.isConfigurationRelated(path)) {
+                ConfigurationLocator.resetCache();
+              }
+
               final nl.ramsolutions.sw.magik.FileEvent.FileChangeType magikFileChangeType =
                   Lsp4jConversion.fileChangeTypeFromLsp4j(fileChangeType);
               final nl.ramsolutions.sw.magik.FileEvent magikFileEvent =
@@ -182,12 +193,16 @@ public class MagikWorkspaceService implements WorkspaceService {
     final String query = params.getQuery();
     LOGGER.trace("symbol, query: {}", query);
 
-    return CompletableFuture.supplyAsync(
-        () -> {
-          final List<WorkspaceSymbol> queryResults = this.symbolProvider.getSymbols(query);
-          LOGGER.debug("Symbols found for: '{}', count: {}", query, queryResults.size());
-          return Either.forRight(queryResults);
-        });
+    return this.languageServer
+        .getRequestExecutor()
+        .submit(
+            "workspace/symbol",
+            RequestExecutor.Priority.INTERACTIVE,
+            () -> {
+              final List<WorkspaceSymbol> queryResults = this.symbolProvider.getSymbols(query);
+              LOGGER.debug("Symbols found for: '{}', count: {}", query, queryResults.size());
+              return Either.forRight(queryResults);
+            });
   }
 
   // region: Additional commands.
@@ -231,7 +246,7 @@ public class MagikWorkspaceService implements WorkspaceService {
 
   // endregion
 
-  private void runIndexers() {
+  private void runIndexers(final Supplier<IndexerProgressListener> progressListenerSupplier) {
     LOGGER.trace("Run indexers");
 
     // Read types dbs.
@@ -247,7 +262,11 @@ public class MagikWorkspaceService implements WorkspaceService {
     // Update workspace folders.
     for (final MagikWorkspaceFolder workspaceFolder : this.languageServer.getWorkspaceFolders()) {
       try {
-        workspaceFolder.onInit();
+        // Each workspace folder is indexed separately, and reports progress from 0.
+        workspaceFolder.onInit(progressListenerSupplier.get());
+      } catch (final InterruptedIOException exception) {
+        LOGGER.warn("Interrupted when initializing workspacefolder: {}", workspaceFolder);
+        return;
       } catch (final IOException exception) {
         LOGGER.error(
             "Caught error when initializing workspacefolder: " + workspaceFolder, exception);
@@ -273,11 +292,12 @@ public class MagikWorkspaceService implements WorkspaceService {
 
           final WorkDoneProgressBegin begin = new WorkDoneProgressBegin();
           begin.setTitle("Indexing workspace");
+          begin.setPercentage(0);
           progressParams.setValue(Either.forLeft(begin));
           languageClient.notifyProgress(progressParams);
 
           try {
-            this.runIndexers();
+            this.runIndexers(() -> this.createProgressListener(languageClient, token));
           } catch (final Exception exception) {
             LOGGER.error(exception.getMessage(), exception);
           }
@@ -290,6 +310,41 @@ public class MagikWorkspaceService implements WorkspaceService {
         });
   }
 
+  private IndexerProgressListener createProgressListener(
+      final LanguageClient languageClient, final String token) {
+    final AtomicInteger lastPercentage = new AtomicInteger(-1);
+    return (indexedCount, totalCount) -> {
+      // Only report when the percentage increases, to prevent flooding the client.
+      final int percentage = indexedCount * 100 / totalCount;
+      final int previousPercentage =
+          lastPercentage.getAndUpdate(current -> Math.max(current, percentage));
+      if (previousPercentage >= percentage) {
+        return;
+      }
+
+      final WorkDoneProgressReport report = new WorkDoneProgressReport();
+      report.setPercentage(percentage);
+      report.setMessage(String.format("Indexed %d of %d files", indexedCount, totalCount));
+      final ProgressParams progressParams = new ProgressParams();
+      progressParams.setToken(token);
+      progressParams.setValue(Either.forLeft(report));
+      languageClient.notifyProgress(progressParams);
+    };
+  }
+
+  private static boolean isConfigurationRelated(final Path path) {
+    final Path fileName = path.getFileName();
+    if (fileName == null) {
+      return false;
+    }
+
+    final String fileNameStr = fileName.toString();
+    return fileNameStr.equals(ConfigurationLocator.MAGIK_LINT_RC_FILENAME)
+        || fileNameStr.equals(ConfigurationLocator.HIDDEN_MAGIK_LINT_RC_FILENAME)
+        || fileNameStr.equals("product.def")
+        || fileNameStr.equals("module.def");
+  }
+
   /** Handle shutdown. */
   public void shutdown() {
     for (final MagikWorkspaceFolder workspaceFolder : this.languageServer.getWorkspaceFolders()) {
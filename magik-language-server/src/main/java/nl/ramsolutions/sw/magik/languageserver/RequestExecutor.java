@@ -0,0 +1,342 @@
+package nl.ramsolutions.sw.magik.languageserver;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor for LSP requests.
+ *
+ * <p>Requests are run on a bounded pool of threads, interactive requests (e.g., hover, completion)
+ * before background requests (e.g., semantic tokens, inlay hints), then in order of arrival.
+ *
+ * <p>When the returned future is cancelled, e.g., by a {@code $/cancelRequest} from the client, a
+ * queued request is dropped and a running request is interrupted. Long running work should call
+ * {@link #checkCanceled()} regularly, the {@code LocalTypeReasoner} checks the interrupt itself.
+ *
+ * <p>Queue time and run time are kept per method.
+ */
+public class RequestExecutor {
+
+  /** Priority of a request. */
+  public enum Priority {
+    /** Request directly waited for by the user. */
+    INTERACTIVE,
+
+    /** Request done by the client in the background. */
+    BACKGROUND,
+  }
+
+  /** Metrics of a single method. */
+  public static final class MethodMetrics {
+
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong canceledCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong queueTime = new AtomicLong();
+    private final AtomicLong runTime = new AtomicLong();
+    private final AtomicLong maxRunTime = new AtomicLong();
+
+    private void record(final Outcome outcome, final long queueNanos, final long runNanos) {
+      switch (outcome) {
+        case COMPLETED -> this.completedCount.incrementAndGet();
+        case CANCELED -> this.canceledCount.incrementAndGet();
+        case FAILED -> this.failedCount.incrementAndGet();
+        default -> throw new IllegalStateException();
+      }
+      this.queueTime.addAndGet(queueNanos);
+      this.runTime.addAndGet(runNanos);
+      this.maxRunTime.accumulateAndGet(runNanos, Math::max);
+    }
+
+    /**
+     * Get the number of completed requests.
+     *
+     * @return Number of completed requests.
+     */
+    public long getCompletedCount() {
+      return this.completedCount.get();
+    }
+
+    /**
+     * Get the number of canceled requests.
+     *
+     * @return Number of canceled requests.
+     */
+    public long getCanceledCount() {
+      return this.canceledCount.get();
+    }
+
+    /**
+     * Get the number of failed requests.
+     *
+     * @return Number of failed requests.
+     */
+    public long getFailedCount() {
+      return this.failedCount.get();
+    }
+
+    /**
+     * Get the total time requests were queued, in nanoseconds.
+     *
+     * @return Total queue time.
+     */
+    public long getQueueTime() {
+      return this.queueTime.get();
+    }
+
+    /**
+     * Get the total time requests were running, in nanoseconds.
+     *
+     * @return Total run time.
+     */
+    public long getRunTime() {
+      return this.runTime.get();
+    }
+
+    /**
+     * Get the maximum time a request was running, in nanoseconds.
+     *
+     * @return Maximum run time.
+     */
+    public long getMaxRunTime() {
+      return this.maxRunTime.get();
+    }
+
+    @Override
+    public String toString() {
+      final long count =
+          this.completedCount.get() + this.canceledCount.get() + this.failedCount.get();
+      return String.format(
+          "completed: %s, canceled: %s, failed: %s, avg queue: %.3f, avg run: %.3f, max run: %.3f",
+          this.completedCount.get(),
+          this.canceledCount.get(),
+          this.failedCount.get(),
+          count != 0 ? this.queueTime.get() / count / 1000000000.0 : 0.0,
+          count != 0 ? this.runTime.get() / count / 1000000000.0 : 0.0,
+          this.maxRunTime.get() / 1000000000.0);
+    }
+  }
+
+  private enum Outcome {
+    COMPLETED,
+    CANCELED,
+    FAILED,
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RequestExecutor.class);
+  private static final Logger LOGGER_DURATION =
+      LoggerFactory.getLogger(RequestExecutor.class.getName() + "Duration");
+
+  private static final Comparator<Runnable> REQUEST_ORDER =
+      Comparator.comparing((Runnable runnable) -> ((Request<?>) runnable).priority)
+          .thenComparingLong(runnable -> ((Request<?>) runnable).sequence);
+
+  private final ThreadPoolExecutor executor;
+  private final AtomicLong sequenceCounter = new AtomicLong();
+  private final Map<String, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+  /** Constructor, using a thread per available processor, but leaving one for indexing. */
+  public RequestExecutor() {
+    this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param threadCount Number of threads to run requests on.
+   */
+  public RequestExecutor(final int threadCount) {
+    final AtomicInteger threadCounter = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            threadCount,
+            threadCount,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(11, REQUEST_ORDER),
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "magik-request-" + threadCounter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Submit a request.
+   *
+   * @param <T> Type of result.
+   * @param method Method of request, used for metrics.
+   * @param priority Priority of request.
+   * @param supplier Supplier of result.
+   * @return Future of result, cancelling it cancels the request.
+   */
+  public <T> CompletableFuture<T> submit(
+      final String method, final Priority priority, final Supplier<T> supplier) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final Request<T> request =
+        new Request<>(method, priority, this.sequenceCounter.incrementAndGet(), supplier, future);
+    future.whenComplete(
+        (result, throwable) -> {
+          if (future.isCancelled()) {
+            request.cancel();
+          }
+        });
+    this.executor.execute(request);
+    return future;
+  }
+
+  /**
+   * Throw a {@link CancellationException} if the current request is canceled.
+   *
+   * @throws CancellationException If the current request is canceled.
+   */
+  public static void checkCanceled() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException();
+    }
+  }
+
+  /**
+   * Get the metrics, per method.
+   *
+   * @return Metrics per method.
+   */
+  public Map<String, MethodMetrics> getMetrics() {
+    return Collections.unmodifiableMap(new TreeMap<>(this.metrics));
+  }
+
+  /** Shutdown the executor, abandoning all queued requests. */
+  public void shutdown() {
+    if (LOGGER.isDebugEnabled()) {
+      this.getMetrics()
+          .forEach(
+              (method, methodMetrics) ->
+                  LOGGER.debug("Request metrics: {}, {}", method, methodMetrics));
+    }
+
+    this.executor.shutdownNow();
+  }
+
+  private void record(
+      final String method, final Outcome outcome, final long queueNanos, final long runNanos) {
+    this.metrics
+        .computeIfAbsent(method, key -> new MethodMetrics())
+        .record(outcome, queueNanos, runNanos);
+
+    if (LOGGER_DURATION.isTraceEnabled()) {
+      LOGGER_DURATION.trace(
+          "Duration: {} {}, queued: {}, outcome: {}",
+          String.format("%.3f", runNanos / 1000000000.0),
+          method,
+          String.format("%.3f", queueNanos / 1000000000.0),
+          outcome);
+    }
+  }
+
+  /**
+   * A single request.
+   *
+   * <p>The thread running the request is only interrupted while running this request. Its interrupt
+   * status is cleared before the thread is returned to the pool.
+   */
+  private final class Request<T> implements Runnable {
+
+    private final String method;
+    private final Priority priority;
+    private final long sequence;
+    private final Supplier<T> supplier;
+    private final CompletableFuture<T> future;
+    private final long queued = System.nanoTime();
+    private Thread runner;
+    private boolean canceled;
+
+    Request(
+        final String method,
+        final Priority priority,
+        final long sequence,
+        final Supplier<T> supplier,
+        final CompletableFuture<T> future) {
+      this.method = method;
+      this.priority = priority;
+      this.sequence = sequence;
+      this.supplier = supplier;
+      this.future = future;
+    }
+
+    synchronized void cancel() {
+      this.canceled = true;
+      if (this.runner != null) {
+        this.runner.interrupt();
+      }
+    }
+
+    @Override
+    @SuppressWarnings("IllegalCatch")
+    public void run() {
+      final long start = System.nanoTime();
+      synchronized (this) {
+        if (this.canceled) {
+          RequestExecutor.this.record(this.method, Outcome.CANCELED, start - this.queued, 0L);
+          return;
+        }
+
+        this.runner = Thread.currentThread();
+      }
+
+      T result = null;
+      RuntimeException failure = null;
+      Outcome outcome;
+      try {
+        result = this.supplier.get();
+        outcome = this.future.isCancelled() ? Outcome.CANCELED : Outcome.COMPLETED;
+      } catch (final CancellationException exception) {
+        outcome = Outcome.CANCELED;
+      } catch (final RuntimeException exception) {
+        // Work interrupted by a cancel can fail in other ways, e.g., closed channels.
+        if (this.future.isCancelled()) {
+          outcome = Outcome.CANCELED;
+        } else {
+          LOGGER.error("Caught error when handling request: " + this.method, exception);
+          failure = exception;
+          outcome = Outcome.FAILED;
+        }
+      } finally {
+        synchronized (this) {
+          this.runner = null;
+          // Clear any interrupt by a cancel, to not hit the next request.
+          Thread.interrupted();
+        }
+      }
+
+      // Record before completing, so the metrics are there when the caller wakes up.
+      final long end = System.nanoTime();
+      RequestExecutor.this.record(this.method, outcome, start - this.queued, end - start);
+      this.complete(outcome, result, failure);
+    }
+
+    private void complete(
+        final Outcome outcome, final @Nullable T result, final @Nullable RuntimeException failure) {
+      switch (outcome) {
+        case COMPLETED -> this.future.complete(result);
+        case CANCELED -> this.future.cancel(false);
+        case FAILED -> this.future.completeExceptionally(failure);
+        default -> throw new IllegalStateException();
+      }
+    }
+  }
+}
@@ -3,17 +3,14 @@ package nl.ramsolutions.sw.magik.languageserver.callhierarchy;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.sonar.sslr.api.AstNode;
-import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import nl.ramsolutions.sw.FileCharsetDeterminer;
 import nl.ramsolutions.sw.magik.Location;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
+import nl.ramsolutions.sw.magik.MagikTypedFileCache;
 import nl.ramsolutions.sw.magik.Position;
 import nl.ramsolutions.sw.magik.Range;
 import nl.ramsolutions.sw.magik.analysis.AstQuery;
@@ -51,9 +48,22 @@ public class CallHierarchyProvider {
   private static final Logger LOGGER = LoggerFactory.getLogger(CallHierarchyProvider.class);
 
   private final IDefinitionKeeper definitionKeeper;
+  private final MagikTypedFileCache magikFileCache;
 
   public CallHierarchyProvider(final IDefinitionKeeper definitionKeeper) {
+    this(definitionKeeper, new MagikTypedFileCache(definitionKeeper));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param definitionKeeper {@link IDefinitionKeeper} to use.
+   * @param magikFileCache {@link MagikTypedFileCache} to get the files from.
+   */
+  public CallHierarchyProvider(
+      final IDefinitionKeeper definitionKeeper, final MagikTypedFileCache magikFileCache) {
     this.definitionKeeper = definitionKeeper;
+    this.magikFileCache = magikFileCache;
   }
 
   /**
@@ -110,7 +120,8 @@ public class CallHierarchyProvider {
     final String typeStringStr = object.getAsJsonPrimitive(DATA_TYPE_STRING).getAsString();
     final TypeString typeString = TypeStringParser.parseTypeString(typeStringStr);
 
-    final MethodUsageLocator methodUsageLocator = new MethodUsageLocator(this.definitionKeeper);
+    final MethodUsageLocator methodUsageLocator =
+        new MethodUsageLocator(this.definitionKeeper, this.magikFileCache);
     final MethodUsage searchedMethodUsage = new MethodUsage(typeString, methodName);
     return methodUsageLocator.getMethodUsages(searchedMethodUsage).stream()
         .map(
@@ -196,15 +207,11 @@ public class CallHierarchyProvider {
     final URI uri = URI.create(uriStr);
 
     // TODO: This can give multiple files! Should we store path in data as well?
-    final Path path = Path.of(uri); // TODO: What about memory:// URIs? These should blackhole.
-    final String text;
-    try {
-      text = Files.readString(path, FileCharsetDeterminer.determineCharset(path));
-    } catch (final IOException exception) {
-      throw new IllegalStateException(exception);
+    final MagikTypedFile magikFile = this.magikFileCache.getMagikFile(uri);
+    if (magikFile == null) {
+      return Collections.emptyList();
     }
 
-    final MagikTypedFile magikFile = new MagikTypedFile(uri, text, this.definitionKeeper);
     final String itemName = item.getName();
     final LocalTypeReasonerState reasonerState = magikFile.getTypeReasonerState();
     return magikFile.getMagikDefinitions().stream()
@@ -59,7 +59,7 @@ public class MagikChecksCodeActionProvider {
     final MagikToolsProperties actualProperties =
         MagikToolsProperties.merge(this.properties, fileProperties);
     final MagikChecksConfiguration config =
-        new MagikChecksConfiguration(CheckList.getChecks(), actualProperties);
+        MagikChecksConfiguration.of(CheckList.getChecks(), actualProperties);
     final List<MagikCheckHolder> allChecks = config.getAllChecks();
     for (final MagikCheckHolder checkHolder : allChecks) {
       if (checkHolder.getCheckClass().equals(checkClass)) {
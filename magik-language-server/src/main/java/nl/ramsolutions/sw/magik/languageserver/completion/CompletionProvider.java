@@ -30,6 +30,7 @@ import nl.ramsolutions.sw.magik.api.MagikKeyword;
 import nl.ramsolutions.sw.magik.api.MagikOperator;
 import nl.ramsolutions.sw.magik.api.MagikPunctuator;
 import nl.ramsolutions.sw.magik.languageserver.Lsp4jConversion;
+import nl.ramsolutions.sw.magik.languageserver.RequestExecutor;
 import nl.ramsolutions.sw.magik.parser.MagikCommentExtractor;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionItemKind;
@@ -224,6 +225,7 @@ public class CompletionProvider {
     }
 
     // Global types.
+    RequestExecutor.checkCanceled();
     final String identifierPart = tokenNode != null ? tokenNode.getTokenValue() : "";
     definitionKeeper.getExemplarDefinitions().stream()
         .filter(
@@ -1,7 +1,6 @@
 package nl.ramsolutions.sw.magik.languageserver.diagnostics;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import nl.ramsolutions.sw.MagikToolsProperties;
@@ -28,29 +27,35 @@ public class DiagnosticsProvider {
   }
 
   /**
-   * Provides diagnostics for a Magik file.
+   * Test if typing diagnostics are enabled.
    *
-   * @param magikFile Magik file.
-   * @return Diagnostics.
+   * @return True if enabled, false otherwise.
    */
-  public List<Diagnostic> provideDiagnostics(final MagikTypedFile magikFile) {
-    final List<Diagnostic> diagnostics = new ArrayList<>();
-
-    // Linter diagnostics.
-    final List<Diagnostic> diagnosticsLinter =
-        DiagnosticsProvider.getDiagnosticsFromLinter(magikFile);
-    diagnostics.addAll(diagnosticsLinter);
-
-    // Typing diagnostics.
+  public boolean isTypingEnabled() {
     final MagikLanguageServerSettings settings = new MagikLanguageServerSettings(this.properties);
     final Boolean typingEnableChecks = settings.getTypingEnableChecks();
-    if (Boolean.TRUE.equals(typingEnableChecks)) {
-      final List<Diagnostic> diagnosticsTyping =
-          DiagnosticsProvider.getDiagnosticsFromTyping(magikFile);
-      diagnostics.addAll(diagnosticsTyping);
-    }
+    return Boolean.TRUE.equals(typingEnableChecks);
+  }
+
+  /**
+   * Provides linter diagnostics for a Magik file. These are cheap, as they do not require type
+   * reasoning.
+   *
+   * @param magikFile Magik file.
+   * @return Diagnostics.
+   */
+  public List<Diagnostic> provideLinterDiagnostics(final MagikTypedFile magikFile) {
+    return DiagnosticsProvider.getDiagnosticsFromLinter(magikFile);
+  }
 
-    return diagnostics;
+  /**
+   * Provides typing diagnostics for a Magik file, regardless of typing checks being enabled.
+   *
+   * @param magikFile Magik file.
+   * @return Diagnostics.
+   */
+  public List<Diagnostic> provideTypingDiagnostics(final MagikTypedFile magikFile) {
+    return DiagnosticsProvider.getDiagnosticsFromTyping(magikFile);
   }
 
   private static List<Diagnostic> getDiagnosticsFromLinter(final MagikTypedFile magikFile) {
@@ -0,0 +1,301 @@
+package nl.ramsolutions.sw.magik.languageserver.diagnostics;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import nl.ramsolutions.sw.magik.MagikTypedFile;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules diagnostics for documents in the background.
+ *
+ * <p>Requests are debounced per document: a newer request for the same document cancels the pending
+ * request, and an in-flight analysis of an older version is abandoned before publishing its
+ * results. Cheap linter diagnostics are published first, typing diagnostics are published after
+ * that, if enabled.
+ *
+ * <p>Queue time and the time spent per phase are kept in the {@link Metrics}.
+ */
+public class DiagnosticsScheduler {
+
+  /** Metrics of the scheduler. */
+  public static final class Metrics {
+
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong abandonedCount = new AtomicLong();
+    private final AtomicLong queueTime = new AtomicLong();
+    private final AtomicLong linterTime = new AtomicLong();
+    private final AtomicLong typingTime = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Get the number of times diagnostics were published.
+     *
+     * @return Number of publishes.
+     */
+    public long getPublishedCount() {
+      return this.publishedCount.get();
+    }
+
+    /**
+     * Get the number of times diagnostics were abandoned, because the document changed or was
+     * closed.
+     *
+     * @return Number of abandoned diagnostics.
+     */
+    public long getAbandonedCount() {
+      return this.abandonedCount.get();
+    }
+
+    /**
+     * Get the total time diagnostics were queued, in nanoseconds.
+     *
+     * @return Total queue time.
+     */
+    public long getQueueTime() {
+      return this.queueTime.get();
+    }
+
+    /**
+     * Get the total time spent providing linter diagnostics, in nanoseconds.
+     *
+     * @return Total linter time.
+     */
+    public long getLinterTime() {
+      return this.linterTime.get();
+    }
+
+    /**
+     * Get the total time spent providing typing diagnostics, in nanoseconds.
+     *
+     * @return Total typing time.
+     */
+    public long getTypingTime() {
+      return this.typingTime.get();
+    }
+
+    /**
+     * Get the maximum time from scheduling to publishing, in nanoseconds.
+     *
+     * @return Maximum latency.
+     */
+    public long getMaxLatency() {
+      return this.maxLatency.get();
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "published: %s, abandoned: %s, queue: %.3f, linter: %.3f, typing: %.3f, max latency: %.3f",
+          this.publishedCount.get(),
+          this.abandonedCount.get(),
+          this.queueTime.get() / 1000000000.0,
+          this.linterTime.get() / 1000000000.0,
+          this.typingTime.get() / 1000000000.0,
+          this.maxLatency.get() / 1000000000.0);
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiagnosticsScheduler.class);
+  private static final Logger LOGGER_DURATION =
+      LoggerFactory.getLogger(DiagnosticsScheduler.class.getName() + "Duration");
+  private static final long DEFAULT_DEBOUNCE_DELAY = 250L;
+
+  private final DiagnosticsProvider diagnosticsProvider;
+  private final Consumer<PublishDiagnosticsParams> publisher;
+  private final long debounceDelay;
+  private final ScheduledExecutorService executor;
+  private final AtomicLong generationCounter = new AtomicLong();
+  private final Object lock = new Object();
+  private final Metrics metrics = new Metrics();
+  private final Map<URI, Long> generations = new ConcurrentHashMap<>();
+  private final Map<URI, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param diagnosticsProvider Provider of diagnostics.
+   * @param publisher Publisher of diagnostics to the client.
+   */
+  public DiagnosticsScheduler(
+      final DiagnosticsProvider diagnosticsProvider,
+      final Consumer<PublishDiagnosticsParams> publisher) {
+    this(diagnosticsProvider, publisher, DEFAULT_DEBOUNCE_DELAY);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param diagnosticsProvider Provider of diagnostics.
+   * @param publisher Publisher of diagnostics to the client.
+   * @param debounceDelay Debounce delay, in milliseconds.
+   */
+  DiagnosticsScheduler(
+      final DiagnosticsProvider diagnosticsProvider,
+      final Consumer<PublishDiagnosticsParams> publisher,
+      final long debounceDelay) {
+    this.diagnosticsProvider = diagnosticsProvider;
+    this.publisher = publisher;
+    this.debounceDelay = debounceDelay;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "magik-diagnostics");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Schedule diagnostics for a file, replacing any pending or running diagnostics for it.
+   *
+   * @param magikFile Magik file to provide diagnostics for.
+   * @param debounce Debounce the request, i.e., wait for further changes before analyzing.
+   */
+  public void schedule(final MagikTypedFile magikFile, final boolean debounce) {
+    final URI uri = magikFile.getUri();
+    final long generation = this.generationCounter.incrementAndGet();
+    synchronized (this.lock) {
+      this.generations.put(uri, generation);
+    }
+
+    final long requested = System.nanoTime();
+    final long delay = debounce ? this.debounceDelay : 0L;
+    final ScheduledFuture<?> future =
+        this.executor.schedule(
+            () -> this.run(magikFile, generation, requested), delay, TimeUnit.MILLISECONDS);
+    final ScheduledFuture<?> previous = this.pending.put(uri, future);
+    if (previous != null) {
+      previous.cancel(false);
+    }
+  }
+
+  /**
+   * Cancel any pending or running diagnostics for a file.
+   *
+   * @param uri URI of file.
+   */
+  public void cancel(final URI uri) {
+    synchronized (this.lock) {
+      this.generations.remove(uri);
+    }
+    final ScheduledFuture<?> previous = this.pending.remove(uri);
+    if (previous != null) {
+      previous.cancel(false);
+    }
+  }
+
+  /**
+   * Get the metrics.
+   *
+   * @return Metrics.
+   */
+  public Metrics getMetrics() {
+    return this.metrics;
+  }
+
+  /** Shutdown the scheduler, abandoning all pending diagnostics. */
+  public void shutdown() {
+    LOGGER.debug("Diagnostics metrics: {}", this.metrics);
+
+    synchronized (this.lock) {
+      this.generations.clear();
+    }
+    this.pending.clear();
+    this.executor.shutdownNow();
+  }
+
+  private boolean isCurrent(final URI uri, final long generation) {
+    final Long currentGeneration = this.generations.get(uri);
+    return currentGeneration != null && currentGeneration == generation;
+  }
+
+  private void run(final MagikTypedFile magikFile, final long generation, final long requested) {
+    final URI uri = magikFile.getUri();
+    try {
+      this.runPhases(magikFile, generation, requested);
+    } catch (final RuntimeException exception) {
+      LOGGER.error("Caught error when providing diagnostics for: " + uri, exception);
+    } finally {
+      this.pending.computeIfPresent(
+          uri, (key, future) -> this.isCurrent(uri, generation) ? null : future);
+    }
+  }
+
+  private void runPhases(
+      final MagikTypedFile magikFile, final long generation, final long requested) {
+    final URI uri = magikFile.getUri();
+    if (!this.isCurrent(uri, generation)) {
+      this.metrics.abandonedCount.incrementAndGet();
+      return;
+    }
+    this.logDuration("queue", uri, requested, this.metrics.queueTime);
+
+    // Phase 1: linter diagnostics.
+    final long startLinter = System.nanoTime();
+    final List<Diagnostic> diagnostics =
+        new ArrayList<>(this.diagnosticsProvider.provideLinterDiagnostics(magikFile));
+    this.logDuration("linter", uri, startLinter, this.metrics.linterTime);
+    if (!this.publish(uri, generation, requested, diagnostics)) {
+      return;
+    }
+
+    // Phase 2: typing diagnostics.
+    if (!this.diagnosticsProvider.isTypingEnabled()) {
+      return;
+    }
+
+    final long startTyping = System.nanoTime();
+    diagnostics.addAll(this.diagnosticsProvider.provideTypingDiagnostics(magikFile));
+    this.logDuration("typing", uri, startTyping, this.metrics.typingTime);
+    this.publish(uri, generation, requested, diagnostics);
+  }
+
+  private boolean publish(
+      final URI uri,
+      final long generation,
+      final long requested,
+      final List<Diagnostic> diagnostics) {
+    final PublishDiagnosticsParams params =
+        new PublishDiagnosticsParams(uri.toString(), List.copyOf(diagnostics));
+    // Check and publish under the lock, so a cancel either precedes the check or follows the
+    // publish.
+    synchronized (this.lock) {
+      if (!this.isCurrent(uri, generation)) {
+        LOGGER.debug("Abandoning diagnostics for outdated version of: {}", uri);
+        this.metrics.abandonedCount.incrementAndGet();
+        return false;
+      }
+
+      this.publisher.accept(params);
+    }
+
+    this.metrics.publishedCount.incrementAndGet();
+    this.metrics.maxLatency.accumulateAndGet(System.nanoTime() - requested, Math::max);
+    return true;
+  }
+
+  private void logDuration(
+      final String phase, final URI uri, final long start, final AtomicLong totalTime) {
+    final long duration = System.nanoTime() - start;
+    totalTime.addAndGet(duration);
+    if (LOGGER_DURATION.isTraceEnabled()) {
+      LOGGER_DURATION.trace(
+          "Duration: {} diagnostics {}, uri: {}",
+          String.format("%.3f", duration / 1000000000.0),
+          phase,
+          uri);
+    }
+  }
+}
@@ -7,6 +7,7 @@ import nl.ramsolutions.sw.magik.Location;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
 import nl.ramsolutions.sw.magik.Position;
 import nl.ramsolutions.sw.magik.analysis.AstQuery;
+import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
 import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
 import nl.ramsolutions.sw.magik.analysis.helpers.MethodDefinitionNodeHelper;
@@ -64,10 +65,13 @@ public class ImplementationProvider {
       return Collections.emptyList();
     }
 
+    // Find the implementations in all sub types.
+    final String methodName = helper.getMethodName();
     final IDefinitionKeeper definitionKeeper = magikFile.getDefinitionKeeper();
-    return definitionKeeper.getMethodDefinitions().stream()
-        .filter(methodDef -> !typeStr.equals(methodDef.getTypeName()))
-        .filter(methodDef -> resolver.isKindOf(methodDef.getTypeName(), typeStr))
+    return resolver.getAllDescendants(typeStr).stream()
+        .map(ExemplarDefinition::getTypeString)
+        .flatMap(subTypeStr -> definitionKeeper.getMethodDefinitions(subTypeStr).stream())
+        .filter(methodDef -> methodDef.getMethodName().equals(methodName))
         .map(MethodDefinition::getLocation)
         .map(Location::validLocation)
         .toList();
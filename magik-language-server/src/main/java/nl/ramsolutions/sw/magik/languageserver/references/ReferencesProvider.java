@@ -10,7 +10,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import nl.ramsolutions.sw.magik.Location;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
 import nl.ramsolutions.sw.magik.Position;
@@ -20,6 +19,7 @@ import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.GlobalUsage;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
 import nl.ramsolutions.sw.magik.analysis.definitions.MethodUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.SlotUsage;
 import nl.ramsolutions.sw.magik.analysis.helpers.MethodDefinitionNodeHelper;
 import nl.ramsolutions.sw.magik.analysis.helpers.MethodInvocationNodeHelper;
 import nl.ramsolutions.sw.magik.analysis.helpers.PackageNodeHelper;
@@ -135,7 +135,8 @@ public class ReferencesProvider {
             MagikGrammar.METHOD_NAME,
             MagikGrammar.EXEMPLAR_NAME,
             MagikGrammar.ATOM,
-            MagikGrammar.CONDITION_NAME);
+            MagikGrammar.CONDITION_NAME,
+            MagikGrammar.SLOT);
     LOGGER.trace("Wanted node: {}", wantedNode);
     final PackageNodeHelper packageHelper = new PackageNodeHelper(wantedNode);
     if (wantedNode == null) {
@@ -181,9 +182,19 @@ public class ReferencesProvider {
       final String conditionName = currentNode.getTokenValue();
       LOGGER.debug("Getting references to condition: {}", conditionName);
       return this.referencesToCondition(definitionKeeper, conditionName);
-    }
+    } else if (wantedNode.is(MagikGrammar.SLOT)) {
+      final AstNode methodDefinitionNode =
+          wantedNode.getFirstAncestor(MagikGrammar.METHOD_DEFINITION);
+      if (methodDefinitionNode == null) {
+        return Collections.emptyList();
+      }
 
-    // TODO: Slot references.
+      final MethodDefinitionNodeHelper helper =
+          new MethodDefinitionNodeHelper(methodDefinitionNode);
+      final TypeString typeString = helper.getTypeString();
+      final String slotName = currentNode.getTokenValue();
+      return this.referencesToSlot(definitionKeeper, typeString, slotName);
+    }
 
     return Collections.emptyList();
   }
@@ -207,8 +218,7 @@ public class ReferencesProvider {
     final Predicate<MethodUsage> filterPredicate = searchedMethodUsages::contains;
 
     // Find references.
-    return definitionKeeper.getMethodDefinitions().stream()
-        .flatMap(def -> def.getUsedMethods().stream())
+    return definitionKeeper.getMethodUsages(methodName).stream()
         .filter(filterPredicate::test)
         .map(MethodUsage::getLocation)
         .map(Location::validLocation)
@@ -240,12 +250,7 @@ public class ReferencesProvider {
     // Find references.
     // TODO: Also parameters, return types of methods/procedures.
     // TODO: Also slots of methods.
-    return Stream.of(
-            definitionKeeper.getMethodDefinitions().stream()
-                .flatMap(def -> def.getUsedGlobals().stream()),
-            definitionKeeper.getProcedureDefinitions().stream()
-                .flatMap(def -> def.getUsedGlobals().stream()))
-        .flatMap(stream -> stream)
+    return definitionKeeper.getGlobalUsages(exemplarTypeString).stream()
         .filter(filterPredicate::test)
         .map(GlobalUsage::getLocation)
         .map(Location::validLocation)
@@ -255,14 +260,29 @@ public class ReferencesProvider {
   private List<Location> referencesToCondition(
       final IDefinitionKeeper definitionKeeper, final String conditionName) {
     LOGGER.debug("Finding references to condition: {}", conditionName);
-    return definitionKeeper.getMethodDefinitions().stream()
-        .flatMap(def -> def.getUsedConditions().stream())
-        .filter(conditionUsage -> conditionUsage.getConditionName().equals(conditionName))
+    return definitionKeeper.getConditionUsages(conditionName).stream()
         .map(ConditionUsage::getLocation)
         .map(Location::validLocation)
         .toList();
   }
 
+  private List<Location> referencesToSlot(
+      final IDefinitionKeeper definitionKeeper, final TypeString typeName, final String slotName) {
+    LOGGER.debug("Finding references to slot: {}.{}", typeName, slotName);
+
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    final ExemplarDefinition exemplarDefinition = resolver.getExemplarDefinition(typeName);
+    if (exemplarDefinition == null) {
+      return Collections.emptyList();
+    }
+
+    final TypeString exemplarTypeString = exemplarDefinition.getTypeString();
+    return definitionKeeper.getSlotUsages(exemplarTypeString, slotName).stream()
+        .map(SlotUsage::getLocation)
+        .map(Location::validLocation)
+        .toList();
+  }
+
   private List<Location> referencesToProductName(
       final IDefinitionKeeper definitionKeeper, final String productName) {
     LOGGER.debug("Finding references to product: {}", productName);
@@ -3,7 +3,6 @@ package nl.ramsolutions.sw.magik.languageserver.semantictokens;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -79,7 +78,7 @@ public class MagikSemanticTokenWalker extends MagikAstWalker {
       Arrays.stream(MagikOperator.values()).map(MagikOperator::getValue).toList();
 
   private final MagikTypedFile magikFile;
-  private final List<SemanticToken> semanticTokens = new ArrayList<>();
+  private final SemanticTokensBuilder builder = new SemanticTokensBuilder();
   private String currentPakkage = DEFAULT_PACKAGE;
 
   /**
@@ -91,16 +90,15 @@ public class MagikSemanticTokenWalker extends MagikAstWalker {
     this.magikFile = magikFile;
   }
 
-  public List<SemanticToken> getSemanticTokens() {
-    return Collections.unmodifiableList(this.semanticTokens);
+  public SemanticTokensBuilder getSemanticTokensBuilder() {
+    return this.builder;
   }
 
   private void addSemanticToken(
       final Token token,
       final SemanticToken.Type type,
       final Set<SemanticToken.Modifier> modifiers) {
-    final SemanticToken semanticToken = new SemanticToken(token, type, modifiers);
-    this.semanticTokens.add(semanticToken);
+    this.builder.add(token, type, modifiers);
   }
 
   private void addSemanticToken(final Token token, final SemanticToken.Type type) {
@@ -3,10 +3,8 @@ package nl.ramsolutions.sw.magik.languageserver.semantictokens;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import nl.ramsolutions.sw.moduledef.analysis.ModuleDefAstWalker;
@@ -20,18 +18,17 @@ public class ModuleDefSemanticTokenWalker extends ModuleDefAstWalker {
           .map(SwModuleDefinitionKeyword::getValue)
           .collect(Collectors.toUnmodifiableSet());
 
-  private final List<SemanticToken> semanticTokens = new ArrayList<>();
+  private final SemanticTokensBuilder builder = new SemanticTokensBuilder();
 
-  public List<SemanticToken> getSemanticTokens() {
-    return Collections.unmodifiableList(this.semanticTokens);
+  public SemanticTokensBuilder getSemanticTokensBuilder() {
+    return this.builder;
   }
 
   private void addSemanticToken(
       final Token token,
       final SemanticToken.Type type,
       final Set<SemanticToken.Modifier> modifiers) {
-    final SemanticToken semanticToken = new SemanticToken(token, type, modifiers);
-    this.semanticTokens.add(semanticToken);
+    this.builder.add(token, type, modifiers);
   }
 
   private void addSemanticToken(final Token token, final SemanticToken.Type type) {
@@ -1,12 +1,9 @@
 package nl.ramsolutions.sw.magik.languageserver.semantictokens;
 
-import com.sonar.sslr.api.Token;
-import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
-/** Semantic token. */
-public class SemanticToken {
+/** Semantic token types and modifiers. */
+public final class SemanticToken {
 
   /** Semantic token type. */
   @SuppressWarnings("checkstyle:JavadocVariable")
@@ -73,49 +70,5 @@ public class SemanticToken {
     }
   }
 
-  private final Token token;
-  private final Type type;
-  private final Set<Modifier> modifiers;
-
-  /**
-   * Constructor.
-   *
-   * @param token Original token.
-   * @param type Type of SemanticToken.
-   * @param modifiers Modifiers for SemanticToken..
-   */
-  public SemanticToken(final Token token, final Type type, final Set<Modifier> modifiers) {
-    this.token = token;
-    this.type = type;
-    this.modifiers = modifiers;
-  }
-
-  private int tokenTypeValue() {
-    return this.type.getTokenType();
-  }
-
-  private int tokenModifiersValue() {
-    return this.modifiers.stream()
-        .mapToInt(Modifier::getModifierType)
-        .reduce(0, (modifier, total) -> modifier | total);
-  }
-
-  /**
-   * Get data to previous SemanticToken.
-   *
-   * @param previousSemanticToken Previous SemanticToken.
-   * @return Data relative to previous SemanticToken.
-   */
-  public Stream<Integer> dataToPrevious(final SemanticToken previousSemanticToken) {
-    // delta line, delta startChar, length, tokenType, tokenModifiers
-    final int deltaLine = this.token.getLine() - previousSemanticToken.token.getLine();
-    final int deltaStartChar =
-        this.token.getLine() == previousSemanticToken.token.getLine()
-            ? this.token.getColumn() - previousSemanticToken.token.getColumn()
-            : this.token.getColumn();
-    final int length = this.token.getOriginalValue().length();
-    final int tokenTypeValue = this.tokenTypeValue();
-    final int tokenModifiers = this.tokenModifiersValue();
-    return Stream.of(deltaLine, deltaStartChar, length, tokenTypeValue, tokenModifiers);
-  }
+  private SemanticToken() {}
 }
@@ -1,32 +1,92 @@
 package nl.ramsolutions.sw.magik.languageserver.semantictokens;
 
 import com.sonar.sslr.api.AstNode;
-import com.sonar.sslr.api.GenericTokenType;
-import com.sonar.sslr.api.Token;
-import java.io.IOException;
 import java.net.URI;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import nl.ramsolutions.sw.OpenedFile;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
 import nl.ramsolutions.sw.moduledef.ModuleDefFile;
 import nl.ramsolutions.sw.productdef.ProductDefFile;
 import org.eclipse.lsp4j.DocumentFilter;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensEdit;
 import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.eclipse.lsp4j.SemanticTokensServerFull;
 import org.eclipse.lsp4j.SemanticTokensWithRegistrationOptions;
 import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Semantic token provider. */
+/**
+ * Semantic token provider.
+ *
+ * <p>The last result for each document is kept, to reuse it when the document did not change, and
+ * to provide deltas against it.
+ */
 public class SemanticTokenProvider {
 
+  /** Last result for a document. */
+  private static final class CachedResult {
+
+    private final OpenedFile openedFile;
+    private final long keeperGeneration;
+    private final String resultId;
+    private final SemanticTokensBuilder builder;
+    private final int[] data;
+
+    CachedResult(
+        final OpenedFile openedFile,
+        final long keeperGeneration,
+        final String resultId,
+        final SemanticTokensBuilder builder,
+        final int[] data) {
+      this.openedFile = openedFile;
+      this.keeperGeneration = keeperGeneration;
+      this.resultId = resultId;
+      this.builder = builder;
+      this.data = data;
+    }
+
+    boolean isValid(final OpenedFile currentOpenedFile, final long currentKeeperGeneration) {
+      return this.openedFile == currentOpenedFile
+          && this.keeperGeneration == currentKeeperGeneration;
+    }
+  }
+
+  /**
+   * Read-only {@link List} view on an int array, boxing values only when read, e.g., when
+   * serialized.
+   */
+  private static final class IntArrayList extends AbstractList<Integer> {
+
+    private final int[] data;
+
+    IntArrayList(final int[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public Integer get(final int index) {
+      return this.data[index];
+    }
+
+    @Override
+    public int size() {
+      return this.data.length;
+    }
+  }
+
   private static final Logger LOGGER = LoggerFactory.getLogger(SemanticTokenProvider.class);
-  private static final int SIZE_PER_TOKEN = 5;
 
   private static final SemanticTokensLegend LEGEND =
       new SemanticTokensLegend(
@@ -37,6 +97,9 @@ public class SemanticTokenProvider {
               .map(SemanticToken.Modifier::getSemanticModifierName)
               .toList());
 
+  private final Map<URI, CachedResult> cachedResults = new ConcurrentHashMap<>();
+  private final AtomicLong resultIdCounter = new AtomicLong();
+
   /**
    * Set server capabilities.
    *
@@ -45,8 +108,8 @@ public class SemanticTokenProvider {
   public void setCapabilities(final ServerCapabilities capabilities) {
     final SemanticTokensWithRegistrationOptions semanticTokensProvider =
         new SemanticTokensWithRegistrationOptions(SemanticTokenProvider.LEGEND);
-    semanticTokensProvider.setFull(true);
-    semanticTokensProvider.setRange(false);
+    semanticTokensProvider.setFull(new SemanticTokensServerFull(true));
+    semanticTokensProvider.setRange(true);
     semanticTokensProvider.setDocumentSelector(
         List.of(
             new DocumentFilter("product.def", "file", null),
@@ -60,67 +123,153 @@ public class SemanticTokenProvider {
    *
    * @param magikFile Magik file.
    * @return SemanticTokens.
-   * @throws IOException -
    */
   public SemanticTokens provideSemanticTokensFull(final MagikTypedFile magikFile) {
     LOGGER.debug("Providing semantic tokens full, file: {}", magikFile);
 
-    final MagikSemanticTokenWalker walker = new MagikSemanticTokenWalker(magikFile);
-    final AstNode topNode = magikFile.getTopNode();
-    walker.walkAst(topNode);
-
-    final List<SemanticToken> walkedSemanticTokens = walker.getSemanticTokens();
-    return this.buildSemanticTokens(walkedSemanticTokens);
+    final CachedResult result = this.getResult(magikFile);
+    return new SemanticTokens(result.resultId, SemanticTokenProvider.asList(result.data));
   }
 
   public SemanticTokens provideSemanticTokensFull(final ModuleDefFile moduleDefFile) {
     LOGGER.debug("Providing semantic tokens full, file: {}", moduleDefFile);
 
-    final ModuleDefSemanticTokenWalker walker = new ModuleDefSemanticTokenWalker();
-    final AstNode topNode = moduleDefFile.getTopNode();
-    walker.walkAst(topNode);
-
-    final List<SemanticToken> walkedSemanticTokens = walker.getSemanticTokens();
-    return this.buildSemanticTokens(walkedSemanticTokens);
+    final CachedResult result = this.getResult(moduleDefFile);
+    return new SemanticTokens(result.resultId, SemanticTokenProvider.asList(result.data));
   }
 
   public SemanticTokens provideSemanticTokensFull(final ProductDefFile productDefFile) {
     LOGGER.debug("Providing semantic tokens full, file: {}", productDefFile);
 
-    final ProductDefSemanticTokenWalker walker = new ProductDefSemanticTokenWalker();
-    final AstNode topNode = productDefFile.getTopNode();
-    walker.walkAst(topNode);
+    final CachedResult result = this.getResult(productDefFile);
+    return new SemanticTokens(result.resultId, SemanticTokenProvider.asList(result.data));
+  }
+
+  /**
+   * Build SemanticTokens, as delta to the previous result if it is still known.
+   *
+   * @param openedFile Opened file.
+   * @param previousResultId Result ID of the previous result the client has.
+   * @return SemanticTokens, or delta to the previous result.
+   */
+  public Either<SemanticTokens, SemanticTokensDelta> provideSemanticTokensFullDelta(
+      final OpenedFile openedFile, final String previousResultId) {
+    LOGGER.debug(
+        "Providing semantic tokens full delta, file: {}, previous result id: {}",
+        openedFile,
+        previousResultId);
+
+    final CachedResult previousResult = this.cachedResults.get(openedFile.getUri());
+    final CachedResult result = this.getResult(openedFile);
+    if (previousResult == null || !previousResult.resultId.equals(previousResultId)) {
+      return Either.forLeft(
+          new SemanticTokens(result.resultId, SemanticTokenProvider.asList(result.data)));
+    }
+
+    final List<SemanticTokensEdit> edits =
+        SemanticTokenProvider.createEdits(previousResult.data, result.data);
+    return Either.forRight(new SemanticTokensDelta(edits, result.resultId));
+  }
+
+  /**
+   * Build SemanticTokens for the tokens in a range.
+   *
+   * @param openedFile Opened file.
+   * @param range Range to build tokens for.
+   * @return SemanticTokens.
+   */
+  public SemanticTokens provideSemanticTokensRange(final OpenedFile openedFile, final Range range) {
+    LOGGER.debug("Providing semantic tokens range, file: {}, range: {}", openedFile, range);
 
-    final List<SemanticToken> walkedSemanticTokens = walker.getSemanticTokens();
-    return this.buildSemanticTokens(walkedSemanticTokens);
+    final CachedResult result = this.getResult(openedFile);
+    final Position start = range.getStart();
+    final Position end = range.getEnd();
+    final int[] data =
+        result.builder.build(
+            start.getLine(), start.getCharacter(), end.getLine(), end.getCharacter());
+    return new SemanticTokens(SemanticTokenProvider.asList(data));
   }
 
-  private SemanticTokens buildSemanticTokens(final List<SemanticToken> walkedSemanticTokens) {
-    if (walkedSemanticTokens.isEmpty()) {
-      return new SemanticTokens(Collections.emptyList());
+  /**
+   * Forget the last result for a document, e.g., when it is closed.
+   *
+   * @param uri URI of document.
+   */
+  public void forget(final URI uri) {
+    this.cachedResults.remove(uri);
+  }
+
+  private CachedResult getResult(final OpenedFile openedFile) {
+    // Magik files depend on the definitions, e.g., to mark deprecated methods.
+    final long keeperGeneration =
+        openedFile instanceof MagikTypedFile magikFile
+            ? magikFile.getDefinitionKeeper().getGeneration()
+            : -1;
+    final URI uri = openedFile.getUri();
+    final CachedResult cachedResult = this.cachedResults.get(uri);
+    if (cachedResult != null && cachedResult.isValid(openedFile, keeperGeneration)) {
+      return cachedResult;
+    }
+
+    final SemanticTokensBuilder builder = SemanticTokenProvider.walk(openedFile);
+    final String resultId = Long.toString(this.resultIdCounter.incrementAndGet());
+    final CachedResult result =
+        new CachedResult(openedFile, keeperGeneration, resultId, builder, builder.build());
+    this.cachedResults.put(uri, result);
+    return result;
+  }
+
+  private static SemanticTokensBuilder walk(final OpenedFile openedFile) {
+    if (openedFile instanceof MagikTypedFile magikFile) {
+      final MagikSemanticTokenWalker walker = new MagikSemanticTokenWalker(magikFile);
+      final AstNode topNode = magikFile.getTopNode();
+      walker.walkAst(topNode);
+      return walker.getSemanticTokensBuilder();
+    } else if (openedFile instanceof ModuleDefFile moduleDefFile) {
+      final ModuleDefSemanticTokenWalker walker = new ModuleDefSemanticTokenWalker();
+      final AstNode topNode = moduleDefFile.getTopNode();
+      walker.walkAst(topNode);
+      return walker.getSemanticTokensBuilder();
+    } else if (openedFile instanceof ProductDefFile productDefFile) {
+      final ProductDefSemanticTokenWalker walker = new ProductDefSemanticTokenWalker();
+      final AstNode topNode = productDefFile.getTopNode();
+      walker.walkAst(topNode);
+      return walker.getSemanticTokensBuilder();
+    }
+
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Create the edits from {@code previousData} to {@code data}: a single edit replacing everything
+   * between the common prefix and the common suffix.
+   */
+  private static List<SemanticTokensEdit> createEdits(final int[] previousData, final int[] data) {
+    final int maxLength = Math.min(previousData.length, data.length);
+    int prefixLength = 0;
+    while (prefixLength < maxLength && previousData[prefixLength] == data[prefixLength]) {
+      prefixLength++;
+    }
+
+    if (prefixLength == previousData.length && prefixLength == data.length) {
+      return Collections.emptyList();
+    }
+
+    int suffixLength = 0;
+    while (suffixLength < maxLength - prefixLength
+        && previousData[previousData.length - 1 - suffixLength]
+            == data[data.length - 1 - suffixLength]) {
+      suffixLength++;
     }
 
-    final ArrayList<Integer> data =
-        new ArrayList<>((walkedSemanticTokens.size() - 1) * SIZE_PER_TOKEN);
-    final SemanticToken startSemanticToken = this.createStartSemanticToken();
-    Stream.concat(Stream.of(startSemanticToken), walkedSemanticTokens.stream())
-        .reduce( // NOSONAR: Data is stored in `data` list.
-            (s1, s2) -> {
-              s2.dataToPrevious(s1).collect(Collectors.toCollection(() -> data));
-              return s2;
-            });
-    return new SemanticTokens(data);
+    final int deleteCount = previousData.length - prefixLength - suffixLength;
+    final int[] insertData = Arrays.copyOfRange(data, prefixLength, data.length - suffixLength);
+    final SemanticTokensEdit edit =
+        new SemanticTokensEdit(prefixLength, deleteCount, SemanticTokenProvider.asList(insertData));
+    return List.of(edit);
   }
 
-  private SemanticToken createStartSemanticToken() {
-    final Token startToken =
-        Token.builder()
-            .setLine(1)
-            .setColumn(0)
-            .setValueAndOriginalValue("")
-            .setType(GenericTokenType.UNKNOWN_CHAR)
-            .setURI(URI.create("magik://dummy"))
-            .build();
-    return new SemanticToken(startToken, SemanticToken.Type.CLASS, Collections.emptySet());
+  private static List<Integer> asList(final int[] data) {
+    return new IntArrayList(data);
   }
 }
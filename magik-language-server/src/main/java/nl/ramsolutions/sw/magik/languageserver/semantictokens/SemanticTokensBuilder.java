@@ -0,0 +1,98 @@
+package nl.ramsolutions.sw.magik.languageserver.semantictokens;
+
+import com.sonar.sslr.api.Token;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Builder for semantic tokens data.
+ *
+ * <p>Tokens are stored packed in an int array, with absolute positions, instead of an object per
+ * token. The data is encoded relative to the previous token, as the LSP expects, when built.
+ */
+public class SemanticTokensBuilder {
+
+  private static final int SIZE_PER_TOKEN = 5;
+  private static final int INITIAL_CAPACITY = 64 * SIZE_PER_TOKEN;
+
+  private int[] data = new int[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Add a semantic token.
+   *
+   * @param token Token.
+   * @param type Type of semantic token.
+   * @param modifiers Modifiers of semantic token.
+   */
+  public void add(
+      final Token token,
+      final SemanticToken.Type type,
+      final Set<SemanticToken.Modifier> modifiers) {
+    int modifiersValue = 0;
+    for (final SemanticToken.Modifier modifier : modifiers) {
+      modifiersValue |= modifier.getModifierType();
+    }
+
+    if (this.size + SIZE_PER_TOKEN > this.data.length) {
+      this.data = Arrays.copyOf(this.data, this.data.length * 2);
+    }
+
+    // Lines are 0-based in LSP.
+    this.data[this.size] = token.getLine() - 1;
+    this.data[this.size + 1] = token.getColumn();
+    this.data[this.size + 2] = token.getOriginalValue().length();
+    this.data[this.size + 3] = type.getTokenType();
+    this.data[this.size + 4] = modifiersValue;
+    this.size += SIZE_PER_TOKEN;
+  }
+
+  /**
+   * Build the encoded data of all tokens.
+   *
+   * @return Encoded data.
+   */
+  public int[] build() {
+    return this.build(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Build the encoded data of the tokens starting in the given range.
+   *
+   * @param startLine Start line of range, 0-based.
+   * @param startColumn Start column of range.
+   * @param endLine End line of range, 0-based.
+   * @param endColumn End column of range, exclusive.
+   * @return Encoded data.
+   */
+  public int[] build(
+      final int startLine, final int startColumn, final int endLine, final int endColumn) {
+    final int[] encoded = new int[this.size];
+    int encodedSize = 0;
+    int previousLine = 0;
+    int previousColumn = 0;
+    for (int i = 0; i < this.size; i += SIZE_PER_TOKEN) {
+      final int line = this.data[i];
+      final int column = this.data[i + 1];
+      if (line < startLine
+          || line == startLine && column < startColumn
+          || line > endLine
+          || line == endLine && column >= endColumn) {
+        continue;
+      }
+
+      // delta line, delta startChar, length, tokenType, tokenModifiers
+      encoded[encodedSize] = line - previousLine;
+      encoded[encodedSize + 1] = line == previousLine ? column - previousColumn : column;
+      encoded[encodedSize + 2] = this.data[i + 2];
+      encoded[encodedSize + 3] = this.data[i + 3];
+      encoded[encodedSize + 4] = this.data[i + 4];
+      encodedSize += SIZE_PER_TOKEN;
+
+      previousLine = line;
+      previousColumn = column;
+    }
+
+    return encodedSize == encoded.length ? encoded : Arrays.copyOf(encoded, encodedSize);
+  }
+}
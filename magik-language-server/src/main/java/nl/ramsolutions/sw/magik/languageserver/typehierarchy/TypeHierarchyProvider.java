@@ -127,8 +127,7 @@ public class TypeHierarchyProvider {
     // Find children.
     final TypeString searchedTypeString = definition.getTypeString();
     final Comparator<TypeHierarchyItem> byName = Comparator.comparing(TypeHierarchyItem::getName);
-    return this.definitionKeeper.getExemplarDefinitions().stream()
-        .filter(def -> resolver.getParents(def.getTypeString()).contains(searchedTypeString))
+    return resolver.getChildren(searchedTypeString).stream()
         .map(this::toTypeHierarchyItem)
         .sorted(byName)
         .toList();
@@ -0,0 +1,51 @@
+package nl.ramsolutions.sw.magik.languageserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link Lsp4jUtils}. */
+class Lsp4jUtilsTest {
+
+  @Test
+  void testApplyContentChangesRanged() {
+    final String text = "_block\r\n\twrite(1)\n_endblock\n";
+    final List<TextDocumentContentChangeEvent> changes =
+        List.of(
+            new TextDocumentContentChangeEvent(
+                new Range(new Position(1, 7), new Position(1, 8)), "2, 3"),
+            new TextDocumentContentChangeEvent(
+                new Range(new Position(2, 0), new Position(2, 0)), "\twrite(4)\n"));
+
+    final String newText = Lsp4jUtils.applyContentChanges(text, changes);
+
+    assertThat(newText).isEqualTo("_block\r\n\twrite(2, 3)\n\twrite(4)\n_endblock\n");
+  }
+
+  @Test
+  void testApplyContentChangesFull() {
+    final List<TextDocumentContentChangeEvent> changes =
+        List.of(new TextDocumentContentChangeEvent("_endblock"));
+
+    final String newText = Lsp4jUtils.applyContentChanges("_block", changes);
+
+    assertThat(newText).isEqualTo("_endblock");
+  }
+
+  @Test
+  void testApplyContentChangesPastEnd() {
+    final String text = "a\nb";
+    final List<TextDocumentContentChangeEvent> changes =
+        List.of(
+            new TextDocumentContentChangeEvent(
+                new Range(new Position(1, 5), new Position(3, 0)), "c"));
+
+    final String newText = Lsp4jUtils.applyContentChanges(text, changes);
+
+    assertThat(newText).isEqualTo("a\nbc");
+  }
+}
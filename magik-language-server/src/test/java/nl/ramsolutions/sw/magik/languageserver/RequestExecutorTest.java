@@ -0,0 +1,129 @@
+package nl.ramsolutions.sw.magik.languageserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import nl.ramsolutions.sw.magik.languageserver.RequestExecutor.Priority;
+import org.eclipse.lsp4j.jsonrpc.Endpoint;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link RequestExecutor}. */
+class RequestExecutorTest {
+
+  private static final long TIMEOUT = 10L;
+
+  @Test
+  void testInteractiveBeforeBackground() throws Exception {
+    final RequestExecutor executor = new RequestExecutor(1);
+    final CountDownLatch blocker = new CountDownLatch(1);
+    final List<String> order = new CopyOnWriteArrayList<>();
+    executor.submit(
+        "block",
+        Priority.INTERACTIVE,
+        () -> {
+          try {
+            blocker.await(TIMEOUT, TimeUnit.SECONDS);
+          } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+          }
+          return null;
+        });
+    executor.submit("background", Priority.BACKGROUND, () -> order.add("background"));
+    final CompletableFuture<Boolean> future =
+        executor.submit("interactive", Priority.INTERACTIVE, () -> order.add("interactive"));
+
+    blocker.countDown();
+    future.get(TIMEOUT, TimeUnit.SECONDS);
+    executor.submit("last", Priority.BACKGROUND, () -> true).get(TIMEOUT, TimeUnit.SECONDS);
+    executor.shutdown();
+    assertThat(order).containsExactly("interactive", "background");
+  }
+
+  @Test
+  void testCancelRunning() throws Exception {
+    final RequestExecutor executor = new RequestExecutor(1);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CompletableFuture<Boolean> future =
+        executor.submit(
+            "loop",
+            Priority.INTERACTIVE,
+            () -> {
+              started.countDown();
+              while (true) {
+                RequestExecutor.checkCanceled();
+              }
+            });
+
+    assertThat(started.await(TIMEOUT, TimeUnit.SECONDS)).isTrue();
+    future.cancel(true);
+
+    // The thread is usable again, without a pending interrupt.
+    final Boolean interrupted =
+        executor
+            .submit("next", Priority.INTERACTIVE, () -> Thread.currentThread().isInterrupted())
+            .get(TIMEOUT, TimeUnit.SECONDS);
+    executor.shutdown();
+    assertThat(interrupted).isFalse();
+    assertThat(executor.getMetrics().get("loop").getCanceledCount()).isEqualTo(1);
+    assertThat(executor.getMetrics().get("next").getCompletedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testCancelQueuedByCancelRequest() throws Exception {
+    final RequestExecutor executor = new RequestExecutor(1);
+    final CountDownLatch blocker = new CountDownLatch(1);
+    executor.submit(
+        "block",
+        Priority.INTERACTIVE,
+        () -> {
+          try {
+            blocker.await(TIMEOUT, TimeUnit.SECONDS);
+          } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+          }
+          return null;
+        });
+
+    final AtomicBoolean providerRan = new AtomicBoolean();
+    final Endpoint localEndpoint =
+        new Endpoint() {
+          @Override
+          public CompletableFuture<?> request(final String method, final Object parameter) {
+            return executor.submit(method, Priority.INTERACTIVE, () -> providerRan.getAndSet(true));
+          }
+
+          @Override
+          public void notify(final String method, final Object parameter) {
+            // Not used.
+          }
+        };
+    final RemoteEndpoint remoteEndpoint = new RemoteEndpoint(message -> {}, localEndpoint);
+
+    final RequestMessage request = new RequestMessage();
+    request.setId("1");
+    request.setMethod("textDocument/hover");
+    remoteEndpoint.consume(request);
+
+    final CancelParams cancelParams = new CancelParams();
+    cancelParams.setId("1");
+    final NotificationMessage cancelRequest = new NotificationMessage();
+    cancelRequest.setMethod("$/cancelRequest");
+    cancelRequest.setParams(cancelParams);
+    remoteEndpoint.consume(cancelRequest);
+
+    blocker.countDown();
+    executor.submit("next", Priority.INTERACTIVE, () -> true).get(TIMEOUT, TimeUnit.SECONDS);
+    executor.shutdown();
+    assertThat(providerRan).isFalse();
+    assertThat(executor.getMetrics().get("textDocument/hover").getCanceledCount()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,121 @@
+package nl.ramsolutions.sw.magik.languageserver.diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import nl.ramsolutions.sw.MagikToolsProperties;
+import nl.ramsolutions.sw.magik.MagikTypedFile;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link DiagnosticsScheduler}. */
+class DiagnosticsSchedulerTest {
+
+  private static final long DEBOUNCE_DELAY = 50L;
+  private static final long TIMEOUT = 10L;
+
+  private static MagikTypedFile createFile(final String uri, final String code) {
+    return new MagikTypedFile(URI.create(uri), code, new DefinitionKeeper());
+  }
+
+  @Test
+  void testDebounce() throws InterruptedException {
+    final List<PublishDiagnosticsParams> published = new CopyOnWriteArrayList<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final DiagnosticsProvider provider =
+        new DiagnosticsProvider(MagikToolsProperties.DEFAULT_PROPERTIES);
+    final DiagnosticsScheduler scheduler =
+        new DiagnosticsScheduler(
+            provider,
+            params -> {
+              published.add(params);
+              latch.countDown();
+            },
+            DEBOUNCE_DELAY);
+
+    scheduler.schedule(createFile("file:///source.magik", "_block\n_endblock\n"), true);
+    scheduler.schedule(createFile("file:///source.magik", "_block\n_endbl"), true);
+
+    assertThat(latch.await(TIMEOUT, TimeUnit.SECONDS)).isTrue();
+    scheduler.shutdown();
+    assertThat(published).hasSize(1);
+    final PublishDiagnosticsParams params = published.get(0);
+    assertThat(params.getUri()).isEqualTo("file:///source.magik");
+    assertThat(params.getDiagnostics())
+        .anyMatch(diagnostic -> diagnostic.getSource().equals("mlint (syntax-error)"));
+
+    final DiagnosticsScheduler.Metrics metrics = scheduler.getMetrics();
+    assertThat(metrics.getPublishedCount()).isEqualTo(1);
+    assertThat(metrics.getLinterTime()).isPositive();
+    assertThat(metrics.getMaxLatency()).isGreaterThanOrEqualTo(metrics.getLinterTime());
+  }
+
+  @Test
+  void testCancel() throws InterruptedException {
+    final List<PublishDiagnosticsParams> published = new CopyOnWriteArrayList<>();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final DiagnosticsProvider provider =
+        new DiagnosticsProvider(MagikToolsProperties.DEFAULT_PROPERTIES);
+    final DiagnosticsScheduler scheduler =
+        new DiagnosticsScheduler(
+            provider,
+            params -> {
+              published.add(params);
+              latch.countDown();
+            },
+            DEBOUNCE_DELAY);
+
+    scheduler.schedule(createFile("file:///closed.magik", "_block\n_endblock\n"), true);
+    scheduler.cancel(URI.create("file:///closed.magik"));
+    scheduler.schedule(createFile("file:///opened.magik", "_block\n_endblock\n"), true);
+
+    assertThat(latch.await(TIMEOUT, TimeUnit.SECONDS)).isTrue();
+    scheduler.shutdown();
+    assertThat(published)
+        .map(PublishDiagnosticsParams::getUri)
+        .containsExactly("file:///opened.magik");
+  }
+
+  @Test
+  void testCancelWhileRunning() throws InterruptedException {
+    final List<PublishDiagnosticsParams> published = new CopyOnWriteArrayList<>();
+    final CountDownLatch running = new CountDownLatch(1);
+    final CountDownLatch canceled = new CountDownLatch(1);
+    final DiagnosticsProvider provider =
+        new DiagnosticsProvider(MagikToolsProperties.DEFAULT_PROPERTIES) {
+          @Override
+          public List<Diagnostic> provideLinterDiagnostics(final MagikTypedFile magikFile) {
+            final List<Diagnostic> diagnostics = super.provideLinterDiagnostics(magikFile);
+            running.countDown();
+            try {
+              canceled.await(TIMEOUT, TimeUnit.SECONDS);
+            } catch (final InterruptedException exception) {
+              Thread.currentThread().interrupt();
+            }
+            return diagnostics;
+          }
+        };
+    final DiagnosticsScheduler scheduler =
+        new DiagnosticsScheduler(provider, published::add, DEBOUNCE_DELAY);
+
+    scheduler.schedule(createFile("file:///closed.magik", "_block\n_endblock\n"), false);
+    assertThat(running.await(TIMEOUT, TimeUnit.SECONDS)).isTrue();
+    scheduler.cancel(URI.create("file:///closed.magik"));
+    canceled.countDown();
+
+    final DiagnosticsScheduler.Metrics metrics = scheduler.getMetrics();
+    for (int i = 0; i < 100 && metrics.getAbandonedCount() == 0; ++i) {
+      Thread.sleep(10);
+    }
+    scheduler.shutdown();
+    assertThat(metrics.getAbandonedCount()).isEqualTo(1);
+    assertThat(metrics.getPublishedCount()).isZero();
+    assertThat(published).isEmpty();
+  }
+}
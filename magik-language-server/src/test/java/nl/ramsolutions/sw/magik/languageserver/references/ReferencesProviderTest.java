@@ -14,6 +14,7 @@ import nl.ramsolutions.sw.magik.analysis.definitions.GlobalUsage;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
 import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.MethodUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.SlotUsage;
 import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
 import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
 import org.junit.jupiter.api.Test;
@@ -167,4 +168,38 @@ class ReferencesProviderTest {
     final List<Location> references = this.getReferences(code, position, definitionKeeper);
     assertThat(references).hasSize(1);
   }
+
+  @Test
+  void testProvideSlotReferenceFromSlot() {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    definitionKeeper.add(
+        new MethodDefinition(
+            EMPTY_LOCATION,
+            null,
+            null,
+            null,
+            null,
+            TypeString.SW_INTEGER,
+            "refering",
+            Collections.emptySet(),
+            Collections.emptyList(),
+            null,
+            Collections.emptySet(),
+            ExpressionResultString.UNDEFINED,
+            ExpressionResultString.EMPTY,
+            Collections.emptySet(),
+            Collections.emptySet(),
+            Set.of(new SlotUsage("slot1", EMPTY_LOCATION, null)),
+            Collections.emptySet()));
+
+    final String code =
+        """
+        _method integer.refering
+            _return .slot1
+        _endmethod
+        """;
+    final Position position = new Position(2, 14); // On `slot1`.
+    final List<Location> references = this.getReferences(code, position, definitionKeeper);
+    assertThat(references).hasSize(1);
+  }
 }
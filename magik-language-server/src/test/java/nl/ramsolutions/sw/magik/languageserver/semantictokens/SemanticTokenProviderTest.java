@@ -6,7 +6,12 @@ import java.net.URI;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
 import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensEdit;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.junit.jupiter.api.Test;
 
 /** Test SemanticTokenProvider. */
@@ -398,4 +403,55 @@ class SemanticTokenProviderTest {
             SemanticToken.Type.KEYWORD.getTokenType(),
             0);
   }
+
+  @Test
+  void testFullDelta() {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final SemanticTokenProvider provider = new SemanticTokenProvider();
+    final MagikTypedFile magikFile0 = new MagikTypedFile(DEFAULT_URI, "100", definitionKeeper);
+    final SemanticTokens semanticTokens0 = provider.provideSemanticTokensFull(magikFile0);
+
+    final MagikTypedFile magikFile1 =
+        new MagikTypedFile(DEFAULT_URI, "100\n\"string\"", definitionKeeper);
+    final Either<SemanticTokens, SemanticTokensDelta> result =
+        provider.provideSemanticTokensFullDelta(magikFile1, semanticTokens0.getResultId());
+    assertThat(result.isRight()).isTrue();
+
+    final SemanticTokensDelta delta = result.getRight();
+    assertThat(delta.getResultId()).isNotEqualTo(semanticTokens0.getResultId());
+    assertThat(delta.getEdits()).hasSize(1);
+    final SemanticTokensEdit edit = delta.getEdits().get(0);
+    assertThat(edit.getStart()).isEqualTo(5);
+    assertThat(edit.getDeleteCount()).isZero();
+    assertThat(edit.getData())
+        .containsExactly(1, 0, "\"string\"".length(), SemanticToken.Type.STRING.getTokenType(), 0);
+  }
+
+  @Test
+  void testFullDeltaUnknownPreviousResult() {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final SemanticTokenProvider provider = new SemanticTokenProvider();
+    final MagikTypedFile magikFile = new MagikTypedFile(DEFAULT_URI, "100", definitionKeeper);
+    final Either<SemanticTokens, SemanticTokensDelta> result =
+        provider.provideSemanticTokensFullDelta(magikFile, "unknown");
+    assertThat(result.isLeft()).isTrue();
+    assertThat(result.getLeft().getData())
+        .containsExactly(0, 0, "100".length(), SemanticToken.Type.NUMBER.getTokenType(), 0);
+  }
+
+  @Test
+  void testRange() {
+    final String code =
+        """
+        100
+        "string"
+        200""";
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final MagikTypedFile magikFile = new MagikTypedFile(DEFAULT_URI, code, definitionKeeper);
+    final SemanticTokenProvider provider = new SemanticTokenProvider();
+    final Range range = new Range(new Position(1, 0), new Position(2, 0));
+    final SemanticTokens semanticTokens = provider.provideSemanticTokensRange(magikFile, range);
+    assertThat(semanticTokens.getData())
+        .containsExactly(1, 0, "\"string\"".length(), SemanticToken.Type.STRING.getTokenType(), 0);
+  }
 }
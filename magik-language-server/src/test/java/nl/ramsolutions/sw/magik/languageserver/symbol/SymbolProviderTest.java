@@ -0,0 +1,103 @@
+package nl.ramsolutions.sw.magik.languageserver.symbol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test SymbolProvider.
+ *
+ * <p>Queries are plain text, not regular expressions. Queries shorter than three characters only
+ * match at the start of a word. At most 250 symbols are returned.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+class SymbolProviderTest {
+
+  private static final URI DEFAULT_URI = URI.create("memory://source.magik");
+  private static final Location EMPTY_LOCATION =
+      new Location(DEFAULT_URI, new Range(new Position(0, 0), new Position(0, 0)));
+  private static final TypeString ROPE_REF = TypeString.ofIdentifier("rope", "user");
+
+  private static MethodDefinition createMethodDefinition(final String methodName) {
+    return new MethodDefinition(
+        EMPTY_LOCATION,
+        null,
+        null,
+        null,
+        null,
+        ROPE_REF,
+        methodName,
+        Collections.emptySet(),
+        Collections.emptyList(),
+        null,
+        Collections.emptySet(),
+        ExpressionResultString.UNDEFINED,
+        ExpressionResultString.EMPTY);
+  }
+
+  private static IDefinitionKeeper createDefinitionKeeper() {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(
+        new ExemplarDefinition(
+            EMPTY_LOCATION,
+            null,
+            null,
+            null,
+            null,
+            ExemplarDefinition.Sort.SLOTTED,
+            ROPE_REF,
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptySet()));
+    definitionKeeper.add(SymbolProviderTest.createMethodDefinition("size"));
+    return definitionKeeper;
+  }
+
+  @Test
+  void testGetSymbols() {
+    final SymbolProvider provider = new SymbolProvider(SymbolProviderTest.createDefinitionKeeper());
+
+    final List<WorkspaceSymbol> symbols = provider.getSymbols("rope");
+    assertThat(symbols).map(WorkspaceSymbol::getName).containsExactly("Exemplar: user:rope");
+    assertThat(provider.getSymbols("rope.size"))
+        .map(WorkspaceSymbol::getName)
+        .containsExactly("Method: user:rope.size");
+  }
+
+  @Test
+  void testGetSymbolsPlainText() {
+    final SymbolProvider provider = new SymbolProvider(SymbolProviderTest.createDefinitionKeeper());
+
+    assertThat(provider.getSymbols("r.*e")).isEmpty();
+    assertThat(provider.getSymbols("si[")).isEmpty();
+    assertThat(provider.getSymbols("iz")).isEmpty();
+    assertThat(provider.getSymbols("siz")).hasSize(1);
+  }
+
+  @Test
+  void testGetSymbolsLimit() {
+    final IDefinitionKeeper definitionKeeper = SymbolProviderTest.createDefinitionKeeper();
+    IntStream.range(0, 300)
+        .mapToObj(i -> SymbolProviderTest.createMethodDefinition("size_" + i))
+        .forEach(definitionKeeper::add);
+    final SymbolProvider provider = new SymbolProvider(definitionKeeper);
+
+    final List<WorkspaceSymbol> symbols = provider.getSymbols("size");
+    assertThat(symbols).hasSize(250);
+    assertThat(symbols.get(0).getName()).isEqualTo("Method: user:rope.size");
+  }
+}
@@ -3,8 +3,6 @@ package nl.ramsolutions.sw.magik.lint;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -123,7 +121,7 @@ public class MagikFixer {
   private List<Class<? extends MagikCheck>> getEnabledChecks(final MagikFile magikFile) {
     final MagikToolsProperties fileProperties = magikFile.getProperties();
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), fileProperties);
+        MagikChecksConfiguration.of(CheckList.getChecks(), fileProperties);
     return checksConfig.getAllChecks().stream()
         .filter(MagikCheckHolder::isEnabled)
         .map(MagikCheckHolder::getCheckClass)
@@ -133,14 +131,10 @@ public class MagikFixer {
   private boolean isFileIgnored(final MagikFile magikFile) {
     final MagikToolsProperties fileProperties = magikFile.getProperties();
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), fileProperties);
+        MagikChecksConfiguration.of(CheckList.getChecks(), fileProperties);
     final URI uri = magikFile.getUri();
     final Path path = Path.of(uri);
-    final FileSystem fs = FileSystems.getDefault();
-    final boolean isIgnored =
-        checksConfig.getIgnores().stream()
-            .map(fs::getPathMatcher)
-            .anyMatch(matcher -> matcher.matches(path));
+    final boolean isIgnored = checksConfig.isIgnored(path);
     if (isIgnored) {
       LOGGER.trace("Thread: {}, ignoring file: {}", Thread.currentThread().getName(), path);
     }
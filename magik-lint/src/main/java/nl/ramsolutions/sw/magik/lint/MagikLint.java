@@ -4,13 +4,21 @@ import java.io.IOException;
 import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ObjLongConsumer;
 import nl.ramsolutions.sw.ConfigurationReader;
 import nl.ramsolutions.sw.FileCharsetDeterminer;
 import nl.ramsolutions.sw.MagikToolsProperties;
@@ -21,6 +29,7 @@ import nl.ramsolutions.sw.magik.checks.MagikCheck;
 import nl.ramsolutions.sw.magik.checks.MagikCheckHolder;
 import nl.ramsolutions.sw.magik.checks.MagikCheckMetadata;
 import nl.ramsolutions.sw.magik.checks.MagikChecksConfiguration;
+import nl.ramsolutions.sw.magik.checks.MagikChecksProfiler;
 import nl.ramsolutions.sw.magik.checks.MagikIssue;
 import nl.ramsolutions.sw.magik.checks.MagikIssueDisabledChecker;
 import nl.ramsolutions.sw.magik.lint.output.Reporter;
@@ -36,9 +45,11 @@ public class MagikLint {
   public static final String KEY_OVERRIDE_CONFIG = "magik.lint.overrideConfigFile";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MagikLint.class);
+  private static final int WINDOW_SIZE_PER_THREAD = 4;
 
   private final MagikToolsProperties properties;
   private final Reporter reporter;
+  private final MagikChecksProfiler profiler;
 
   /**
    * Constructor, parses command line and reads configuration.
@@ -47,8 +58,23 @@ public class MagikLint {
    * @param reporter Reporter.
    */
   public MagikLint(final MagikToolsProperties properties, final Reporter reporter) {
+    this(properties, reporter, MagikChecksProfiler.NULL_PROFILER);
+  }
+
+  /**
+   * Constructor, parses command line and reads configuration.
+   *
+   * @param properties Properites.
+   * @param reporter Reporter.
+   * @param profiler Profiler to record checking of files.
+   */
+  public MagikLint(
+      final MagikToolsProperties properties,
+      final Reporter reporter,
+      final MagikChecksProfiler profiler) {
     this.properties = properties;
     this.reporter = reporter;
+    this.profiler = profiler;
   }
 
   /**
@@ -71,20 +97,6 @@ public class MagikLint {
     }
   }
 
-  /**
-   * Run a single check on context.
-   *
-   * @param magikFile File to run check on.
-   * @param holder MagikCheckHolder Check to run.
-   * @return Issues/infractions found.
-   * @throws ReflectiveOperationException -
-   */
-  private List<MagikIssue> runCheckOnFile(final MagikFile magikFile, final MagikCheckHolder holder)
-      throws ReflectiveOperationException {
-    final MagikCheck check = holder.createCheck();
-    return check.scanFileForIssues(magikFile);
-  }
-
   /**
    * Show checks active and inactive checks.
    *
@@ -101,7 +113,7 @@ public class MagikLint {
             ? new MagikToolsProperties(overrideConfigPath)
             : MagikToolsProperties.DEFAULT_PROPERTIES;
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), checksProperties);
+        MagikChecksConfiguration.of(CheckList.getChecks(), checksProperties);
     final Iterable<MagikCheckHolder> holders = checksConfig.getAllChecks();
     for (final MagikCheckHolder holder : holders) {
       final MagikCheckMetadata metadata = holder.getMetadata();
@@ -152,36 +164,97 @@ public class MagikLint {
   /**
    * Run the linter on {@code paths}.
    *
+   * <p>Files are checked in parallel, but issues are reported per file, in path order, as soon as a
+   * file and all its predecessors are checked. At most a bounded window of files is checked ahead
+   * of reporting, and remaining work is cancelled once {@code max-infractions} issues are reported.
+   *
    * @throws IOException -
    * @throws ReflectiveOperationException -
    */
   public void run(final Collection<Path> paths) throws IOException, ReflectiveOperationException {
     final long maxInfractions =
         this.properties.getPropertyLong(MagikLint.KEY_MAX_INFRACTIONS, Long.MAX_VALUE);
+    final Iterator<Path> pathIterator =
+        paths.stream().sorted(Comparator.comparing(Path::toUri)).iterator();
+    final int threadCount = Runtime.getRuntime().availableProcessors();
+    final int windowSize = threadCount * WINDOW_SIZE_PER_THREAD;
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    final Deque<Future<List<MagikIssue>>> window = new ArrayDeque<>();
+    long reported = 0;
+    try {
+      while (reported < maxInfractions) {
+        while (window.size() < windowSize && pathIterator.hasNext()) {
+          final Path path = pathIterator.next();
+          window.add(executor.submit(() -> this.checkFile(path)));
+        }
+
+        final Future<List<MagikIssue>> future = window.poll();
+        if (future == null) {
+          break;
+        }
+
+        final List<MagikIssue> issues = MagikLint.awaitIssues(future);
+        reported += this.reportIssues(issues, maxInfractions - reported);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long reportIssues(final List<MagikIssue> issues, final long maxIssues) {
+    final List<MagikIssue> reportedIssues =
+        issues.size() > maxIssues ? issues.subList(0, (int) maxIssues) : issues;
+    reportedIssues.forEach(this.reporter::reportIssue);
+    return reportedIssues.size();
+  }
+
+  private static List<MagikIssue> awaitIssues(final Future<List<MagikIssue>> future) {
+    try {
+      return future.get();
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(exception);
+    } catch (final ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Check a single file.
+   *
+   * @param path Path to file.
+   * @return Issues for the file, sorted by location.
+   */
+  private List<MagikIssue> checkFile(final Path path) {
+    final MagikChecksProfiler.FileRecorder recorder = this.profiler.startFile(path.toUri());
+    final MagikFile magikFile =
+        recorder.measure(MagikChecksProfiler.Phase.READ, () -> this.buildMagikFile(path));
+    if (this.isFileIgnored(magikFile)) {
+      recorder.finish();
+      return Collections.emptyList();
+    }
+
+    final List<MagikIssue> issues = this.runChecksOnFile(magikFile, recorder);
+    recorder.finish();
+
     final Location.LocationRangeComparator locationCompare = new Location.LocationRangeComparator();
-    paths.stream()
-        .parallel()
-        .map(this::buildMagikFile)
-        .filter(magikFile -> !this.isFileIgnored(magikFile))
-        .map(this::runChecksOnFile)
-        .flatMap(List::stream)
+    return issues.stream()
         .sorted((issue0, issue1) -> locationCompare.compare(issue0.location(), issue1.location()))
-        .sequential()
-        .limit(maxInfractions)
-        .forEach(this.reporter::reportIssue);
+        .toList();
   }
 
   private boolean isFileIgnored(final MagikFile magikFile) {
     final MagikToolsProperties fileProperties = magikFile.getProperties();
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), fileProperties);
+        MagikChecksConfiguration.of(CheckList.getChecks(), fileProperties);
     final URI uri = magikFile.getUri();
     final Path path = Path.of(uri);
-    final FileSystem fs = FileSystems.getDefault();
-    final boolean isIgnored =
-        checksConfig.getIgnores().stream()
-            .map(fs::getPathMatcher)
-            .anyMatch(matcher -> matcher.matches(path));
+    final boolean isIgnored = checksConfig.isIgnored(path);
     if (isIgnored) {
       LOGGER.trace("Thread: {}, ignoring file: {}", Thread.currentThread().getName(), path);
     }
@@ -192,36 +265,57 @@ public class MagikLint {
    * Run {@link MagikCheckHolder}s on {@link MagikFile}.
    *
    * @param magikFile File to run on.
-   * @param holders {@link MagikCheckHolder}s to run.
+   * @param recorder Recorder for profiling.
    * @return List of {@link MagikIssue}s for the given file.
    */
-  private List<MagikIssue> runChecksOnFile(final MagikFile magikFile) {
+  private List<MagikIssue> runChecksOnFile(
+      final MagikFile magikFile, final MagikChecksProfiler.FileRecorder recorder) {
     LOGGER.trace("Thread: {}, checking file: {}", Thread.currentThread().getName(), magikFile);
 
-    final List<MagikIssue> magikIssues = new ArrayList<>();
+    // Parse and build scopes up front, to measure these separately from the checks.
+    recorder.measure(MagikChecksProfiler.Phase.PARSE, () -> magikFile.getTopNode());
+    recorder.measure(MagikChecksProfiler.Phase.SCOPE, () -> magikFile.getGlobalScope());
 
-    // Run checks on files.
+    // Run checks on file, walking the tree only once.
     final MagikToolsProperties fileProperties = magikFile.getProperties();
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), fileProperties);
-    final Iterable<MagikCheckHolder> holders = checksConfig.getAllChecks();
+        MagikChecksConfiguration.of(CheckList.getChecks(), fileProperties);
+    final List<MagikCheck> checks = this.createChecks(checksConfig.getAllChecks());
+    final ObjLongConsumer<MagikCheck> checkTimeConsumer =
+        this.profiler.isEnabled() ? recorder::recordCheck : null;
+    final List<MagikIssue> issues =
+        recorder.measure(
+            MagikChecksProfiler.Phase.CHECKS,
+            () -> MagikCheck.scanFileForIssues(magikFile, checks, checkTimeConsumer));
+    return recorder.measure(
+        MagikChecksProfiler.Phase.SUPPRESSION,
+        () ->
+            issues.stream()
+                .filter(
+                    magikIssue -> !MagikIssueDisabledChecker.issueDisabled(magikFile, magikIssue))
+                .toList());
+  }
+
+  /**
+   * Create the enabled checks from {@link MagikCheckHolder}s.
+   *
+   * @param holders {@link MagikCheckHolder}s to create checks from.
+   * @return Created checks.
+   */
+  private List<MagikCheck> createChecks(final Iterable<MagikCheckHolder> holders) {
+    final List<MagikCheck> checks = new ArrayList<>();
     for (final MagikCheckHolder holder : holders) {
       if (!holder.isEnabled()) {
         continue;
       }
 
       try {
-        final List<MagikIssue> issues =
-            this.runCheckOnFile(magikFile, holder).stream()
-                .filter(
-                    magikIssue -> !MagikIssueDisabledChecker.issueDisabled(magikFile, magikIssue))
-                .toList();
-        magikIssues.addAll(issues);
+        checks.add(holder.createCheck());
       } catch (final ReflectiveOperationException exception) {
         LOGGER.error(exception.getMessage(), exception);
       }
     }
 
-    return magikIssues;
+    return checks;
   }
 }
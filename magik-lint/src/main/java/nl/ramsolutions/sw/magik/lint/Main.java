@@ -17,6 +17,7 @@ import nl.ramsolutions.sw.ConfigurationLocator;
 import nl.ramsolutions.sw.IgnoreHandler;
 import nl.ramsolutions.sw.MagikToolsProperties;
 import nl.ramsolutions.sw.magik.MagikFileScanner;
+import nl.ramsolutions.sw.magik.checks.MagikChecksProfiler;
 import nl.ramsolutions.sw.magik.lint.output.MessageFormatReporter;
 import nl.ramsolutions.sw.magik.lint.output.NullReporter;
 import nl.ramsolutions.sw.magik.lint.output.Reporter;
@@ -64,6 +65,13 @@ public final class Main {
           .hasArg()
           .type(PatternOptionBuilder.NUMBER_VALUE)
           .build();
+  private static final Option OPTION_PROFILE =
+      Option.builder()
+          .longOpt("profile")
+          .desc("Profile checking, write JSON report to file and show summary")
+          .hasArg()
+          .type(PatternOptionBuilder.FILE_VALUE)
+          .build();
   private static final Option OPTION_DEBUG =
       Option.builder().longOpt("debug").desc("Enable showing of debug information").build();
   private static final Option OPTION_VERSION =
@@ -81,6 +89,7 @@ public final class Main {
     OPTIONS.addOption(OPTION_SHOW_CHECKS);
     OPTIONS.addOption(OPTION_COLUMN_OFFSET);
     OPTIONS.addOption(OPTION_MAX_INFRACTIONS);
+    OPTIONS.addOption(OPTION_PROFILE);
     OPTIONS.addOption(OPTION_DEBUG);
     OPTIONS.addOption(OPTION_VERSION);
     OPTIONS.addOption(OPTION_APPLY_FIXES);
@@ -236,9 +245,14 @@ public final class Main {
 
     // Actual linting.
     final Reporter reporter = Main.createReporter(properties);
-    final MagikLint lint = new MagikLint(properties, reporter);
+    final MagikChecksProfiler profiler =
+        new MagikChecksProfiler(commandLine.hasOption(OPTION_PROFILE));
+    final MagikLint lint = new MagikLint(properties, reporter, profiler);
     lint.run(paths);
 
+    // Write profile.
+    Main.writeProfile(commandLine, profiler);
+
     final int exitCode =
         reporter.reportedSeverities().stream()
             .map(Main.SEVERITY_EXIT_CODE_MAPPING::get)
@@ -246,6 +260,20 @@ public final class Main {
     System.exit(exitCode);
   }
 
+  private static void writeProfile(
+      final CommandLine commandLine, final MagikChecksProfiler profiler)
+      throws ParseException, IOException {
+    if (!profiler.isEnabled()) {
+      return;
+    }
+
+    final File profileFile = (File) commandLine.getParsedOptionValue(OPTION_PROFILE);
+    profiler.writeJson(profileFile.toPath());
+
+    final PrintStream errStream = Main.getErrStream();
+    profiler.writeSummary(new PrintWriter(errStream));
+  }
+
   private static void copyOptionsToConfig(
       final CommandLine commandLine, final MagikToolsProperties properties) {
     if (commandLine.hasOption(OPTION_MAX_INFRACTIONS)) {
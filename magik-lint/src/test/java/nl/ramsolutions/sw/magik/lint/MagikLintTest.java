@@ -0,0 +1,77 @@
+package nl.ramsolutions.sw.magik.lint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import nl.ramsolutions.sw.MagikToolsProperties;
+import nl.ramsolutions.sw.magik.checks.MagikIssue;
+import nl.ramsolutions.sw.magik.lint.output.Reporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link MagikLint}. */
+class MagikLintTest {
+
+  private static final String CODE = "_block\n\t_local a << 1\n_endblock\n";
+
+  /** Reporter collecting issues. */
+  private static final class CollectingReporter implements Reporter {
+
+    private final List<MagikIssue> issues = new ArrayList<>();
+
+    @Override
+    public void reportIssue(final MagikIssue magikIssue) {
+      this.issues.add(magikIssue);
+    }
+
+    @Override
+    public Set<String> reportedSeverities() {
+      return Set.of();
+    }
+  }
+
+  private static List<Path> createFiles(final Path directory, final int count) throws IOException {
+    final List<Path> paths = new ArrayList<>();
+    for (int i = count - 1; i >= 0; --i) {
+      final Path path = directory.resolve("file" + i + ".magik");
+      Files.writeString(path, CODE);
+      paths.add(path);
+    }
+    return paths;
+  }
+
+  @Test
+  void testIssuesReportedInPathOrder(final @TempDir Path directory)
+      throws IOException, ReflectiveOperationException {
+    final List<Path> paths = MagikLintTest.createFiles(directory, 5);
+    final CollectingReporter reporter = new CollectingReporter();
+    final MagikLint lint = new MagikLint(new MagikToolsProperties(), reporter);
+    lint.run(paths);
+
+    final List<String> reportedFiles =
+        reporter.issues.stream()
+            .map(issue -> Path.of(issue.location().getUri()).getFileName().toString())
+            .distinct()
+            .toList();
+    assertThat(reportedFiles)
+        .containsExactly("file0.magik", "file1.magik", "file2.magik", "file3.magik", "file4.magik");
+  }
+
+  @Test
+  void testMaxInfractions(final @TempDir Path directory)
+      throws IOException, ReflectiveOperationException {
+    final List<Path> paths = MagikLintTest.createFiles(directory, 5);
+    final MagikToolsProperties properties = new MagikToolsProperties();
+    properties.setProperty(MagikLint.KEY_MAX_INFRACTIONS, 3L);
+    final CollectingReporter reporter = new CollectingReporter();
+    final MagikLint lint = new MagikLint(properties, reporter);
+    lint.run(paths);
+
+    assertThat(reporter.issues).hasSize(3);
+  }
+}
@@ -25,6 +25,7 @@ public final class ConfigurationLocator {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationLocator.class);
   private static final Map<Path, Path> CACHE = new ConcurrentHashMap<>();
+  private static final Map<Path, Path> PRODUCT_DIR_CACHE = new ConcurrentHashMap<>();
   private static final Path DOES_NOT_EXIST = Path.of("DOES_NOT_EXIST");
 
   private ConfigurationLocator() {}
@@ -32,6 +33,7 @@ public final class ConfigurationLocator {
   /** Reset the directory-cache. */
   public static void resetCache() {
     ConfigurationLocator.CACHE.clear();
+    ConfigurationLocator.PRODUCT_DIR_CACHE.clear();
   }
 
   /**
@@ -147,6 +149,23 @@ public final class ConfigurationLocator {
 
   @CheckForNull
   private static Path inProductDir(final Path searchPath) {
+    // A file never contains a product.def/module.def, so share the search with its siblings.
+    final Path searchDir =
+        Files.isRegularFile(searchPath) && searchPath.toAbsolutePath().getParent() != null
+            ? searchPath.toAbsolutePath().getParent()
+            : searchPath.toAbsolutePath();
+    final Path configurationPath =
+        ConfigurationLocator.PRODUCT_DIR_CACHE.computeIfAbsent(
+            searchDir,
+            dir -> {
+              final Path path = ConfigurationLocator.searchProductDir(dir);
+              return path != null ? path : DOES_NOT_EXIST;
+            });
+    return configurationPath != DOES_NOT_EXIST ? configurationPath : null;
+  }
+
+  @CheckForNull
+  private static Path searchProductDir(final Path searchPath) {
     for (final Path defPath : ConfigurationLocator.locateProductOrModuleDirs(searchPath)) {
       final Path path = defPath.resolve(MAGIK_LINT_RC_FILENAME);
       LOGGER.trace("Trying to get config at (3): {}", path.toAbsolutePath());
@@ -3,17 +3,61 @@ package nl.ramsolutions.sw;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** Class to determine the location of the properties file to read. */
 public final class ConfigurationReader {
 
+  /** Parsed properties file, with its modification time at the time of reading. */
+  private static final class CachedProperties {
+
+    private final FileTime lastModifiedTime;
+    private final MagikToolsProperties properties;
+
+    CachedProperties(final FileTime lastModifiedTime, final MagikToolsProperties properties) {
+      this.lastModifiedTime = lastModifiedTime;
+      this.properties = properties;
+    }
+  }
+
   private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationReader.class);
+  private static final Map<Path, CachedProperties> CACHE = new ConcurrentHashMap<>();
 
   private ConfigurationReader() {}
 
+  /** Reset the properties-cache. */
+  public static void resetCache() {
+    ConfigurationReader.CACHE.clear();
+  }
+
+  /**
+   * Read a properties file, reusing the earlier read properties if the file has not been modified
+   * since. The returned properties are shared, and must not be modified.
+   *
+   * @param propertiesPath Path to properties file.
+   * @return Properties.
+   * @throws IOException -
+   */
+  public static MagikToolsProperties readPropertiesFile(final Path propertiesPath)
+      throws IOException {
+    final Path absolutePath = propertiesPath.toAbsolutePath();
+    final FileTime lastModifiedTime = Files.getLastModifiedTime(absolutePath);
+    final CachedProperties cachedProperties = ConfigurationReader.CACHE.get(absolutePath);
+    if (cachedProperties != null && cachedProperties.lastModifiedTime.equals(lastModifiedTime)) {
+      return cachedProperties.properties;
+    }
+
+    final MagikToolsProperties properties = new MagikToolsProperties(absolutePath);
+    ConfigurationReader.CACHE.put(absolutePath, new CachedProperties(lastModifiedTime, properties));
+    return properties;
+  }
+
   /**
    * Determine the path of the `magik-lint.properties` file to read.
    *
@@ -32,7 +76,9 @@ public final class ConfigurationReader {
       final Path path, final @Nullable String overridePath) throws IOException {
     final Path propertiesPath = ConfigurationReader.determinePath(path, overridePath);
     return propertiesPath != null
-        ? new MagikToolsProperties(propertiesPath)
+        ? MagikToolsProperties.merge(
+            MagikToolsProperties.DEFAULT_PROPERTIES,
+            ConfigurationReader.readPropertiesFile(propertiesPath))
         : MagikToolsProperties.DEFAULT_PROPERTIES;
   }
 
@@ -53,7 +99,7 @@ public final class ConfigurationReader {
     // Copy properties, but override all from propertiesPath.
     final MagikToolsProperties fileProperties =
         propertiesPath != null
-            ? new MagikToolsProperties(propertiesPath)
+            ? ConfigurationReader.readPropertiesFile(propertiesPath)
             : MagikToolsProperties.DEFAULT_PROPERTIES;
 
     return MagikToolsProperties.merge(properties, fileProperties);
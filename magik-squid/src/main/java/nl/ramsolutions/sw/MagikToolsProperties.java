@@ -305,4 +305,27 @@ public class MagikToolsProperties {
     properties2.properties.forEach(result.properties::put);
     return result;
   }
+
+  @Override
+  public int hashCode() {
+    return this.properties.hashCode();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (obj == null) {
+      return false;
+    }
+
+    if (this.getClass() != obj.getClass()) {
+      return false;
+    }
+
+    final MagikToolsProperties other = (MagikToolsProperties) obj;
+    return this.properties.equals(other.properties);
+  }
 }
@@ -8,9 +8,13 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -40,13 +44,18 @@ public class MagikFile extends OpenedFile {
 
   private final @Nullable Instant timestamp;
   private final MagikToolsProperties properties;
-  private AstNode astNode;
+  private volatile @Nullable MagikFile previousMagikFile;
+  private volatile AstNode astNode;
   private GlobalScope globalScope;
   private List<MagikDefinition> definitions;
   private final Map<CommentInstructionReader.Instruction, Map<Integer, Map<String, String>>>
       statementInstructions = new HashMap<>();
   private final Map<CommentInstructionReader.Instruction, Map<Scope, Map<String, String>>>
       scopeInstructions = new HashMap<>();
+  private final Map<CommentInstructionReader.Instruction, Map<String, Map<Integer, Set<String>>>>
+      statementInstructionValues = new HashMap<>();
+  private final Map<CommentInstructionReader.Instruction, Map<String, Map<Scope, Set<String>>>>
+      scopeInstructionValues = new HashMap<>();
 
   /**
    * Constructor.
@@ -66,9 +75,29 @@ public class MagikFile extends OpenedFile {
    * @param source Source.
    */
   public MagikFile(final MagikToolsProperties properties, final URI uri, final String source) {
+    this(properties, uri, source, null);
+  }
+
+  /**
+   * Constructor, for a new version of a file. The parse of the previous version is reused, if
+   * possible. When the previous version is not parsed, the parse of its nearest parsed version is
+   * reused, so at most one older version is kept alive.
+   *
+   * @param properties Properties.
+   * @param uri URI.
+   * @param source Source.
+   * @param previousMagikFile Previous version of the file.
+   */
+  public MagikFile(
+      final MagikToolsProperties properties,
+      final URI uri,
+      final String source,
+      final @Nullable MagikFile previousMagikFile) {
     super(uri, source);
     this.timestamp = null;
     this.properties = properties;
+    this.previousMagikFile =
+        previousMagikFile != null ? previousMagikFile.getNearestParsedVersion() : null;
   }
 
   /**
@@ -118,12 +147,48 @@ public class MagikFile extends OpenedFile {
       final MagikParser parser = new MagikParser();
       final String magikSource = this.getSource();
       final URI uri = this.getUri();
-      this.astNode = parser.parseSafe(magikSource, uri);
+      final AstNode previousAstNode =
+          this.previousMagikFile != null ? this.previousMagikFile.getParsedTopNode() : null;
+      if (previousAstNode != null) {
+        final String previousSource = this.previousMagikFile.getSource();
+        this.astNode = parser.parseIncremental(magikSource, uri, previousSource, previousAstNode);
+      } else {
+        this.astNode = parser.parseSafe(magikSource, uri);
+      }
+
+      // Don't keep older versions alive.
+      this.previousMagikFile = null;
     }
 
     return this.astNode;
   }
 
+  @CheckForNull
+  private synchronized AstNode getParsedTopNode() {
+    return this.astNode;
+  }
+
+  /**
+   * Get the nearest parsed version of this file: this file if parsed, otherwise the parsed previous
+   * version, if any. Does not wait for a running parse.
+   *
+   * @return Nearest parsed version, or null if none.
+   */
+  @CheckForNull
+  private MagikFile getNearestParsedVersion() {
+    if (this.astNode != null) {
+      return this;
+    }
+
+    final MagikFile previous = this.previousMagikFile;
+    if (previous != null) {
+      return previous;
+    }
+
+    // Either parsed in the meantime, or no parsed version at all.
+    return this.astNode != null ? this : null;
+  }
+
   /**
    * Get the {@link GlobalScope} for this file.
    *
@@ -153,7 +218,8 @@ public class MagikFile extends OpenedFile {
     }
 
     final Location location = new Location(uri);
-    return new MagikFileDefinition(location, this.timestamp);
+    final long contentHash = MagikFileDefinition.hashContent(this.getSource());
+    return new MagikFileDefinition(location, this.timestamp, contentHash);
   }
 
   /**
@@ -229,6 +295,86 @@ public class MagikFile extends OpenedFile {
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
   }
 
+  /**
+   * Get the comma separated values of {@code key} of the statement instructions for {@link
+   * CommentInstructionReader.Instruction}, e.g., the disabled checks of {@code # mlint:
+   * disable=a,b}. Lines without any values are left out.
+   *
+   * @param instruction Instruction to get.
+   * @param key Key of instruction.
+   * @return Map with values, keyed by line number.
+   */
+  public synchronized Map<Integer, Set<String>> getStatementInstructionValues(
+      final CommentInstructionReader.Instruction instruction, final String key) {
+    final Map<String, Map<Integer, Set<String>>> keyValues =
+        this.statementInstructionValues.computeIfAbsent(instruction, instr -> new HashMap<>());
+    if (!keyValues.containsKey(key)) {
+      final Map<Integer, Set<String>> values = new HashMap<>();
+      this.getStatementInstructions(instruction)
+          .forEach(
+              (line, instructions) -> {
+                final Set<String> lineValues = MagikFile.splitValues(instructions.get(key));
+                if (!lineValues.isEmpty()) {
+                  values.put(line, lineValues);
+                }
+              });
+      keyValues.put(key, values);
+    }
+
+    return Collections.unmodifiableMap(keyValues.get(key));
+  }
+
+  /**
+   * Get the comma separated values of {@code key} of the Scope instructions for {@link
+   * CommentInstructionReader.Instruction}. The values of a {@link Scope} include the values of its
+   * ancestor {@link Scope}s, so a single lookup suffices.
+   *
+   * @param instruction Instruction to get.
+   * @param key Key of instruction.
+   * @return Map with values, keyed by {@link Scope}.
+   */
+  public synchronized Map<Scope, Set<String>> getScopeInstructionValues(
+      final CommentInstructionReader.Instruction instruction, final String key) {
+    final Map<String, Map<Scope, Set<String>>> keyValues =
+        this.scopeInstructionValues.computeIfAbsent(instruction, instr -> new HashMap<>());
+    if (!keyValues.containsKey(key)) {
+      final Map<Scope, Map<String, String>> instructions = this.getScopeInstructions(instruction);
+      final Map<Scope, Set<String>> values = new HashMap<>();
+      final Deque<Scope> scopes = new ArrayDeque<>();
+      scopes.push(this.getGlobalScope());
+      while (!scopes.isEmpty()) {
+        final Scope scope = scopes.pop();
+        final Set<String> parentValues =
+            scope.getParentScope() != null
+                ? values.get(scope.getParentScope())
+                : Collections.emptySet();
+        final Map<String, String> scopeInstructions =
+            instructions.getOrDefault(scope, Collections.emptyMap());
+        final Set<String> ownValues = MagikFile.splitValues(scopeInstructions.get(key));
+        if (ownValues.isEmpty()) {
+          values.put(scope, parentValues);
+        } else {
+          final Set<String> scopeValues = new HashSet<>(parentValues);
+          scopeValues.addAll(ownValues);
+          values.put(scope, Collections.unmodifiableSet(scopeValues));
+        }
+
+        scope.getChildScopes().forEach(scopes::push);
+      }
+      keyValues.put(key, values);
+    }
+
+    return Collections.unmodifiableMap(keyValues.get(key));
+  }
+
+  private static Set<String> splitValues(final @Nullable String value) {
+    if (value == null || value.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    return Arrays.stream(value.split(",")).collect(Collectors.toUnmodifiableSet());
+  }
+
   /**
    * Get all the Scope instructions for {@link CommentInstructionReader.Instruction}.
    *
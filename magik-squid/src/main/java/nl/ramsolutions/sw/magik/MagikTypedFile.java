@@ -1,5 +1,7 @@
 package nl.ramsolutions.sw.magik;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URI;
 import nl.ramsolutions.sw.MagikToolsProperties;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
@@ -13,6 +15,7 @@ public class MagikTypedFile extends MagikFile {
   private final IDefinitionKeeper definitionKeeper;
   private final TypeStringResolver typeStringResolver;
   private LocalTypeReasonerState reasonerState;
+  private @Nullable LocalTypeReasonerState previousReasonerState;
 
   /**
    * Constructor.
@@ -32,6 +35,31 @@ public class MagikTypedFile extends MagikFile {
     this.typeStringResolver = new TypeStringResolver(definitionKeeper);
   }
 
+  /**
+   * Constructor, for a new version of a file. The parse and the type reasoning of unchanged method
+   * definitions of the previous version are reused, if possible.
+   *
+   * @param settings Magik analysis configuration.
+   * @param uri URI.
+   * @param text Text.
+   * @param definitionKeeper {@link IDefinitionKeeper}.
+   * @param previousMagikFile Previous version of the file.
+   */
+  public MagikTypedFile(
+      final MagikToolsProperties settings,
+      final URI uri,
+      final String text,
+      final IDefinitionKeeper definitionKeeper,
+      final @Nullable MagikFile previousMagikFile) {
+    super(settings, uri, text, previousMagikFile);
+    this.definitionKeeper = definitionKeeper;
+    this.typeStringResolver = new TypeStringResolver(definitionKeeper);
+    if (previousMagikFile instanceof MagikTypedFile previousMagikTypedFile
+        && previousMagikTypedFile.definitionKeeper == definitionKeeper) {
+      this.previousReasonerState = previousMagikTypedFile.getReusableTypeReasonerState();
+    }
+  }
+
   /**
    * Constructor.
    *
@@ -67,14 +95,26 @@ public class MagikTypedFile extends MagikFile {
    */
   public synchronized LocalTypeReasonerState getTypeReasonerState() {
     if (this.reasonerState == null) {
-      final LocalTypeReasoner reasoner = new LocalTypeReasoner(this);
+      final LocalTypeReasoner reasoner = new LocalTypeReasoner(this, this.previousReasonerState);
       reasoner.run();
       this.reasonerState = reasoner.getState();
+      this.previousReasonerState = null;
     }
 
     return this.reasonerState;
   }
 
+  /**
+   * Get the state to reuse for reasoning a next version of this file. If this file was never
+   * reasoned, the state of the previous version is passed on.
+   *
+   * @return The {@link LocalTypeReasonerState} to reuse, or null if none.
+   */
+  @CheckForNull
+  private synchronized LocalTypeReasonerState getReusableTypeReasonerState() {
+    return this.reasonerState != null ? this.reasonerState : this.previousReasonerState;
+  }
+
   @Override
   public String toString() {
     return String.format(
@@ -0,0 +1,163 @@
+package nl.ramsolutions.sw.magik;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import nl.ramsolutions.sw.FileCharsetDeterminer;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+
+/**
+ * Bounded cache of {@link MagikTypedFile}s read from disk, to reuse the parse and type reasoning of
+ * files when analysing usages.
+ *
+ * <p>Files are weighed by the length of their source, the least recently used files are evicted
+ * when the total weight exceeds the maximum weight. A cached file is dropped when the file on disk
+ * changes, or the {@link IDefinitionKeeper} changes, as its type reasoning depends on it.
+ *
+ * <p>Files which are opened (e.g., in an editor) are taken from the open file provider instead.
+ */
+public class MagikTypedFileCache {
+
+  /** Cached file, with the state of the file and the keeper at the time of reading. */
+  private static final class CachedFile {
+
+    private final FileTime lastModifiedTime;
+    private final long size;
+    private final long keeperGeneration;
+    private final MagikTypedFile magikFile;
+
+    CachedFile(
+        final FileTime lastModifiedTime,
+        final long size,
+        final long keeperGeneration,
+        final MagikTypedFile magikFile) {
+      this.lastModifiedTime = lastModifiedTime;
+      this.size = size;
+      this.keeperGeneration = keeperGeneration;
+      this.magikFile = magikFile;
+    }
+
+    boolean isValid(
+        final FileTime currentLastModifiedTime,
+        final long currentSize,
+        final long currentKeeperGeneration) {
+      return this.lastModifiedTime.equals(currentLastModifiedTime)
+          && this.size == currentSize
+          && this.keeperGeneration == currentKeeperGeneration;
+    }
+
+    long getWeight() {
+      return this.magikFile.getSource().length();
+    }
+  }
+
+  /** Default maximum weight, in characters of source. */
+  public static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024;
+
+  private static final String FILE_SCHEME = "file";
+
+  private final IDefinitionKeeper definitionKeeper;
+  private final Function<URI, MagikTypedFile> openFileProvider;
+  private final long maxWeight;
+  private final Map<URI, CachedFile> cachedFiles = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  /**
+   * Constructor.
+   *
+   * @param definitionKeeper {@link IDefinitionKeeper} to use for read files.
+   */
+  public MagikTypedFileCache(final IDefinitionKeeper definitionKeeper) {
+    this(definitionKeeper, uri -> null, DEFAULT_MAX_WEIGHT);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param definitionKeeper {@link IDefinitionKeeper} to use for read files.
+   * @param openFileProvider Provider of opened files, returns null if the file is not opened.
+   * @param maxWeight Maximum total weight of the cached files.
+   */
+  public MagikTypedFileCache(
+      final IDefinitionKeeper definitionKeeper,
+      final Function<URI, MagikTypedFile> openFileProvider,
+      final long maxWeight) {
+    this.definitionKeeper = definitionKeeper;
+    this.openFileProvider = openFileProvider;
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Get the {@link MagikTypedFile} for the given {@link URI}, reading it if needed.
+   *
+   * @param uri {@link URI} of file.
+   * @return {@link MagikTypedFile}, or null if the file is not opened and not a readable file.
+   */
+  @CheckForNull
+  public MagikTypedFile getMagikFile(final URI uri) {
+    final MagikTypedFile openedFile = this.openFileProvider.apply(uri);
+    if (openedFile != null) {
+      return openedFile;
+    }
+
+    if (!FILE_SCHEME.equals(uri.getScheme())) {
+      return null;
+    }
+
+    // A change of the keeper while reading is caught by the next get.
+    final long keeperGeneration = this.definitionKeeper.getGeneration();
+    final Path path = Path.of(uri);
+    final FileTime lastModifiedTime;
+    final long size;
+    final String text;
+    try {
+      lastModifiedTime = Files.getLastModifiedTime(path);
+      size = Files.size(path);
+      synchronized (this) {
+        final CachedFile cachedFile = this.cachedFiles.get(uri);
+        if (cachedFile != null && cachedFile.isValid(lastModifiedTime, size, keeperGeneration)) {
+          return cachedFile.magikFile;
+        }
+      }
+
+      final Charset charset = FileCharsetDeterminer.determineCharset(path);
+      text = Files.readString(path, charset);
+    } catch (final IOException exception) {
+      throw new IllegalStateException(exception);
+    }
+
+    final MagikTypedFile magikFile = new MagikTypedFile(uri, text, this.definitionKeeper);
+    this.put(uri, new CachedFile(lastModifiedTime, size, keeperGeneration, magikFile));
+    return magikFile;
+  }
+
+  private synchronized void put(final URI uri, final CachedFile cachedFile) {
+    final CachedFile previousCachedFile = this.cachedFiles.put(uri, cachedFile);
+    if (previousCachedFile != null) {
+      this.weight -= previousCachedFile.getWeight();
+    }
+    this.weight += cachedFile.getWeight();
+
+    // Evict least recently used files, but always keep the just added file.
+    final Iterator<CachedFile> iterator = this.cachedFiles.values().iterator();
+    while (this.weight > this.maxWeight && this.cachedFiles.size() > 1) {
+      final CachedFile evictedFile = iterator.next();
+      iterator.remove();
+      this.weight -= evictedFile.getWeight();
+    }
+  }
+
+  /** Clear the cache. */
+  public synchronized void clear() {
+    this.cachedFiles.clear();
+    this.weight = 0;
+  }
+}
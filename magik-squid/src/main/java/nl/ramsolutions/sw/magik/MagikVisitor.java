@@ -1,6 +1,10 @@
 package nl.ramsolutions.sw.magik;
 
 import com.sonar.sslr.api.AstNode;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+import nl.ramsolutions.sw.magik.analysis.MagikAstMultiWalker;
 import nl.ramsolutions.sw.magik.analysis.MagikAstWalker;
 
 /** Magik visitor. */
@@ -23,4 +27,41 @@ public abstract class MagikVisitor extends MagikAstWalker {
     final AstNode topNode = this.magikFile.getTopNode();
     this.walkAst(topNode);
   }
+
+  /**
+   * Scan the file with multiple visitors, walking the tree only once. A visitor which throws is
+   * logged and skipped for the rest of the file, the other visitors complete.
+   *
+   * @param scannedMagikFile Context to use.
+   * @param visitors Visitors to scan with.
+   */
+  public static void scanFile(
+      final MagikFile scannedMagikFile, final List<? extends MagikVisitor> visitors) {
+    MagikVisitor.scanFile(scannedMagikFile, visitors, null);
+  }
+
+  /**
+   * Scan the file with multiple visitors, walking the tree only once.
+   *
+   * @param <T> Type of visitor.
+   * @param scannedMagikFile Context to use.
+   * @param visitors Visitors to scan with.
+   * @param timeConsumer If given, receives the time spent in each visitor, in nanoseconds.
+   */
+  public static <T extends MagikVisitor> void scanFile(
+      final MagikFile scannedMagikFile,
+      final List<T> visitors,
+      final @Nullable ObjLongConsumer<? super T> timeConsumer) {
+    for (final MagikVisitor visitor : visitors) {
+      visitor.magikFile = scannedMagikFile;
+    }
+
+    final AstNode topNode = scannedMagikFile.getTopNode();
+    final MagikAstMultiWalker walker = new MagikAstMultiWalker(visitors, timeConsumer != null);
+    walker.walkAst(topNode);
+
+    if (timeConsumer != null) {
+      visitors.forEach(visitor -> timeConsumer.accept(visitor, walker.getWalkerNanos(visitor)));
+    }
+  }
 }
@@ -7,7 +7,6 @@ import edu.umd.cs.findbugs.annotations.CheckForNull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import nl.ramsolutions.sw.magik.Position;
 import nl.ramsolutions.sw.magik.Range;
@@ -18,6 +17,12 @@ import nl.ramsolutions.sw.productdef.api.SwProductDefinitionGrammar;
 /** AstNode query utility functions. */
 public final class AstQuery {
 
+  private static final AstNodeType[] PRODUCT_DEFINITION_NODE_TYPES =
+      SwProductDefinitionGrammar.values();
+  private static final AstNodeType[] MODULE_DEFINITION_NODE_TYPES =
+      SwModuleDefinitionGrammar.values();
+  private static final AstNodeType[] MAGIK_NODE_TYPES = MagikGrammar.values();
+
   private AstQuery() {}
 
   /**
@@ -116,45 +121,39 @@ public final class AstQuery {
    */
   @CheckForNull
   public static AstNode nodeBefore(final AstNode topNode, final Position position) {
-    final List<AstNode> nodes =
-        AstQuery.dfs(topNode)
-            .filter(AstQuery::isTokenNode)
-            .filter(
-                node -> {
-                  final Token token = node.getToken();
-                  final Range range = new Range(token);
-                  return position.isBeforeRange(range);
-                })
-            .toList();
-    if (nodes.isEmpty()) {
+    // Tokens are ordered, if any token starts after position, the last token does.
+    final AstNode lastTokenNode = AstQuery.lastTokenNode(topNode);
+    if (lastTokenNode == null) {
       return null;
     }
-    return nodes.get(nodes.size() - 1);
+
+    final Range range = new Range(lastTokenNode.getToken());
+    return position.isBeforeRange(range) ? lastTokenNode : null;
   }
 
   /**
    * Get the node in {@code topNode} at {@code position}.
    *
+   * <p>Only the sub trees containing {@code position} are searched.
+   *
    * @param topNode Top node.
    * @param position Position for node.
    * @return Token-Node at position.
    */
   @CheckForNull
   public static AstNode nodeAt(final AstNode topNode, final Position position) {
-    final List<AstNode> nodes =
-        AstQuery.dfs(topNode)
-            .filter(AstQuery::isTokenNode)
-            .filter(
-                node -> {
-                  final Token token = node.getToken();
-                  final Range range = new Range(token);
-                  return !position.isBeforeRange(range) && !position.isAfterRange(range);
-                })
-            .toList();
-    if (nodes.isEmpty()) {
-      return null;
-    }
-    return nodes.get(0);
+    return AstQuery.findFirst(
+        topNode,
+        position,
+        node -> {
+          if (!AstQuery.isTokenNode(node)) {
+            return false;
+          }
+
+          final Token token = node.getToken();
+          final Range range = new Range(token);
+          return !position.isBeforeRange(range) && !position.isAfterRange(range);
+        });
   }
 
   /**
@@ -188,20 +187,14 @@ public final class AstQuery {
    */
   @CheckForNull
   public static AstNode nodeAfter(final AstNode topNode, final Position position) {
-    final List<AstNode> nodes =
-        AstQuery.dfs(topNode)
-            .filter(AstQuery::isTokenNode)
-            .filter(
-                node -> {
-                  final Token token = node.getToken();
-                  final Range range = new Range(token);
-                  return position.isAfterRange(range);
-                })
-            .toList();
-    if (nodes.isEmpty()) {
+    // Tokens are ordered, if position is after any token, it is after the first token.
+    final AstNode firstTokenNode = AstQuery.firstTokenNode(topNode);
+    if (firstTokenNode == null) {
       return null;
     }
-    return nodes.get(0);
+
+    final Range range = new Range(firstTokenNode.getToken());
+    return position.isAfterRange(range) ? firstTokenNode : null;
   }
 
   /**
@@ -213,34 +206,16 @@ public final class AstQuery {
    */
   @CheckForNull
   public static AstNode nodeSurrounding(final AstNode topNode, final Position position) {
-    final List<AstNode> nodes =
-        AstQuery.dfs(topNode)
-            .filter(AstQuery::isGrammarNode)
-            .filter(node -> node.getToken() != null && node.getLastToken() != null)
-            .filter(
-                node -> {
-                  final Token firstToken = node.getToken();
-                  final int firstLine = firstToken.getLine();
-                  final int firstColumn = firstToken.getColumn();
-
-                  final Token lastToken = node.getLastToken();
-                  final int lastLine = lastToken.getLine();
-                  final int lastColumn =
-                      lastToken.getColumn() + lastToken.getOriginalValue().length();
-
-                  return (position.getLine() > firstLine
-                          || position.getLine() == firstLine && position.getColumn() >= firstColumn)
-                      && (position.getLine() < lastLine
-                          || position.getLine() == lastLine && position.getColumn() <= lastColumn);
-                })
-            .collect(Collectors.toList());
-    if (nodes.isEmpty()) {
-      return null;
+    final Predicate<AstNode> predicate =
+        node -> AstQuery.isGrammarNode(node) && AstQuery.isSurrounding(node, position);
+    final AstNode node = AstQuery.findFirst(topNode, position, predicate);
+    if (node == null || node.isNot(MagikGrammar.MAGIK)) {
+      return node;
     }
-    if (nodes.size() > 1 && nodes.get(0).is(MagikGrammar.MAGIK)) {
-      nodes.remove(0);
-    }
-    return nodes.get(0);
+
+    // Prefer anything below the MAGIK node.
+    final AstNode childNode = AstQuery.findFirstInChildren(node, position, predicate);
+    return childNode != null ? childNode : node;
   }
 
   /**
@@ -255,32 +230,152 @@ public final class AstQuery {
   public static AstNode nodeSurrounding(
       final AstNode topNode, final Position position, final AstNodeType... nodeTypes) {
     final List<AstNodeType> nodeTypesList = List.of(nodeTypes);
-    final List<AstNode> nodes =
-        AstQuery.dfs(topNode)
-            .filter(AstQuery::isGrammarNode)
-            .filter(node -> node.getToken() != null && node.getLastToken() != null)
-            .filter(
-                node -> {
-                  final Token firstToken = node.getToken();
-                  final int firstLine = firstToken.getLine();
-                  final int firstColumn = firstToken.getColumn();
-
-                  final Token lastToken = node.getLastToken();
-                  final int lastLine = lastToken.getLine();
-                  final int lastColumn =
-                      lastToken.getColumn() + lastToken.getOriginalValue().length();
-
-                  return (position.getLine() > firstLine
-                          || position.getLine() == firstLine && position.getColumn() >= firstColumn)
-                      && (position.getLine() < lastLine
-                          || position.getLine() == lastLine && position.getColumn() <= lastColumn);
-                })
-            .filter(node -> nodeTypesList.contains(node.getType()))
-            .toList();
-    if (nodes.isEmpty()) {
+    return AstQuery.findFirst(
+        topNode,
+        position,
+        node ->
+            AstQuery.isGrammarNode(node)
+                && nodeTypesList.contains(node.getType())
+                && AstQuery.isSurrounding(node, position));
+  }
+
+  private static boolean isSurrounding(final AstNode node, final Position position) {
+    final Token firstToken = node.getToken();
+    final Token lastToken = node.getLastToken();
+    if (firstToken == null || lastToken == null) {
+      return false;
+    }
+
+    final int firstLine = firstToken.getLine();
+    final int firstColumn = firstToken.getColumn();
+    final int lastLine = lastToken.getLine();
+    final int lastColumn = lastToken.getColumn() + lastToken.getOriginalValue().length();
+    return (position.getLine() > firstLine
+            || position.getLine() == firstLine && position.getColumn() >= firstColumn)
+        && (position.getLine() < lastLine
+            || position.getLine() == lastLine && position.getColumn() <= lastColumn);
+  }
+
+  /**
+   * Get the first node, in depth first order, matching {@code predicate}, for which {@code
+   * predicate} only holds for nodes containing {@code position}.
+   *
+   * <p>Sub trees not containing {@code position} are skipped, and children are searched by binary
+   * search, as they are ordered by position.
+   */
+  @CheckForNull
+  private static AstNode findFirst(
+      final AstNode node, final Position position, final Predicate<AstNode> predicate) {
+    if (!AstQuery.mightContain(node, position)) {
       return null;
     }
-    return nodes.get(0);
+
+    if (predicate.test(node)) {
+      return node;
+    }
+
+    return AstQuery.findFirstInChildren(node, position, predicate);
+  }
+
+  @CheckForNull
+  private static AstNode findFirstInChildren(
+      final AstNode node, final Position position, final Predicate<AstNode> predicate) {
+    final List<AstNode> children = node.getChildren();
+    for (int i = AstQuery.firstCandidateIndex(children, position); i < children.size(); ++i) {
+      final AstNode childNode = children.get(i);
+      final Token token = childNode.getToken();
+      if (token != null && position.compareTo(Position.fromTokenStart(token)) < 0) {
+        // This and any later children start after position.
+        break;
+      }
+
+      final AstNode foundNode = AstQuery.findFirst(childNode, position, predicate);
+      if (foundNode != null) {
+        return foundNode;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Get the index of the first child which might contain {@code position}. This is the last child
+   * starting at or before {@code position}, or an earlier child ending at {@code position}.
+   */
+  private static int firstCandidateIndex(final List<AstNode> children, final Position position) {
+    int low = 0;
+    int high = children.size() - 1;
+    int index = 0;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final Token token = children.get(mid).getToken();
+      if (token == null) {
+        // Can't determine position of child, search all children.
+        return 0;
+      }
+
+      if (position.compareTo(Position.fromTokenStart(token)) >= 0) {
+        index = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    // Earlier children might end at position.
+    while (index > 0) {
+      final AstNode previousNode = children.get(index - 1);
+      if (previousNode.getToken() != null && !AstQuery.mightContain(previousNode, position)) {
+        break;
+      }
+
+      index -= 1;
+    }
+    return index;
+  }
+
+  private static boolean mightContain(final AstNode node, final Position position) {
+    final Token firstToken = node.getToken();
+    if (firstToken == null) {
+      return false;
+    }
+
+    final Token lastToken = node.getLastToken();
+    return position.compareTo(Position.fromTokenStart(firstToken)) >= 0
+        && (lastToken == null || position.compareTo(Position.fromTokenEnd(lastToken)) <= 0);
+  }
+
+  @CheckForNull
+  private static AstNode firstTokenNode(final AstNode node) {
+    if (AstQuery.isTokenNode(node)) {
+      return node;
+    }
+
+    for (final AstNode childNode : node.getChildren()) {
+      final AstNode tokenNode = AstQuery.firstTokenNode(childNode);
+      if (tokenNode != null) {
+        return tokenNode;
+      }
+    }
+
+    return null;
+  }
+
+  @CheckForNull
+  private static AstNode lastTokenNode(final AstNode node) {
+    if (AstQuery.isTokenNode(node)) {
+      return node;
+    }
+
+    final List<AstNode> children = node.getChildren();
+    for (int i = children.size() - 1; i >= 0; --i) {
+      final AstNode tokenNode = AstQuery.lastTokenNode(children.get(i));
+      if (tokenNode != null) {
+        return tokenNode;
+      }
+    }
+
+    return null;
   }
 
   /**
@@ -310,14 +405,12 @@ public final class AstQuery {
   }
 
   private static boolean isGrammarNode(final AstNode node) {
-    return node.is(SwProductDefinitionGrammar.values())
-        || node.is(SwModuleDefinitionGrammar.values())
-        || node.is(MagikGrammar.values());
+    return node.is(PRODUCT_DEFINITION_NODE_TYPES)
+        || node.is(MODULE_DEFINITION_NODE_TYPES)
+        || node.is(MAGIK_NODE_TYPES);
   }
 
   private static boolean isTokenNode(final AstNode node) {
-    return node.isNot(SwProductDefinitionGrammar.values())
-        && node.isNot(SwModuleDefinitionGrammar.values())
-        && node.isNot(MagikGrammar.values());
+    return !AstQuery.isGrammarNode(node);
   }
 }
@@ -15,6 +15,7 @@ public class MagikAnalysisSettings {
   private static final String INDEX_SLOT_USAGES = "magik.typing.indexSlotUsages";
   private static final String INDEX_CONDITION_USAGES = "magik.typing.indexConditionUsages";
   private static final String CACHE_INDEXED_DEFINITIONS = "magik.typing.cacheIndexedDefinitions";
+  private static final String INDEX_PARALLELISM = "magik.typing.indexParallelism";
 
   private final MagikToolsProperties properties;
 
@@ -42,4 +43,20 @@ public class MagikAnalysisSettings {
   public boolean getTypingCacheIndexedDefinitions() {
     return this.properties.getPropertyBoolean(CACHE_INDEXED_DEFINITIONS) != Boolean.FALSE;
   }
+
+  /**
+   * Get the number of threads to use for (bulk) indexing.
+   *
+   * <p>Defaults to the number of available processors, if not set or set to a non-positive value.
+   *
+   * @return Number of threads to use for indexing.
+   */
+  public int getTypingIndexParallelism() {
+    final Integer parallelism = this.properties.getPropertyInteger(INDEX_PARALLELISM);
+    if (parallelism == null || parallelism < 1) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+
+    return parallelism;
+  }
 }
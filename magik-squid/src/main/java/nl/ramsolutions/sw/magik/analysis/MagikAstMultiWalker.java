@@ -0,0 +1,212 @@
+package nl.ramsolutions.sw.magik.analysis;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import nl.ramsolutions.sw.magik.api.MagikGrammar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Walks a tree once, dispatching the pre- and post-methods to multiple {@link MagikAstWalker}s.
+ *
+ * <p>Walkers are only called for the node types they are interested in, i.e., for which they
+ * override the pre- or post-method. Walkers should not override {@code walkAst}, {@code
+ * walkChildren} or {@code walkTokens}, as these are not called on the walkers.
+ *
+ * <p>A walker which throws an exception is skipped for the remainder of the walk, the other walkers
+ * continue. When profiling, the time spent in each walker is recorded.
+ */
+public class MagikAstMultiWalker extends MagikAstWalker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MagikAstMultiWalker.class);
+  private static final String PRE_PREFIX = "walkPre";
+  private static final String POST_PREFIX = "walkPost";
+  private static final String DEFAULT_SUFFIX = "Default";
+  private static final Map<Class<?>, Set<MagikGrammar>> SUBSCRIPTIONS = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, Boolean> TOKEN_SUBSCRIPTIONS = new ConcurrentHashMap<>();
+
+  private final Map<MagikGrammar, List<MagikAstWalker>> walkersByType =
+      new EnumMap<>(MagikGrammar.class);
+  private final List<MagikAstWalker> tokenWalkers = new ArrayList<>();
+  private final Set<MagikAstWalker> failedWalkers =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+  private final @Nullable Map<MagikAstWalker, long[]> walkerNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param walkers Walkers to dispatch to, in order.
+   */
+  public MagikAstMultiWalker(final List<? extends MagikAstWalker> walkers) {
+    this(walkers, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param walkers Walkers to dispatch to, in order.
+   * @param profile Record the time spent in each walker.
+   */
+  public MagikAstMultiWalker(final List<? extends MagikAstWalker> walkers, final boolean profile) {
+    this.walkerNanos = profile ? new IdentityHashMap<>() : null;
+    for (final MagikAstWalker walker : walkers) {
+      if (this.walkerNanos != null) {
+        this.walkerNanos.put(walker, new long[1]);
+      }
+
+      final Class<?> walkerClass = walker.getClass();
+      SUBSCRIPTIONS
+          .computeIfAbsent(walkerClass, MagikAstMultiWalker::determineSubscriptions)
+          .forEach(
+              type -> this.walkersByType.computeIfAbsent(type, k -> new ArrayList<>()).add(walker));
+
+      if (TOKEN_SUBSCRIPTIONS.computeIfAbsent(
+          walkerClass, MagikAstMultiWalker::determineTokenSubscription)) {
+        this.tokenWalkers.add(walker);
+      }
+    }
+  }
+
+  /**
+   * Get the time spent in a walker, when profiling.
+   *
+   * @param walker Walker.
+   * @return Time spent in walker, in nanoseconds, or 0 if not profiling.
+   */
+  public long getWalkerNanos(final MagikAstWalker walker) {
+    if (this.walkerNanos == null) {
+      return 0L;
+    }
+
+    final long[] nanos = this.walkerNanos.get(walker);
+    return nanos != null ? nanos[0] : 0L;
+  }
+
+  @Override
+  protected void walkPre(final AstNode node) {
+    final MagikGrammar type = (MagikGrammar) node.getType();
+    this.dispatch(this.walkersByType.get(type), walker -> walker.walkPre(node));
+  }
+
+  @Override
+  protected void walkPost(final AstNode node) {
+    final MagikGrammar type = (MagikGrammar) node.getType();
+    this.dispatch(this.walkersByType.get(type), walker -> walker.walkPost(node));
+  }
+
+  @Override
+  protected void walkTokens(final AstNode tokenNode) {
+    if (this.tokenWalkers.isEmpty()) {
+      return;
+    }
+
+    super.walkTokens(tokenNode);
+  }
+
+  @Override
+  protected void walkToken(final Token token) {
+    this.dispatch(this.tokenWalkers, walker -> walker.walkToken(token));
+  }
+
+  @Override
+  protected void walkTrivia(final Trivia trivia) {
+    this.dispatch(this.tokenWalkers, walker -> walker.walkTrivia(trivia));
+  }
+
+  /**
+   * Dispatch a call to walkers. A walker which throws is logged, and skipped for the remainder of
+   * the walk, so the other walkers still complete.
+   *
+   * @param walkers Walkers to dispatch to.
+   * @param call Call to dispatch.
+   */
+  @SuppressWarnings("IllegalCatch")
+  private void dispatch(
+      final @Nullable List<MagikAstWalker> walkers, final Consumer<MagikAstWalker> call) {
+    if (walkers == null) {
+      return;
+    }
+
+    for (final MagikAstWalker walker : walkers) {
+      if (!this.failedWalkers.isEmpty() && this.failedWalkers.contains(walker)) {
+        continue;
+      }
+
+      final long start = this.walkerNanos != null ? System.nanoTime() : 0L;
+      try {
+        call.accept(walker);
+      } catch (final RuntimeException exception) {
+        LOGGER.error("Error in walker: " + walker.getClass().getName(), exception);
+        this.failedWalkers.add(walker);
+      }
+
+      if (this.walkerNanos != null) {
+        this.walkerNanos.get(walker)[0] += System.nanoTime() - start;
+      }
+    }
+  }
+
+  /**
+   * Determine the node types a walker class is interested in, from the pre- and post-methods it
+   * overrides.
+   *
+   * @param walkerClass Walker class.
+   * @return Node types.
+   */
+  private static Set<MagikGrammar> determineSubscriptions(final Class<?> walkerClass) {
+    final Set<String> overriddenNames = MagikAstMultiWalker.getOverriddenMethodNames(walkerClass);
+    if (overriddenNames.contains(PRE_PREFIX + DEFAULT_SUFFIX)
+        || overriddenNames.contains(POST_PREFIX + DEFAULT_SUFFIX)) {
+      return EnumSet.allOf(MagikGrammar.class);
+    }
+
+    final Set<MagikGrammar> types = EnumSet.noneOf(MagikGrammar.class);
+    for (final MagikGrammar type : MagikGrammar.values()) {
+      final String javaName = MagikAstMultiWalker.toJavaName(type);
+      if (overriddenNames.contains(PRE_PREFIX + javaName)
+          || overriddenNames.contains(POST_PREFIX + javaName)) {
+        types.add(type);
+      }
+    }
+    return types;
+  }
+
+  private static boolean determineTokenSubscription(final Class<?> walkerClass) {
+    final Set<String> overriddenNames = MagikAstMultiWalker.getOverriddenMethodNames(walkerClass);
+    return overriddenNames.contains("walkToken") || overriddenNames.contains("walkTrivia");
+  }
+
+  private static Set<String> getOverriddenMethodNames(final Class<?> walkerClass) {
+    final Set<String> names = new HashSet<>();
+    Class<?> currentClass = walkerClass;
+    while (currentClass != null && currentClass != MagikAstWalker.class) {
+      for (final Method method : currentClass.getDeclaredMethods()) {
+        names.add(method.getName());
+      }
+      currentClass = currentClass.getSuperclass();
+    }
+    return Collections.unmodifiableSet(names);
+  }
+
+  private static String toJavaName(final MagikGrammar type) {
+    final StringBuilder builder = new StringBuilder();
+    for (final String part : type.name().split("_")) {
+      builder.append(part.charAt(0)).append(part.substring(1).toLowerCase());
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,308 @@
+package nl.ramsolutions.sw.magik.analysis.definitions;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+
+/**
+ * Interner for definitions to be kept in a {@link IDefinitionKeeper}.
+ *
+ * <p>Indexing creates fresh objects for every definition and usage, while most of their values
+ * repeat: the {@link URI} and timestamp of a file, {@link TypeString}s, method names, {@link
+ * Position}s, etc. The interner replaces these by a single canonical instance and drops the {@link
+ * com.sonar.sslr.api.AstNode}s, like {@code getWithoutNode()} does. The usages are stored in
+ * compact, array based, immutable sets.
+ *
+ * <p>Values which are (nearly) always unique, such as docs, {@link Location}s and {@link Range}s,
+ * are not interned, as interning would cost more than it saves.
+ *
+ * <p>Thread safe. Canonical instances are held weakly, and released when no longer referenced
+ * elsewhere, e.g., when the definitions of a removed file are dropped.
+ */
+public class DefinitionInterner {
+
+  /**
+   * Weak reference to a canonical instance, comparing by the value it refers to. A cleared
+   * reference is only equal to itself, to be removed from the map.
+   */
+  private static final class WeakKey extends WeakReference<Object> {
+
+    private final int hash;
+
+    WeakKey(final Object value, final ReferenceQueue<Object> queue) {
+      super(value, queue);
+      this.hash = value.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+
+      if (!(obj instanceof WeakKey)) {
+        return false;
+      }
+
+      final Object value = this.get();
+      return value != null && value.equals(((WeakKey) obj).get());
+    }
+  }
+
+  private final Map<WeakKey, WeakKey> instances = new ConcurrentHashMap<>();
+  private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+  /**
+   * Get the canonical instance of a value.
+   *
+   * @param <T> Type of value.
+   * @param value Value to intern.
+   * @return Canonical instance, or null if value is null.
+   */
+  @CheckForNull
+  @SuppressWarnings("unchecked")
+  private <T> T internValue(final @Nullable T value) {
+    if (value == null) {
+      return null;
+    }
+
+    this.expungeReleased();
+
+    final WeakKey key = new WeakKey(value, this.queue);
+    while (true) {
+      final WeakKey existingKey = this.instances.putIfAbsent(key, key);
+      if (existingKey == null) {
+        return value;
+      }
+
+      final Object instance = existingKey.get();
+      if (instance != null) {
+        return (T) instance;
+      }
+      // Released in the meantime, its key no longer matches, try again.
+    }
+  }
+
+  private void expungeReleased() {
+    Reference<?> reference = this.queue.poll();
+    while (reference != null) {
+      this.instances.remove(reference);
+      reference = this.queue.poll();
+    }
+  }
+
+  /**
+   * Intern a {@link String}.
+   *
+   * @param string String to intern.
+   * @return Canonical instance.
+   */
+  @CheckForNull
+  public String intern(final @Nullable String string) {
+    return this.internValue(string);
+  }
+
+  /**
+   * Intern a {@link URI}.
+   *
+   * @param uri URI to intern.
+   * @return Canonical instance.
+   */
+  @CheckForNull
+  public URI intern(final @Nullable URI uri) {
+    return this.internValue(uri);
+  }
+
+  /**
+   * Intern a timestamp.
+   *
+   * @param timestamp Timestamp to intern.
+   * @return Canonical instance.
+   */
+  @CheckForNull
+  public Instant intern(final @Nullable Instant timestamp) {
+    return this.internValue(timestamp);
+  }
+
+  /**
+   * Intern a {@link TypeString}.
+   *
+   * @param typeString {@link TypeString} to intern.
+   * @return Canonical instance.
+   */
+  public TypeString intern(final TypeString typeString) {
+    return this.internValue(typeString);
+  }
+
+  /**
+   * Intern a {@link ExpressionResultString}.
+   *
+   * @param result {@link ExpressionResultString} to intern.
+   * @return Canonical instance.
+   */
+  public ExpressionResultString intern(final ExpressionResultString result) {
+    return this.internValue(result);
+  }
+
+  /**
+   * Intern a {@link Position}.
+   *
+   * @param position {@link Position} to intern.
+   * @return Canonical instance.
+   */
+  public Position intern(final Position position) {
+    return this.internValue(position);
+  }
+
+  /**
+   * Intern the parts of a {@link Location}. The {@link Location} itself is not interned.
+   *
+   * @param location {@link Location} to intern.
+   * @return {@link Location} with canonical parts.
+   */
+  @CheckForNull
+  public Location intern(final @Nullable Location location) {
+    if (location == null) {
+      return null;
+    }
+
+    final URI uri = this.intern(location.getUri());
+    final Range range = location.getRange();
+    if (range == null) {
+      return new Location(uri);
+    }
+
+    final Position startPosition = this.intern(range.getStartPosition());
+    final Position endPosition = this.intern(range.getEndPosition());
+    return new Location(uri, new Range(startPosition, endPosition));
+  }
+
+  /**
+   * Intern a {@link MethodDefinition}, without {@link com.sonar.sslr.api.AstNode}s.
+   *
+   * @param definition Definition to intern.
+   * @return Interned definition.
+   */
+  public MethodDefinition intern(final MethodDefinition definition) {
+    final ParameterDefinition assignmentParameter = definition.getAssignmentParameter();
+    return new MethodDefinition(
+        this.intern(definition.getLocation()),
+        this.intern(definition.getTimestamp()),
+        this.intern(definition.getModuleName()),
+        definition.getDoc(),
+        null,
+        this.intern(definition.getTypeName()),
+        this.intern(definition.getMethodName()),
+        definition.getModifiers(),
+        definition.getParameters().stream().map(parameter -> this.intern(parameter)).toList(),
+        assignmentParameter != null ? this.intern(assignmentParameter) : null,
+        this.internStrings(definition.getTopics()),
+        this.intern(definition.getReturnTypes()),
+        this.intern(definition.getLoopTypes()),
+        this.internGlobalUsages(definition.getUsedGlobals()),
+        this.internMethodUsages(definition.getUsedMethods()),
+        definition.getUsedSlots().stream()
+            .map(
+                usage ->
+                    new SlotUsage(
+                        this.intern(usage.getSlotName()), this.intern(usage.getLocation()), null))
+            .collect(Collectors.toUnmodifiableSet()),
+        this.internConditionUsages(definition.getUsedConditions()));
+  }
+
+  /**
+   * Intern a {@link ProcedureDefinition}, without {@link com.sonar.sslr.api.AstNode}s.
+   *
+   * @param definition Definition to intern.
+   * @return Interned definition.
+   */
+  public ProcedureDefinition intern(final ProcedureDefinition definition) {
+    return new ProcedureDefinition(
+        this.intern(definition.getLocation()),
+        this.intern(definition.getTimestamp()),
+        this.intern(definition.getModuleName()),
+        definition.getDoc(),
+        null,
+        definition.getModifiers(),
+        this.intern(definition.getTypeString()),
+        this.intern(definition.getProcedureName()),
+        definition.getParameters().stream().map(parameter -> this.intern(parameter)).toList(),
+        this.intern(definition.getReturnTypes()),
+        this.intern(definition.getLoopTypes()),
+        this.internGlobalUsages(definition.getUsedGlobals()),
+        this.internMethodUsages(definition.getUsedMethods()),
+        this.internConditionUsages(definition.getUsedConditions()));
+  }
+
+  /**
+   * Intern a {@link ParameterDefinition}, without {@link com.sonar.sslr.api.AstNode}s.
+   *
+   * @param definition Definition to intern.
+   * @return Interned definition.
+   */
+  public ParameterDefinition intern(final ParameterDefinition definition) {
+    return new ParameterDefinition(
+        this.intern(definition.getLocation()),
+        this.intern(definition.getTimestamp()),
+        this.intern(definition.getModuleName()),
+        definition.getDoc(),
+        null,
+        this.intern(definition.getName()),
+        definition.getModifier(),
+        this.intern(definition.getTypeName()));
+  }
+
+  private Set<String> internStrings(final Set<String> strings) {
+    return strings.stream()
+        .map(string -> this.intern(string))
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  private Set<GlobalUsage> internGlobalUsages(final Set<GlobalUsage> usages) {
+    return usages.stream()
+        .map(
+            usage ->
+                new GlobalUsage(
+                    this.intern(usage.getTypeName()), this.intern(usage.getLocation()), null))
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  private Set<MethodUsage> internMethodUsages(final Set<MethodUsage> usages) {
+    return usages.stream()
+        .map(
+            usage ->
+                new MethodUsage(
+                    this.intern(usage.getTypeName()),
+                    this.intern(usage.getMethodName()),
+                    this.intern(usage.getLocation()),
+                    null))
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  private Set<ConditionUsage> internConditionUsages(final Set<ConditionUsage> usages) {
+    return usages.stream()
+        .map(
+            usage ->
+                new ConditionUsage(
+                    this.intern(usage.getConditionName()), this.intern(usage.getLocation()), null))
+        .collect(Collectors.toUnmodifiableSet());
+  }
+}
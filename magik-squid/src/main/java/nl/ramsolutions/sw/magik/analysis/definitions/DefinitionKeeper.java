@@ -1,12 +1,20 @@
 package nl.ramsolutions.sw.magik.analysis.definitions;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import nl.ramsolutions.sw.IDefinition;
+import nl.ramsolutions.sw.magik.Location;
 import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
 import nl.ramsolutions.sw.moduledef.ModuleDefinition;
 import nl.ramsolutions.sw.productdef.ProductDefinition;
@@ -31,6 +39,26 @@ public class DefinitionKeeper implements IDefinitionKeeper {
   private final Map<TypeString, Set<ProcedureDefinition>> procedureDefinitions =
       new ConcurrentHashMap<>();
 
+  /**
+   * All definitions, indexed by the (string form of the) URI they originate from.
+   *
+   * <p>Sorted, so all definitions from a directory can be found using a range query.
+   */
+  private final NavigableMap<String, Set<IDefinition>> uriDefinitions =
+      new ConcurrentSkipListMap<>();
+
+  /** Usages of methods, globals, conditions and slots, by the used name. */
+  private final UsageIndex usageIndex = new UsageIndex();
+
+  /** Products, modules, exemplars, methods and conditions, by name. */
+  private final SymbolIndex symbolIndex = new SymbolIndex();
+
+  /** Generation, bumped on changes relevant for type resolving. */
+  private final AtomicLong generation = new AtomicLong();
+
+  /** Type hierarchy generation, bumped on changes to resolvable types. */
+  private final AtomicLong typeHierarchyGeneration = new AtomicLong();
+
   /** Constructor. */
   public DefinitionKeeper() {
     this(true);
@@ -56,6 +84,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<ProductDefinition> definitions =
         this.productDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.symbolIndex.add(definition);
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -64,6 +95,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<ModuleDefinition> definitions =
         this.moduleDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.symbolIndex.add(definition);
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -72,6 +106,8 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<MagikFileDefinition> definitions =
         this.magikFileDefinitions.computeIfAbsent(uri, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -80,6 +116,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<PackageDefinition> definitions =
         this.packageDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.incrementTypeHierarchyGeneration();
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -90,6 +129,10 @@ public class DefinitionKeeper implements IDefinitionKeeper {
         this.exemplarDefinitions.computeIfAbsent(
             bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.incrementTypeHierarchyGeneration();
+    this.symbolIndex.add(definition);
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -98,6 +141,11 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<MethodDefinition> definitions =
         this.methodDefinitions.computeIfAbsent(bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.usageIndex.add(definition);
+    this.generation.incrementAndGet();
+    this.symbolIndex.add(definition);
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -106,6 +154,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<GlobalDefinition> definitions =
         this.globalDefinitions.computeIfAbsent(bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.incrementTypeHierarchyGeneration();
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -114,6 +165,8 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<BinaryOperatorDefinition> definitions =
         this.binaryOperatorDefinitions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -122,6 +175,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<ConditionDefinition> definitions =
         this.conditionDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.symbolIndex.add(definition);
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -132,6 +188,10 @@ public class DefinitionKeeper implements IDefinitionKeeper {
         this.procedureDefinitions.computeIfAbsent(
             bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.add(definition);
+
+    this.usageIndex.add(definition);
+    this.incrementTypeHierarchyGeneration();
+    this.addToUriIndex(definition);
   }
 
   @Override
@@ -140,6 +200,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<ProductDefinition> definitions =
         this.productDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.symbolIndex.remove(definition);
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -148,6 +211,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<ModuleDefinition> definitions =
         this.moduleDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.symbolIndex.remove(definition);
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -156,6 +222,8 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<MagikFileDefinition> definitions =
         this.magikFileDefinitions.computeIfAbsent(uri, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -164,6 +232,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<PackageDefinition> definitions =
         this.packageDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.incrementTypeHierarchyGeneration();
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -173,6 +244,10 @@ public class DefinitionKeeper implements IDefinitionKeeper {
         this.exemplarDefinitions.computeIfAbsent(
             bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.incrementTypeHierarchyGeneration();
+    this.symbolIndex.remove(definition);
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -181,6 +256,11 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<MethodDefinition> definitions =
         this.methodDefinitions.computeIfAbsent(bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.usageIndex.remove(definition);
+    this.generation.incrementAndGet();
+    this.symbolIndex.remove(definition);
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -189,6 +269,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<GlobalDefinition> definitions =
         this.globalDefinitions.computeIfAbsent(bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.incrementTypeHierarchyGeneration();
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -197,6 +280,8 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<BinaryOperatorDefinition> definitions =
         this.binaryOperatorDefinitions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -205,6 +290,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     final Set<ConditionDefinition> definitions =
         this.conditionDefinitions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.symbolIndex.remove(definition);
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -214,6 +302,10 @@ public class DefinitionKeeper implements IDefinitionKeeper {
         this.procedureDefinitions.computeIfAbsent(
             bareTypeString, k -> ConcurrentHashMap.newKeySet());
     definitions.remove(definition);
+
+    this.usageIndex.remove(definition);
+    this.incrementTypeHierarchyGeneration();
+    this.removeFromUriIndex(definition);
   }
 
   @Override
@@ -375,11 +467,109 @@ public class DefinitionKeeper implements IDefinitionKeeper {
         .collect(Collectors.toSet());
   }
 
+  @Override
+  public Collection<MethodUsage> getMethodUsages(final String methodName) {
+    return this.usageIndex.getMethodUsages(methodName);
+  }
+
+  @Override
+  public Collection<GlobalUsage> getGlobalUsages(final TypeString typeString) {
+    return this.usageIndex.getGlobalUsages(typeString);
+  }
+
+  @Override
+  public Collection<ConditionUsage> getConditionUsages(final String conditionName) {
+    return this.usageIndex.getConditionUsages(conditionName);
+  }
+
+  @Override
+  public Collection<SlotUsage> getSlotUsages(final TypeString typeString, final String slotName) {
+    return this.usageIndex.getSlotUsages(typeString, slotName);
+  }
+
+  @Override
+  public List<IDefinition> searchDefinitions(final String query, final int limit) {
+    return this.symbolIndex.search(query, limit);
+  }
+
+  @Override
+  public Collection<IDefinition> getDefinitions(final URI uri) {
+    final Collection<IDefinition> definitions =
+        this.uriDefinitions.getOrDefault(uri.toString(), Collections.emptySet());
+    return Collections.unmodifiableCollection(definitions);
+  }
+
+  @Override
+  public Collection<IDefinition> getDefinitionsFromPath(final Path path) {
+    String prefix = path.toUri().toString();
+    if (prefix.endsWith("/")) {
+      prefix = prefix.substring(0, prefix.length() - 1);
+    }
+
+    // Definitions from the file itself, or any file below the directory.
+    // The upper bound '0' directly follows '/', thus covering all keys starting with `prefix/`.
+    final Set<IDefinition> definitions = new HashSet<>();
+    definitions.addAll(this.uriDefinitions.getOrDefault(prefix, Collections.emptySet()));
+    this.uriDefinitions
+        .subMap(prefix + "/", true, prefix + "0", false)
+        .values()
+        .forEach(definitions::addAll);
+    return Collections.unmodifiableCollection(definitions);
+  }
+
+  private void addToUriIndex(final IDefinition definition) {
+    final Location location = definition.getLocation();
+    if (location == null) {
+      return;
+    }
+
+    final String key = location.getUri().toString();
+    this.uriDefinitions.compute(
+        key,
+        (k, definitions) -> {
+          final Set<IDefinition> newDefinitions =
+              definitions != null ? definitions : ConcurrentHashMap.newKeySet();
+          newDefinitions.add(definition);
+          return newDefinitions;
+        });
+  }
+
+  private void removeFromUriIndex(final IDefinition definition) {
+    final Location location = definition.getLocation();
+    if (location == null) {
+      return;
+    }
+
+    final String key = location.getUri().toString();
+    this.uriDefinitions.computeIfPresent(
+        key,
+        (k, definitions) -> {
+          definitions.remove(definition);
+          return definitions.isEmpty() ? null : definitions;
+        });
+  }
+
+  @Override
+  public long getGeneration() {
+    return this.generation.get();
+  }
+
+  @Override
+  public long getTypeHierarchyGeneration() {
+    return this.typeHierarchyGeneration.get();
+  }
+
+  private void incrementTypeHierarchyGeneration() {
+    this.typeHierarchyGeneration.incrementAndGet();
+    this.generation.incrementAndGet();
+  }
+
   /** Clear any contained {@link MagikDefinition}s. */
   @Override
   public void clear() {
     this.productDefinitions.clear();
     this.moduleDefinitions.clear();
+    this.magikFileDefinitions.clear();
     this.packageDefinitions.clear();
     this.binaryOperatorDefinitions.clear();
     this.conditionDefinitions.clear();
@@ -387,5 +577,9 @@ public class DefinitionKeeper implements IDefinitionKeeper {
     this.methodDefinitions.clear();
     this.globalDefinitions.clear();
     this.procedureDefinitions.clear();
+    this.uriDefinitions.clear();
+    this.usageIndex.clear();
+    this.symbolIndex.clear();
+    this.incrementTypeHierarchyGeneration();
   }
 }
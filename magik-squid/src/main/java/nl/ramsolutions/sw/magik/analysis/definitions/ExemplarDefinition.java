@@ -85,6 +85,28 @@ public class ExemplarDefinition extends MagikDefinition implements ITypeStringDe
     return Collections.unmodifiableList(this.parents);
   }
 
+  /**
+   * Get the parents, or the implicit parent if no parents are defined.
+   *
+   * <p>Indexed and slotted exemplars without parents implicitly inherit from {@code
+   * sw:indexed_format_mixin} and {@code sw:slotted_format_mixin}, respectively.
+   *
+   * @return Parents, or implicit parent.
+   */
+  public List<TypeString> getParentsOrImplicitParent() {
+    if (!this.parents.isEmpty()) {
+      return Collections.unmodifiableList(this.parents);
+    }
+
+    if (this.sort == Sort.INDEXED) {
+      return List.of(TypeString.SW_INDEXED_FORMAT_MIXIN);
+    } else if (this.sort == Sort.SLOTTED) {
+      return List.of(TypeString.SW_SLOTTED_FORMAT_MIXIN);
+    }
+
+    return Collections.emptyList();
+  }
+
   public Set<String> getTopics() {
     return Collections.unmodifiableSet(this.topics);
   }
@@ -1,9 +1,13 @@
 package nl.ramsolutions.sw.magik.analysis.definitions;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import nl.ramsolutions.sw.IDefinition;
 import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
 import nl.ramsolutions.sw.moduledef.ModuleDefinition;
 import nl.ramsolutions.sw.productdef.ProductDefinition;
@@ -310,6 +314,109 @@ public class FilterableDefinitionKeeperAdapter implements IDefinitionKeeper {
         .collect(Collectors.toSet());
   }
 
+  @Override
+  public Collection<MethodUsage> getMethodUsages(final String methodName) {
+    return Stream.concat(
+            this.getMethodDefinitions().stream().flatMap(def -> def.getUsedMethods().stream()),
+            this.getProcedureDefinitions().stream().flatMap(def -> def.getUsedMethods().stream()))
+        .filter(usage -> usage.getMethodName().equals(methodName))
+        .toList();
+  }
+
+  @Override
+  public Collection<GlobalUsage> getGlobalUsages(final TypeString typeString) {
+    final TypeString bareTypeString = typeString.getWithoutGenerics();
+    return Stream.concat(
+            this.getMethodDefinitions().stream().flatMap(def -> def.getUsedGlobals().stream()),
+            this.getProcedureDefinitions().stream().flatMap(def -> def.getUsedGlobals().stream()))
+        .filter(usage -> usage.getTypeName().getWithoutGenerics().equals(bareTypeString))
+        .toList();
+  }
+
+  @Override
+  public Collection<ConditionUsage> getConditionUsages(final String conditionName) {
+    return Stream.concat(
+            this.getMethodDefinitions().stream().flatMap(def -> def.getUsedConditions().stream()),
+            this.getProcedureDefinitions().stream()
+                .flatMap(def -> def.getUsedConditions().stream()))
+        .filter(usage -> usage.getConditionName().equals(conditionName))
+        .toList();
+  }
+
+  @Override
+  public Collection<SlotUsage> getSlotUsages(final TypeString typeString, final String slotName) {
+    final TypeString bareTypeString = typeString.getWithoutGenerics();
+    return this.getMethodDefinitions().stream()
+        .filter(def -> def.getTypeName().getWithoutGenerics().equals(bareTypeString))
+        .flatMap(def -> def.getUsedSlots().stream())
+        .filter(usage -> usage.getSlotName().equals(slotName))
+        .toList();
+  }
+
+  @Override
+  public List<IDefinition> searchDefinitions(final String query, final int limit) {
+    return this.definitionKeeper.searchDefinitions(query, Integer.MAX_VALUE).stream()
+        .filter(this::isIncluded)
+        .limit(limit)
+        .toList();
+  }
+
+  @Override
+  public Collection<IDefinition> getDefinitions(final URI uri) {
+    return this.definitionKeeper.getDefinitions(uri).stream()
+        .filter(this::isIncluded)
+        .collect(Collectors.toSet());
+  }
+
+  @Override
+  public Collection<IDefinition> getDefinitionsFromPath(final Path path) {
+    return this.definitionKeeper.getDefinitionsFromPath(path).stream()
+        .filter(this::isIncluded)
+        .collect(Collectors.toSet());
+  }
+
+  private boolean isIncluded(final IDefinition definition) {
+    if (definition instanceof ProductDefinition productDefinition) {
+      return this.productDefinitionPredicate.test(productDefinition);
+    } else if (definition instanceof ModuleDefinition moduleDefinition) {
+      return this.moduleDefinitionPredicate.test(moduleDefinition);
+    } else if (definition instanceof MagikFileDefinition magikFileDefinition) {
+      return this.magikFileDefinitionPredicate.test(magikFileDefinition);
+    }
+
+    return this.isMagikDefinitionIncluded(definition);
+  }
+
+  private boolean isMagikDefinitionIncluded(final IDefinition definition) {
+    if (definition instanceof PackageDefinition packageDefinition) {
+      return this.packageDefinitionPredicate.test(packageDefinition);
+    } else if (definition instanceof ExemplarDefinition exemplarDefinition) {
+      return this.exemplarDefinitionPredicate.test(exemplarDefinition);
+    } else if (definition instanceof MethodDefinition methodDefinition) {
+      return this.methodDefinitionPredicate.test(methodDefinition);
+    } else if (definition instanceof GlobalDefinition globalDefinition) {
+      return this.globalDefinitionPredicate.test(globalDefinition);
+    } else if (definition instanceof BinaryOperatorDefinition binaryOperatorDefinition) {
+      return this.binaryOperatorDefinitionPredicate.test(binaryOperatorDefinition);
+    } else if (definition instanceof ConditionDefinition conditionDefinition) {
+      return this.conditionDefinitionPredicate.test(conditionDefinition);
+    } else if (definition instanceof ProcedureDefinition procedureDefinition) {
+      return this.procedureDefinitionPredicate.test(procedureDefinition);
+    }
+
+    return false;
+  }
+
+  @Override
+  public long getGeneration() {
+    return this.definitionKeeper.getGeneration();
+  }
+
+  @Override
+  public long getTypeHierarchyGeneration() {
+    return this.definitionKeeper.getTypeHierarchyGeneration();
+  }
+
   @Override
   public void clear() {
     throw new UnsupportedOperationException();
@@ -1,7 +1,10 @@
 package nl.ramsolutions.sw.magik.analysis.definitions;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
+import nl.ramsolutions.sw.IDefinition;
 import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
 import nl.ramsolutions.sw.moduledef.ModuleDefinition;
 import nl.ramsolutions.sw.productdef.ProductDefinition;
@@ -90,5 +93,85 @@ public interface IDefinitionKeeper {
 
   Collection<ProcedureDefinition> getProcedureDefinitions();
 
+  /**
+   * Get all usages of the method with the given name, by methods and procedures.
+   *
+   * @param methodName Name of the used method.
+   * @return Usages of the method.
+   */
+  Collection<MethodUsage> getMethodUsages(String methodName);
+
+  /**
+   * Get all usages of the given global, by methods and procedures.
+   *
+   * @param typeString Global, generics are ignored.
+   * @return Usages of the global.
+   */
+  Collection<GlobalUsage> getGlobalUsages(TypeString typeString);
+
+  /**
+   * Get all usages of the condition with the given name, by methods and procedures.
+   *
+   * @param conditionName Name of the used condition.
+   * @return Usages of the condition.
+   */
+  Collection<ConditionUsage> getConditionUsages(String conditionName);
+
+  /**
+   * Get all usages of the slot with the given name, by methods of the given type.
+   *
+   * @param typeString Type the methods are defined on, generics are ignored.
+   * @param slotName Name of the used slot.
+   * @return Usages of the slot.
+   */
+  Collection<SlotUsage> getSlotUsages(TypeString typeString, String slotName);
+
+  /**
+   * Search {@link ProductDefinition}s, {@link ModuleDefinition}s, {@link ExemplarDefinition}s,
+   * {@link MethodDefinition}s and {@link ConditionDefinition}s by name.
+   *
+   * <p>The query is matched case insensitive against (part of) the name. A query of the form {@code
+   * type.method} matches {@link MethodDefinition}s only.
+   *
+   * @param query Query to search for.
+   * @param limit Maximum number of results.
+   * @return Matching definitions, best matches first.
+   */
+  List<IDefinition> searchDefinitions(String query, int limit);
+
+  /**
+   * Get all definitions originating from the given {@link URI}.
+   *
+   * @param uri {@link URI} of the file.
+   * @return Definitions from the file.
+   */
+  Collection<IDefinition> getDefinitions(URI uri);
+
+  /**
+   * Get all definitions originating from the given path, or any file below it if path is a
+   * directory.
+   *
+   * @param path Path to file or directory.
+   * @return Definitions from path or lower.
+   */
+  Collection<IDefinition> getDefinitionsFromPath(Path path);
+
+  /**
+   * Get the generation of this keeper. The generation changes whenever a definition relevant for
+   * type resolving (package, exemplar, method, global or procedure) is added or removed.
+   *
+   * @return Current generation.
+   */
+  long getGeneration();
+
+  /**
+   * Get the type hierarchy generation of this keeper. The type hierarchy generation changes
+   * whenever a definition which can be resolved as a type (package, exemplar, global or procedure)
+   * is added or removed, but not when a method is added or removed.
+   *
+   * @return Current type hierarchy generation.
+   */
+  long getTypeHierarchyGeneration();
+
   void clear();
 }
@@ -6,15 +6,57 @@ import java.util.Objects;
 import nl.ramsolutions.sw.IDefinition;
 import nl.ramsolutions.sw.magik.Location;
 
-/** Magik file definition. */
+/**
+ * Magik file definition.
+ *
+ * <p>Besides the timestamp, a hash of the content of the file is kept. When only the timestamp of a
+ * file has changed, e.g., after a {@code git checkout}, the file does not need to be indexed again.
+ */
 public class MagikFileDefinition implements IDefinition {
 
+  /** Content hash denoting an unknown content hash, e.g., from an older types database. */
+  public static final long UNKNOWN_CONTENT_HASH = 0L;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
   private final Location location;
   private final Instant timestamp;
+  private final long contentHash;
 
   public MagikFileDefinition(final Location location, final Instant timestamp) {
+    this(location, timestamp, UNKNOWN_CONTENT_HASH);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param location Location of file.
+   * @param timestamp Timestamp of file.
+   * @param contentHash Hash of content of file, see {@link #hashContent(String)}.
+   */
+  public MagikFileDefinition(
+      final Location location, final Instant timestamp, final long contentHash) {
     this.location = location;
     this.timestamp = timestamp;
+    this.contentHash = contentHash;
+  }
+
+  /**
+   * Hash the content of a file, using the (non-cryptographic) FNV-1a hash.
+   *
+   * @param content Content of file.
+   * @return Hash of content.
+   */
+  public static long hashContent(final String content) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < content.length(); ++i) {
+      hash ^= content.charAt(i);
+      hash *= FNV_PRIME;
+    }
+
+    // Never collide with the unknown hash.
+    return hash != UNKNOWN_CONTENT_HASH ? hash : 1L;
   }
 
   @Override
@@ -27,13 +69,22 @@ public class MagikFileDefinition implements IDefinition {
     return this.timestamp;
   }
 
+  /**
+   * Get the hash of the content of the file.
+   *
+   * @return Hash of content, or {@link #UNKNOWN_CONTENT_HASH} if unknown.
+   */
+  public long getContentHash() {
+    return this.contentHash;
+  }
+
   public URI getUri() {
     return this.location.getUri();
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(this.location, this.timestamp);
+    return Objects.hash(this.location, this.timestamp, this.contentHash);
   }
 
   @Override
@@ -52,6 +103,7 @@ public class MagikFileDefinition implements IDefinition {
 
     final MagikFileDefinition otherMagikFileDef = (MagikFileDefinition) obj;
     return Objects.equals(otherMagikFileDef.getLocation(), this.getLocation())
-        && Objects.equals(otherMagikFileDef.getTimestamp(), this.getTimestamp());
+        && Objects.equals(otherMagikFileDef.getTimestamp(), this.getTimestamp())
+        && otherMagikFileDef.getContentHash() == this.getContentHash();
   }
 }
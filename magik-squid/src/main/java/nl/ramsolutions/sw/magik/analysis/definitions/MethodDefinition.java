@@ -126,10 +126,10 @@ public class MethodDefinition extends MagikDefinition implements ICallableDefini
     this.topics = Set.copyOf(topics);
     this.returnTypes = returnTypes;
     this.loopTypes = loopTypes;
-    this.usedGlobals = Collections.unmodifiableSet(usedGlobals);
-    this.usedMethods = Collections.unmodifiableSet(usedMethods);
-    this.usedSlots = Collections.unmodifiableSet(usedSlots);
-    this.usedConditions = Collections.unmodifiableSet(usedConditions);
+    this.usedGlobals = Set.copyOf(usedGlobals);
+    this.usedMethods = Set.copyOf(usedMethods);
+    this.usedSlots = Set.copyOf(usedSlots);
+    this.usedConditions = Set.copyOf(usedConditions);
   }
 
   /**
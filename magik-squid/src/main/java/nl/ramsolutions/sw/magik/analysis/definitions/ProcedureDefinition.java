@@ -108,9 +108,9 @@ public class ProcedureDefinition extends MagikDefinition
     this.parameters = List.copyOf(parameters);
     this.returnTypes = returnTypes;
     this.loopTypes = loopTypes;
-    this.usedGlobals = Collections.unmodifiableSet(usedGlobals);
-    this.usedMethods = Collections.unmodifiableSet(usedMethods);
-    this.usedConditions = Collections.unmodifiableSet(usedConditions);
+    this.usedGlobals = Set.copyOf(usedGlobals);
+    this.usedMethods = Set.copyOf(usedMethods);
+    this.usedConditions = Set.copyOf(usedConditions);
   }
 
   public Set<Modifier> getModifiers() {
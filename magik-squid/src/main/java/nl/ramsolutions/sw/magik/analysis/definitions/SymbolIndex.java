@@ -0,0 +1,361 @@
+package nl.ramsolutions.sw.magik.analysis.definitions;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import nl.ramsolutions.sw.IDefinition;
+import nl.ramsolutions.sw.moduledef.ModuleDefinition;
+import nl.ramsolutions.sw.productdef.ProductDefinition;
+
+/**
+ * Index for searching definitions by (part of) their name.
+ *
+ * <p>Names are indexed by trigram, and by each word start (the start of the name and any character
+ * following a '_' or ':'). Queries of at least three characters are looked up via the trigrams,
+ * shorter queries match words starting with the query.
+ *
+ * <p>Products, modules, exemplars and conditions are indexed by name. Methods are indexed by method
+ * name and by type name. A query of the form {@code type.method} only matches methods.
+ *
+ * <p>Queries are plain text, not regular expressions.
+ */
+class SymbolIndex {
+
+  private static final int TRIGRAM_LENGTH = 3;
+
+  private static final int SCORE_EXACT = 4;
+  private static final int SCORE_PREFIX = 3;
+  private static final int SCORE_WORD_START = 2;
+  private static final int SCORE_SUBSTRING = 1;
+
+  private final TermIndex<IDefinition> nameIndex = new TermIndex<>();
+  private final TermIndex<MethodDefinition> typeIndex = new TermIndex<>();
+
+  void add(final ProductDefinition definition) {
+    this.nameIndex.add(SymbolIndex.getName(definition), definition);
+  }
+
+  void add(final ModuleDefinition definition) {
+    this.nameIndex.add(SymbolIndex.getName(definition), definition);
+  }
+
+  void add(final ExemplarDefinition definition) {
+    this.nameIndex.add(SymbolIndex.getName(definition), definition);
+  }
+
+  void add(final MethodDefinition definition) {
+    this.nameIndex.add(SymbolIndex.getName(definition), definition);
+    this.typeIndex.add(SymbolIndex.getTypeName(definition), definition);
+  }
+
+  void add(final ConditionDefinition definition) {
+    this.nameIndex.add(SymbolIndex.getName(definition), definition);
+  }
+
+  void remove(final ProductDefinition definition) {
+    this.nameIndex.remove(SymbolIndex.getName(definition), definition);
+  }
+
+  void remove(final ModuleDefinition definition) {
+    this.nameIndex.remove(SymbolIndex.getName(definition), definition);
+  }
+
+  void remove(final ExemplarDefinition definition) {
+    this.nameIndex.remove(SymbolIndex.getName(definition), definition);
+  }
+
+  void remove(final MethodDefinition definition) {
+    this.nameIndex.remove(SymbolIndex.getName(definition), definition);
+    this.typeIndex.remove(SymbolIndex.getTypeName(definition), definition);
+  }
+
+  void remove(final ConditionDefinition definition) {
+    this.nameIndex.remove(SymbolIndex.getName(definition), definition);
+  }
+
+  /**
+   * Search definitions matching the query.
+   *
+   * @param query Query, case insensitive.
+   * @param limit Maximum number of results.
+   * @return Matching definitions, best matches first.
+   */
+  List<IDefinition> search(final String query, final int limit) {
+    final String lowerQuery = query.trim().toLowerCase();
+    final int dotIndex = lowerQuery.indexOf('.');
+    if (dotIndex == -1) {
+      return this.searchNames(lowerQuery, limit);
+    }
+
+    final String typeQuery = lowerQuery.substring(0, dotIndex);
+    final String methodQuery = lowerQuery.substring(dotIndex + 1);
+    return this.searchMethods(typeQuery, methodQuery, limit);
+  }
+
+  private List<IDefinition> searchNames(final String query, final int limit) {
+    final Collection<IDefinition> candidates = this.nameIndex.getCandidates(query);
+    if (candidates == null) {
+      return Collections.emptyList();
+    }
+
+    return candidates.stream()
+        .filter(definition -> SymbolIndex.getName(definition).contains(query))
+        .sorted(SymbolIndex.byScore(query, SymbolIndex::getName))
+        .limit(limit)
+        .toList();
+  }
+
+  private List<IDefinition> searchMethods(
+      final String typeQuery, final String methodQuery, final int limit) {
+    final Collection<IDefinition> nameCandidates = this.nameIndex.getCandidates(methodQuery);
+    final Collection<MethodDefinition> typeCandidates = this.typeIndex.getCandidates(typeQuery);
+    final Collection<? extends IDefinition> candidates;
+    if (nameCandidates == null && typeCandidates == null) {
+      return Collections.emptyList();
+    } else if (nameCandidates == null
+        || (typeCandidates != null && typeCandidates.size() < nameCandidates.size())) {
+      candidates = typeCandidates;
+    } else {
+      candidates = nameCandidates;
+    }
+
+    return candidates.stream()
+        .filter(MethodDefinition.class::isInstance)
+        .map(MethodDefinition.class::cast)
+        .filter(definition -> SymbolIndex.getName(definition).contains(methodQuery))
+        .filter(definition -> SymbolIndex.getTypeName(definition).contains(typeQuery))
+        .sorted(
+            SymbolIndex.<MethodDefinition>byScore(methodQuery, SymbolIndex::getName)
+                .thenComparing(SymbolIndex.byScore(typeQuery, SymbolIndex::getTypeName)))
+        .limit(limit)
+        .map(IDefinition.class::cast)
+        .toList();
+  }
+
+  void clear() {
+    this.nameIndex.clear();
+    this.typeIndex.clear();
+  }
+
+  private static <D> Comparator<D> byScore(final String query, final Function<D, String> getter) {
+    final Comparator<D> byScore =
+        Comparator.comparingInt(definition -> -SymbolIndex.score(getter.apply(definition), query));
+    return byScore
+        .thenComparingInt(definition -> getter.apply(definition).length())
+        .thenComparing(getter);
+  }
+
+  /**
+   * Score how well {@code name} matches {@code query}, higher is better.
+   *
+   * @param name Name, containing query.
+   * @param query Query.
+   * @return Score.
+   */
+  private static int score(final String name, final String query) {
+    if (name.equals(query)) {
+      return SCORE_EXACT;
+    } else if (name.startsWith(query)) {
+      return SCORE_PREFIX;
+    }
+
+    int index = name.indexOf(query);
+    while (index != -1) {
+      if (SymbolIndex.isWordStart(name, index)) {
+        return SCORE_WORD_START;
+      }
+      index = name.indexOf(query, index + 1);
+    }
+    return SCORE_SUBSTRING;
+  }
+
+  private static boolean isWordStart(final String name, final int index) {
+    if (index == 0) {
+      return true;
+    }
+
+    final char previousChr = name.charAt(index - 1);
+    return previousChr == '_' || previousChr == ':';
+  }
+
+  private static String getName(final IDefinition definition) {
+    final String name;
+    if (definition instanceof ProductDefinition productDefinition) {
+      name = productDefinition.getName();
+    } else if (definition instanceof ModuleDefinition moduleDefinition) {
+      name = moduleDefinition.getName();
+    } else if (definition instanceof ExemplarDefinition exemplarDefinition) {
+      name = exemplarDefinition.getTypeString().getFullString();
+    } else if (definition instanceof MethodDefinition methodDefinition) {
+      name = methodDefinition.getMethodName();
+    } else if (definition instanceof ConditionDefinition conditionDefinition) {
+      name = conditionDefinition.getName();
+    } else {
+      throw new IllegalStateException();
+    }
+    return name.toLowerCase();
+  }
+
+  private static String getTypeName(final MethodDefinition definition) {
+    return definition.getTypeName().getFullString().toLowerCase();
+  }
+
+  /**
+   * Posting of a definition, caching the hash code of the definition.
+   *
+   * <p>A definition is in many posting sets, hashing (e.g., a {@link MethodDefinition}) is costly.
+   *
+   * @param <D> Type of definition.
+   */
+  private static final class Posting<D> {
+
+    private final D definition;
+    private final int hash;
+
+    Posting(final D definition) {
+      this.definition = definition;
+      this.hash = definition.hashCode();
+    }
+
+    D getDefinition() {
+      return this.definition;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+
+      if (obj == null || this.getClass() != obj.getClass()) {
+        return false;
+      }
+
+      final Posting<?> other = (Posting<?>) obj;
+      return this.hash == other.hash && this.definition.equals(other.definition);
+    }
+  }
+
+  /**
+   * Trigram and word start index over a single (lower case) term per definition.
+   *
+   * @param <D> Type of definition.
+   */
+  private static final class TermIndex<D> {
+
+    private final Map<String, Set<Posting<D>>> trigrams = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<Posting<D>>> wordStarts = new ConcurrentSkipListMap<>();
+
+    void add(final String term, final D definition) {
+      final Posting<D> posting = new Posting<>(definition);
+      TermIndex.getTrigrams(term)
+          .forEach(trigram -> TermIndex.addPosting(this.trigrams, trigram, posting));
+      TermIndex.getWordStarts(term)
+          .forEach(wordStart -> TermIndex.addPosting(this.wordStarts, wordStart, posting));
+    }
+
+    void remove(final String term, final D definition) {
+      final Posting<D> posting = new Posting<>(definition);
+      TermIndex.getTrigrams(term)
+          .forEach(trigram -> TermIndex.removePosting(this.trigrams, trigram, posting));
+      TermIndex.getWordStarts(term)
+          .forEach(wordStart -> TermIndex.removePosting(this.wordStarts, wordStart, posting));
+    }
+
+    /**
+     * Get the candidates which might contain {@code query}. Candidates still need to be verified.
+     *
+     * @param query Query.
+     * @return Candidates, or null if the query is empty and thus does not constrain anything.
+     */
+    @CheckForNull
+    Collection<D> getCandidates(final String query) {
+      if (query.isEmpty()) {
+        return null;
+      }
+
+      if (query.length() < TRIGRAM_LENGTH) {
+        final Set<Posting<D>> candidates = new HashSet<>();
+        this.wordStarts
+            .subMap(query, true, query + Character.MAX_VALUE, false)
+            .values()
+            .forEach(candidates::addAll);
+        return TermIndex.getDefinitions(candidates);
+      }
+
+      // Use the smallest posting list, any candidate must contain all trigrams anyway.
+      Set<Posting<D>> smallestPostings = null;
+      for (final String trigram : TermIndex.getTrigrams(query)) {
+        final Set<Posting<D>> postings =
+            this.trigrams.getOrDefault(trigram, Collections.emptySet());
+        if (smallestPostings == null || postings.size() < smallestPostings.size()) {
+          smallestPostings = postings;
+        }
+      }
+      return TermIndex.getDefinitions(smallestPostings);
+    }
+
+    private static <D> List<D> getDefinitions(final Collection<Posting<D>> postings) {
+      return postings.stream().map(Posting::getDefinition).toList();
+    }
+
+    void clear() {
+      this.trigrams.clear();
+      this.wordStarts.clear();
+    }
+
+    private static Set<String> getTrigrams(final String term) {
+      final Set<String> trigrams = new HashSet<>();
+      for (int i = 0; i + TRIGRAM_LENGTH <= term.length(); ++i) {
+        trigrams.add(term.substring(i, i + TRIGRAM_LENGTH));
+      }
+      return trigrams;
+    }
+
+    private static Set<String> getWordStarts(final String term) {
+      final Set<String> wordStarts = new HashSet<>();
+      for (int i = 0; i < term.length(); ++i) {
+        if (SymbolIndex.isWordStart(term, i)) {
+          wordStarts.add(term.substring(i));
+        }
+      }
+      return wordStarts;
+    }
+
+    private static <K, V> void addPosting(
+        final Map<K, Set<V>> postings, final K key, final V definition) {
+      postings.compute(
+          key,
+          (k, definitions) -> {
+            final Set<V> newDefinitions =
+                definitions != null ? definitions : ConcurrentHashMap.newKeySet();
+            newDefinitions.add(definition);
+            return newDefinitions;
+          });
+    }
+
+    private static <K, V> void removePosting(
+        final Map<K, Set<V>> postings, final K key, final V definition) {
+      postings.computeIfPresent(
+          key,
+          (k, definitions) -> {
+            definitions.remove(definition);
+            return definitions.isEmpty() ? null : definitions;
+          });
+    }
+  }
+}
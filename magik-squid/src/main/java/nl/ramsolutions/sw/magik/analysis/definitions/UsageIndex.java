@@ -0,0 +1,221 @@
+package nl.ramsolutions.sw.magik.analysis.definitions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+
+/**
+ * Inverted index of usages, mapping a used method name, global, condition name or slot name to the
+ * definitions using it.
+ *
+ * <p>The definitions are indexed, not the usages themselves, as usages are equal regardless of
+ * their location.
+ */
+class UsageIndex {
+
+  private final Map<String, Set<MethodDefinition>> methodUsersMethods = new ConcurrentHashMap<>();
+  private final Map<String, Set<ProcedureDefinition>> methodUsersProcedures =
+      new ConcurrentHashMap<>();
+  private final Map<TypeString, Set<MethodDefinition>> globalUsersMethods =
+      new ConcurrentHashMap<>();
+  private final Map<TypeString, Set<ProcedureDefinition>> globalUsersProcedures =
+      new ConcurrentHashMap<>();
+  private final Map<String, Set<MethodDefinition>> conditionUsersMethods =
+      new ConcurrentHashMap<>();
+  private final Map<String, Set<ProcedureDefinition>> conditionUsersProcedures =
+      new ConcurrentHashMap<>();
+  private final Map<String, Set<MethodDefinition>> slotUsersMethods = new ConcurrentHashMap<>();
+
+  void add(final MethodDefinition definition) {
+    definition
+        .getUsedMethods()
+        .forEach(
+            usage ->
+                UsageIndex.addPosting(this.methodUsersMethods, usage.getMethodName(), definition));
+    definition
+        .getUsedGlobals()
+        .forEach(
+            usage ->
+                UsageIndex.addPosting(
+                    this.globalUsersMethods, usage.getTypeName().getWithoutGenerics(), definition));
+    definition
+        .getUsedConditions()
+        .forEach(
+            usage ->
+                UsageIndex.addPosting(
+                    this.conditionUsersMethods, usage.getConditionName(), definition));
+    definition
+        .getUsedSlots()
+        .forEach(
+            usage -> UsageIndex.addPosting(this.slotUsersMethods, usage.getSlotName(), definition));
+  }
+
+  void add(final ProcedureDefinition definition) {
+    definition
+        .getUsedMethods()
+        .forEach(
+            usage ->
+                UsageIndex.addPosting(
+                    this.methodUsersProcedures, usage.getMethodName(), definition));
+    definition
+        .getUsedGlobals()
+        .forEach(
+            usage ->
+                UsageIndex.addPosting(
+                    this.globalUsersProcedures,
+                    usage.getTypeName().getWithoutGenerics(),
+                    definition));
+    definition
+        .getUsedConditions()
+        .forEach(
+            usage ->
+                UsageIndex.addPosting(
+                    this.conditionUsersProcedures, usage.getConditionName(), definition));
+  }
+
+  void remove(final MethodDefinition definition) {
+    definition
+        .getUsedMethods()
+        .forEach(
+            usage ->
+                UsageIndex.removePosting(
+                    this.methodUsersMethods, usage.getMethodName(), definition));
+    definition
+        .getUsedGlobals()
+        .forEach(
+            usage ->
+                UsageIndex.removePosting(
+                    this.globalUsersMethods, usage.getTypeName().getWithoutGenerics(), definition));
+    definition
+        .getUsedConditions()
+        .forEach(
+            usage ->
+                UsageIndex.removePosting(
+                    this.conditionUsersMethods, usage.getConditionName(), definition));
+    definition
+        .getUsedSlots()
+        .forEach(
+            usage ->
+                UsageIndex.removePosting(this.slotUsersMethods, usage.getSlotName(), definition));
+  }
+
+  void remove(final ProcedureDefinition definition) {
+    definition
+        .getUsedMethods()
+        .forEach(
+            usage ->
+                UsageIndex.removePosting(
+                    this.methodUsersProcedures, usage.getMethodName(), definition));
+    definition
+        .getUsedGlobals()
+        .forEach(
+            usage ->
+                UsageIndex.removePosting(
+                    this.globalUsersProcedures,
+                    usage.getTypeName().getWithoutGenerics(),
+                    definition));
+    definition
+        .getUsedConditions()
+        .forEach(
+            usage ->
+                UsageIndex.removePosting(
+                    this.conditionUsersProcedures, usage.getConditionName(), definition));
+  }
+
+  Collection<MethodUsage> getMethodUsages(final String methodName) {
+    return UsageIndex.collectUsages(
+        methodName,
+        this.methodUsersMethods,
+        MethodDefinition::getUsedMethods,
+        this.methodUsersProcedures,
+        ProcedureDefinition::getUsedMethods,
+        MethodUsage::getMethodName);
+  }
+
+  Collection<GlobalUsage> getGlobalUsages(final TypeString typeString) {
+    final TypeString bareTypeString = typeString.getWithoutGenerics();
+    return UsageIndex.collectUsages(
+        bareTypeString,
+        this.globalUsersMethods,
+        MethodDefinition::getUsedGlobals,
+        this.globalUsersProcedures,
+        ProcedureDefinition::getUsedGlobals,
+        usage -> usage.getTypeName().getWithoutGenerics());
+  }
+
+  Collection<ConditionUsage> getConditionUsages(final String conditionName) {
+    return UsageIndex.collectUsages(
+        conditionName,
+        this.conditionUsersMethods,
+        MethodDefinition::getUsedConditions,
+        this.conditionUsersProcedures,
+        ProcedureDefinition::getUsedConditions,
+        ConditionUsage::getConditionName);
+  }
+
+  Collection<SlotUsage> getSlotUsages(final TypeString typeString, final String slotName) {
+    final TypeString bareTypeString = typeString.getWithoutGenerics();
+    return this.slotUsersMethods.getOrDefault(slotName, Collections.emptySet()).stream()
+        .filter(def -> def.getTypeName().getWithoutGenerics().equals(bareTypeString))
+        .flatMap(def -> def.getUsedSlots().stream())
+        .filter(usage -> usage.getSlotName().equals(slotName))
+        .toList();
+  }
+
+  void clear() {
+    this.methodUsersMethods.clear();
+    this.methodUsersProcedures.clear();
+    this.globalUsersMethods.clear();
+    this.globalUsersProcedures.clear();
+    this.conditionUsersMethods.clear();
+    this.conditionUsersProcedures.clear();
+    this.slotUsersMethods.clear();
+  }
+
+  private static <K, U> List<U> collectUsages(
+      final K key,
+      final Map<K, Set<MethodDefinition>> methodUsers,
+      final Function<MethodDefinition, Set<U>> methodUsagesGetter,
+      final Map<K, Set<ProcedureDefinition>> procedureUsers,
+      final Function<ProcedureDefinition, Set<U>> procedureUsagesGetter,
+      final Function<U, K> keyGetter) {
+    final List<U> usages = new ArrayList<>();
+    methodUsers.getOrDefault(key, Collections.emptySet()).stream()
+        .flatMap(def -> methodUsagesGetter.apply(def).stream())
+        .filter(usage -> keyGetter.apply(usage).equals(key))
+        .forEach(usages::add);
+    procedureUsers.getOrDefault(key, Collections.emptySet()).stream()
+        .flatMap(def -> procedureUsagesGetter.apply(def).stream())
+        .filter(usage -> keyGetter.apply(usage).equals(key))
+        .forEach(usages::add);
+    return Collections.unmodifiableList(usages);
+  }
+
+  private static <K, D> void addPosting(
+      final Map<K, Set<D>> postings, final K key, final D definition) {
+    postings.compute(
+        key,
+        (k, definitions) -> {
+          final Set<D> newDefinitions =
+              definitions != null ? definitions : ConcurrentHashMap.newKeySet();
+          newDefinitions.add(definition);
+          return newDefinitions;
+        });
+  }
+
+  private static <K, D> void removePosting(
+      final Map<K, Set<D>> postings, final K key, final D definition) {
+    postings.computeIfPresent(
+        key,
+        (k, definitions) -> {
+          definitions.remove(definition);
+          return definitions.isEmpty() ? null : definitions;
+        });
+  }
+}
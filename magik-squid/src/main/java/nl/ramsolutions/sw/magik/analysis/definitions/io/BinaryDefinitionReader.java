@@ -0,0 +1,588 @@
+package nl.ramsolutions.sw.magik.analysis.definitions.io;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.definitions.BinaryOperatorDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ConditionDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ConditionUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionInterner;
+import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.GlobalDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.GlobalUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.MagikFileDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.PackageDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ParameterDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ProcedureDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.SlotDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.SlotUsage;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+import nl.ramsolutions.sw.magik.parser.TypeStringParser;
+import nl.ramsolutions.sw.moduledef.ModuleDefinition;
+import nl.ramsolutions.sw.moduledef.ModuleUsage;
+import nl.ramsolutions.sw.productdef.ProductDefinition;
+import nl.ramsolutions.sw.productdef.ProductUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary TypeKeeper reader.
+ *
+ * <p>The file is read into memory at once, as all records are read. Strings and {@link TypeString}s
+ * are decoded at most once, as records refer to them by index in the string table. Definitions are
+ * only added to the {@link IDefinitionKeeper} when all records are read successfully.
+ *
+ * <p>The file is not memory-mapped and records are not materialised lazily. The {@link
+ * IDefinitionKeeper} holds definition objects and indexes them when added, so every record is
+ * materialised on startup anyway, and a mapped file stays locked on Windows until the mapping is
+ * garbage collected. The gain over the JSON-line format comes from skipping the JSON parsing and
+ * decoding each string once, see the startup benchmark in {@code BinaryDefinitionReaderTest}.
+ */
+public final class BinaryDefinitionReader {
+
+  /** Common fields of a {@code MagikDefinition}. */
+  private static final class MagikFields {
+
+    private final Location location;
+    private final Instant timestamp;
+    private final String moduleName;
+    private final String doc;
+
+    MagikFields(
+        final @Nullable Location location,
+        final @Nullable Instant timestamp,
+        final @Nullable String moduleName,
+        final @Nullable String doc) {
+      this.location = location;
+      this.timestamp = timestamp;
+      this.moduleName = moduleName;
+      this.doc = doc;
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BinaryDefinitionReader.class);
+  private static final Instruction[] INSTRUCTIONS = Instruction.values();
+  private static final ExemplarDefinition.Sort[] SORTS = ExemplarDefinition.Sort.values();
+  private static final MethodDefinition.Modifier[] METHOD_MODIFIERS =
+      MethodDefinition.Modifier.values();
+  private static final ProcedureDefinition.Modifier[] PROCEDURE_MODIFIERS =
+      ProcedureDefinition.Modifier.values();
+  private static final ParameterDefinition.Modifier[] PARAMETER_MODIFIERS =
+      ParameterDefinition.Modifier.values();
+
+  private final IDefinitionKeeper definitionKeeper;
+  private final DefinitionInterner interner = new DefinitionInterner();
+  private final List<Runnable> additions = new ArrayList<>();
+  private ByteBuffer buffer;
+  private int formatVersion;
+  private int[] stringOffsets;
+  private String[] strings;
+  private TypeString[] typeStrings;
+  private URI[] uris;
+
+  private BinaryDefinitionReader(final IDefinitionKeeper definitionKeeper) {
+    this.definitionKeeper = definitionKeeper;
+  }
+
+  private void run(final Path path) throws IOException {
+    LOGGER.debug("Reading binary type database from path: {}", path);
+
+    // Not memory-mapped, a mapping keeps the file locked on Windows until garbage collected.
+    this.buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    try {
+      this.readHeaderAndRecords();
+    } catch (final BufferUnderflowException
+        | IndexOutOfBoundsException
+        | IllegalArgumentException
+        | NegativeArraySizeException exception) {
+      throw new IOException("Corrupt binary type database: " + path, exception);
+    }
+
+    // Only add the definitions when the whole file is read, a partially read file would leave
+    // files which look indexed, but miss definitions.
+    this.additions.forEach(Runnable::run);
+  }
+
+  private <T> void stage(final T definition, final Consumer<T> adder) {
+    this.additions.add(() -> adder.accept(definition));
+  }
+
+  private void readHeaderAndRecords() throws IOException {
+    final int magic = this.buffer.getInt();
+    final int version = this.buffer.getInt();
+    if (magic != BinaryFormat.MAGIC
+        || version < BinaryFormat.MINIMUM_VERSION
+        || version > BinaryFormat.VERSION) {
+      throw new IOException("Not a binary type database, or unsupported version: " + version);
+    }
+    this.formatVersion = version;
+
+    final int stringCount = this.buffer.getInt();
+    final int recordCount = this.buffer.getInt();
+
+    // Only register where the strings are, decoding is done on first use.
+    this.stringOffsets = new int[stringCount];
+    this.strings = new String[stringCount];
+    this.typeStrings = new TypeString[stringCount];
+    this.uris = new URI[stringCount];
+    for (int i = 0; i < stringCount; ++i) {
+      final int length = this.buffer.getInt();
+      this.stringOffsets[i] = this.buffer.position() - Integer.BYTES;
+      this.buffer.position(this.buffer.position() + length);
+    }
+
+    for (int i = 0; i < recordCount; ++i) {
+      this.readRecord();
+    }
+  }
+
+  private void readRecord() throws IOException {
+    final Instruction instruction = INSTRUCTIONS[this.buffer.get()];
+    switch (instruction) {
+      case PRODUCT:
+        this.stage(this.readProduct(), this.definitionKeeper::add);
+        break;
+
+      case MODULE:
+        this.stage(this.readModule(), this.definitionKeeper::add);
+        break;
+
+      case MAGIK_FILE:
+        this.stage(this.readMagikFile(), this.definitionKeeper::add);
+        break;
+
+      case PACKAGE:
+        this.stage(this.readPackage(), this.definitionKeeper::add);
+        break;
+
+      case TYPE:
+        this.stage(this.readExemplar(), this::handleType);
+        break;
+
+      default:
+        this.readOtherRecord(instruction);
+        break;
+    }
+  }
+
+  private void readOtherRecord(final Instruction instruction) throws IOException {
+    switch (instruction) {
+      case GLOBAL:
+        this.stage(this.readGlobal(), this.definitionKeeper::add);
+        break;
+
+      case METHOD:
+        this.stage(this.readMethod(), this.definitionKeeper::add);
+        break;
+
+      case PROCEDURE:
+        this.stage(this.readProcedure(), this.definitionKeeper::add);
+        break;
+
+      case CONDITION:
+        this.stage(this.readCondition(), this.definitionKeeper::add);
+        break;
+
+      case BINARY_OPERATOR:
+        this.stage(this.readBinaryOperator(), this.definitionKeeper::add);
+        break;
+
+      default:
+        throw new IOException("Unexpected instruction: " + instruction);
+    }
+  }
+
+  private void handleType(final ExemplarDefinition definition) {
+    // We are allowed to overwrite definitions which have no location, as these will most likely
+    // be the default definitions from DefaultDefinitionsAdder.
+    final TypeString typeString = definition.getTypeString();
+    this.definitionKeeper.getExemplarDefinitions(typeString).stream()
+        .filter(def -> def.getLocation() == null)
+        .forEach(this.definitionKeeper::remove);
+
+    this.definitionKeeper.add(definition);
+  }
+
+  private ProductDefinition readProduct() {
+    final Location location = this.readLocation();
+    final Instant timestamp = this.readTimestamp();
+    final String name = this.readString();
+    final String parent = this.readString();
+    final String version = this.readString();
+    final String versionComment = this.readString();
+    final String title = this.readString();
+    final String description = this.readString();
+    final List<ProductUsage> usages =
+        this.readList(() -> new ProductUsage(this.readString(), this.readLocation()));
+    return new ProductDefinition(
+        location, timestamp, name, parent, version, versionComment, title, description, usages);
+  }
+
+  private ModuleDefinition readModule() {
+    final Location location = this.readLocation();
+    final Instant timestamp = this.readTimestamp();
+    final String name = this.readString();
+    final String product = this.readString();
+    final String baseVersion = this.readString();
+    final String currentVersion = this.readString();
+    final String description = this.readString();
+    final List<ModuleUsage> usages =
+        this.readList(() -> new ModuleUsage(this.readString(), this.readLocation()));
+    return new ModuleDefinition(
+        location, timestamp, name, product, baseVersion, currentVersion, description, usages);
+  }
+
+  private MagikFileDefinition readMagikFile() {
+    final Location location = this.readLocation();
+    final Instant timestamp = this.readTimestamp();
+    final long contentHash =
+        this.formatVersion >= 2 ? this.buffer.getLong() : MagikFileDefinition.UNKNOWN_CONTENT_HASH;
+    return new MagikFileDefinition(location, timestamp, contentHash);
+  }
+
+  private PackageDefinition readPackage() {
+    final MagikFields fields = this.readMagikFields();
+    final String name = this.readString();
+    final List<String> uses = this.readList(this::readString);
+    return new PackageDefinition(
+        fields.location, fields.timestamp, fields.moduleName, fields.doc, null, name, uses);
+  }
+
+  private ExemplarDefinition readExemplar() {
+    final MagikFields fields = this.readMagikFields();
+    final ExemplarDefinition.Sort sort = SORTS[this.buffer.get()];
+    final TypeString typeString = this.readTypeString();
+    final List<SlotDefinition> slots = this.readList(this::readSlot);
+    final List<TypeString> parents = this.readList(this::readTypeString);
+    final Set<String> topics = new HashSet<>(this.readList(this::readString));
+    return new ExemplarDefinition(
+        fields.location,
+        fields.timestamp,
+        fields.moduleName,
+        fields.doc,
+        null,
+        sort,
+        typeString,
+        slots,
+        parents,
+        topics);
+  }
+
+  private SlotDefinition readSlot() {
+    final MagikFields fields = this.readMagikFields();
+    final String name = this.readString();
+    final TypeString typeName = this.readTypeString();
+    return new SlotDefinition(
+        fields.location, fields.timestamp, fields.moduleName, fields.doc, null, name, typeName);
+  }
+
+  private GlobalDefinition readGlobal() {
+    final MagikFields fields = this.readMagikFields();
+    final TypeString typeString = this.readTypeString();
+    final TypeString aliasedTypeName = this.readTypeString();
+    return new GlobalDefinition(
+        fields.location,
+        fields.timestamp,
+        fields.moduleName,
+        fields.doc,
+        null,
+        typeString,
+        aliasedTypeName);
+  }
+
+  private MethodDefinition readMethod() {
+    final MagikFields fields = this.readMagikFields();
+    final TypeString typeName = this.readTypeString();
+    final String methodName = this.readString();
+    final Set<MethodDefinition.Modifier> modifiers =
+        EnumSet.noneOf(MethodDefinition.Modifier.class);
+    modifiers.addAll(this.readList(() -> METHOD_MODIFIERS[this.buffer.get()]));
+    final List<ParameterDefinition> parameters = this.readList(this::readParameter);
+    final ParameterDefinition assignmentParameter =
+        this.buffer.get() != 0 ? this.readParameter() : null;
+    final Set<String> topics = new HashSet<>(this.readList(this::readString));
+    final ExpressionResultString returnTypes = this.readExpressionResultString();
+    final ExpressionResultString loopTypes = this.readExpressionResultString();
+    final Set<GlobalUsage> usedGlobals = new HashSet<>(this.readList(this::readGlobalUsage));
+    final Set<MethodUsage> usedMethods = new HashSet<>(this.readList(this::readMethodUsage));
+    final Set<SlotUsage> usedSlots =
+        new HashSet<>(
+            this.readList(() -> new SlotUsage(this.readString(), this.readLocation(), null)));
+    final Set<ConditionUsage> usedConditions =
+        new HashSet<>(this.readList(this::readConditionUsage));
+    return new MethodDefinition(
+        fields.location,
+        fields.timestamp,
+        fields.moduleName,
+        fields.doc,
+        null,
+        typeName,
+        methodName,
+        modifiers,
+        parameters,
+        assignmentParameter,
+        topics,
+        returnTypes,
+        loopTypes,
+        usedGlobals,
+        usedMethods,
+        usedSlots,
+        usedConditions);
+  }
+
+  private ProcedureDefinition readProcedure() {
+    final MagikFields fields = this.readMagikFields();
+    final Set<ProcedureDefinition.Modifier> modifiers =
+        EnumSet.noneOf(ProcedureDefinition.Modifier.class);
+    modifiers.addAll(this.readList(() -> PROCEDURE_MODIFIERS[this.buffer.get()]));
+    final TypeString typeName = this.readTypeString();
+    final String procedureName = this.readString();
+    final List<ParameterDefinition> parameters = this.readList(this::readParameter);
+    final ExpressionResultString returnTypes = this.readExpressionResultString();
+    final ExpressionResultString loopTypes = this.readExpressionResultString();
+    final Set<GlobalUsage> usedGlobals = new HashSet<>(this.readList(this::readGlobalUsage));
+    final Set<MethodUsage> usedMethods = new HashSet<>(this.readList(this::readMethodUsage));
+    final Set<ConditionUsage> usedConditions =
+        new HashSet<>(this.readList(this::readConditionUsage));
+    return new ProcedureDefinition(
+        fields.location,
+        fields.timestamp,
+        fields.moduleName,
+        fields.doc,
+        null,
+        modifiers,
+        typeName,
+        procedureName,
+        parameters,
+        returnTypes,
+        loopTypes,
+        usedGlobals,
+        usedMethods,
+        usedConditions);
+  }
+
+  private ConditionDefinition readCondition() {
+    final MagikFields fields = this.readMagikFields();
+    final String name = this.readString();
+    final String parent = this.readString();
+    final List<String> dataNames = this.readList(this::readString);
+    return new ConditionDefinition(
+        fields.location,
+        fields.timestamp,
+        fields.moduleName,
+        fields.doc,
+        null,
+        name,
+        parent,
+        dataNames);
+  }
+
+  private BinaryOperatorDefinition readBinaryOperator() {
+    final MagikFields fields = this.readMagikFields();
+    final String operator = this.readString();
+    final TypeString lhsTypeName = this.readTypeString();
+    final TypeString rhsTypeName = this.readTypeString();
+    final TypeString resultTypeName = this.readTypeString();
+    return new BinaryOperatorDefinition(
+        fields.location,
+        fields.timestamp,
+        fields.moduleName,
+        fields.doc,
+        null,
+        operator,
+        lhsTypeName,
+        rhsTypeName,
+        resultTypeName);
+  }
+
+  private MagikFields readMagikFields() {
+    final Location location = this.readLocation();
+    final Instant timestamp = this.readTimestamp();
+    final String moduleName = this.readString();
+    final String doc = this.readString();
+    return new MagikFields(location, timestamp, moduleName, doc);
+  }
+
+  private ParameterDefinition readParameter() {
+    final MagikFields fields = this.readMagikFields();
+    final String name = this.readString();
+    final ParameterDefinition.Modifier modifier = PARAMETER_MODIFIERS[this.buffer.get()];
+    final TypeString typeName = this.readTypeString();
+    return new ParameterDefinition(
+        fields.location,
+        fields.timestamp,
+        fields.moduleName,
+        fields.doc,
+        null,
+        name,
+        modifier,
+        typeName);
+  }
+
+  private GlobalUsage readGlobalUsage() {
+    final TypeString typeName = this.readTypeString();
+    final Location location = this.readLocation();
+    return new GlobalUsage(typeName, location, null);
+  }
+
+  private MethodUsage readMethodUsage() {
+    final TypeString typeName = this.readTypeString();
+    final String methodName = this.readString();
+    final Location location = this.readLocation();
+    return new MethodUsage(typeName, methodName, location, null);
+  }
+
+  private ConditionUsage readConditionUsage() {
+    final String conditionName = this.readString();
+    final Location location = this.readLocation();
+    return new ConditionUsage(conditionName, location, null);
+  }
+
+  @CheckForNull
+  private Location readLocation() {
+    final int uriIndex = this.buffer.getInt();
+    if (uriIndex == BinaryFormat.NULL_INDEX) {
+      return null;
+    }
+
+    URI uri = this.uris[uriIndex];
+    if (uri == null) {
+      uri = URI.create(this.getString(uriIndex));
+      this.uris[uriIndex] = uri;
+    }
+
+    if (this.buffer.get() == 0) {
+      return new Location(uri);
+    }
+
+    final Position startPosition =
+        this.interner.intern(new Position(this.buffer.getInt(), this.buffer.getInt()));
+    final Position endPosition =
+        this.interner.intern(new Position(this.buffer.getInt(), this.buffer.getInt()));
+    return new Location(uri, new Range(startPosition, endPosition));
+  }
+
+  @CheckForNull
+  private Instant readTimestamp() {
+    if (this.buffer.get() == 0) {
+      return null;
+    }
+
+    final long seconds = this.buffer.getLong();
+    final int nanos = this.buffer.getInt();
+    return this.interner.intern(Instant.ofEpochSecond(seconds, nanos));
+  }
+
+  private ExpressionResultString readExpressionResultString() {
+    final int count = this.buffer.getInt();
+    if (count == BinaryFormat.UNDEFINED_COUNT) {
+      return ExpressionResultString.UNDEFINED;
+    }
+
+    final List<TypeString> types = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      types.add(this.readTypeString());
+    }
+    return this.interner.intern(new ExpressionResultString(types));
+  }
+
+  private TypeString readTypeString() {
+    final int index = this.buffer.getInt();
+    TypeString typeString = this.typeStrings[index];
+    if (typeString == null) {
+      typeString = TypeStringParser.parseTypeString(this.getString(index));
+      this.typeStrings[index] = typeString;
+    }
+    return typeString;
+  }
+
+  private <T> List<T> readList(final Supplier<T> elementReader) {
+    final int count = this.buffer.getInt();
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+
+    final List<T> list = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      list.add(elementReader.get());
+    }
+    return list;
+  }
+
+  @CheckForNull
+  private String readString() {
+    final int index = this.buffer.getInt();
+    if (index == BinaryFormat.NULL_INDEX) {
+      return null;
+    }
+
+    return this.getString(index);
+  }
+
+  private String getString(final int index) {
+    String string = this.strings[index];
+    if (string == null) {
+      final int offset = this.stringOffsets[index];
+      final int length = this.buffer.getInt(offset);
+      final byte[] bytes = new byte[length];
+      this.buffer.get(offset + Integer.BYTES, bytes);
+      string = new String(bytes, StandardCharsets.UTF_8);
+      this.strings[index] = string;
+    }
+    return string;
+  }
+
+  /**
+   * Test if the file at {@code path} is a binary types database.
+   *
+   * @param path Path to file.
+   * @return True if the file starts with the binary types database magic, false otherwise.
+   * @throws IOException -
+   */
+  public static boolean isBinaryTypesDatabase(final Path path) throws IOException {
+    try (InputStream inputStream = Files.newInputStream(path);
+        DataInputStream dataInputStream = new DataInputStream(inputStream)) {
+      return dataInputStream.readInt() == BinaryFormat.MAGIC;
+    } catch (final EOFException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Read types from a binary file.
+   *
+   * @param path Path to binary file.
+   * @param definitionKeeper {@link IDefinitionKeeper} to fill.
+   * @throws IOException -
+   */
+  public static void readTypes(final Path path, final IDefinitionKeeper definitionKeeper)
+      throws IOException {
+    final BinaryDefinitionReader reader = new BinaryDefinitionReader(definitionKeeper);
+    reader.run(path);
+  }
+}
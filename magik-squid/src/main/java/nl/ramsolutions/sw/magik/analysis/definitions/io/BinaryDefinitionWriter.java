@@ -0,0 +1,402 @@
+package nl.ramsolutions.sw.magik.analysis.definitions.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.definitions.BinaryOperatorDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ConditionDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ConditionUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.GlobalDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.GlobalUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.MagikDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.MagikFileDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.PackageDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ParameterDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.ProcedureDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.SlotDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.SlotUsage;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+import nl.ramsolutions.sw.moduledef.ModuleDefinition;
+import nl.ramsolutions.sw.moduledef.ModuleUsage;
+import nl.ramsolutions.sw.productdef.ProductDefinition;
+import nl.ramsolutions.sw.productdef.ProductUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary TypeKeeper writer.
+ *
+ * <p>See {@link BinaryFormat} for the layout.
+ */
+public final class BinaryDefinitionWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BinaryDefinitionWriter.class);
+
+  private final IDefinitionKeeper definitionKeeper;
+  private final Map<String, Integer> strings = new LinkedHashMap<>();
+  private final ByteArrayOutputStream recordsBytes = new ByteArrayOutputStream();
+  private final DataOutputStream records = new DataOutputStream(this.recordsBytes);
+  private int recordCount;
+
+  private BinaryDefinitionWriter(final IDefinitionKeeper definitionKeeper) {
+    this.definitionKeeper = definitionKeeper;
+  }
+
+  private void run(final Path path) throws IOException {
+    LOGGER.debug("Writing binary type database to path: {}", path);
+
+    // Records are written first, to build the string table.
+    this.writeRecords(this.definitionKeeper.getProductDefinitions(), this::writeProduct);
+    this.writeRecords(this.definitionKeeper.getModuleDefinitions(), this::writeModule);
+    this.writeRecords(this.definitionKeeper.getMagikFileDefinitions(), this::writeMagikFile);
+    this.writeRecords(this.definitionKeeper.getPackageDefinitions(), this::writePackage);
+    this.writeRecords(this.definitionKeeper.getExemplarDefinitions(), this::writeExemplar);
+    this.writeRecords(this.definitionKeeper.getGlobalDefinitions(), this::writeGlobal);
+    this.writeRecords(this.definitionKeeper.getMethodDefinitions(), this::writeMethod);
+    this.writeRecords(this.definitionKeeper.getProcedureDefinitions(), this::writeProcedure);
+    this.writeRecords(this.definitionKeeper.getConditionDefinitions(), this::writeCondition);
+    this.writeRecords(
+        this.definitionKeeper.getBinaryOperatorDefinitions(), this::writeBinaryOperator);
+    this.records.flush();
+
+    // Write to a temporary file first, so readers never see a partially written file.
+    final Path absolutePath = path.toAbsolutePath();
+    final Path tempPath =
+        Files.createTempFile(
+            absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+    try {
+      this.writeFile(tempPath);
+      BinaryDefinitionWriter.moveIntoPlace(tempPath, absolutePath);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
+  private static void moveIntoPlace(final Path source, final Path target) throws IOException {
+    try {
+      Files.move(
+          source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final AtomicMoveNotSupportedException exception) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private void writeFile(final Path path) throws IOException {
+    try (OutputStream outputStream = Files.newOutputStream(path);
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+      output.writeInt(BinaryFormat.MAGIC);
+      output.writeInt(BinaryFormat.VERSION);
+      output.writeInt(this.strings.size());
+      output.writeInt(this.recordCount);
+
+      for (final String string : this.strings.keySet()) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+      }
+
+      this.recordsBytes.writeTo(output);
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordWriter<T> {
+
+    void write(T definition) throws IOException;
+  }
+
+  private <T> void writeRecords(final Collection<T> definitions, final RecordWriter<T> writer)
+      throws IOException {
+    for (final T definition : definitions) {
+      writer.write(definition);
+      this.recordCount += 1;
+    }
+  }
+
+  private void writeProduct(final ProductDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.PRODUCT.ordinal());
+    this.writeLocation(definition.getLocation());
+    this.writeTimestamp(definition.getTimestamp());
+    this.writeString(definition.getName());
+    this.writeString(definition.getParent());
+    this.writeString(definition.getVersion());
+    this.writeString(definition.getVersionComment());
+    this.writeString(definition.getTitle());
+    this.writeString(definition.getDescription());
+    this.records.writeInt(definition.getUsages().size());
+    for (final ProductUsage usage : definition.getUsages()) {
+      this.writeString(usage.getName());
+      this.writeLocation(usage.getLocation());
+    }
+  }
+
+  private void writeModule(final ModuleDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.MODULE.ordinal());
+    this.writeLocation(definition.getLocation());
+    this.writeTimestamp(definition.getTimestamp());
+    this.writeString(definition.getName());
+    this.writeString(definition.getProduct());
+    this.writeString(definition.getBaseVersion());
+    this.writeString(definition.getCurrentVersion());
+    this.writeString(definition.getDescription());
+    this.records.writeInt(definition.getUsages().size());
+    for (final ModuleUsage usage : definition.getUsages()) {
+      this.writeString(usage.getName());
+      this.writeLocation(usage.getLocation());
+    }
+  }
+
+  private void writeMagikFile(final MagikFileDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.MAGIK_FILE.ordinal());
+    this.writeLocation(definition.getLocation());
+    this.writeTimestamp(definition.getTimestamp());
+    this.records.writeLong(definition.getContentHash());
+  }
+
+  private void writePackage(final PackageDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.PACKAGE.ordinal());
+    this.writeMagikDefinition(definition);
+    this.writeString(definition.getName());
+    this.writeStrings(definition.getUses());
+  }
+
+  private void writeExemplar(final ExemplarDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.TYPE.ordinal());
+    this.writeMagikDefinition(definition);
+    this.records.writeByte(definition.getSort().ordinal());
+    this.writeTypeString(definition.getTypeString());
+    this.records.writeInt(definition.getSlots().size());
+    for (final SlotDefinition slotDefinition : definition.getSlots()) {
+      this.writeMagikDefinition(slotDefinition);
+      this.writeString(slotDefinition.getName());
+      this.writeTypeString(slotDefinition.getTypeName());
+    }
+    this.records.writeInt(definition.getParents().size());
+    for (final TypeString parent : definition.getParents()) {
+      this.writeTypeString(parent);
+    }
+    this.writeStrings(definition.getTopics());
+  }
+
+  private void writeGlobal(final GlobalDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.GLOBAL.ordinal());
+    this.writeMagikDefinition(definition);
+    this.writeTypeString(definition.getTypeString());
+    this.writeTypeString(definition.getAliasedTypeName());
+  }
+
+  private void writeMethod(final MethodDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.METHOD.ordinal());
+    this.writeMagikDefinition(definition);
+    this.writeTypeString(definition.getTypeName());
+    this.writeString(definition.getMethodName());
+    this.records.writeInt(definition.getModifiers().size());
+    for (final MethodDefinition.Modifier modifier : definition.getModifiers()) {
+      this.records.writeByte(modifier.ordinal());
+    }
+    this.writeParameters(definition.getParameters());
+    final ParameterDefinition assignmentParameter = definition.getAssignmentParameter();
+    this.records.writeBoolean(assignmentParameter != null);
+    if (assignmentParameter != null) {
+      this.writeParameter(assignmentParameter);
+    }
+    this.writeStrings(definition.getTopics());
+    this.writeExpressionResultString(definition.getReturnTypes());
+    this.writeExpressionResultString(definition.getLoopTypes());
+    this.writeGlobalUsages(definition.getUsedGlobals());
+    this.writeMethodUsages(definition.getUsedMethods());
+    this.records.writeInt(definition.getUsedSlots().size());
+    for (final SlotUsage usage : definition.getUsedSlots()) {
+      this.writeString(usage.getSlotName());
+      this.writeLocation(usage.getLocation());
+    }
+    this.writeConditionUsages(definition.getUsedConditions());
+  }
+
+  private void writeProcedure(final ProcedureDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.PROCEDURE.ordinal());
+    this.writeMagikDefinition(definition);
+    this.records.writeInt(definition.getModifiers().size());
+    for (final ProcedureDefinition.Modifier modifier : definition.getModifiers()) {
+      this.records.writeByte(modifier.ordinal());
+    }
+    this.writeTypeString(definition.getTypeString());
+    this.writeString(definition.getProcedureName());
+    this.writeParameters(definition.getParameters());
+    this.writeExpressionResultString(definition.getReturnTypes());
+    this.writeExpressionResultString(definition.getLoopTypes());
+    this.writeGlobalUsages(definition.getUsedGlobals());
+    this.writeMethodUsages(definition.getUsedMethods());
+    this.writeConditionUsages(definition.getUsedConditions());
+  }
+
+  private void writeCondition(final ConditionDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.CONDITION.ordinal());
+    this.writeMagikDefinition(definition);
+    this.writeString(definition.getName());
+    this.writeString(definition.getParent());
+    this.writeStrings(definition.getDataNames());
+  }
+
+  private void writeBinaryOperator(final BinaryOperatorDefinition definition) throws IOException {
+    this.records.writeByte(Instruction.BINARY_OPERATOR.ordinal());
+    this.writeMagikDefinition(definition);
+    this.writeString(definition.getOperator());
+    this.writeTypeString(definition.getLhsTypeName());
+    this.writeTypeString(definition.getRhsTypeName());
+    this.writeTypeString(definition.getResultTypeName());
+  }
+
+  private void writeMagikDefinition(final MagikDefinition definition) throws IOException {
+    this.writeLocation(definition.getLocation());
+    this.writeTimestamp(definition.getTimestamp());
+    this.writeString(definition.getModuleName());
+    this.writeString(definition.getDoc());
+  }
+
+  private void writeParameters(final Collection<ParameterDefinition> parameters)
+      throws IOException {
+    this.records.writeInt(parameters.size());
+    for (final ParameterDefinition parameter : parameters) {
+      this.writeParameter(parameter);
+    }
+  }
+
+  private void writeParameter(final ParameterDefinition parameter) throws IOException {
+    this.writeMagikDefinition(parameter);
+    this.writeString(parameter.getName());
+    this.records.writeByte(parameter.getModifier().ordinal());
+    this.writeTypeString(parameter.getTypeName());
+  }
+
+  private void writeGlobalUsages(final Collection<GlobalUsage> usages) throws IOException {
+    this.records.writeInt(usages.size());
+    for (final GlobalUsage usage : usages) {
+      this.writeTypeString(usage.getTypeName());
+      this.writeLocation(usage.getLocation());
+    }
+  }
+
+  private void writeMethodUsages(final Collection<MethodUsage> usages) throws IOException {
+    this.records.writeInt(usages.size());
+    for (final MethodUsage usage : usages) {
+      this.writeTypeString(usage.getTypeName());
+      this.writeString(usage.getMethodName());
+      this.writeLocation(usage.getLocation());
+    }
+  }
+
+  private void writeConditionUsages(final Collection<ConditionUsage> usages) throws IOException {
+    this.records.writeInt(usages.size());
+    for (final ConditionUsage usage : usages) {
+      this.writeString(usage.getConditionName());
+      this.writeLocation(usage.getLocation());
+    }
+  }
+
+  private void writeLocation(final Location location) throws IOException {
+    if (location == null) {
+      this.records.writeInt(BinaryFormat.NULL_INDEX);
+      return;
+    }
+
+    this.writeString(location.getUri().toString());
+    final Range range = location.getRange();
+    this.records.writeBoolean(range != null);
+    if (range != null) {
+      final Position startPosition = range.getStartPosition();
+      final Position endPosition = range.getEndPosition();
+      this.records.writeInt(startPosition.getLine());
+      this.records.writeInt(startPosition.getColumn());
+      this.records.writeInt(endPosition.getLine());
+      this.records.writeInt(endPosition.getColumn());
+    }
+  }
+
+  private void writeTimestamp(final Instant timestamp) throws IOException {
+    this.records.writeBoolean(timestamp != null);
+    if (timestamp != null) {
+      this.records.writeLong(timestamp.getEpochSecond());
+      this.records.writeInt(timestamp.getNano());
+    }
+  }
+
+  private void writeTypeString(final TypeString typeString) throws IOException {
+    this.writeString(typeString.getFullString());
+  }
+
+  private void writeExpressionResultString(final ExpressionResultString result) throws IOException {
+    if (result == ExpressionResultString.UNDEFINED) {
+      this.records.writeInt(BinaryFormat.UNDEFINED_COUNT);
+      return;
+    }
+
+    this.records.writeInt(result.size());
+    for (final TypeString typeString : result.getTypes()) {
+      this.writeTypeString(typeString);
+    }
+  }
+
+  private void writeStrings(final Collection<String> values) throws IOException {
+    this.records.writeInt(values.size());
+    for (final String value : values) {
+      this.writeString(value);
+    }
+  }
+
+  private void writeString(final String value) throws IOException {
+    if (value == null) {
+      this.records.writeInt(BinaryFormat.NULL_INDEX);
+      return;
+    }
+
+    final int index = this.strings.computeIfAbsent(value, key -> this.strings.size());
+    this.records.writeInt(index);
+  }
+
+  /**
+   * Write types to a binary file.
+   *
+   * @param path Path to binary file.
+   * @param definitionKeeper {@link IDefinitionKeeper} to dump.
+   * @throws IOException -
+   */
+  public static void write(final Path path, final IDefinitionKeeper definitionKeeper)
+      throws IOException {
+    final BinaryDefinitionWriter writer = new BinaryDefinitionWriter(definitionKeeper);
+    writer.run(path);
+  }
+
+  /**
+   * Convert a JSON-line types database to a binary types database.
+   *
+   * @param jsonPath Path to JSON-line file to read.
+   * @param binaryPath Path to binary file to write.
+   * @throws IOException -
+   */
+  public static void convert(final Path jsonPath, final Path binaryPath) throws IOException {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    JsonDefinitionReader.readTypes(jsonPath, definitionKeeper);
+    BinaryDefinitionWriter.write(binaryPath, definitionKeeper);
+  }
+}
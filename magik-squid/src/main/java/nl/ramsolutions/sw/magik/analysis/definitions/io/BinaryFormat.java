@@ -0,0 +1,37 @@
+package nl.ramsolutions.sw.magik.analysis.definitions.io;
+
+/**
+ * Binary TypeKeeper format constants.
+ *
+ * <p>Layout of a binary types database:
+ *
+ * <ul>
+ *   <li>Header: magic (int), version (int), string count (int), record count (int)
+ *   <li>String table: for each string, its length (int) and its UTF-8 bytes
+ *   <li>Records: for each record, its {@link Instruction} (byte) and its fields
+ * </ul>
+ *
+ * <p>All strings in records (names, URIs, docs, {@link
+ * nl.ramsolutions.sw.magik.analysis.typing.TypeString}s) are stored as fixed-width indices into the
+ * string table, {@link #NULL_INDEX} denoting {@code null}. Collections are stored as a count
+ * followed by their elements.
+ */
+final class BinaryFormat {
+
+  /** Magic, "MTDB". */
+  static final int MAGIC = 0x4D544442;
+
+  /** Version of the format, bump when changing the layout. */
+  static final int VERSION = 2;
+
+  /** Oldest version of the format which can still be read. Version 1 has no content hashes. */
+  static final int MINIMUM_VERSION = 1;
+
+  /** Index denoting a {@code null} string. */
+  static final int NULL_INDEX = -1;
+
+  /** Count denoting an undefined {@code ExpressionResultString}. */
+  static final int UNDEFINED_COUNT = -1;
+
+  private BinaryFormat() {}
+}
@@ -210,9 +210,11 @@ public final class JsonDefinitionReader {
   private static final Logger LOGGER = LoggerFactory.getLogger(JsonDefinitionReader.class);
 
   private final IDefinitionKeeper definitionKeeper;
+  private final Gson gson;
 
   private JsonDefinitionReader(final IDefinitionKeeper definitionKeeper) {
     this.definitionKeeper = definitionKeeper;
+    this.gson = this.buildGson();
   }
 
   private void run(final Path path) throws IOException {
@@ -326,32 +328,28 @@ public final class JsonDefinitionReader {
   }
 
   private void handleProduct(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final ProductDefinition definition = gson.fromJson(instruction, ProductDefinition.class);
+    final ProductDefinition definition = this.gson.fromJson(instruction, ProductDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handleModule(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final ModuleDefinition definition = gson.fromJson(instruction, ModuleDefinition.class);
+    final ModuleDefinition definition = this.gson.fromJson(instruction, ModuleDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handleMagikFile(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final MagikFileDefinition definition = gson.fromJson(instruction, MagikFileDefinition.class);
+    final MagikFileDefinition definition =
+        this.gson.fromJson(instruction, MagikFileDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handlePackage(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final PackageDefinition definition = gson.fromJson(instruction, PackageDefinition.class);
+    final PackageDefinition definition = this.gson.fromJson(instruction, PackageDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handleType(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final ExemplarDefinition definition = gson.fromJson(instruction, ExemplarDefinition.class);
+    final ExemplarDefinition definition = this.gson.fromJson(instruction, ExemplarDefinition.class);
 
     // We are allowed to overwrite definitions which have no location, as these will most likely
     // be the default definitions from DefaultDefinitionsAdder.
@@ -364,33 +362,30 @@ public final class JsonDefinitionReader {
   }
 
   private void handleMethod(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final MethodDefinition definition = gson.fromJson(instruction, MethodDefinition.class);
+    final MethodDefinition definition = this.gson.fromJson(instruction, MethodDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handleCondition(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final ConditionDefinition definition = gson.fromJson(instruction, ConditionDefinition.class);
+    final ConditionDefinition definition =
+        this.gson.fromJson(instruction, ConditionDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handleBinaryOperator(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
     final BinaryOperatorDefinition definition =
-        gson.fromJson(instruction, BinaryOperatorDefinition.class);
+        this.gson.fromJson(instruction, BinaryOperatorDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handleProcedure(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final ProcedureDefinition definition = gson.fromJson(instruction, ProcedureDefinition.class);
+    final ProcedureDefinition definition =
+        this.gson.fromJson(instruction, ProcedureDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
   private void handleGlobal(final JsonObject instruction) {
-    final Gson gson = this.buildGson();
-    final GlobalDefinition definition = gson.fromJson(instruction, GlobalDefinition.class);
+    final GlobalDefinition definition = this.gson.fromJson(instruction, GlobalDefinition.class);
     this.definitionKeeper.add(definition);
   }
 
@@ -95,9 +95,11 @@ public final class JsonDefinitionWriter {
   private static final Logger LOGGER = LoggerFactory.getLogger(JsonDefinitionWriter.class);
 
   private final IDefinitionKeeper definitionKeeper;
+  private final Gson gson;
 
   private JsonDefinitionWriter(final IDefinitionKeeper definitionKeeper) {
     this.definitionKeeper = definitionKeeper;
+    this.gson = this.buildGson();
   }
 
   private void run(final Path path) throws IOException {
@@ -155,8 +157,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.PRODUCT.getValue());
               this.writeInstruction(writer, instruction);
@@ -169,8 +170,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.MODULE.getValue());
               this.writeInstruction(writer, instruction);
@@ -184,8 +184,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.MAGIK_FILE.getValue());
               this.writeInstruction(writer, instruction);
@@ -198,8 +197,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.PACKAGE.getValue());
               this.writeInstruction(writer, instruction);
@@ -213,8 +211,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.TYPE.getValue());
               this.writeInstruction(writer, instruction);
@@ -231,8 +228,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.METHOD.getValue());
               this.writeInstruction(writer, instruction);
@@ -246,8 +242,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.METHOD.getValue());
               this.writeInstruction(writer, instruction);
@@ -261,8 +256,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.CONDITION.getValue());
               this.writeInstruction(writer, instruction);
@@ -282,8 +276,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.BINARY_OPERATOR.getValue());
               this.writeInstruction(writer, instruction);
@@ -297,8 +290,7 @@ public final class JsonDefinitionWriter {
         .sorted(sorter)
         .forEach(
             definition -> {
-              final Gson gson = this.buildGson();
-              final JsonObject instruction = (JsonObject) gson.toJsonTree(definition);
+              final JsonObject instruction = (JsonObject) this.gson.toJsonTree(definition);
               instruction.addProperty(
                   Instruction.INSTRUCTION.getValue(), Instruction.GLOBAL.getValue());
               this.writeInstruction(writer, instruction);
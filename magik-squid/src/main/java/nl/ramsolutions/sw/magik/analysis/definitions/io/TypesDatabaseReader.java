@@ -0,0 +1,27 @@
+package nl.ramsolutions.sw.magik.analysis.definitions.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+
+/** Types database reader, reading either a binary or a JSON-line types database. */
+public final class TypesDatabaseReader {
+
+  private TypesDatabaseReader() {}
+
+  /**
+   * Read types from a binary or JSON-line file, depending on the contents of the file.
+   *
+   * @param path Path to binary or JSON-line file.
+   * @param definitionKeeper {@link IDefinitionKeeper} to fill.
+   * @throws IOException -
+   */
+  public static void readTypes(final Path path, final IDefinitionKeeper definitionKeeper)
+      throws IOException {
+    if (BinaryDefinitionReader.isBinaryTypesDatabase(path)) {
+      BinaryDefinitionReader.readTypes(path, definitionKeeper);
+    } else {
+      JsonDefinitionReader.readTypes(path, definitionKeeper);
+    }
+  }
+}
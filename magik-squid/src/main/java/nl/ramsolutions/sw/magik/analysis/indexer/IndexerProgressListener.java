@@ -0,0 +1,19 @@
+package nl.ramsolutions.sw.magik.analysis.indexer;
+
+/** Listener for progress of (bulk) indexing. */
+@FunctionalInterface
+public interface IndexerProgressListener {
+
+  /** Listener which ignores all progress. */
+  IndexerProgressListener NULL_LISTENER = (indexedCount, totalCount) -> {};
+
+  /**
+   * Called after an item has been indexed.
+   *
+   * <p>Might be called from multiple threads concurrently.
+   *
+   * @param indexedCount Number of items indexed so far.
+   * @param totalCount Total number of items to index.
+   */
+  void onProgress(int indexedCount, int totalCount);
+}
@@ -1,10 +1,19 @@
 package nl.ramsolutions.sw.magik.analysis.indexer;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import nl.ramsolutions.sw.FileCharsetDeterminer;
 import nl.ramsolutions.sw.IDefinition;
 import nl.ramsolutions.sw.IgnoreHandler;
 import nl.ramsolutions.sw.MagikToolsProperties;
@@ -14,9 +23,11 @@ import nl.ramsolutions.sw.magik.MagikFile;
 import nl.ramsolutions.sw.magik.MagikFileScanner;
 import nl.ramsolutions.sw.magik.analysis.definitions.BinaryOperatorDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.ConditionDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionInterner;
 import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.GlobalDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.MagikDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.MagikFileDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.PackageDefinition;
@@ -24,7 +35,16 @@ import nl.ramsolutions.sw.magik.analysis.definitions.ProcedureDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Magik file indexer. */
+/**
+ * Magik file indexer.
+ *
+ * <p>A changed file is only parsed again when its content differs from the indexed content, as
+ * recorded by the hash in its {@link MagikFileDefinition}. Otherwise only the timestamp of the
+ * {@link MagikFileDefinition} is updated.
+ *
+ * <p>Method and procedure definitions, with their usages, are stored interned, see {@link
+ * DefinitionInterner}.
+ */
 public class MagikIndexer {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MagikIndexer.class);
@@ -32,6 +52,9 @@ public class MagikIndexer {
   private final IDefinitionKeeper definitionKeeper;
   private final MagikToolsProperties properties;
   private final IgnoreHandler ignoreHandler;
+  private final DefinitionInterner interner = new DefinitionInterner();
+  private final AtomicInteger indexedFileCount = new AtomicInteger();
+  private final AtomicInteger skippedFileCount = new AtomicInteger();
 
   /**
    * Constructor.
@@ -60,6 +83,12 @@ public class MagikIndexer {
 
     final Path path = fileEvent.getPath();
     final FileChangeType fileChangeType = fileEvent.getFileChangeType();
+    if (fileChangeType == FileChangeType.CHANGED && Files.isRegularFile(path)) {
+      this.reindexFile(path);
+      LOGGER.debug("Handled file event: {}", fileEvent);
+      return;
+    }
+
     if (fileChangeType == FileChangeType.CHANGED || fileChangeType == FileChangeType.DELETED) {
       this.getIndexedDefinitions(path).forEach(this::removeDefinition);
     }
@@ -72,6 +101,87 @@ public class MagikIndexer {
     LOGGER.debug("Handled file event: {}", fileEvent);
   }
 
+  /**
+   * Handle multiple file events at once, such as during the initial indexing of a workspace.
+   *
+   * <p>Definitions of deleted files are removed first, after which all created/changed files are
+   * parsed in parallel. Changed files with unchanged content are skipped.
+   *
+   * @param fileEvents {@link FileEvent}s to handle.
+   * @param parallelism Number of threads to use.
+   * @param progressListener Listener to report progress to.
+   * @throws IOException If an error occurs.
+   */
+  public synchronized void handleFileEvents(
+      final Collection<FileEvent> fileEvents,
+      final int parallelism,
+      final IndexerProgressListener progressListener)
+      throws IOException {
+    LOGGER.debug("Handling {} file events, parallelism: {}", fileEvents.size(), parallelism);
+
+    final int startIndexedFileCount = this.indexedFileCount.get();
+    final int startSkippedFileCount = this.skippedFileCount.get();
+    final MagikFileScanner scanner = new MagikFileScanner(this.ignoreHandler);
+    final List<Path> paths = new ArrayList<>();
+    final Set<Path> changedPaths = new HashSet<>();
+    for (final FileEvent fileEvent : fileEvents) {
+      final Path path = fileEvent.getPath();
+      final FileChangeType fileChangeType = fileEvent.getFileChangeType();
+      if (fileChangeType == FileChangeType.CHANGED && Files.isRegularFile(path)) {
+        // Content is compared while indexing, in parallel.
+        paths.add(path);
+        changedPaths.add(path);
+        continue;
+      }
+
+      if (fileChangeType == FileChangeType.CHANGED || fileChangeType == FileChangeType.DELETED) {
+        this.getIndexedDefinitions(path).forEach(this::removeDefinition);
+      }
+
+      if (fileChangeType == FileChangeType.CREATED || fileChangeType == FileChangeType.CHANGED) {
+        try (Stream<Path> files = scanner.getFiles(path)) {
+          files.forEach(paths::add);
+        }
+      }
+    }
+
+    ParallelIndexRunner.run(
+        paths,
+        parallelism,
+        path -> {
+          if (changedPaths.contains(path)) {
+            this.reindexFile(path);
+          } else {
+            this.indexFile(path);
+          }
+        },
+        progressListener);
+
+    LOGGER.info(
+        "Handled {} file events, indexed files: {}, skipped files with unchanged content: {}",
+        fileEvents.size(),
+        this.indexedFileCount.get() - startIndexedFileCount,
+        this.skippedFileCount.get() - startSkippedFileCount);
+  }
+
+  /**
+   * Get the number of files indexed (parsed) by this indexer.
+   *
+   * @return Number of indexed files.
+   */
+  public int getIndexedFileCount() {
+    return this.indexedFileCount.get();
+  }
+
+  /**
+   * Get the number of changed files skipped by this indexer, as their content was unchanged.
+   *
+   * @return Number of skipped files.
+   */
+  public int getSkippedFileCount() {
+    return this.skippedFileCount.get();
+  }
+
   /**
    * Get all indexed definitions from path or lower.
    *
@@ -82,20 +192,15 @@ public class MagikIndexer {
    * @return Indexed definitions.
    */
   private Collection<IDefinition> getIndexedDefinitions(final Path path) {
-    return Stream.of(
-            this.definitionKeeper.getMagikFileDefinitions(),
-            this.definitionKeeper.getPackageDefinitions(),
-            this.definitionKeeper.getExemplarDefinitions(),
-            this.definitionKeeper.getMethodDefinitions(),
-            this.definitionKeeper.getGlobalDefinitions(),
-            this.definitionKeeper.getBinaryOperatorDefinitions(),
-            this.definitionKeeper.getConditionDefinitions(),
-            this.definitionKeeper.getProcedureDefinitions())
-        .flatMap(Collection::stream)
-        .filter(def -> def.getLocation() != null && def.getLocation().getPath().startsWith(path))
+    return this.definitionKeeper.getDefinitionsFromPath(path).stream()
+        .filter(MagikIndexer::isMagikDefinition)
         .collect(Collectors.toSet());
   }
 
+  private static boolean isMagikDefinition(final IDefinition definition) {
+    return definition instanceof MagikFileDefinition || definition instanceof MagikDefinition;
+  }
+
   /**
    * Index a single magik file when it is created (or first read).
    *
@@ -112,6 +217,62 @@ public class MagikIndexer {
     }
   }
 
+  /**
+   * Index a single magik file when it is changed, unless its content is unchanged.
+   *
+   * @param path Path to magik file.
+   */
+  @SuppressWarnings("checkstyle:IllegalCatch")
+  private void reindexFile(final Path path) {
+    LOGGER.debug("Indexing changed file: {}", path);
+
+    try (Stream<Path> files = new MagikFileScanner(this.ignoreHandler).getFiles(path)) {
+      final boolean indexable = files.findAny().isPresent();
+      if (indexable && this.updateIfContentUnchanged(path)) {
+        this.skippedFileCount.incrementAndGet();
+        return;
+      }
+
+      this.getIndexedDefinitions(path).forEach(this::removeDefinition);
+      if (indexable) {
+        this.readDefinitions(path);
+      }
+    } catch (final Exception exception) {
+      LOGGER.error("Error indexing changed file: " + path, exception);
+    }
+  }
+
+  /**
+   * Update the timestamp of the indexed {@link MagikFileDefinition}, if the content of the file is
+   * unchanged.
+   *
+   * @param path Path to magik file.
+   * @return True if the content is unchanged, false otherwise.
+   * @throws IOException If the file cannot be read.
+   */
+  private boolean updateIfContentUnchanged(final Path path) throws IOException {
+    final URI uri = path.toUri();
+    final MagikFileDefinition indexedDefinition =
+        this.definitionKeeper.getMagikFileDefinitions(uri).stream().findAny().orElse(null);
+    if (indexedDefinition == null
+        || indexedDefinition.getContentHash() == MagikFileDefinition.UNKNOWN_CONTENT_HASH) {
+      return false;
+    }
+
+    // Get the timestamp before reading, a change while reading is seen on the next check.
+    final Instant timestamp = Files.getLastModifiedTime(path).toInstant();
+    final String source = Files.readString(path, FileCharsetDeterminer.determineCharset(path));
+    final long contentHash = MagikFileDefinition.hashContent(source);
+    if (contentHash != indexedDefinition.getContentHash()) {
+      return false;
+    }
+
+    this.definitionKeeper.remove(indexedDefinition);
+    this.definitionKeeper.add(
+        new MagikFileDefinition(indexedDefinition.getLocation(), timestamp, contentHash));
+    return true;
+  }
+
   private void addDefinition(final IDefinition definition) {
     if (definition instanceof MagikFileDefinition magikFileDefinition) {
       this.definitionKeeper.add(magikFileDefinition);
@@ -122,8 +283,8 @@ public class MagikIndexer {
       final ExemplarDefinition nodelessExemplarDefinition = exemplarDefinition.getWithoutNode();
       this.definitionKeeper.add(nodelessExemplarDefinition);
     } else if (definition instanceof MethodDefinition methodDefinition) {
-      final MethodDefinition nodelessMethodDefinition = methodDefinition.getWithoutNode();
-      this.definitionKeeper.add(nodelessMethodDefinition);
+      final MethodDefinition internedMethodDefinition = this.interner.intern(methodDefinition);
+      this.definitionKeeper.add(internedMethodDefinition);
     } else if (definition instanceof GlobalDefinition globalDefinition) {
       final GlobalDefinition nodelessGlobalDefinition = globalDefinition.getWithoutNode();
       this.definitionKeeper.add(nodelessGlobalDefinition);
@@ -135,8 +296,9 @@ public class MagikIndexer {
       final ConditionDefinition nodelessConditionDefinition = conditionDefinition.getWithoutNode();
       this.definitionKeeper.add(nodelessConditionDefinition);
     } else if (definition instanceof ProcedureDefinition procedureDefinition) {
-      final ProcedureDefinition nodelessProcedureDefinition = procedureDefinition.getWithoutNode();
-      this.definitionKeeper.add(nodelessProcedureDefinition);
+      final ProcedureDefinition internedProcedureDefinition =
+          this.interner.intern(procedureDefinition);
+      this.definitionKeeper.add(internedProcedureDefinition);
     }
   }
 
@@ -169,6 +331,7 @@ public class MagikIndexer {
     try {
       final MagikFile magikFile = new MagikFile(this.properties, path);
       magikFile.getDefinitions().forEach(this::addDefinition);
+      this.indexedFileCount.incrementAndGet();
     } catch (final IOException exception) {
       LOGGER.error(exception.getMessage(), exception);
     }
@@ -0,0 +1,66 @@
+package nl.ramsolutions.sw.magik.analysis.indexer;
+
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs an indexing action for a set of items, using a work-stealing pool.
+ *
+ * <p>Each worker indexes one item at a time and directly stores the results in the (concurrent)
+ * {@link nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper}, so the number of
+ * in-flight items is bounded by the parallelism.
+ */
+final class ParallelIndexRunner {
+
+  private ParallelIndexRunner() {}
+
+  /**
+   * Run the action for all items.
+   *
+   * @param <T> Type of item.
+   * @param items Items to index.
+   * @param parallelism Number of threads to use, 1 to index on the calling thread.
+   * @param action Action to run for each item.
+   * @param progressListener Listener to report progress to.
+   * @throws InterruptedIOException If interrupted while waiting for the workers.
+   */
+  static <T> void run(
+      final Collection<T> items,
+      final int parallelism,
+      final Consumer<T> action,
+      final IndexerProgressListener progressListener)
+      throws InterruptedIOException {
+    final int totalCount = items.size();
+    final AtomicInteger indexedCount = new AtomicInteger();
+    final Consumer<T> progressAction =
+        item -> {
+          action.accept(item);
+          progressListener.onProgress(indexedCount.incrementAndGet(), totalCount);
+        };
+
+    if (parallelism <= 1 || totalCount <= 1) {
+      items.forEach(progressAction);
+      return;
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.submit(() -> items.parallelStream().forEach(progressAction)).get();
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      pool.shutdownNow();
+      final InterruptedIOException interruptedException =
+          new InterruptedIOException("Interrupted while indexing");
+      interruptedException.initCause(exception);
+      throw interruptedException;
+    } catch (final ExecutionException exception) {
+      throw new IllegalStateException(exception.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -3,7 +3,9 @@ package nl.ramsolutions.sw.magik.analysis.indexer;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 import nl.ramsolutions.sw.IDefinition;
 import nl.ramsolutions.sw.IgnoreHandler;
@@ -55,6 +57,40 @@ public class ProductIndexer {
     LOGGER.debug("Handled file event: {}", fileEvent);
   }
 
+  /**
+   * Handle multiple file events at once, such as during the initial indexing of a workspace.
+   *
+   * @param fileEvents {@link FileEvent}s to handle.
+   * @param parallelism Number of threads to use.
+   * @param progressListener Listener to report progress to.
+   * @throws IOException If an error occurs.
+   */
+  public synchronized void handleFileEvents(
+      final Collection<FileEvent> fileEvents,
+      final int parallelism,
+      final IndexerProgressListener progressListener)
+      throws IOException {
+    LOGGER.debug("Handling {} file events, parallelism: {}", fileEvents.size(), parallelism);
+
+    final ProductDefFileScanner scanner = new ProductDefFileScanner(this.ignoreHandler);
+    final List<ProductDefFileScanner.Tree> trees = new ArrayList<>();
+    for (final FileEvent fileEvent : fileEvents) {
+      final Path path = fileEvent.getPath();
+      final FileChangeType fileChangeType = fileEvent.getFileChangeType();
+      if (fileChangeType == FileChangeType.CHANGED || fileChangeType == FileChangeType.DELETED) {
+        this.getIndexedDefinitions(path).forEach(this::removeDefinition);
+      }
+
+      if (fileChangeType == FileChangeType.CREATED || fileChangeType == FileChangeType.CHANGED) {
+        trees.addAll(scanner.getProductTrees(path));
+      }
+    }
+
+    ParallelIndexRunner.run(trees, parallelism, this::indexFile, progressListener);
+
+    LOGGER.debug("Handled {} file events", fileEvents.size());
+  }
+
   /**
    * Get all indexed definitions from path or lower.
    *
@@ -66,8 +102,8 @@ public class ProductIndexer {
    */
   private Collection<IDefinition> getIndexedDefinitions(final Path path) {
     // TODO: ProductDefFileDefinitions, like MagikFileDefinition?
-    return this.definitionKeeper.getProductDefinitions().stream()
-        .filter(def -> def.getLocation() != null && def.getLocation().getPath().startsWith(path))
+    return this.definitionKeeper.getDefinitionsFromPath(path).stream()
+        .filter(ProductDefinition.class::isInstance)
         .collect(Collectors.toSet());
   }
 
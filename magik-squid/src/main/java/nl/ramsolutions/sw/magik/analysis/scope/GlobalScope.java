@@ -4,15 +4,29 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Token;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import nl.ramsolutions.sw.magik.analysis.AstQuery;
 import nl.ramsolutions.sw.magik.api.MagikGrammar;
 
-/** Global scope. */
+/**
+ * Global scope.
+ *
+ * <p>Lookups by line/column use an index of all scopes, sorted by start position. The index is
+ * built on the first lookup and dropped when a scope is added.
+ */
 public class GlobalScope extends Scope {
 
+  /** Indexed scope, with its range and the entry of its parent scope. */
+  private record IndexEntry(Scope scope, long start, long end, @Nullable IndexEntry parent) {}
+
   private final Map<AstNode, Scope> scopeIndex;
+  private @Nullable List<IndexEntry> lineColumnIndex;
 
   GlobalScope(final Map<AstNode, Scope> scopeIndex, final AstNode node) {
     super(node);
@@ -80,6 +94,87 @@ public class GlobalScope extends Scope {
     return this.scopeIndex.get(searchNode);
   }
 
+  /**
+   * Get the most specific {@link Scope} at {@code line}/{@code column}.
+   *
+   * <p>Searches the last scope starting before {@code line}/{@code column}, then walks up to the
+   * first (ancestor) scope containing it, as scopes are properly nested.
+   *
+   * @param line Line to target.
+   * @param column Column to target.
+   * @return Scope, if any, at {@code line}/{@code column}.
+   */
+  @Nullable
+  @Override
+  public Scope getScopeForLineColumn(final int line, final int column) {
+    final List<IndexEntry> index = this.getLineColumnIndex();
+    final long position = GlobalScope.position(line, column);
+
+    int low = 0;
+    int high = index.size() - 1;
+    IndexEntry entry = null;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final IndexEntry midEntry = index.get(mid);
+      if (midEntry.start() <= position) {
+        entry = midEntry;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    while (entry != null && position > entry.end()) {
+      entry = entry.parent();
+    }
+
+    return entry != null ? entry.scope() : null;
+  }
+
+  /** Drop the line/column index, as the scopes have changed. */
+  synchronized void invalidateLineColumnIndex() {
+    this.lineColumnIndex = null;
+  }
+
+  private synchronized List<IndexEntry> getLineColumnIndex() {
+    if (this.lineColumnIndex == null) {
+      this.lineColumnIndex = this.buildLineColumnIndex();
+    }
+
+    return this.lineColumnIndex;
+  }
+
+  private List<IndexEntry> buildLineColumnIndex() {
+    final List<IndexEntry> index = new ArrayList<>();
+    final Deque<IndexEntry> stack = new ArrayDeque<>();
+    stack.push(this.createIndexEntry(this, null));
+    while (!stack.isEmpty()) {
+      final IndexEntry entry = stack.pop();
+      index.add(entry);
+
+      final List<Scope> childScopes = entry.scope().getChildScopes();
+      for (int i = childScopes.size() - 1; i >= 0; --i) {
+        stack.push(this.createIndexEntry(childScopes.get(i), entry));
+      }
+    }
+
+    // Pre-order is already sorted by start, a stable sort keeps parents before their children.
+    index.sort(Comparator.comparingLong(IndexEntry::start));
+    return index;
+  }
+
+  private IndexEntry createIndexEntry(final Scope scope, final @Nullable IndexEntry parent) {
+    return new IndexEntry(
+        scope,
+        GlobalScope.position(scope.getStartLine(), scope.getStartColumn()),
+        GlobalScope.position(scope.getEndLine(), scope.getEndColumn()),
+        parent);
+  }
+
+  private static long position(final int line, final int column) {
+    return (long) line << Integer.SIZE | column & 0xFFFFFFFFL;
+  }
+
   @Override
   public int getStartLine() {
     return 1;
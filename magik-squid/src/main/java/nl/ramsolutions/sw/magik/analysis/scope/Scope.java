@@ -42,6 +42,9 @@ public abstract class Scope {
     this.node = node;
 
     parentScope.addChildScope(this);
+    if (parentScope.getGlobalScope() instanceof GlobalScope globalScope) {
+      globalScope.invalidateLineColumnIndex();
+    }
   }
 
   protected Scope(final AstNode node) {
@@ -33,6 +33,9 @@ public class ExpressionResultString {
   public static final ExpressionResultString UNDEFINED =
       new ExpressionResultString(Collections.nCopies(MAX_ITEMS, TypeString.UNDEFINED));
 
+  /** Hash code of {@link #UNDEFINED}, hashing its {@link #MAX_ITEMS} types is expensive. */
+  private static final int UNDEFINED_HASH_CODE = UNDEFINED.types.hashCode();
+
   /** Serialized name of {@link ExpressionResultString.UNDEFINED}. */
   public static final String UNDEFINED_SERIALIZED_NAME = "__UNDEFINED_RESULT__";
 
@@ -204,7 +207,11 @@ public class ExpressionResultString {
 
   @Override
   public int hashCode() {
-    return Objects.hash(this.types.toArray());
+    if (this == UNDEFINED) {
+      return UNDEFINED_HASH_CODE;
+    }
+
+    return this.types.hashCode();
   }
 
   @Override
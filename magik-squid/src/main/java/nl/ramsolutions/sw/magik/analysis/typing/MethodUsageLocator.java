@@ -1,17 +1,16 @@
 package nl.ramsolutions.sw.magik.analysis.typing;
 
 import com.sonar.sslr.api.AstNode;
-import java.io.IOException;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import java.net.URI;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import nl.ramsolutions.sw.FileCharsetDeterminer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import nl.ramsolutions.sw.magik.Location;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
+import nl.ramsolutions.sw.magik.MagikTypedFileCache;
 import nl.ramsolutions.sw.magik.Position;
 import nl.ramsolutions.sw.magik.analysis.AstQuery;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
@@ -23,64 +22,88 @@ import nl.ramsolutions.sw.magik.api.MagikGrammar;
  * Method usage locator.
  *
  * <p>Uses typing to determine if any {@link MethodUsage} is is for this specific type.
+ *
+ * <p>Candidate usages are grouped per file, so each file is parsed and reasoned only once. Files
+ * are analysed in parallel.
  */
 public class MethodUsageLocator {
 
   private final IDefinitionKeeper definitionKeeper;
+  private final MagikTypedFileCache magikFileCache;
 
   public MethodUsageLocator(final IDefinitionKeeper definitionKeeper) {
+    this(definitionKeeper, new MagikTypedFileCache(definitionKeeper));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param definitionKeeper {@link IDefinitionKeeper} to use.
+   * @param magikFileCache {@link MagikTypedFileCache} to get the files with usages from.
+   */
+  public MethodUsageLocator(
+      final IDefinitionKeeper definitionKeeper, final MagikTypedFileCache magikFileCache) {
     this.definitionKeeper = definitionKeeper;
+    this.magikFileCache = magikFileCache;
   }
 
   public List<Map.Entry<MethodUsage, MagikTypedFile>> getMethodUsages(
       final MethodUsage wantedMethodUsage) {
     final String methodName = wantedMethodUsage.getMethodName();
+    final Map<URI, List<Location>> locationsByUri =
+        this.definitionKeeper.getMethodUsages(methodName).stream()
+            .map(MethodUsage::getLocation)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.groupingBy(Location::getUri));
 
-    return this.definitionKeeper.getMethodDefinitions().stream()
-        .flatMap(methodDef -> methodDef.getUsedMethods().stream())
-        .filter(usage -> usage.getMethodName().equals(methodName))
-        .map(
-            usage -> {
-              final Location location = usage.getLocation();
-              final MagikTypedFile magikFile = this.getMagikFile(location);
-
-              // Determine/reason the type the method is called on.
-              final LocalTypeReasonerState reasonerState = magikFile.getTypeReasonerState();
-              final AstNode node = magikFile.getTopNode();
-              final Position calledMethodPosition = location.getRange().getStartPosition();
-              final AstNode calledNode = AstQuery.nodeAt(node, calledMethodPosition);
-              final AstNode parentCalledNode = calledNode.getFirstAncestor(MagikGrammar.ATOM);
-              final ExpressionResultString result = reasonerState.getNodeType(parentCalledNode);
-              final TypeString resultTypeStr = result.get(0, TypeString.UNDEFINED);
-              final TypeString typeStr = SelfHelper.substituteSelf(resultTypeStr, parentCalledNode);
-              if (typeStr.isUndefined()) {
-                return null;
-              }
-
-              final TypeStringResolver resolver = magikFile.getTypeStringResolver();
-              final TypeString wantedMethodUsageTypeStr = wantedMethodUsage.getTypeName();
-              if (!resolver.isKindOf(wantedMethodUsageTypeStr, typeStr)) {
-                return null;
+    return locationsByUri.entrySet().parallelStream()
+        .flatMap(
+            entry -> {
+              final MagikTypedFile magikFile = this.magikFileCache.getMagikFile(entry.getKey());
+              if (magikFile == null) {
+                return Stream.empty();
               }
 
-              final MethodUsage methodUsageWithNode =
-                  new MethodUsage(wantedMethodUsageTypeStr, methodName, location, calledNode);
-              return Map.entry(methodUsageWithNode, magikFile);
+              return entry.getValue().stream()
+                  .map(location -> this.getMethodUsage(wantedMethodUsage, magikFile, location))
+                  .filter(Objects::nonNull);
             })
-        .filter(Objects::nonNull)
         .toList();
   }
 
-  private MagikTypedFile getMagikFile(final Location location) {
-    final URI calledMethodUri = location.getUri();
-    final Path calledMethodPath = Path.of(calledMethodUri);
-    final Charset charset = FileCharsetDeterminer.determineCharset(calledMethodPath);
-    final String text;
-    try {
-      text = Files.readString(calledMethodPath, charset);
-    } catch (final IOException exception) {
-      throw new IllegalStateException(exception);
+  @CheckForNull
+  private Map.Entry<MethodUsage, MagikTypedFile> getMethodUsage(
+      final MethodUsage wantedMethodUsage,
+      final MagikTypedFile magikFile,
+      final Location location) {
+    // Determine/reason the type the method is called on.
+    final LocalTypeReasonerState reasonerState = magikFile.getTypeReasonerState();
+    final AstNode node = magikFile.getTopNode();
+    final Position calledMethodPosition = location.getRange().getStartPosition();
+    final AstNode calledNode = AstQuery.nodeAt(node, calledMethodPosition);
+    if (calledNode == null) {
+      // File has changed since it was indexed.
+      return null;
     }
-    return new MagikTypedFile(calledMethodUri, text, this.definitionKeeper);
+
+    final AstNode parentCalledNode = calledNode.getFirstAncestor(MagikGrammar.ATOM);
+    final ExpressionResultString result = reasonerState.getNodeType(parentCalledNode);
+    final TypeString resultTypeStr = result.get(0, TypeString.UNDEFINED);
+    final TypeString typeStr = SelfHelper.substituteSelf(resultTypeStr, parentCalledNode);
+    if (typeStr.isUndefined()) {
+      return null;
+    }
+
+    final TypeStringResolver resolver = magikFile.getTypeStringResolver();
+    final TypeString wantedMethodUsageTypeStr = wantedMethodUsage.getTypeName();
+    if (!resolver.isKindOf(wantedMethodUsageTypeStr, typeStr)) {
+      return null;
+    }
+
+    final String methodName = wantedMethodUsage.getMethodName();
+    final MethodUsage methodUsageWithNode =
+        new MethodUsage(wantedMethodUsageTypeStr, methodName, location, calledNode);
+    return Map.entry(methodUsageWithNode, magikFile);
   }
 }
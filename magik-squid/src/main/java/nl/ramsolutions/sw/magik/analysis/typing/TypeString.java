@@ -2,11 +2,14 @@ package nl.ramsolutions.sw.magik.analysis.typing;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import nl.ramsolutions.sw.magik.api.TypeStringGrammar;
@@ -15,9 +18,77 @@ import nl.ramsolutions.sw.magik.api.TypeStringGrammar;
  * Type string, containing package name and identifier. Examples: - {@code "sw:rope"} - {@code
  * "sw:char16_vector|sw:symbol|sw:unset"} - {@code "_undefined"} - {@code "_self|sw:unset"} - {@code
  * "sw:rope<E=sw:integer>"} - {@code "<E>"}
+ *
+ * <p>Instances are canonical: the factory methods return a single shared instance for equal type
+ * strings, as long as it is reachable. The full string and hash code are cached, and equality
+ * checks short-circuit on identity.
  */
 public final class TypeString implements Comparable<TypeString> {
 
+  /**
+   * Weak interner of {@link TypeString}s, keyed by package and full string.
+   *
+   * <p>Canonical instances are released when no longer referenced elsewhere.
+   */
+  private static final class Interner {
+
+    /** Reference to a canonical instance, remembering its key for removal. */
+    private static final class Entry extends WeakReference<TypeString> {
+
+      private final String key;
+
+      Entry(final String key, final TypeString typeString, final ReferenceQueue<TypeString> queue) {
+        super(typeString, queue);
+        this.key = key;
+      }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<TypeString> queue = new ReferenceQueue<>();
+
+    TypeString intern(final TypeString typeString) {
+      this.expungeReleased();
+
+      // The full string of `_self`/`_undefined` omits the package, which is kept in the key.
+      final String key = typeString.getPakkage() + " " + typeString.getFullString();
+      while (true) {
+        final Entry entry = this.entries.get(key);
+        final TypeString existing = entry != null ? entry.get() : null;
+        if (existing != null) {
+          return existing;
+        }
+
+        final Entry newEntry = new Entry(key, typeString, this.queue);
+        final boolean stored =
+            entry == null
+                ? this.entries.putIfAbsent(key, newEntry) == null
+                : this.entries.replace(key, entry, newEntry);
+        if (stored) {
+          return typeString;
+        }
+      }
+    }
+
+    private void expungeReleased() {
+      Reference<? extends TypeString> reference = this.queue.poll();
+      while (reference != null) {
+        final Entry entry = (Entry) reference;
+        this.entries.remove(entry.key, entry);
+        reference = this.queue.poll();
+      }
+    }
+  }
+
+  private static final String GENERIC_DEFINITION = "_generic_def";
+  private static final String GENERIC_REFERENCE = "_generic_ref";
+  private static final String PARAMETER = "_parameter";
+  private static final String COMBINED = "_combined";
+  private static final String UNDEFINED_IDENTIFIER = "_undefined";
+  private static final String SELF_IDENTIFIER = "_self";
+
+  // Declared before the constants, which are created through the interner.
+  private static final Interner INTERNER = new Interner();
+
   @SuppressWarnings("checkstyle:JavadocVariable")
   public static final String DEFAULT_PACKAGE = "user";
 
@@ -32,10 +103,10 @@ public final class TypeString implements Comparable<TypeString> {
 
   @SuppressWarnings("checkstyle:JavadocVariable")
   public static final TypeString UNDEFINED =
-      TypeString.ofIdentifier("_undefined", ANONYMOUS_PACKAGE);
+      TypeString.ofIdentifier(UNDEFINED_IDENTIFIER, ANONYMOUS_PACKAGE);
 
   @SuppressWarnings("checkstyle:JavadocVariable")
-  public static final TypeString SELF = TypeString.ofIdentifier("_self", ANONYMOUS_PACKAGE);
+  public static final TypeString SELF = TypeString.ofIdentifier(SELF_IDENTIFIER, ANONYMOUS_PACKAGE);
 
   @SuppressWarnings("checkstyle:JavadocVariable")
   public static final TypeString SW_UNSET = TypeString.ofIdentifier("unset", SW_PACKAGE);
@@ -113,16 +184,13 @@ public final class TypeString implements Comparable<TypeString> {
   public static final TypeString SW_SLOTTED_FORMAT_MIXIN =
       TypeString.ofIdentifier("slotted_format_mixin", SW_PACKAGE);
 
-  private static final String GENERIC_DEFINITION = "_generic_def";
-  private static final String GENERIC_REFERENCE = "_generic_ref";
-  private static final String PARAMETER = "_parameter";
-  private static final String COMBINED = "_combined";
-
   private final @Nullable String string;
   private final String currentPackage;
   private final List<TypeString> combinedTypes;
   private final List<TypeString> generics;
   private final @Nullable TypeString genericType;
+  private @Nullable String fullString;
+  private int hash;
 
   /**
    * Constructor for generics.
@@ -183,11 +251,12 @@ public final class TypeString implements Comparable<TypeString> {
    */
   public static TypeString ofGenericDefinition(
       final String identifier, final TypeString genericTypeString) {
-    return new TypeString(identifier, TypeString.GENERIC_DEFINITION, genericTypeString);
+    return INTERNER.intern(
+        new TypeString(identifier, TypeString.GENERIC_DEFINITION, genericTypeString));
   }
 
   public static TypeString ofGenericReference(final String identifier) {
-    return new TypeString(identifier, TypeString.GENERIC_REFERENCE, null);
+    return INTERNER.intern(new TypeString(identifier, TypeString.GENERIC_REFERENCE, null));
   }
 
   /**
@@ -197,7 +266,7 @@ public final class TypeString implements Comparable<TypeString> {
    * @return {@link TypeString}.
    */
   public static TypeString ofParameterRef(final String identifier) {
-    return new TypeString(identifier, PARAMETER, null);
+    return INTERNER.intern(new TypeString(identifier, PARAMETER, null));
   }
 
   /**
@@ -210,11 +279,11 @@ public final class TypeString implements Comparable<TypeString> {
    */
   public static TypeString ofIdentifier(
       final String identifier, final String currentPakkage, final TypeString... generics) {
-    return new TypeString(identifier, currentPakkage, null, generics);
+    return INTERNER.intern(new TypeString(identifier, currentPakkage, null, generics));
   }
 
   /**
-   * Create a {@link TypeString} of a combination.
+   * Create a {@link TypeString} of a combination. A combination of a single type is that type.
    *
    * @param combinations Types to combine.
    * @return {@link TypeString}.
@@ -227,7 +296,11 @@ public final class TypeString implements Comparable<TypeString> {
                 throw new IllegalArgumentException();
               }
             });
-    return new TypeString(TypeString.COMBINED, combinations);
+    if (combinations.length == 1) {
+      return combinations[0];
+    }
+
+    return INTERNER.intern(new TypeString(TypeString.COMBINED, combinations));
   }
 
   /**
@@ -273,6 +346,16 @@ public final class TypeString implements Comparable<TypeString> {
    * @return
    */
   public String getFullString() {
+    // Racy single-check, the string is immutable and computing it is idempotent.
+    String str = this.fullString;
+    if (str == null) {
+      str = this.buildFullString();
+      this.fullString = str;
+    }
+    return str;
+  }
+
+  private String buildFullString() {
     if (this.isCombined()) {
       return this.combinedTypes.stream()
           .map(TypeString::getFullString)
@@ -333,11 +416,11 @@ public final class TypeString implements Comparable<TypeString> {
    * @return {@code true} if this type is undefined.
    */
   public boolean isUndefined() {
-    return !this.isCombined() && TypeString.UNDEFINED.getIdentifier().equalsIgnoreCase(this.string);
+    return !this.isCombined() && TypeString.UNDEFINED_IDENTIFIER.equalsIgnoreCase(this.string);
   }
 
   public boolean isAnonymous() {
-    return TypeString.ANONYMOUS_PACKAGE.equals(this.currentPackage);
+    return TypeString.ANONYMOUS_PACKAGE.equals(this.getPakkage());
   }
 
   /**
@@ -354,7 +437,7 @@ public final class TypeString implements Comparable<TypeString> {
   }
 
   public boolean isSelf() {
-    return !this.isCombined() && TypeString.SELF.getIdentifier().equalsIgnoreCase(this.string);
+    return !this.isCombined() && TypeString.SELF_IDENTIFIER.equalsIgnoreCase(this.string);
   }
 
   public boolean isSingle() {
@@ -492,11 +575,13 @@ public final class TypeString implements Comparable<TypeString> {
 
   @Override
   public int hashCode() {
-    // Hash the bare type, without a package.
-    final int index = this.string != null ? this.string.indexOf(':') : -1;
-    final String str =
-        this.string != null && index != -1 ? this.string.substring(index + 1) : this.string;
-    return Objects.hash(this.combinedTypes, str, this.generics, this.genericType);
+    // Consistent with equals, which compares the full strings.
+    int result = this.hash;
+    if (result == 0) {
+      result = this.getFullString().hashCode();
+      this.hash = result;
+    }
+    return result;
   }
 
   @Override
@@ -513,8 +598,10 @@ public final class TypeString implements Comparable<TypeString> {
       return false;
     }
 
+    // Canonical instances are mostly compared by identity, above.
     final TypeString other = (TypeString) obj;
-    return Objects.equals(this.getFullString(), other.getFullString());
+    return this.hashCode() == other.hashCode()
+        && this.getFullString().equals(other.getFullString());
   }
 
   @Override
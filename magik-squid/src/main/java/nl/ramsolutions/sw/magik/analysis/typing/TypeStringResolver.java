@@ -30,17 +30,42 @@ public class TypeStringResolver {
   private static final String ALL_METHODS = "_all_methods";
 
   private final IDefinitionKeeper definitionKeeper;
-  private final Map<TypeString, Set<ITypeStringDefinition>> typeCache = new HashMap<>();
-  private final Map<Map.Entry<TypeString, String>, Collection<MethodDefinition>> methodsCache =
-      new HashMap<>();
+  private final TypeStringResolverCache cache;
 
+  /**
+   * Constructor.
+   *
+   * <p>Resolvers for the same {@link IDefinitionKeeper} share a {@link TypeStringResolverCache}.
+   *
+   * @param definitionKeeper {@link IDefinitionKeeper} to resolve from.
+   */
   public TypeStringResolver(final IDefinitionKeeper definitionKeeper) {
     this.definitionKeeper = definitionKeeper;
+    this.cache = TypeStringResolverCache.forDefinitionKeeper(definitionKeeper);
+  }
+
+  /**
+   * Get the (shared) {@link TypeStringResolverCache} used by this resolver.
+   *
+   * @return The {@link TypeStringResolverCache}.
+   */
+  public TypeStringResolverCache getCache() {
+    return this.cache;
+  }
+
+  private TypeStringResolverCache getValidCache() {
+    this.cache.validate(
+        this.definitionKeeper.getTypeHierarchyGeneration(), this.definitionKeeper.getGeneration());
+    return this.cache;
   }
 
   private List<PackageDefinition> getPackageHierarchy(final TypeString typeString) {
-    final Deque<String> packages = new ArrayDeque<>();
     final String startPackage = typeString.getPakkage();
+    return this.getValidCache().getPackageHierarchy(startPackage, this::findPackageHierarchy);
+  }
+
+  private List<PackageDefinition> findPackageHierarchy(final String startPackage) {
+    final Deque<String> packages = new ArrayDeque<>();
     packages.push(startPackage);
 
     // Iterate through package structure.
@@ -58,7 +83,7 @@ public class TypeStringResolver {
           .forEach(packages::push);
     }
 
-    return seen;
+    return Collections.unmodifiableList(seen);
   }
 
   private Collection<ExemplarDefinition> findExemplarDefinitions(final TypeString typeString) {
@@ -119,8 +144,9 @@ public class TypeStringResolver {
    * @param typeString Reference to look for.
    * @return A {@link ExemplarDefinition}/{@link ProcedureDefinition}/{@link GlobalDefinition}.
    */
-  public synchronized Collection<ITypeStringDefinition> resolve(final TypeString typeString) {
-    return this.typeCache.computeIfAbsent(
+  public Collection<ITypeStringDefinition> resolve(final TypeString typeString) {
+    final TypeStringResolverCache validCache = this.getValidCache();
+    return validCache.getTypes(
         typeString,
         typeStr -> {
           final Collection<ExemplarDefinition> exemplarDefinitions =
@@ -134,7 +160,7 @@ public class TypeStringResolver {
                   procedureDefinitions.stream(),
                   globalDefinitions.stream())
               .flatMap(stream -> stream)
-              .collect(Collectors.toSet());
+              .collect(Collectors.toUnmodifiableSet());
         });
   }
 
@@ -223,8 +249,37 @@ public class TypeStringResolver {
       return true;
     }
 
-    return this.getParents(definition1).stream()
-        .anyMatch(parentTypeString1 -> this.isKindOf(parentTypeString1, typeString2));
+    return this.getResolvedAncestors(definition1).contains(typeString2);
+  }
+
+  /**
+   * Get the {@link TypeString}s of all resolved ancestors of {@link definition}.
+   *
+   * <p>The result is cached until the type hierarchy of the {@link IDefinitionKeeper} changes.
+   *
+   * @param definition Definition to get the ancestors of.
+   * @return {@link TypeString}s of the resolved ancestors.
+   */
+  private Set<TypeString> getResolvedAncestors(final ITypeStringDefinition definition) {
+    final TypeStringResolverCache validCache = this.getValidCache();
+    return validCache.getAncestors(
+        definition,
+        def -> {
+          final Set<TypeString> ancestors = new HashSet<>();
+          final Deque<ITypeStringDefinition> todo = new ArrayDeque<>();
+          todo.push(def);
+          while (!todo.isEmpty()) {
+            final ITypeStringDefinition currentDefinition = todo.pop();
+            this.getParents(currentDefinition).stream()
+                .flatMap(
+                    parentTypeStr -> TypeString.combine(parentTypeStr).getCombinedTypes().stream())
+                .map(parentTypeStr -> this.resolve(parentTypeStr).stream().findAny().orElse(null))
+                .filter(Objects::nonNull)
+                .filter(parentDefinition -> ancestors.add(parentDefinition.getTypeString()))
+                .forEach(todo::push);
+          }
+          return Collections.unmodifiableSet(ancestors);
+        });
   }
 
   /**
@@ -234,10 +289,10 @@ public class TypeStringResolver {
    * @param typeString {@link TypeString} to resolve.
    * @return {@link MethodDefinition}s the {@link TypeString} responds to.
    */
-  public synchronized Collection<MethodDefinition> getMethodDefinitions(
-      final TypeString typeString) {
+  public Collection<MethodDefinition> getMethodDefinitions(final TypeString typeString) {
     final Entry<TypeString, String> cacheKey = Map.entry(typeString, ALL_METHODS);
-    return this.methodsCache.computeIfAbsent(
+    final TypeStringResolverCache validCache = this.getValidCache();
+    return validCache.getMethods(
         cacheKey,
         entry -> {
           // Try to resolve the typeString to an actual type.
@@ -251,7 +306,7 @@ public class TypeStringResolver {
           this.fillMethodDefinitions(actualTypeStr, methodDefinitionsByName);
           return methodDefinitionsByName.values().stream()
               .flatMap(Set::stream)
-              .collect(Collectors.toSet());
+              .collect(Collectors.toUnmodifiableSet());
         });
   }
 
@@ -262,11 +317,12 @@ public class TypeStringResolver {
    * @param methodName Method name to resolve.
    * @return {@link MethodDefinition}s for the given type and method name.
    */
-  public synchronized Collection<MethodDefinition> getMethodDefinitions(
+  public Collection<MethodDefinition> getMethodDefinitions(
       final TypeString typeString, final String methodName) {
     final Entry<TypeString, String> cacheKey = Map.entry(typeString, methodName);
     final Collection<MethodDefinition> methodDefinitions = this.getMethodDefinitions(typeString);
-    return this.methodsCache.computeIfAbsent(
+    final TypeStringResolverCache validCache = this.getValidCache();
+    return validCache.getMethods(
         cacheKey,
         entry ->
             methodDefinitions.stream()
@@ -306,6 +362,7 @@ public class TypeStringResolver {
 
   private Collection<TypeString> getParents(final ITypeStringDefinition definition) {
     if (definition instanceof ExemplarDefinition exemplarDefinition) {
+      // Explicit parents only, an exemplar is not kind of its implicit format mixin.
       return exemplarDefinition.getParents();
     } else if (definition instanceof ProcedureDefinition) {
       // TODO: Is this right?
@@ -340,18 +397,9 @@ public class TypeStringResolver {
       return Collections.emptyList();
     }
 
-    final List<TypeString> parents = exemplarDefinition.getParents();
-    final Set<TypeString> implicitParents = new HashSet<>();
-    if (parents.isEmpty()) {
-      if (exemplarDefinition.getSort() == ExemplarDefinition.Sort.INDEXED) {
-        implicitParents.add(TypeString.SW_INDEXED_FORMAT_MIXIN);
-      } else if (exemplarDefinition.getSort() == ExemplarDefinition.Sort.SLOTTED) {
-        implicitParents.add(TypeString.SW_SLOTTED_FORMAT_MIXIN);
-      }
-    }
-
+    final List<TypeString> parents = exemplarDefinition.getParentsOrImplicitParent();
     final TypeString[] thisGenDefs = typeString.getGenerics().toArray(TypeString[]::new);
-    return Stream.concat(parents.stream(), implicitParents.stream())
+    return parents.stream()
         .map(
             typeStr ->
                 // Let all parents inherit generic definitions.
@@ -359,6 +407,72 @@ public class TypeStringResolver {
         .collect(Collectors.toUnmodifiableSet());
   }
 
+  /**
+   * Get the {@link ExemplarDefinition}s which directly inherit from the given {@link TypeString}.
+   *
+   * @param typeString {@link TypeString} to get the children of.
+   * @return Child {@link ExemplarDefinition}s.
+   */
+  public Collection<ExemplarDefinition> getChildren(final TypeString typeString) {
+    final ExemplarDefinition exemplarDefinition = this.getExemplarDefinition(typeString);
+    if (exemplarDefinition == null) {
+      return Collections.emptySet();
+    }
+
+    final TypeString exemplarTypeString = exemplarDefinition.getTypeString().getWithoutGenerics();
+    final TypeStringResolverCache validCache = this.getValidCache();
+    return validCache
+        .getChildren(this::buildChildrenIndex)
+        .getOrDefault(exemplarTypeString, Collections.emptySet());
+  }
+
+  /**
+   * Build the index of {@link ExemplarDefinition}s by their resolved parents, including implicit
+   * parents.
+   *
+   * @return Child {@link ExemplarDefinition}s, by resolved parent without generics.
+   */
+  private Map<TypeString, Set<ExemplarDefinition>> buildChildrenIndex() {
+    final Map<TypeString, Set<ExemplarDefinition>> childrenIndex = new HashMap<>();
+    for (final ExemplarDefinition definition : this.definitionKeeper.getExemplarDefinitions()) {
+      for (final TypeString parentTypeString : definition.getParentsOrImplicitParent()) {
+        final ExemplarDefinition parentDefinition = this.getExemplarDefinition(parentTypeString);
+        if (parentDefinition == null) {
+          continue;
+        }
+
+        final TypeString resolvedParentTypeString =
+            parentDefinition.getTypeString().getWithoutGenerics();
+        childrenIndex
+            .computeIfAbsent(resolvedParentTypeString, key -> new HashSet<>())
+            .add(definition);
+      }
+    }
+
+    childrenIndex.replaceAll((key, children) -> Collections.unmodifiableSet(children));
+    return Collections.unmodifiableMap(childrenIndex);
+  }
+
+  /**
+   * Get all the {@link ExemplarDefinition}s which (indirectly) inherit from the given {@link
+   * TypeString}.
+   *
+   * @param typeString {@link TypeString} to get the descendants of.
+   * @return Descendant {@link ExemplarDefinition}s.
+   */
+  public Collection<ExemplarDefinition> getAllDescendants(final TypeString typeString) {
+    final Set<ExemplarDefinition> descendants = new HashSet<>();
+    final Deque<ExemplarDefinition> todo = new ArrayDeque<>(this.getChildren(typeString));
+    while (!todo.isEmpty()) {
+      final ExemplarDefinition definition = todo.pop();
+      if (descendants.add(definition)) {
+        final TypeString definitionTypeString = definition.getTypeString();
+        todo.addAll(this.getChildren(definitionTypeString));
+      }
+    }
+    return Collections.unmodifiableSet(descendants);
+  }
+
   /**
    * Find all ancestors for a given {@link TypeString}.
    *
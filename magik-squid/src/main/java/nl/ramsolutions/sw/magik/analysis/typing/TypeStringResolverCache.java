@@ -0,0 +1,195 @@
+package nl.ramsolutions.sw.magik.analysis.typing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.ITypeStringDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.PackageDefinition;
+
+/**
+ * Resolution cache for {@link TypeStringResolver}s, shared by all resolvers of the same {@link
+ * IDefinitionKeeper}.
+ *
+ * <p>The cache is invalidated as a whole when the type hierarchy generation of the {@link
+ * IDefinitionKeeper} changes, i.e., when a package, exemplar, global or procedure is added or
+ * removed. When only a method is added or removed, only the cached methods are invalidated.
+ */
+public final class TypeStringResolverCache {
+
+  private static final Map<IDefinitionKeeper, TypeStringResolverCache> INSTANCES =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final Map<TypeString, Set<ITypeStringDefinition>> typeCache = new ConcurrentHashMap<>();
+  private final Map<Map.Entry<TypeString, String>, Collection<MethodDefinition>> methodsCache =
+      new ConcurrentHashMap<>();
+  private final Map<ITypeStringDefinition, Set<TypeString>> ancestorsCache =
+      new ConcurrentHashMap<>();
+  private final Map<String, List<PackageDefinition>> packageHierarchyCache =
+      new ConcurrentHashMap<>();
+  private volatile Map<TypeString, Set<ExemplarDefinition>> childrenIndex;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private volatile long typeHierarchyGeneration = -1;
+  private volatile long generation = -1;
+
+  private TypeStringResolverCache() {}
+
+  /**
+   * Get the shared cache for the given {@link IDefinitionKeeper}.
+   *
+   * @param definitionKeeper {@link IDefinitionKeeper} to get the cache for.
+   * @return Shared cache.
+   */
+  public static TypeStringResolverCache forDefinitionKeeper(
+      final IDefinitionKeeper definitionKeeper) {
+    return INSTANCES.computeIfAbsent(definitionKeeper, k -> new TypeStringResolverCache());
+  }
+
+  /**
+   * Ensure the cache is valid for the given generations of the {@link IDefinitionKeeper}, clearing
+   * (part of) it if not.
+   *
+   * @param keeperTypeHierarchyGeneration Current type hierarchy generation of the {@link
+   *     IDefinitionKeeper}.
+   * @param keeperGeneration Current generation of the {@link IDefinitionKeeper}.
+   */
+  void validate(final long keeperTypeHierarchyGeneration, final long keeperGeneration) {
+    if (this.typeHierarchyGeneration == keeperTypeHierarchyGeneration
+        && this.generation == keeperGeneration) {
+      return;
+    }
+
+    synchronized (this) {
+      if (this.typeHierarchyGeneration != keeperTypeHierarchyGeneration) {
+        this.typeCache.clear();
+        this.ancestorsCache.clear();
+        this.packageHierarchyCache.clear();
+        this.childrenIndex = null;
+        this.typeHierarchyGeneration = keeperTypeHierarchyGeneration;
+      }
+
+      if (this.generation != keeperGeneration) {
+        this.methodsCache.clear();
+        this.generation = keeperGeneration;
+      }
+    }
+  }
+
+  Set<ITypeStringDefinition> getTypes(
+      final TypeString typeString,
+      final Function<TypeString, Set<ITypeStringDefinition>> resolver) {
+    return this.get(this.typeCache, typeString, resolver, this::getTypeHierarchyGeneration);
+  }
+
+  Collection<MethodDefinition> getMethods(
+      final Map.Entry<TypeString, String> key,
+      final Function<Map.Entry<TypeString, String>, Collection<MethodDefinition>> resolver) {
+    return this.get(this.methodsCache, key, resolver, this::getGeneration);
+  }
+
+  Set<TypeString> getAncestors(
+      final ITypeStringDefinition definition,
+      final Function<ITypeStringDefinition, Set<TypeString>> resolver) {
+    return this.get(this.ancestorsCache, definition, resolver, this::getTypeHierarchyGeneration);
+  }
+
+  List<PackageDefinition> getPackageHierarchy(
+      final String pakkage, final Function<String, List<PackageDefinition>> resolver) {
+    return this.get(
+        this.packageHierarchyCache, pakkage, resolver, this::getTypeHierarchyGeneration);
+  }
+
+  Map<TypeString, Set<ExemplarDefinition>> getChildren(
+      final Supplier<Map<TypeString, Set<ExemplarDefinition>>> builder) {
+    final Map<TypeString, Set<ExemplarDefinition>> cachedIndex = this.childrenIndex;
+    if (cachedIndex != null) {
+      this.hits.incrementAndGet();
+      return cachedIndex;
+    }
+
+    this.misses.incrementAndGet();
+    final long startGeneration = this.typeHierarchyGeneration;
+    final Map<TypeString, Set<ExemplarDefinition>> index = builder.get();
+    this.childrenIndex = index;
+    if (this.typeHierarchyGeneration != startGeneration) {
+      this.childrenIndex = null;
+    }
+    return index;
+  }
+
+  /**
+   * Get a value from the cache, or compute it.
+   *
+   * <p>The value is computed outside of the map, as computing values can recurse into other caches.
+   * A value computed while the generation it depends on changed is not stored.
+   */
+  private <K, V> V get(
+      final Map<K, V> cache,
+      final K key,
+      final Function<K, V> resolver,
+      final LongSupplier generationSupplier) {
+    final V cachedValue = cache.get(key);
+    if (cachedValue != null) {
+      this.hits.incrementAndGet();
+      return cachedValue;
+    }
+
+    this.misses.incrementAndGet();
+    final long startGeneration = generationSupplier.getAsLong();
+    final V value = resolver.apply(key);
+    final V existingValue = cache.putIfAbsent(key, value);
+    if (generationSupplier.getAsLong() != startGeneration) {
+      cache.remove(key, value);
+    }
+    return existingValue != null ? existingValue : value;
+  }
+
+  private long getTypeHierarchyGeneration() {
+    return this.typeHierarchyGeneration;
+  }
+
+  private long getGeneration() {
+    return this.generation;
+  }
+
+  /**
+   * Get the number of cache hits.
+   *
+   * @return Number of cache hits.
+   */
+  public long getHitCount() {
+    return this.hits.get();
+  }
+
+  /**
+   * Get the number of cache misses.
+   *
+   * @return Number of cache misses.
+   */
+  public long getMissCount() {
+    return this.misses.get();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s@%s(type hierarchy generation: %s, generation: %s, hits: %s, misses: %s)",
+        this.getClass().getName(),
+        Integer.toHexString(this.hashCode()),
+        this.typeHierarchyGeneration,
+        this.generation,
+        this.hits.get(),
+        this.misses.get());
+  }
+}
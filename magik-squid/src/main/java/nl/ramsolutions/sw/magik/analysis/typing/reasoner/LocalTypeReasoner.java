@@ -1,8 +1,14 @@
 package nl.ramsolutions.sw.magik.analysis.typing.reasoner;
 
 import com.sonar.sslr.api.AstNode;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
 import nl.ramsolutions.sw.magik.analysis.MagikAstWalker;
+import nl.ramsolutions.sw.magik.analysis.scope.ScopeEntry;
+import nl.ramsolutions.sw.magik.api.MagikGrammar;
 
 /**
  * Reason over types in Magik code.
@@ -19,11 +25,23 @@ import nl.ramsolutions.sw.magik.analysis.MagikAstWalker;
  * declaration the inheriting classes are unknown, thus if {@code _self} is returned from a mixin,
  * we need to proxy the type.
  *
+ * <p>Top level method definitions are reasoned on their own. Given the state of a previous version
+ * of the file, the types of a method definition are reused when its source, package and the
+ * generation of the {@link IDefinitionKeeper} are unchanged, and it does not use any variables
+ * declared at the top level of the file.
+ *
+ * <p>Reasoning is stopped with a {@link CancellationException} when the running thread is
+ * interrupted, e.g., when the request needing the result is cancelled.
+ *
  * <p>Note that this class never writes to the {@link IDefinitionKeeper}.
  */
 public class LocalTypeReasoner extends MagikAstWalker {
 
+  private static final String DEFAULT_PACKAGE = "user";
+
   private final LocalTypeReasonerState state;
+  private final LocalTypeReasonerState previousState;
+  private final Set<AstNode> reusedNodes = new HashSet<>();
   private final AssignmentHandler assignmentHandler;
   private final AtomHandler atomHandler;
   private final ConditionalBodyHandler conditionalBodyHandler;
@@ -41,7 +59,20 @@ public class LocalTypeReasoner extends MagikAstWalker {
    * @param magikFile Magik file to reason on.
    */
   public LocalTypeReasoner(final MagikTypedFile magikFile) {
+    this(magikFile, null);
+  }
+
+  /**
+   * Constructor, for a new version of a file. The types of unchanged method definitions are reused
+   * from the state of the previous version.
+   *
+   * @param magikFile Magik file to reason on.
+   * @param previousState State of the previous version of the file.
+   */
+  public LocalTypeReasoner(
+      final MagikTypedFile magikFile, final @Nullable LocalTypeReasonerState previousState) {
     this.state = new LocalTypeReasonerState(magikFile);
+    this.previousState = previousState;
 
     this.assignmentHandler = new AssignmentHandler(this.state);
     this.atomHandler = new AtomHandler(this.state);
@@ -66,11 +97,85 @@ public class LocalTypeReasoner extends MagikAstWalker {
 
   /** Evaluate the given top {@link AstNode}. */
   public void run() {
-    // Start walking.
     final AstNode topNode = this.state.getMagikFile().getTopNode();
+    this.reuseMethodDefinitions(topNode);
+
+    // Start walking.
     this.walkAst(topNode);
   }
 
+  @Override
+  public void walkAst(final AstNode node) {
+    if (this.reusedNodes.contains(node)) {
+      return;
+    }
+
+    super.walkAst(node);
+  }
+
+  /**
+   * Register the top level method definitions in the state, and reuse the types of those which are
+   * unchanged since the previous state.
+   *
+   * @param topNode Top node.
+   */
+  private void reuseMethodDefinitions(final AstNode topNode) {
+    final MagikTypedFile magikFile = this.state.getMagikFile();
+    final Set<AstNode> dependentNodes = this.getFileVariableDependentNodes(magikFile);
+    final String source = magikFile.getSource();
+    final long generation = magikFile.getDefinitionKeeper().getGeneration();
+    String currentPackage = DEFAULT_PACKAGE;
+    for (final AstNode childNode : topNode.getChildren()) {
+      if (childNode.is(MagikGrammar.PACKAGE_SPECIFICATION)) {
+        final AstNode identifierNode = childNode.getFirstChild(MagikGrammar.PACKAGE_IDENTIFIER);
+        currentPackage = identifierNode.getTokenValue();
+        continue;
+      }
+
+      if (!childNode.is(MagikGrammar.METHOD_DEFINITION) || dependentNodes.contains(childNode)) {
+        continue;
+      }
+
+      final String key =
+          generation
+              + ":"
+              + currentPackage
+              + ":"
+              + source.substring(childNode.getFromIndex(), childNode.getToIndex());
+      this.state.setMethodDefinitionNode(key, childNode);
+
+      final AstNode previousNode =
+          this.previousState != null ? this.previousState.getMethodDefinitionNode(key) : null;
+      if (previousNode != null
+          && this.state.copyNodeTypes(this.previousState, previousNode, childNode)) {
+        this.reusedNodes.add(childNode);
+      }
+    }
+  }
+
+  /**
+   * Get the top level nodes using variables declared at the top level of the file. The types of
+   * these nodes depend on the rest of the file.
+   *
+   * @param magikFile Magik file.
+   * @return Top level nodes using top level variables.
+   */
+  private Set<AstNode> getFileVariableDependentNodes(final MagikTypedFile magikFile) {
+    final Set<AstNode> dependentNodes = new HashSet<>();
+    magikFile.getGlobalScope().getScopeEntriesInScope().stream()
+        .filter(scopeEntry -> !scopeEntry.isType(ScopeEntry.Type.GLOBAL, ScopeEntry.Type.DYNAMIC))
+        .flatMap(scopeEntry -> scopeEntry.getUsages().stream())
+        .forEach(
+            usageNode -> {
+              AstNode node = usageNode;
+              while (node.getParent() != null && !node.getParent().is(MagikGrammar.MAGIK)) {
+                node = node.getParent();
+              }
+              dependentNodes.add(node);
+            });
+    return dependentNodes;
+  }
+
   @Override
   protected void walkPostExemplarName(final AstNode node) {
     this.identifierHandler.handleExemplarName(node);
@@ -196,6 +301,13 @@ public class LocalTypeReasoner extends MagikAstWalker {
   // endregion
 
   // region: Statements
+  @Override
+  protected void walkPreStatement(final AstNode node) {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException();
+    }
+  }
+
   @Override
   protected void walkPostReturnStatement(final AstNode node) {
     this.statementHandler.handleReturn(node);
@@ -2,7 +2,10 @@ package nl.ramsolutions.sw.magik.analysis.typing.reasoner;
 
 import com.sonar.sslr.api.AstNode;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
 import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
@@ -23,6 +26,7 @@ public class LocalTypeReasonerState {
   private final Map<AstNode, ExpressionResultString> nodeTypes = new HashMap<>();
   private final Map<AstNode, ExpressionResultString> nodeIterTypes = new HashMap<>();
   private final Map<ScopeEntry, AstNode> currentScopeEntryNodes = new HashMap<>();
+  private final Map<String, AstNode> methodDefinitionNodes = new HashMap<>();
 
   LocalTypeReasonerState(final MagikTypedFile magikFile) {
     this.magikFile = magikFile;
@@ -135,4 +139,73 @@ public class LocalTypeReasonerState {
   void setCurrentScopeEntryNode(final ScopeEntry scopeEntry, final AstNode node) {
     this.currentScopeEntryNodes.put(scopeEntry, node);
   }
+
+  /**
+   * Get the reasoned METHOD_DEFINITION node for a key.
+   *
+   * @param key Key of method definition.
+   * @return METHOD_DEFINITION node, or null if none was reasoned for the key.
+   */
+  @CheckForNull
+  AstNode getMethodDefinitionNode(final String key) {
+    return this.methodDefinitionNodes.get(key);
+  }
+
+  /**
+   * Set the reasoned METHOD_DEFINITION node for a key, for reuse by a later version of the file.
+   *
+   * @param key Key of method definition.
+   * @param node METHOD_DEFINITION node.
+   */
+  void setMethodDefinitionNode(final String key, final AstNode node) {
+    this.methodDefinitionNodes.put(key, node);
+  }
+
+  /**
+   * Copy the types of the nodes in a subtree of a previous state to the same subtree in this state.
+   *
+   * <p>Both subtrees must have been parsed from the same source. If the subtrees turn out to
+   * differ, nothing is copied.
+   *
+   * @param previousState Previous state.
+   * @param previousNode Top node of subtree in previous state.
+   * @param node Top node of subtree in this state.
+   * @return True if copied, false if the subtrees differ.
+   */
+  boolean copyNodeTypes(
+      final LocalTypeReasonerState previousState, final AstNode previousNode, final AstNode node) {
+    final Map<AstNode, ExpressionResultString> copiedNodeTypes = new HashMap<>();
+    final Map<AstNode, ExpressionResultString> copiedNodeIterTypes = new HashMap<>();
+    final Deque<AstNode> previousNodes = new ArrayDeque<>();
+    final Deque<AstNode> nodes = new ArrayDeque<>();
+    previousNodes.push(previousNode);
+    nodes.push(node);
+    while (!nodes.isEmpty()) {
+      final AstNode currentPreviousNode = previousNodes.pop();
+      final AstNode currentNode = nodes.pop();
+      final List<AstNode> previousChildren = currentPreviousNode.getChildren();
+      final List<AstNode> children = currentNode.getChildren();
+      if (currentPreviousNode.getType() != currentNode.getType()
+          || previousChildren.size() != children.size()) {
+        return false;
+      }
+
+      final ExpressionResultString nodeType = previousState.nodeTypes.get(currentPreviousNode);
+      if (nodeType != null) {
+        copiedNodeTypes.put(currentNode, nodeType);
+      }
+      final ExpressionResultString nodeIterType =
+          previousState.nodeIterTypes.get(currentPreviousNode);
+      if (nodeIterType != null) {
+        copiedNodeIterTypes.put(currentNode, nodeIterType);
+      }
+
+      previousChildren.forEach(previousNodes::push);
+      children.forEach(nodes::push);
+    }
+
+    this.nodeTypes.putAll(copiedNodeTypes);
+    this.nodeIterTypes.putAll(copiedNodeIterTypes);
+    return true;
+  }
 }
@@ -0,0 +1,29 @@
+package nl.ramsolutions.sw.magik.api;
+
+import com.sonar.sslr.api.AstNodeType;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.util.function.UnaryOperator;
+
+/**
+ * Grammar rule key of which the nodes are rewritten while the AST is created.
+ *
+ * <p>Used by {@code org.sonar.sslr.internal.matchers.AstCreator}, which saves a separate pass over
+ * the tree after parsing.
+ */
+public interface AstRewritingRuleKey {
+
+  /**
+   * Get the {@link AstNodeType} to use for nodes of this rule.
+   *
+   * @return {@link AstNodeType} to use, can be the rule key itself.
+   */
+  AstNodeType getAstNodeType();
+
+  /**
+   * Get the rewriter for the values of the tokens of this rule.
+   *
+   * @return Rewriter, or null if token values are kept as is.
+   */
+  @CheckForNull
+  UnaryOperator<String> getTokenValueRewriter();
+}
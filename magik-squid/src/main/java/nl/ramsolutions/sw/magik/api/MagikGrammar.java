@@ -1,6 +1,11 @@
 package nl.ramsolutions.sw.magik.api;
 
+import com.sonar.sslr.api.AstNodeType;
 import com.sonar.sslr.api.GenericTokenType;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
 import org.sonar.sslr.parser.LexerlessGrammar;
@@ -11,7 +16,7 @@ import org.sonar.sslr.parser.LexerlessGrammar;
   "checkstyle:LineLength",
   "checkstyle:MethodLength"
 })
-public enum MagikGrammar implements GrammarRuleKey {
+public enum MagikGrammar implements GrammarRuleKey, AstRewritingRuleKey {
 
   // spacing
   WHITESPACE,
@@ -158,6 +163,33 @@ public enum MagikGrammar implements GrammarRuleKey {
   THISTHREAD,
   SUPER;
 
+  private static final Map<MagikGrammar, MagikGrammar> RULE_MAPPING =
+      new EnumMap<>(MagikGrammar.class);
+
+  static {
+    RULE_MAPPING.put(MagikGrammar.BLOCK_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.CATCH_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.LOCK_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.LOOP_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.PROTECT_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.TRY_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.PROCEDURE_DEFINITION_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.METHOD_DEFINITION_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.IF_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_PAREN_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_SQUARE_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.PARAMETERS_PAREN_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.PARAMETERS_SQUARE_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.SIMPLE_VECTOR_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+    RULE_MAPPING.put(MagikGrammar.STATEMENT_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
+
+    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_PAREN, MagikGrammar.ARGUMENTS);
+    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_SQUARE, MagikGrammar.ARGUMENTS);
+
+    RULE_MAPPING.put(MagikGrammar.PARAMETERS_PAREN, MagikGrammar.PARAMETERS);
+    RULE_MAPPING.put(MagikGrammar.PARAMETERS_SQUARE, MagikGrammar.PARAMETERS);
+  }
+
   private static final String WHITESPACE_SINGLE_REGEXP = "\\t\\u0020\\u00A0\\uFEFF";
   private static final String NEWLINE_REGEXP = "(?:\\n|\\r\\n|\\r)";
   private static final String COMMENT_REGEXP = "(?s)#[^\r\n]*";
@@ -208,6 +240,63 @@ public enum MagikGrammar implements GrammarRuleKey {
           + PIPED_SYMBOL_REGEXP
           + ")+";
 
+  @Override
+  public AstNodeType getAstNodeType() {
+    return MagikGrammar.RULE_MAPPING.getOrDefault(this, this);
+  }
+
+  @CheckForNull
+  @Override
+  public UnaryOperator<String> getTokenValueRewriter() {
+    if (this == MagikGrammar.IDENTIFIER || this == MagikGrammar.SYMBOL) {
+      return MagikGrammar::normalizeIdentifier;
+    }
+
+    return null;
+  }
+
+  /**
+   * Normalize an identifier or symbol: strip the pipes and escapes and lowercase the unpiped
+   * characters.
+   *
+   * @param value Identifier to normalize.
+   * @return Normalized identifier.
+   */
+  @SuppressWarnings({"java:S127", "checkstyle:ModifiedControlVariable"})
+  public static String normalizeIdentifier(final String value) {
+    // if |, read until next |
+    // if \\., read .
+    // else read lowercase
+    final StringBuilder builder = new StringBuilder(value.length());
+
+    for (int i = 0; i < value.length(); ++i) {
+      char chr = value.charAt(i);
+      if (chr == '|') {
+        // piped segment
+        ++i; // skip first |
+        // read until next |
+        for (; i < value.length(); ++i) {
+          chr = value.charAt(i);
+          if (chr == '|') {
+            break;
+          }
+          builder.append(chr);
+        }
+      } else if (chr == '\\') {
+        // escaped character
+        ++i; // skip \
+        chr = value.charAt(i);
+        builder.append(chr);
+      } else {
+        // normal character
+        chr = Character.toLowerCase(chr);
+        builder.append(chr);
+      }
+    }
+
+    return builder.toString();
+  }
+
   /**
    * Create a new LexerlessGrammar for the Magik language.
    *
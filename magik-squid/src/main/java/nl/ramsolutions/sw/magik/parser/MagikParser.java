@@ -1,70 +1,44 @@
 package nl.ramsolutions.sw.magik.parser;
 
 import com.sonar.sslr.api.AstNode;
-import com.sonar.sslr.api.AstNodeType;
-import com.sonar.sslr.api.Token;
-import com.sonar.sslr.impl.Parser;
+import com.sonar.sslr.api.RecognitionException;
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.EnumMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import nl.ramsolutions.sw.AstNodeHelper;
 import nl.ramsolutions.sw.FileCharsetDeterminer;
 import nl.ramsolutions.sw.magik.api.MagikGrammar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.sonar.sslr.parser.LexerlessGrammar;
-import org.sonar.sslr.parser.ParserAdapter;
+import org.sonar.sslr.internal.matchers.AstCreator;
+import org.sonar.sslr.internal.matchers.LocatedText;
+import org.sonar.sslr.parser.ParseError;
+import org.sonar.sslr.parser.ParseErrorFormatter;
+import org.sonar.sslr.parser.ParseRunner;
+import org.sonar.sslr.parser.ParsingResult;
 
 /**
  * Magik Parser.
  *
  * <p>Parses sections, separated by $, one by one, like the Magik parser itself.
  */
-@SuppressWarnings("java:S3011")
 public class MagikParser {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MagikParser.class);
   private static final URI DEFAULT_URI = URI.create("memory://source.magik");
 
-  private static final Map<MagikGrammar, MagikGrammar> RULE_MAPPING =
-      new EnumMap<>(MagikGrammar.class);
-
-  static {
-    RULE_MAPPING.put(MagikGrammar.BLOCK_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.CATCH_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.LOCK_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.LOOP_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.PROTECT_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.TRY_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.PROCEDURE_DEFINITION_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.METHOD_DEFINITION_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.IF_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_PAREN_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_SQUARE_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.PARAMETERS_PAREN_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.PARAMETERS_SQUARE_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.SIMPLE_VECTOR_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-    RULE_MAPPING.put(MagikGrammar.STATEMENT_SYNTAX_ERROR, MagikGrammar.SYNTAX_ERROR);
-
-    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_PAREN, MagikGrammar.ARGUMENTS);
-    RULE_MAPPING.put(MagikGrammar.ARGUMENTS_SQUARE, MagikGrammar.ARGUMENTS);
-
-    RULE_MAPPING.put(MagikGrammar.PARAMETERS_PAREN, MagikGrammar.PARAMETERS);
-    RULE_MAPPING.put(MagikGrammar.PARAMETERS_SQUARE, MagikGrammar.PARAMETERS);
-  }
-
-  private final Parser<LexerlessGrammar> parser;
+  /** Parser per thread, building the grammar is expensive. */
+  private static final ThreadLocal<ParseRunner> PARSE_RUNNER =
+      ThreadLocal.withInitial(() -> new ParseRunner(MagikGrammar.create().getRootRule()));
 
   /** Constructor with default charset. */
   public MagikParser() {
-    final LexerlessGrammar magikGrammar = MagikGrammar.create();
-    this.parser = new ParserAdapter<>(StandardCharsets.ISO_8859_1, magikGrammar);
+    // Parser is shared per thread.
   }
 
   /**
@@ -113,15 +87,86 @@ public class MagikParser {
    * @return Tree
    */
   public AstNode parse(final String source) {
-    final AstNode magikNode = this.parser.parse(source);
+    // Rule mapping and identifier/symbol casing are handled by the AstCreator, through
+    // MagikGrammar.
+    final char[] chars = source.toCharArray();
+    return MagikParser.parse(chars, 0);
+  }
+
+  /**
+   * Parse a string, reusing the top level nodes from the parse of a previous version of the source.
+   *
+   * <p>Top level nodes are reused up to, and including, the last {@code $} before the first change.
+   * As {@code $} ends a section, only the remainder of the source is parsed. The reused nodes are
+   * copied, as the previous tree might still be in use. Their tokens are shared.
+   *
+   * @param source Source to parse.
+   * @param uri URI to set.
+   * @param previousSource Previous version of the source.
+   * @param previousNode Top level node of the previous version of the source.
+   * @return Parsed source.
+   */
+  public AstNode parseIncremental(
+      final String source, final URI uri, final String previousSource, final AstNode previousNode) {
+    final int changeIndex = Arrays.mismatch(previousSource.toCharArray(), source.toCharArray());
+    final int unchangedLength = changeIndex == -1 ? source.length() : changeIndex;
+    final List<AstNode> previousChildren = previousNode.getChildren();
+    int reuseCount = 0;
+    for (int i = 0; i < previousChildren.size(); ++i) {
+      final AstNode childNode = previousChildren.get(i);
+      if (childNode.getToIndex() > unchangedLength) {
+        break;
+      }
+
+      if (childNode.is(MagikGrammar.TRANSMIT)) {
+        reuseCount = i + 1;
+      }
+    }
 
-    // Update identifiers.
-    this.updateIdentifiersSymbolsCasing(magikNode);
+    if (reuseCount == 0) {
+      return this.parseSafe(source, uri);
+    }
 
-    // Apply RULE_MAPPING.
-    this.applyRuleMapping(magikNode);
+    final int offset = previousChildren.get(reuseCount - 1).getToIndex();
+    final AstNode remainderNode = MagikParser.parse(source.toCharArray(), offset);
+    AstNodeHelper.updateUri(remainderNode, uri);
+
+    final List<AstNode> childNodes = new ArrayList<>();
+    previousChildren
+        .subList(0, reuseCount)
+        .forEach(child -> childNodes.add(MagikParser.copyNode(child)));
+    childNodes.addAll(remainderNode.getChildren());
+    final AstNode node =
+        new AstNode(
+            MagikGrammar.MAGIK, MagikGrammar.MAGIK.toString(), childNodes.get(0).getToken());
+    childNodes.forEach(node::addChild);
+    node.setFromIndex(0);
+    node.setToIndex(source.length());
+    return node;
+  }
+
+  private static AstNode copyNode(final AstNode node) {
+    final AstNode copy = new AstNode(node.getType(), node.getName(), node.getToken());
+    copy.setFromIndex(node.getFromIndex());
+    copy.setToIndex(node.getToIndex());
+    node.getChildren().forEach(child -> copy.addChild(MagikParser.copyNode(child)));
+    return copy;
+  }
+
+  private static AstNode parse(final char[] chars, final int offset) {
+    final char[] parsedChars =
+        offset == 0 ? chars : Arrays.copyOfRange(chars, offset, chars.length);
+    final ParsingResult result = PARSE_RUNNER.get().parse(parsedChars);
+    if (!result.isMatched()) {
+      final ParseError parseError = result.getParseError();
+      final int line =
+          parseError.getInputBuffer().getPosition(parseError.getErrorIndex()).getLine();
+      final String message = new ParseErrorFormatter().format(parseError);
+      throw new RecognitionException(line, message);
+    }
 
-    return magikNode;
+    final LocatedText text = new LocatedText(null, chars);
+    return AstCreator.create(result, text, offset);
   }
 
   /**
@@ -134,102 +179,21 @@ public class MagikParser {
   public AstNode parse(final Path path) throws IOException {
     final Charset charset = FileCharsetDeterminer.determineCharset(path);
     final String source = Files.readString(path, charset);
-    final AstNode node = this.parser.parse(source);
+    final AstNode node = this.parse(source);
 
     final URI uri = path.toUri();
     AstNodeHelper.updateUri(node, uri);
 
-    this.updateIdentifiersSymbolsCasing(node);
-
-    this.applyRuleMapping(node);
-
     return node;
   }
 
-  @SuppressWarnings("checkstyle:NestedIfDepth")
-  private void applyRuleMapping(final AstNode node) {
-    final AstNodeType type = node.getType();
-    if (MagikParser.RULE_MAPPING.containsKey(type)) {
-      final AstNodeType newType = MagikParser.RULE_MAPPING.get(type);
-      final String newName = newType.toString();
-
-      // Convert node to new type.
-      try {
-        final Field fieldType = AstNode.class.getDeclaredField("type");
-        fieldType.setAccessible(true);
-        fieldType.set(node, newType);
-
-        final Field fieldName = AstNode.class.getDeclaredField("name");
-        fieldName.setAccessible(true);
-        fieldName.set(node, newName);
-      } catch (final ReflectiveOperationException exception) {
-        LOGGER.error(exception.getMessage(), exception);
-      }
-    }
-
-    node.getChildren().forEach(this::applyRuleMapping);
-  }
-
-  /**
-   * Update token value.
-   *
-   * @param node Node to update.
-   */
-  private void updateIdentifiersSymbolsCasing(final AstNode node) {
-    try {
-      final Field field = Token.class.getDeclaredField("value");
-      field.setAccessible(true);
-      if (node.is(MagikGrammar.IDENTIFIER) || node.is(MagikGrammar.SYMBOL)) {
-        final Token token = node.getToken();
-        final String value = token.getValue();
-        final String newValue = MagikParser.parseIdentifier(value);
-        field.set(token, newValue);
-      }
-    } catch (final ReflectiveOperationException exception) {
-      LOGGER.error(exception.getMessage(), exception);
-    }
-
-    node.getChildren().forEach(this::updateIdentifiersSymbolsCasing);
-  }
-
   /**
    * Parse an identifier.
    *
    * @param value Identifier to parse.
    * @return Parsed identifier.
    */
-  @SuppressWarnings({"java:S127", "checkstyle:ModifiedControlVariable"})
   static String parseIdentifier(final String value) {
-    // if |, read until next |
-    // if \\., read .
-    // else read lowercase
-    final StringBuilder builder = new StringBuilder(value.length());
-
-    for (int i = 0; i < value.length(); ++i) {
-      char chr = value.charAt(i);
-      if (chr == '|') {
-        // piped segment
-        ++i; // skip first |
-        // read until next |
-        for (; i < value.length(); ++i) {
-          chr = value.charAt(i);
-          if (chr == '|') {
-            break;
-          }
-          builder.append(chr);
-        }
-      } else if (chr == '\\') {
-        // escaped character
-        ++i; // skip \
-        chr = value.charAt(i);
-        builder.append(chr);
-      } else {
-        // normal character
-        chr = Character.toLowerCase(chr);
-        builder.append(chr);
-      }
-    }
-
-    return builder.toString();
+    return MagikGrammar.normalizeIdentifier(value);
   }
 }
@@ -20,6 +20,21 @@ public final class TypeStringParser {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TypeStringParser.class);
 
+  /** Parsers per thread, building the grammar is expensive. */
+  private static final ThreadLocal<Parser<LexerlessGrammar>> TYPE_STRING_PARSER =
+      ThreadLocal.withInitial(
+          () ->
+              new ParserAdapter<>(
+                  StandardCharsets.ISO_8859_1,
+                  TypeStringGrammar.create(TypeStringGrammar.TYPE_STRING)));
+
+  private static final ThreadLocal<Parser<LexerlessGrammar>> EXPRESSION_RESULT_STRING_PARSER =
+      ThreadLocal.withInitial(
+          () ->
+              new ParserAdapter<>(
+                  StandardCharsets.ISO_8859_1,
+                  TypeStringGrammar.create(TypeStringGrammar.EXPRESSION_RESULT_STRING)));
+
   private TypeStringParser() {}
 
   /**
@@ -45,9 +60,7 @@ public final class TypeStringParser {
       return TypeString.UNDEFINED;
     }
 
-    final Parser<LexerlessGrammar> parser =
-        new ParserAdapter<>(
-            StandardCharsets.ISO_8859_1, TypeStringGrammar.create(TypeStringGrammar.TYPE_STRING));
+    final Parser<LexerlessGrammar> parser = TYPE_STRING_PARSER.get();
     final AstNode node = parser.parse(typeStr);
     return TypeStringParser.typeStringNodeToTypeString(node, currentPakkage);
   }
@@ -61,9 +74,7 @@ public final class TypeStringParser {
   public static AstNode getParsedNodeForTypeString(final AstNode typeDocNode) {
     final Token typeDocToken = typeDocNode.getToken();
     final String typeStr = typeDocToken.getOriginalValue();
-    final Parser<LexerlessGrammar> parser =
-        new ParserAdapter<>(
-            StandardCharsets.ISO_8859_1, TypeStringGrammar.create(TypeStringGrammar.TYPE_STRING));
+    final Parser<LexerlessGrammar> parser = TYPE_STRING_PARSER.get();
     final AstNode node = parser.parse(typeStr);
 
     // Update token location for easier handling in other parts.
@@ -107,10 +118,7 @@ public final class TypeStringParser {
       return ExpressionResultString.EMPTY;
     }
 
-    final Parser<LexerlessGrammar> parser =
-        new ParserAdapter<>(
-            StandardCharsets.ISO_8859_1,
-            TypeStringGrammar.create(TypeStringGrammar.EXPRESSION_RESULT_STRING));
+    final Parser<LexerlessGrammar> parser = EXPRESSION_RESULT_STRING_PARSER.get();
     final AstNode node = parser.parse(expressionResultStr);
     if (node.hasDescendant(TypeStringGrammar.EXPRESSION_RESULT_STRING_UNDEFINED)) {
       return ExpressionResultString.UNDEFINED;
@@ -17,12 +17,15 @@ import org.sonar.sslr.parser.ParserAdapter;
 /** Smallworld module.def parser. */
 public class SwModuleDefParser {
 
-  private final Parser<LexerlessGrammar> parser;
+  /** Parser per thread, building the grammar is expensive. */
+  private static final ThreadLocal<Parser<LexerlessGrammar>> PARSER =
+      ThreadLocal.withInitial(
+          () ->
+              new ParserAdapter<>(StandardCharsets.ISO_8859_1, SwModuleDefinitionGrammar.create()));
 
   /** Constructor with default charset. */
   public SwModuleDefParser() {
-    final LexerlessGrammar moduleDefGrammar = SwModuleDefinitionGrammar.create();
-    this.parser = new ParserAdapter<>(StandardCharsets.ISO_8859_1, moduleDefGrammar);
+    // Parser is shared per thread.
   }
 
   /**
@@ -47,7 +50,7 @@ public class SwModuleDefParser {
    * @return Parsed source.
    */
   public AstNode parse(final String source, final URI uri) {
-    final AstNode node = this.parser.parse(source);
+    final AstNode node = PARSER.get().parse(source);
     AstNodeHelper.updateUri(node, uri);
     return node;
   }
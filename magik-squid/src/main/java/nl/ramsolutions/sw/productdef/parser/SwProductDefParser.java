@@ -17,12 +17,16 @@ import org.sonar.sslr.parser.ParserAdapter;
 /** Smallworld product.def parser. */
 public class SwProductDefParser {
 
-  private final Parser<LexerlessGrammar> parser;
+  /** Parser per thread, building the grammar is expensive. */
+  private static final ThreadLocal<Parser<LexerlessGrammar>> PARSER =
+      ThreadLocal.withInitial(
+          () ->
+              new ParserAdapter<>(
+                  StandardCharsets.ISO_8859_1, SwProductDefinitionGrammar.create()));
 
   /** Constructor with default charset. */
   public SwProductDefParser() {
-    final LexerlessGrammar productDefGrammar = SwProductDefinitionGrammar.create();
-    this.parser = new ParserAdapter<>(StandardCharsets.ISO_8859_1, productDefGrammar);
+    // Parser is shared per thread.
   }
 
   /**
@@ -47,7 +51,7 @@ public class SwProductDefParser {
    * @return Parsed source.
    */
   public AstNode parse(final String source, final URI uri) {
-    final AstNode node = this.parser.parse(source);
+    final AstNode node = PARSER.get().parse(source);
     AstNodeHelper.updateUri(node, uri);
     return node;
   }
@@ -20,6 +20,7 @@
 package org.sonar.sslr.internal.matchers;
 
 import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.TokenType;
@@ -30,6 +31,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.UnaryOperator;
+import nl.ramsolutions.sw.magik.api.AstRewritingRuleKey;
 import org.sonar.sslr.internal.grammar.MutableParsingRule;
 import org.sonar.sslr.internal.vm.TokenExpression;
 import org.sonar.sslr.internal.vm.TriviaExpression;
@@ -40,19 +43,34 @@ public final class AstCreator {
   private static final URI FAKE_URI = URI.create("memory://source.magik");
 
   private final LocatedText input;
+  private final int offset;
   private final Token.Builder tokenBuilder = Token.builder();
   private final List<Trivia> trivias = new ArrayList<>();
+  private UnaryOperator<String> tokenValueRewriter;
 
   public static AstNode create(ParsingResult parsingResult, LocatedText input) {
-    AstNode astNode = new AstCreator(input).visit(parsingResult.getParseTreeRoot());
+    return create(parsingResult, input, 0);
+  }
+
+  /**
+   * Create the AST for a parsing result of a part of the input, starting at {@code offset}.
+   *
+   * @param parsingResult Parsing result, of the input starting at {@code offset}.
+   * @param input Complete input, used for token positions and values.
+   * @param offset Offset of the parsed part in the input.
+   * @return Created AST.
+   */
+  public static AstNode create(ParsingResult parsingResult, LocatedText input, int offset) {
+    AstNode astNode = new AstCreator(input, offset).visit(parsingResult.getParseTreeRoot());
     // Unwrap AstNodeType for root node:
     Objects.requireNonNull(astNode);
     astNode.hasToBeSkippedFromAst();
     return astNode;
   }
 
-  private AstCreator(LocatedText input) {
+  private AstCreator(LocatedText input, int offset) {
     this.input = input;
+    this.offset = offset;
   }
 
   private AstNode visit(ParseNode node) {
@@ -91,16 +109,20 @@ public final class AstCreator {
       updateTokenPositionAndValue(node);
       tokenBuilder.setType(UNDEFINED_TOKEN_TYPE);
     }
+    if (tokenValueRewriter != null) {
+      String originalValue = getValue(node);
+      tokenBuilder.setValueAndOriginalValue(tokenValueRewriter.apply(originalValue), originalValue);
+    }
     Token token = tokenBuilder.setTrivia(trivias).build();
     trivias.clear();
     AstNode astNode = new AstNode(token);
-    astNode.setFromIndex(node.getStartIndex());
-    astNode.setToIndex(node.getEndIndex());
+    astNode.setFromIndex(offset + node.getStartIndex());
+    astNode.setToIndex(offset + node.getEndIndex());
     return astNode;
   }
 
   private void updateTokenPositionAndValue(ParseNode node) {
-    TextLocation location = input.getLocation(node.getStartIndex());
+    TextLocation location = input.getLocation(offset + node.getStartIndex());
     if (location == null) {
       tokenBuilder.setGeneratedCode(true);
       // Godin: line, column and uri has no value for generated code, but we should bypass checks in
@@ -122,6 +144,9 @@ public final class AstCreator {
 
   private AstNode visitNonTerminal(ParseNode node) {
     MutableParsingRule ruleMatcher = (MutableParsingRule) node.getMatcher();
+    AstRewritingRuleKey rewritingRuleKey = getRewritingRuleKey(ruleMatcher);
+    UnaryOperator<String> parentTokenValueRewriter = tokenValueRewriter;
+    tokenValueRewriter = rewritingRuleKey != null ? rewritingRuleKey.getTokenValueRewriter() : null;
     List<AstNode> astNodes = new ArrayList<>();
     for (ParseNode child : node.getChildren()) {
       AstNode astNode = visit(child);
@@ -142,18 +167,41 @@ public final class AstCreator {
       }
     }
 
-    AstNode astNode = new AstNode(ruleMatcher, ruleMatcher.getName(), token);
-    for (AstNode child : astNodes) {
+    tokenValueRewriter = parentTokenValueRewriter;
+
+    AstNode astNode = createAstNode(ruleMatcher, ruleMatcher.getName(), token, astNodes);
+    if (rewritingRuleKey != null
+        && rewritingRuleKey.getAstNodeType() != rewritingRuleKey
+        && !ruleMatcher.hasToBeSkippedFromAst(astNode)) {
+      // Map the node to another type, a node of another type is not skipped from the AST.
+      AstNodeType type = rewritingRuleKey.getAstNodeType();
+      astNode = createAstNode(type, type.toString(), token, astNodes);
+    }
+    astNode.setFromIndex(offset + node.getStartIndex());
+    astNode.setToIndex(offset + node.getEndIndex());
+    return astNode;
+  }
+
+  private static AstRewritingRuleKey getRewritingRuleKey(MutableParsingRule ruleMatcher) {
+    if (ruleMatcher.getRuleKey() instanceof AstRewritingRuleKey) {
+      return (AstRewritingRuleKey) ruleMatcher.getRuleKey();
+    }
+    return null;
+  }
+
+  private static AstNode createAstNode(
+      AstNodeType type, String name, Token token, List<AstNode> children) {
+    AstNode astNode = new AstNode(type, name, token);
+    for (AstNode child : children) {
       astNode.addChild(child);
     }
-    astNode.setFromIndex(node.getStartIndex());
-    astNode.setToIndex(node.getEndIndex());
     return astNode;
   }
 
   private String getValue(ParseNode node) {
     StringBuilder result = new StringBuilder();
-    for (int i = node.getStartIndex(); i < Math.min(node.getEndIndex(), input.length()); i++) {
+    int endIndex = Math.min(offset + node.getEndIndex(), input.length());
+    for (int i = offset + node.getStartIndex(); i < endIndex; i++) {
       result.append(input.charAt(i));
     }
     return result.toString();
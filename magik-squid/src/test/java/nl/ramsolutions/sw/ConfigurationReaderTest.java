@@ -0,0 +1,40 @@
+package nl.ramsolutions.sw;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test {@link ConfigurationReader}. */
+class ConfigurationReaderTest {
+
+  @Test
+  void testReadPropertiesFileCached(final @TempDir Path directory) throws IOException {
+    final Path path = directory.resolve(ConfigurationLocator.MAGIK_LINT_RC_FILENAME);
+    Files.writeString(path, "disabled=a\n");
+
+    final MagikToolsProperties properties0 = ConfigurationReader.readPropertiesFile(path);
+    final MagikToolsProperties properties1 = ConfigurationReader.readPropertiesFile(path);
+    assertThat(properties1).isSameAs(properties0);
+    assertThat(properties1.getPropertyString("disabled")).isEqualTo("a");
+  }
+
+  @Test
+  void testReadPropertiesFileModified(final @TempDir Path directory) throws IOException {
+    final Path path = directory.resolve(ConfigurationLocator.MAGIK_LINT_RC_FILENAME);
+    Files.writeString(path, "disabled=a\n");
+    Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+    final MagikToolsProperties properties0 = ConfigurationReader.readPropertiesFile(path);
+
+    Files.writeString(path, "disabled=b\n");
+    Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2024-01-02T00:00:00Z")));
+    final MagikToolsProperties properties1 = ConfigurationReader.readPropertiesFile(path);
+    assertThat(properties1).isNotSameAs(properties0);
+    assertThat(properties1.getPropertyString("disabled")).isEqualTo("b");
+  }
+}
@@ -0,0 +1,76 @@
+package nl.ramsolutions.sw.magik;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sonar.sslr.impl.ast.AstXmlPrinter;
+import java.lang.ref.WeakReference;
+import nl.ramsolutions.sw.MagikToolsProperties;
+import nl.ramsolutions.sw.magik.parser.MagikParser;
+import org.junit.jupiter.api.Test;
+
+/** Test {@link MagikFile}. */
+class MagikFileTest {
+
+  private static final String CODE_1 =
+      """
+      _method a.b
+        _return 1
+      _endmethod
+      """;
+  private static final String CODE_2 =
+      """
+      _method a.b
+        _return 2
+      _endmethod
+      """;
+  private static final String CODE_3 =
+      """
+      _method a.b
+        _return 3
+      _endmethod
+      """;
+
+  private static MagikFile newVersion(final String source, final MagikFile previousMagikFile) {
+    return new MagikFile(
+        MagikToolsProperties.DEFAULT_PROPERTIES, MagikFile.DEFAULT_URI, source, previousMagikFile);
+  }
+
+  private static void awaitRelease(final WeakReference<?> reference) throws InterruptedException {
+    for (int i = 0; i < 50 && reference.get() != null; ++i) {
+      System.gc(); // NOSONAR: Needed for testing release.
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  void testUnparsedVersionIsReleased() throws InterruptedException {
+    final MagikFile magikFile1 = new MagikFile(MagikFile.DEFAULT_URI, CODE_1);
+    magikFile1.getTopNode();
+    MagikFile magikFile2 = MagikFileTest.newVersion(CODE_2, magikFile1);
+    final WeakReference<MagikFile> magikFile2Reference = new WeakReference<>(magikFile2);
+
+    final MagikFile magikFile3 = MagikFileTest.newVersion(CODE_3, magikFile2);
+    magikFile2 = null;
+    MagikFileTest.awaitRelease(magikFile2Reference);
+
+    assertThat(magikFile2Reference.get()).isNull();
+    final MagikParser parser = new MagikParser();
+    assertThat(AstXmlPrinter.print(magikFile3.getTopNode()))
+        .isEqualTo(AstXmlPrinter.print(parser.parseSafe(CODE_3)));
+  }
+
+  @Test
+  void testNeverParsedVersionsAreReleased() throws InterruptedException {
+    MagikFile magikFile1 = new MagikFile(MagikFile.DEFAULT_URI, CODE_1);
+    final WeakReference<MagikFile> magikFile1Reference = new WeakReference<>(magikFile1);
+
+    final MagikFile magikFile2 = MagikFileTest.newVersion(CODE_2, magikFile1);
+    magikFile1 = null;
+    MagikFileTest.awaitRelease(magikFile1Reference);
+
+    assertThat(magikFile1Reference.get()).isNull();
+    final MagikParser parser = new MagikParser();
+    assertThat(AstXmlPrinter.print(magikFile2.getTopNode()))
+        .isEqualTo(AstXmlPrinter.print(parser.parseSafe(CODE_2)));
+  }
+}
@@ -0,0 +1,74 @@
+package nl.ramsolutions.sw.magik;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test {@link MagikTypedFileCache}. */
+class MagikTypedFileCacheTest {
+
+  @Test
+  void testGetMagikFileCached(final @TempDir Path directory) throws IOException {
+    final Path path = directory.resolve("a.magik");
+    Files.writeString(path, "_block _endblock\n");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    final MagikTypedFileCache cache = new MagikTypedFileCache(definitionKeeper);
+
+    final MagikTypedFile magikFile0 = cache.getMagikFile(path.toUri());
+    final MagikTypedFile magikFile1 = cache.getMagikFile(path.toUri());
+    assertThat(magikFile1).isNotNull().isSameAs(magikFile0);
+  }
+
+  @Test
+  void testGetMagikFileModified(final @TempDir Path directory) throws IOException {
+    final Path path = directory.resolve("a.magik");
+    Files.writeString(path, "_block _endblock\n");
+    Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    final MagikTypedFileCache cache = new MagikTypedFileCache(definitionKeeper);
+    final MagikTypedFile magikFile0 = cache.getMagikFile(path.toUri());
+
+    Files.writeString(path, "_block _return 1 _endblock\n");
+    Files.setLastModifiedTime(path, FileTime.from(Instant.parse("2024-01-02T00:00:00Z")));
+    final MagikTypedFile magikFile1 = cache.getMagikFile(path.toUri());
+    assertThat(magikFile1).isNotNull().isNotSameAs(magikFile0);
+    assertThat(magikFile1.getSource()).isEqualTo("_block _return 1 _endblock\n");
+  }
+
+  @Test
+  void testGetMagikFileEvicted(final @TempDir Path directory) throws IOException {
+    final Path path0 = directory.resolve("a.magik");
+    Files.writeString(path0, "_block _endblock\n");
+    final Path path1 = directory.resolve("b.magik");
+    Files.writeString(path1, "_block _endblock\n");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    final MagikTypedFileCache cache = new MagikTypedFileCache(definitionKeeper, uri -> null, 20);
+
+    final MagikTypedFile magikFile0 = cache.getMagikFile(path0.toUri());
+    cache.getMagikFile(path1.toUri());
+    assertThat(cache.getMagikFile(path0.toUri())).isNotSameAs(magikFile0);
+  }
+
+  @Test
+  void testGetMagikFilePrefersOpenedFile() {
+    final URI uri = URI.create("memory://source.magik");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    final MagikTypedFile openedFile =
+        new MagikTypedFile(uri, "_block _endblock\n", definitionKeeper);
+    final MagikTypedFileCache cache =
+        new MagikTypedFileCache(
+            definitionKeeper, fileUri -> fileUri.equals(uri) ? openedFile : null, 20);
+
+    assertThat(cache.getMagikFile(uri)).isSameAs(openedFile);
+    assertThat(cache.getMagikFile(URI.create("memory://other.magik"))).isNull();
+  }
+}
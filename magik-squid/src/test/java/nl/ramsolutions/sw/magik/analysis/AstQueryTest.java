@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.Token;
 import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.api.MagikGrammar;
 import nl.ramsolutions.sw.magik.parser.MagikParser;
 import org.junit.jupiter.api.Test;
 
@@ -44,4 +45,50 @@ class AstQueryTest {
 
     assertThat(nodeAt).isNull();
   }
+
+  @Test
+  void testNodeAtLaterStatement() {
+    String code =
+        """
+        a << 10
+        b << 20""";
+    AstNode node = this.parseCode(code);
+    AstNode nodeAt = AstQuery.nodeAt(node, new Position(2, 6));
+    assertThat(nodeAt).isNotNull();
+
+    Token tokenAt = nodeAt.getToken();
+    assertThat(tokenAt.getLine()).isEqualTo(2);
+    assertThat(tokenAt.getColumn()).isEqualTo(5);
+    assertThat(tokenAt.getOriginalValue()).isEqualTo("20");
+  }
+
+  @Test
+  void testNodeSurrounding() {
+    String code =
+        """
+        a << 10
+        b << 20""";
+    AstNode node = this.parseCode(code);
+    AstNode surroundingNode = AstQuery.nodeSurrounding(node, new Position(2, 6));
+    assertThat(surroundingNode).isNotNull();
+    assertThat(surroundingNode.is(MagikGrammar.MAGIK)).isFalse();
+    assertThat(surroundingNode.getToken().getLine()).isEqualTo(2);
+
+    AstNode numberNode = AstQuery.nodeSurrounding(node, new Position(2, 6), MagikGrammar.NUMBER);
+    assertThat(numberNode).isNotNull();
+    assertThat(numberNode.getTokenValue()).isEqualTo("20");
+  }
+
+  @Test
+  void testNodeBeforeAfter() {
+    String code =
+        """
+        a << 10
+        b << 20""";
+    AstNode node = this.parseCode(code);
+    assertThat(AstQuery.nodeBefore(node, new Position(1, 0))).isNotNull();
+    assertThat(AstQuery.nodeBefore(node, new Position(3, 0))).isNull();
+    assertThat(AstQuery.nodeAfter(node, new Position(1, 0))).isNull();
+    assertThat(AstQuery.nodeAfter(node, new Position(3, 0))).isNotNull();
+  }
 }
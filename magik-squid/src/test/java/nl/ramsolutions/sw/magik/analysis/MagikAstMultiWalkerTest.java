@@ -0,0 +1,112 @@
+package nl.ramsolutions.sw.magik.analysis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Token;
+import java.util.ArrayList;
+import java.util.List;
+import nl.ramsolutions.sw.magik.parser.MagikParser;
+import org.junit.jupiter.api.Test;
+
+/** Test MagikAstMultiWalker. */
+@SuppressWarnings("checkstyle:MagicNumber")
+class MagikAstMultiWalkerTest {
+
+  private static final String CODE =
+      """
+      _method a.b
+        _return 1
+      _endmethod
+      $
+      _method a.c
+        _return _self.b
+      _endmethod
+      """;
+
+  /** Walker recording the methods it walks. */
+  private static final class MethodWalker extends MagikAstWalker {
+
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    protected void walkPreMethodDefinition(final AstNode node) {
+      this.events.add("pre:" + node.getTokenLine());
+    }
+
+    @Override
+    protected void walkPostMethodDefinition(final AstNode node) {
+      this.events.add("post:" + node.getTokenLine());
+    }
+  }
+
+  /** Walker recording all nodes and tokens it walks. */
+  private static final class DefaultWalker extends MagikAstWalker {
+
+    private int nodeCount;
+    private int tokenCount;
+
+    @Override
+    protected void walkPreDefault(final AstNode node) {
+      this.nodeCount++;
+    }
+
+    @Override
+    protected void walkToken(final Token token) {
+      this.tokenCount++;
+    }
+  }
+
+  /** Walker failing on every method definition. */
+  private static final class FailingWalker extends MagikAstWalker {
+
+    private int callCount;
+
+    @Override
+    protected void walkPreMethodDefinition(final AstNode node) {
+      this.callCount++;
+      throw new IllegalStateException("Failing walker");
+    }
+  }
+
+  private AstNode parseCode(final String code) {
+    final MagikParser parser = new MagikParser();
+    return parser.parseSafe(code);
+  }
+
+  @Test
+  void testWalkOnceEqualsWalkSeparately() {
+    final AstNode node = this.parseCode(CODE);
+
+    final MethodWalker separateMethodWalker = new MethodWalker();
+    separateMethodWalker.walkAst(node);
+    final DefaultWalker separateDefaultWalker = new DefaultWalker();
+    separateDefaultWalker.walkAst(node);
+
+    final MethodWalker methodWalker = new MethodWalker();
+    final DefaultWalker defaultWalker = new DefaultWalker();
+    final MagikAstMultiWalker multiWalker =
+        new MagikAstMultiWalker(List.of(methodWalker, defaultWalker));
+    multiWalker.walkAst(node);
+
+    assertThat(methodWalker.events)
+        .containsExactly("pre:1", "post:1", "pre:5", "post:5")
+        .isEqualTo(separateMethodWalker.events);
+    assertThat(defaultWalker.nodeCount).isEqualTo(separateDefaultWalker.nodeCount).isPositive();
+    assertThat(defaultWalker.tokenCount).isEqualTo(separateDefaultWalker.tokenCount).isPositive();
+  }
+
+  @Test
+  void testFailingWalkerDoesNotAbortOthers() {
+    final AstNode node = this.parseCode(CODE);
+
+    final FailingWalker failingWalker = new FailingWalker();
+    final MethodWalker methodWalker = new MethodWalker();
+    final MagikAstMultiWalker multiWalker =
+        new MagikAstMultiWalker(List.of(failingWalker, methodWalker));
+    multiWalker.walkAst(node);
+
+    assertThat(failingWalker.callCount).isEqualTo(1);
+    assertThat(methodWalker.events).containsExactly("pre:1", "post:1", "pre:5", "post:5");
+  }
+}
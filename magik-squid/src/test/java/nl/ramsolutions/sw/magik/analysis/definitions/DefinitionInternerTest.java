@@ -0,0 +1,211 @@
+package nl.ramsolutions.sw.magik.analysis.definitions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Tests for {@link DefinitionInterner}. */
+class DefinitionInternerTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefinitionInternerTest.class);
+
+  private static final int METHODS_PER_FILE = 100;
+  private static final int USAGES_PER_METHOD = 8;
+
+  /**
+   * Create a method definition, with fresh instances for all values, as parsing would.
+   *
+   * @param fileIndex Index of file.
+   * @param methodIndex Index of method in file.
+   * @return Method definition.
+   */
+  private MethodDefinition createMethodDefinition(final int fileIndex, final int methodIndex) {
+    final URI uri = URI.create("file:///product/module/source/file_" + fileIndex + ".magik");
+    final Instant timestamp = Instant.ofEpochSecond(1704067200L + fileIndex);
+    final int line = methodIndex * 10 + 1;
+    final Set<GlobalUsage> usedGlobals = new HashSet<>();
+    final Set<MethodUsage> usedMethods = new HashSet<>();
+    for (int i = 0; i < USAGES_PER_METHOD; ++i) {
+      final Location usageLocation =
+          new Location(
+              URI.create(uri.toString()),
+              new Range(new Position(line + i, 4), new Position(line + i, 12)));
+      usedMethods.add(
+          new MethodUsage(
+              TypeString.ofIdentifier("object", "sw"),
+              new String("method_" + (methodIndex + i) % 50 + "()"),
+              usageLocation,
+              null));
+    }
+    usedGlobals.add(
+        new GlobalUsage(
+            TypeString.ofIdentifier("rope", "sw"),
+            new Location(
+                URI.create(uri.toString()),
+                new Range(new Position(line, 4), new Position(line, 8))),
+            null));
+    return new MethodDefinition(
+        new Location(uri, new Range(new Position(line, 0), new Position(line, 7))),
+        timestamp,
+        new String("module"),
+        null,
+        null,
+        TypeString.ofIdentifier("exemplar_" + fileIndex % 100, "user"),
+        "method_" + methodIndex + "()",
+        Collections.emptySet(),
+        List.of(
+            new ParameterDefinition(
+                new Location(URI.create(uri.toString())),
+                Instant.ofEpochSecond(timestamp.getEpochSecond()),
+                new String("module"),
+                null,
+                null,
+                new String("a"),
+                ParameterDefinition.Modifier.NONE,
+                TypeString.ofIdentifier("object", "sw"))),
+        null,
+        Collections.emptySet(),
+        new ExpressionResultString(TypeString.ofIdentifier("integer", "sw")),
+        ExpressionResultString.EMPTY,
+        usedGlobals,
+        usedMethods,
+        Collections.emptySet(),
+        Collections.emptySet());
+  }
+
+  @Test
+  void testInternMethodDefinition() {
+    final DefinitionInterner interner = new DefinitionInterner();
+    final MethodDefinition definition0 = interner.intern(this.createMethodDefinition(0, 0));
+    final MethodDefinition definition1 = interner.intern(this.createMethodDefinition(0, 1));
+
+    assertThat(definition1.getLocation().getUri()).isSameAs(definition0.getLocation().getUri());
+    assertThat(definition1.getTimestamp()).isSameAs(definition0.getTimestamp());
+    assertThat(definition1.getModuleName()).isSameAs(definition0.getModuleName());
+    assertThat(definition1.getTypeName()).isSameAs(definition0.getTypeName());
+    assertThat(definition1.getReturnTypes()).isSameAs(definition0.getReturnTypes());
+    assertThat(definition1.getParameters().get(0).getName())
+        .isSameAs(definition0.getParameters().get(0).getName());
+
+    // Both definitions use method_1() .. method_7().
+    final MethodUsage usage0 = this.getUsedMethod(definition0, "method_1()");
+    final MethodUsage usage1 = this.getUsedMethod(definition1, "method_1()");
+    assertThat(usage1.getMethodName()).isSameAs(usage0.getMethodName());
+    assertThat(usage1.getTypeName()).isSameAs(usage0.getTypeName());
+    assertThat(usage1.getLocation().getUri()).isSameAs(definition0.getLocation().getUri());
+    assertThat(usage1.getNode()).isNull();
+  }
+
+  private MethodUsage getUsedMethod(final MethodDefinition definition, final String methodName) {
+    return definition.getUsedMethods().stream()
+        .filter(usage -> usage.getMethodName().equals(methodName))
+        .findAny()
+        .orElseThrow();
+  }
+
+  @Test
+  void testInternedMethodDefinitionIsEqual() {
+    final DefinitionInterner interner = new DefinitionInterner();
+    final MethodDefinition definition = this.createMethodDefinition(0, 0);
+    final MethodDefinition internedDefinition = interner.intern(definition);
+
+    assertThat(internedDefinition).isEqualTo(definition);
+    assertThat(internedDefinition.getUsedMethods()).isEqualTo(definition.getUsedMethods());
+    assertThat(internedDefinition.getUsedGlobals()).isEqualTo(definition.getUsedGlobals());
+  }
+
+  @Test
+  void testRemovedDefinitionIsReleased() throws InterruptedException {
+    final DefinitionInterner interner = new DefinitionInterner();
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    MethodDefinition definition = interner.intern(this.createMethodDefinition(0, 0));
+    definitionKeeper.add(definition);
+    final WeakReference<URI> uriReference = new WeakReference<>(definition.getLocation().getUri());
+    final WeakReference<String> moduleNameReference =
+        new WeakReference<>(definition.getModuleName());
+
+    definitionKeeper.remove(definition);
+    definition = null;
+    for (int i = 0; i < 50 && uriReference.get() != null; ++i) {
+      System.gc(); // NOSONAR: Needed for testing release.
+      Thread.sleep(10);
+    }
+
+    assertThat(uriReference.get()).isNull();
+    assertThat(moduleNameReference.get()).isNull();
+
+    // A new definition gets new canonical instances.
+    final MethodDefinition newDefinition = interner.intern(this.createMethodDefinition(0, 0));
+    assertThat(newDefinition.getLocation().getUri()).isNotNull();
+  }
+
+  /**
+   * Heap footprint benchmark over a synthetic database, run with {@code -Dmagik.benchmark=true}.
+   * The number of methods defaults to 1M, set {@code -Dmagik.benchmark.methodCount} to change it.
+   * Give the JVM enough heap, e.g., {@code -DargLine=-Xmx8g}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "magik.benchmark", matches = "true")
+  void benchmarkHeapFootprint() {
+    final int methodCount = Integer.getInteger("magik.benchmark.methodCount", 1_000_000);
+    final long plainBytes = this.measureHeapFootprint(methodCount, UnaryOperator.identity());
+    final DefinitionInterner interner = new DefinitionInterner();
+    final long internedBytes = this.measureHeapFootprint(methodCount, interner::intern);
+
+    LOGGER.info(
+        "Heap footprint of {} methods, plain: {} MB ({} bytes/method), "
+            + "interned: {} MB ({} bytes/method)",
+        methodCount,
+        plainBytes / 1024 / 1024,
+        plainBytes / methodCount,
+        internedBytes / 1024 / 1024,
+        internedBytes / methodCount);
+    assertThat(internedBytes).isLessThan(plainBytes);
+  }
+
+  private long measureHeapFootprint(
+      final int methodCount, final UnaryOperator<MethodDefinition> storer) {
+    final long before = DefinitionInternerTest.usedHeap();
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    final List<MethodDefinition> definitions = new ArrayList<>(methodCount);
+    for (int i = 0; i < methodCount; ++i) {
+      final MethodDefinition definition =
+          storer.apply(this.createMethodDefinition(i / METHODS_PER_FILE, i % METHODS_PER_FILE));
+      definitionKeeper.add(definition);
+      definitions.add(definition);
+    }
+    final long after = DefinitionInternerTest.usedHeap();
+
+    // Keep the definitions reachable until measured.
+    assertThat(definitions).hasSize(methodCount);
+    assertThat(definitionKeeper.getMethodDefinitions()).hasSize(methodCount);
+    return after - before;
+  }
+
+  private static long usedHeap() {
+    final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 3; ++i) {
+      System.gc(); // NOSONAR: Needed for measuring.
+    }
+    return memoryBean.getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,260 @@
+package nl.ramsolutions.sw.magik.analysis.definitions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Tests for {@link DefinitionKeeper}. */
+class DefinitionKeeperTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefinitionKeeperTest.class);
+
+  private ExemplarDefinition createExemplarDefinition(final URI uri, final String identifier) {
+    final Location location = new Location(uri, new Range(new Position(1, 0), new Position(1, 10)));
+    return new ExemplarDefinition(
+        location,
+        null,
+        null,
+        null,
+        null,
+        ExemplarDefinition.Sort.SLOTTED,
+        TypeString.ofIdentifier(identifier, "user"),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.emptySet());
+  }
+
+  private MethodDefinition createMethodDefinition(
+      final String methodName, final String usedMethodName, final String usedSlotName) {
+    final URI uri = Path.of("/tmp/module/source/a.magik").toUri();
+    final Location location = new Location(uri, new Range(new Position(1, 0), new Position(1, 10)));
+    return new MethodDefinition(
+        location,
+        null,
+        null,
+        null,
+        null,
+        TypeString.ofIdentifier("a", "user"),
+        methodName,
+        Collections.emptySet(),
+        Collections.emptyList(),
+        null,
+        Collections.emptySet(),
+        ExpressionResultString.UNDEFINED,
+        ExpressionResultString.EMPTY,
+        Set.of(new GlobalUsage(TypeString.SW_INTEGER, location, null)),
+        Set.of(new MethodUsage(TypeString.UNDEFINED, usedMethodName, location, null)),
+        Set.of(new SlotUsage(usedSlotName, location, null)),
+        Set.of(new ConditionUsage("error", location, null)));
+  }
+
+  @Test
+  void testGetDefinitionsByUri() {
+    final URI uri = Path.of("/tmp/module/source/a.magik").toUri();
+    final URI otherUri = Path.of("/tmp/module/source/b.magik").toUri();
+    final ExemplarDefinition definition = this.createExemplarDefinition(uri, "a");
+    final ExemplarDefinition otherDefinition = this.createExemplarDefinition(otherUri, "b");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(definition);
+    definitionKeeper.add(otherDefinition);
+
+    assertThat(definitionKeeper.getDefinitions(uri)).containsExactly(definition);
+    assertThat(definitionKeeper.getDefinitions(otherUri)).containsExactly(otherDefinition);
+  }
+
+  @Test
+  void testGetDefinitionsByUriAfterRemove() {
+    final URI uri = Path.of("/tmp/module/source/a.magik").toUri();
+    final ExemplarDefinition definition = this.createExemplarDefinition(uri, "a");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(definition);
+    definitionKeeper.remove(definition);
+
+    assertThat(definitionKeeper.getDefinitions(uri)).isEmpty();
+  }
+
+  @Test
+  void testGetDefinitionsFromPath() {
+    final ExemplarDefinition definitionA =
+        this.createExemplarDefinition(Path.of("/tmp/module/source/a.magik").toUri(), "a");
+    final ExemplarDefinition definitionB =
+        this.createExemplarDefinition(Path.of("/tmp/module/source/sub/b.magik").toUri(), "b");
+    final ExemplarDefinition definitionC =
+        this.createExemplarDefinition(Path.of("/tmp/module/source_other/c.magik").toUri(), "c");
+    final ExemplarDefinition definitionD =
+        this.createExemplarDefinition(Path.of("/tmp/module/source-other/d.magik").toUri(), "d");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    List.of(definitionA, definitionB, definitionC, definitionD).forEach(definitionKeeper::add);
+
+    assertThat(definitionKeeper.getDefinitionsFromPath(Path.of("/tmp/module/source")))
+        .containsExactlyInAnyOrder(definitionA, definitionB);
+    assertThat(definitionKeeper.getDefinitionsFromPath(Path.of("/tmp/module/source/sub")))
+        .containsExactly(definitionB);
+    assertThat(definitionKeeper.getDefinitionsFromPath(Path.of("/tmp/module/source/a.magik")))
+        .containsExactly(definitionA);
+    assertThat(definitionKeeper.getDefinitionsFromPath(Path.of("/tmp/module")))
+        .containsExactlyInAnyOrder(definitionA, definitionB, definitionC, definitionD);
+  }
+
+  @Test
+  void testGetUsages() {
+    final MethodDefinition definitionM1 = this.createMethodDefinition("m1", "used", "slot1");
+    final MethodDefinition definitionM2 = this.createMethodDefinition("m2", "used", "slot2");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(definitionM1);
+    definitionKeeper.add(definitionM2);
+
+    assertThat(definitionKeeper.getMethodUsages("used")).hasSize(2);
+    assertThat(definitionKeeper.getMethodUsages("unused")).isEmpty();
+    assertThat(definitionKeeper.getGlobalUsages(TypeString.SW_INTEGER)).hasSize(2);
+    assertThat(definitionKeeper.getConditionUsages("error")).hasSize(2);
+    assertThat(definitionKeeper.getSlotUsages(TypeString.ofIdentifier("a", "user"), "slot1"))
+        .containsExactly(new SlotUsage("slot1"));
+    assertThat(definitionKeeper.getSlotUsages(TypeString.ofIdentifier("b", "user"), "slot1"))
+        .isEmpty();
+  }
+
+  @Test
+  void testGetUsagesAfterRemove() {
+    final MethodDefinition definitionM1 = this.createMethodDefinition("m1", "used", "slot1");
+    final MethodDefinition definitionM2 = this.createMethodDefinition("m2", "used", "slot2");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(definitionM1);
+    definitionKeeper.add(definitionM2);
+    definitionKeeper.remove(definitionM1);
+
+    assertThat(definitionKeeper.getMethodUsages("used")).hasSize(1);
+    assertThat(definitionKeeper.getSlotUsages(TypeString.ofIdentifier("a", "user"), "slot1"))
+        .isEmpty();
+    assertThat(definitionKeeper.getSlotUsages(TypeString.ofIdentifier("a", "user"), "slot2"))
+        .hasSize(1);
+  }
+
+  @Test
+  void testTypeHierarchyGeneration() {
+    final URI uri = Path.of("/tmp/module/source/a.magik").toUri();
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    final long generation = definitionKeeper.getGeneration();
+    final long typeHierarchyGeneration = definitionKeeper.getTypeHierarchyGeneration();
+
+    definitionKeeper.add(this.createMethodDefinition("m1", "used", "slot1"));
+    assertThat(definitionKeeper.getGeneration()).isGreaterThan(generation);
+    assertThat(definitionKeeper.getTypeHierarchyGeneration()).isEqualTo(typeHierarchyGeneration);
+
+    definitionKeeper.add(this.createExemplarDefinition(uri, "a"));
+    assertThat(definitionKeeper.getTypeHierarchyGeneration())
+        .isGreaterThan(typeHierarchyGeneration);
+  }
+
+  @Test
+  void testSearchDefinitions() {
+    final URI uri = Path.of("/tmp/module/source/a.magik").toUri();
+    final ExemplarDefinition definitionRope = this.createExemplarDefinition(uri, "rope");
+    final ExemplarDefinition definitionRopeMixin =
+        this.createExemplarDefinition(uri, "my_rope_mixin");
+    final ExemplarDefinition definitionOther = this.createExemplarDefinition(uri, "other");
+    final MethodDefinition methodDefinition = this.createMethodDefinition("rope_size", "m", "s");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(definitionRope);
+    definitionKeeper.add(definitionRopeMixin);
+    definitionKeeper.add(definitionOther);
+    definitionKeeper.add(methodDefinition);
+
+    assertThat(definitionKeeper.searchDefinitions("rope", 10))
+        .containsExactly(methodDefinition, definitionRope, definitionRopeMixin);
+    assertThat(definitionKeeper.searchDefinitions("ro", 10))
+        .containsExactlyInAnyOrder(methodDefinition, definitionRope, definitionRopeMixin);
+    assertThat(definitionKeeper.searchDefinitions("rope", 1)).hasSize(1);
+    assertThat(definitionKeeper.searchDefinitions("user:a.size", 10))
+        .containsExactly(methodDefinition);
+    assertThat(definitionKeeper.searchDefinitions("a.", 10)).containsExactly(methodDefinition);
+
+    definitionKeeper.remove(methodDefinition);
+    assertThat(definitionKeeper.searchDefinitions("rope", 10))
+        .containsExactly(definitionRope, definitionRopeMixin);
+  }
+
+  /**
+   * Save-to-reindex benchmark, replacing the definitions of a single file in keepers of growing
+   * size, run with {@code -Dmagik.benchmark=true}. The time per replacement should stay flat. The
+   * largest keeper holds 1M methods, set {@code -Dmagik.benchmark.methodCount} to change it.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "magik.benchmark", matches = "true")
+  void benchmarkReplaceFileDefinitions() {
+    final int methodsPerFile = 50;
+    final int iterations = 1_000;
+    final int maxMethodCount = Integer.getInteger("magik.benchmark.methodCount", 1_000_000);
+    for (int methodCount = 10_000; methodCount <= maxMethodCount; methodCount *= 10) {
+      final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+      for (int i = 0; i < methodCount; ++i) {
+        definitionKeeper.add(
+            this.createFileMethodDefinition(i / methodsPerFile, i % methodsPerFile));
+      }
+
+      final int fileCount = methodCount / methodsPerFile;
+      final long start = System.nanoTime();
+      for (int i = 0; i < iterations; ++i) {
+        // Replace the definitions of a file, as MagikIndexer does when a file is saved.
+        final Path path = DefinitionKeeperTest.getFilePath(i * 7919 % fileCount);
+        definitionKeeper.getDefinitionsFromPath(path).stream()
+            .map(MethodDefinition.class::cast)
+            .toList()
+            .forEach(definitionKeeper::remove);
+        final int fileIndex = i * 7919 % fileCount;
+        for (int j = 0; j < methodsPerFile; ++j) {
+          definitionKeeper.add(this.createFileMethodDefinition(fileIndex, j));
+        }
+      }
+      final long end = System.nanoTime();
+
+      assertThat(definitionKeeper.getMethodDefinitions()).hasSize(methodCount);
+      LOGGER.info(
+          "Replace file definitions, {} methods in keeper: {} us/file",
+          methodCount,
+          (end - start) / iterations / 1000);
+    }
+  }
+
+  private static Path getFilePath(final int fileIndex) {
+    return Path.of("/tmp/module_" + fileIndex / 100 + "/source/file_" + fileIndex + ".magik");
+  }
+
+  private MethodDefinition createFileMethodDefinition(final int fileIndex, final int methodIndex) {
+    final URI uri = DefinitionKeeperTest.getFilePath(fileIndex).toUri();
+    final int line = methodIndex * 10 + 1;
+    final Location location =
+        new Location(uri, new Range(new Position(line, 0), new Position(line + 8, 10)));
+    return new MethodDefinition(
+        location,
+        null,
+        "module_" + fileIndex / 100,
+        null,
+        null,
+        TypeString.ofIdentifier("exemplar_" + fileIndex, "user"),
+        "method_" + methodIndex + "()",
+        Collections.emptySet(),
+        Collections.emptyList(),
+        null,
+        Collections.emptySet(),
+        ExpressionResultString.UNDEFINED,
+        ExpressionResultString.EMPTY,
+        Set.of(new GlobalUsage(TypeString.SW_INTEGER, location, null)),
+        Set.of(new MethodUsage(TypeString.UNDEFINED, "method_0()", location, null)),
+        Collections.emptySet(),
+        Collections.emptySet());
+  }
+}
@@ -0,0 +1,171 @@
+package nl.ramsolutions.sw.magik.analysis.definitions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import nl.ramsolutions.sw.IDefinition;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SymbolIndex}.
+ *
+ * <p>Queries are plain text, not regular expressions. Queries shorter than three characters only
+ * match at the start of a word, i.e., at the start of the name or after a '_' or ':'.
+ */
+class SymbolIndexTest {
+
+  private static final int LIMIT = 250;
+  private static final URI TEST_URI = Path.of("/tmp/module/source/a.magik").toUri();
+  private static final Location TEST_LOCATION =
+      new Location(TEST_URI, new Range(new Position(1, 0), new Position(1, 10)));
+
+  private ExemplarDefinition createExemplarDefinition(final String identifier) {
+    return new ExemplarDefinition(
+        TEST_LOCATION,
+        null,
+        null,
+        null,
+        null,
+        ExemplarDefinition.Sort.SLOTTED,
+        TypeString.ofIdentifier(identifier, "sw"),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.emptySet());
+  }
+
+  private MethodDefinition createMethodDefinition(
+      final String typeIdentifier, final String methodName) {
+    return new MethodDefinition(
+        TEST_LOCATION,
+        null,
+        null,
+        null,
+        null,
+        TypeString.ofIdentifier(typeIdentifier, "sw"),
+        methodName,
+        Collections.emptySet(),
+        Collections.emptyList(),
+        null,
+        Collections.emptySet(),
+        ExpressionResultString.UNDEFINED,
+        ExpressionResultString.EMPTY,
+        Collections.emptySet(),
+        Collections.emptySet(),
+        Collections.emptySet(),
+        Collections.emptySet());
+  }
+
+  @Test
+  void testRanking() {
+    final SymbolIndex symbolIndex = new SymbolIndex();
+    final MethodDefinition exactDefinition = this.createMethodDefinition("a", "size");
+    final MethodDefinition prefixDefinition = this.createMethodDefinition("a", "size_of");
+    final MethodDefinition longerPrefixDefinition = this.createMethodDefinition("a", "size_of_all");
+    final MethodDefinition wordStartDefinition = this.createMethodDefinition("a", "max_size");
+    final MethodDefinition substringDefinition = this.createMethodDefinition("a", "oversize");
+    List.of(
+            substringDefinition,
+            wordStartDefinition,
+            longerPrefixDefinition,
+            prefixDefinition,
+            exactDefinition)
+        .forEach(symbolIndex::add);
+
+    assertThat(symbolIndex.search("SIZE", LIMIT))
+        .containsExactly(
+            exactDefinition,
+            prefixDefinition,
+            longerPrefixDefinition,
+            wordStartDefinition,
+            substringDefinition);
+  }
+
+  @Test
+  void testTypeMethodQuery() {
+    final SymbolIndex symbolIndex = new SymbolIndex();
+    final ExemplarDefinition ropeDefinition = this.createExemplarDefinition("rope");
+    final MethodDefinition ropeSizeDefinition = this.createMethodDefinition("rope", "size");
+    final MethodDefinition otherSizeDefinition = this.createMethodDefinition("other", "size");
+    symbolIndex.add(ropeDefinition);
+    symbolIndex.add(ropeSizeDefinition);
+    symbolIndex.add(otherSizeDefinition);
+
+    assertThat(symbolIndex.search("rope.size", LIMIT)).containsExactly(ropeSizeDefinition);
+    assertThat(symbolIndex.search("sw:rope.", LIMIT)).containsExactly(ropeSizeDefinition);
+    // Equally ranked method names, shorter type name first.
+    assertThat(symbolIndex.search(".size", LIMIT))
+        .containsExactly(ropeSizeDefinition, otherSizeDefinition);
+  }
+
+  @Test
+  void testShortQueryMatchesWordStarts() {
+    final SymbolIndex symbolIndex = new SymbolIndex();
+    final ExemplarDefinition ropeDefinition = this.createExemplarDefinition("rope");
+    final ExemplarDefinition mixinDefinition = this.createExemplarDefinition("my_rope_mixin");
+    symbolIndex.add(ropeDefinition);
+    symbolIndex.add(mixinDefinition);
+
+    assertThat(symbolIndex.search("ro", LIMIT))
+        .containsExactlyInAnyOrder(ropeDefinition, mixinDefinition);
+    assertThat(symbolIndex.search("mi", LIMIT)).containsExactly(mixinDefinition);
+    assertThat(symbolIndex.search("op", LIMIT)).isEmpty();
+    assertThat(symbolIndex.search("ope", LIMIT))
+        .containsExactlyInAnyOrder(ropeDefinition, mixinDefinition);
+  }
+
+  @Test
+  void testQueryIsPlainText() {
+    final SymbolIndex symbolIndex = new SymbolIndex();
+    final ExemplarDefinition ropeDefinition = this.createExemplarDefinition("rope");
+    symbolIndex.add(ropeDefinition);
+
+    assertThat(symbolIndex.search("r*pe", LIMIT)).isEmpty();
+    assertThat(symbolIndex.search("rope[", LIMIT)).isEmpty();
+    assertThat(symbolIndex.search("^rope", LIMIT)).isEmpty();
+  }
+
+  @Test
+  void testLimit() {
+    final SymbolIndex symbolIndex = new SymbolIndex();
+    IntStream.range(0, LIMIT * 2)
+        .mapToObj(i -> this.createMethodDefinition("a", "method_" + i))
+        .forEach(symbolIndex::add);
+    final MethodDefinition exactDefinition = this.createMethodDefinition("a", "method");
+    symbolIndex.add(exactDefinition);
+
+    final List<IDefinition> results = symbolIndex.search("method", LIMIT);
+    assertThat(results).hasSize(LIMIT).first().isEqualTo(exactDefinition);
+    assertThat(symbolIndex.search("me", LIMIT)).hasSize(LIMIT);
+  }
+
+  @Test
+  void testAddRemove() {
+    final SymbolIndex symbolIndex = new SymbolIndex();
+    final MethodDefinition sizeDefinition = this.createMethodDefinition("rope", "size");
+    symbolIndex.add(sizeDefinition);
+    assertThat(symbolIndex.search("size", LIMIT)).containsExactly(sizeDefinition);
+
+    // Remove with an equal definition, e.g., from re-reading a file.
+    symbolIndex.remove(this.createMethodDefinition("rope", "size"));
+    assertThat(symbolIndex.search("size", LIMIT)).isEmpty();
+    assertThat(symbolIndex.search("si", LIMIT)).isEmpty();
+    assertThat(symbolIndex.search("rope.", LIMIT)).isEmpty();
+
+    final MethodDefinition newSizeDefinition = this.createMethodDefinition("rope", "new_size");
+    symbolIndex.add(newSizeDefinition);
+    assertThat(symbolIndex.search("size", LIMIT)).containsExactly(newSizeDefinition);
+    assertThat(symbolIndex.search("si", LIMIT)).containsExactly(newSizeDefinition);
+
+    symbolIndex.clear();
+    assertThat(symbolIndex.search("size", LIMIT)).isEmpty();
+  }
+}
@@ -0,0 +1,305 @@
+package nl.ramsolutions.sw.magik.analysis.definitions.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.GlobalUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodUsage;
+import nl.ramsolutions.sw.magik.analysis.definitions.ParameterDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.SlotUsage;
+import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
+import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Tests for BinaryDefinitionReader and BinaryDefinitionWriter. */
+class BinaryDefinitionReaderTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BinaryDefinitionReaderTest.class);
+
+  private static final Path JSON_PATH = Path.of("src/test/resources/tests/type_database.jsonl");
+
+  private Path tempPath;
+
+  @BeforeEach
+  void createTempFile() throws IOException {
+    this.tempPath = Files.createTempFile("type_database", ".db");
+  }
+
+  @AfterEach
+  void unlinkTempFile() throws IOException {
+    if (Files.exists(tempPath)) {
+      Files.delete(this.tempPath);
+    }
+  }
+
+  @Test
+  void testConvertRoundtrip() throws IOException {
+    final IDefinitionKeeper jsonDefinitionKeeper = new DefinitionKeeper(false);
+    JsonDefinitionReader.readTypes(JSON_PATH, jsonDefinitionKeeper);
+
+    BinaryDefinitionWriter.convert(JSON_PATH, this.tempPath);
+    final IDefinitionKeeper binaryDefinitionKeeper = new DefinitionKeeper(false);
+    BinaryDefinitionReader.readTypes(this.tempPath, binaryDefinitionKeeper);
+
+    assertThat(binaryDefinitionKeeper.getProductDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getProductDefinitions());
+    assertThat(binaryDefinitionKeeper.getModuleDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getModuleDefinitions());
+    assertThat(binaryDefinitionKeeper.getMagikFileDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getMagikFileDefinitions());
+    assertThat(binaryDefinitionKeeper.getPackageDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getPackageDefinitions());
+    assertThat(binaryDefinitionKeeper.getExemplarDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getExemplarDefinitions());
+    assertThat(binaryDefinitionKeeper.getGlobalDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getGlobalDefinitions());
+    assertThat(binaryDefinitionKeeper.getMethodDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getMethodDefinitions());
+    assertThat(binaryDefinitionKeeper.getProcedureDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getProcedureDefinitions());
+    assertThat(binaryDefinitionKeeper.getConditionDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getConditionDefinitions());
+    assertThat(binaryDefinitionKeeper.getBinaryOperatorDefinitions())
+        .containsExactlyInAnyOrderElementsOf(jsonDefinitionKeeper.getBinaryOperatorDefinitions());
+  }
+
+  @Test
+  void testRoundtripMethod() throws IOException {
+    final URI uri = URI.create("file:///test_module/source/file.magik");
+    final Location location =
+        new Location(uri, new Range(new Position(10, 2), new Position(12, 5)));
+    final MethodDefinition definition =
+        new MethodDefinition(
+            location,
+            Instant.ofEpochSecond(1700000000L, 1234),
+            "test_module",
+            "Test method.",
+            null,
+            TypeString.ofIdentifier("rope", "sw"),
+            "test()<<",
+            Set.of(MethodDefinition.Modifier.PRIVATE),
+            List.of(
+                new ParameterDefinition(
+                    location,
+                    null,
+                    "test_module",
+                    null,
+                    null,
+                    "param1",
+                    ParameterDefinition.Modifier.OPTIONAL,
+                    TypeString.ofIdentifier("integer", "sw"))),
+            new ParameterDefinition(
+                location,
+                null,
+                "test_module",
+                null,
+                null,
+                "new",
+                ParameterDefinition.Modifier.NONE,
+                TypeString.UNDEFINED),
+            Set.of("topic"),
+            new ExpressionResultString(TypeString.ofIdentifier("symbol", "sw")),
+            ExpressionResultString.UNDEFINED,
+            Set.of(new GlobalUsage(TypeString.ofIdentifier("tab_char", "sw"), location, null)),
+            Set.of(new MethodUsage(TypeString.ofIdentifier("rope", "sw"), "size", location, null)),
+            Set.of(new SlotUsage("slot1", null, null)),
+            Collections.emptySet());
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(definition);
+
+    BinaryDefinitionWriter.write(this.tempPath, definitionKeeper);
+    final IDefinitionKeeper readDefinitionKeeper = new DefinitionKeeper(false);
+    TypesDatabaseReader.readTypes(this.tempPath, readDefinitionKeeper);
+
+    assertThat(readDefinitionKeeper.getMethodDefinitions()).containsExactly(definition);
+    final MethodDefinition readDefinition =
+        readDefinitionKeeper.getMethodDefinitions().iterator().next();
+    assertThat(readDefinition.getLocation()).isEqualTo(location);
+    assertThat(readDefinition.getTimestamp()).isEqualTo(definition.getTimestamp());
+    assertThat(readDefinition.getAssignmentParameter())
+        .isEqualTo(definition.getAssignmentParameter());
+    assertThat(readDefinition.getUsedGlobals()).isEqualTo(definition.getUsedGlobals());
+    assertThat(readDefinition.getUsedMethods()).isEqualTo(definition.getUsedMethods());
+    assertThat(readDefinition.getUsedSlots()).isEqualTo(definition.getUsedSlots());
+    assertThat(readDefinition.getLoopTypes()).isSameAs(ExpressionResultString.UNDEFINED);
+  }
+
+  @Test
+  void testIsBinaryTypesDatabase() throws IOException {
+    BinaryDefinitionWriter.write(this.tempPath, new DefinitionKeeper(false));
+
+    assertThat(BinaryDefinitionReader.isBinaryTypesDatabase(this.tempPath)).isTrue();
+    assertThat(BinaryDefinitionReader.isBinaryTypesDatabase(JSON_PATH)).isFalse();
+  }
+
+  @Test
+  void testReadTruncated() throws IOException {
+    BinaryDefinitionWriter.convert(JSON_PATH, this.tempPath);
+    final byte[] bytes = Files.readAllBytes(this.tempPath);
+    Files.write(this.tempPath, Arrays.copyOf(bytes, bytes.length / 2));
+
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    assertThatThrownBy(() -> BinaryDefinitionReader.readTypes(this.tempPath, definitionKeeper))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void testReadTruncatedAddsNothing() throws IOException {
+    BinaryDefinitionWriter.convert(JSON_PATH, this.tempPath);
+    final byte[] bytes = Files.readAllBytes(this.tempPath);
+    Files.write(this.tempPath, Arrays.copyOf(bytes, bytes.length - 1));
+
+    // Cut off in the last record, all records before it are complete.
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    assertThatThrownBy(() -> BinaryDefinitionReader.readTypes(this.tempPath, definitionKeeper))
+        .isInstanceOf(IOException.class);
+    assertThat(definitionKeeper.getProductDefinitions()).isEmpty();
+    assertThat(definitionKeeper.getModuleDefinitions()).isEmpty();
+    assertThat(definitionKeeper.getMagikFileDefinitions()).isEmpty();
+    assertThat(definitionKeeper.getPackageDefinitions())
+        .containsExactlyInAnyOrderElementsOf(new DefinitionKeeper(false).getPackageDefinitions());
+    assertThat(definitionKeeper.getExemplarDefinitions()).isEmpty();
+    assertThat(definitionKeeper.getMethodDefinitions()).isEmpty();
+  }
+
+  @Test
+  void testWriteReplacesExisting() throws IOException {
+    BinaryDefinitionWriter.convert(JSON_PATH, this.tempPath);
+    BinaryDefinitionWriter.write(this.tempPath, new DefinitionKeeper(false));
+
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    BinaryDefinitionReader.readTypes(this.tempPath, definitionKeeper);
+    assertThat(definitionKeeper.getMethodDefinitions()).isEmpty();
+
+    // No temporary file is left behind.
+    final String tempPrefix = this.tempPath.getFileName().toString();
+    try (Stream<Path> files = Files.list(this.tempPath.getParent())) {
+      assertThat(files.map(file -> file.getFileName().toString()))
+          .noneMatch(fileName -> fileName.startsWith(tempPrefix) && fileName.endsWith(".tmp"));
+    }
+  }
+
+  /**
+   * Startup benchmark, reading a JSON-line and a binary types database, run with {@code
+   * -Dmagik.benchmark=true}. A synthetic database of 100k methods is used, set {@code
+   * -Dmagik.benchmark.methodCount} to change its size, or {@code -Dmagik.benchmark.typesDb} to use
+   * an existing {@code .jsonl} dump.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "magik.benchmark", matches = "true")
+  void benchmarkStartup() throws IOException {
+    final String typesDb = System.getProperty("magik.benchmark.typesDb");
+    final Path jsonPath = Files.createTempFile("type_database", ".jsonl");
+    try {
+      if (typesDb != null) {
+        Files.copy(Path.of(typesDb), jsonPath, StandardCopyOption.REPLACE_EXISTING);
+      } else {
+        final int methodCount = Integer.getInteger("magik.benchmark.methodCount", 100_000);
+        JsonDefinitionWriter.write(jsonPath, this.createSyntheticDefinitionKeeper(methodCount));
+      }
+      BinaryDefinitionWriter.convert(jsonPath, this.tempPath);
+
+      // Best of a few runs, the first runs warm up the JIT.
+      long jsonNanos = Long.MAX_VALUE;
+      long binaryNanos = Long.MAX_VALUE;
+      for (int i = 0; i < 5; ++i) {
+        jsonNanos =
+            Math.min(jsonNanos, this.measureRead(jsonPath, JsonDefinitionReader::readTypes));
+        binaryNanos =
+            Math.min(
+                binaryNanos, this.measureRead(this.tempPath, BinaryDefinitionReader::readTypes));
+      }
+
+      LOGGER.info(
+          "Startup, jsonl: {} ms ({} bytes), binary: {} ms ({} bytes)",
+          jsonNanos / 1_000_000,
+          Files.size(jsonPath),
+          binaryNanos / 1_000_000,
+          Files.size(this.tempPath));
+    } finally {
+      Files.deleteIfExists(jsonPath);
+    }
+  }
+
+  @FunctionalInterface
+  private interface TypesReader {
+
+    void readTypes(Path path, IDefinitionKeeper definitionKeeper) throws IOException;
+  }
+
+  private long measureRead(final Path path, final TypesReader reader) throws IOException {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    final long start = System.nanoTime();
+    reader.readTypes(path, definitionKeeper);
+    final long end = System.nanoTime();
+    assertThat(definitionKeeper.getMethodDefinitions()).isNotEmpty();
+    return end - start;
+  }
+
+  private IDefinitionKeeper createSyntheticDefinitionKeeper(final int methodCount) {
+    final int methodsPerFile = 50;
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    for (int i = 0; i < methodCount; ++i) {
+      final int fileIndex = i / methodsPerFile;
+      final URI uri = URI.create("file:///product/module/source/file_" + fileIndex + ".magik");
+      final int line = i % methodsPerFile * 10 + 1;
+      final Location location =
+          new Location(uri, new Range(new Position(line, 0), new Position(line + 8, 10)));
+      final TypeString typeString = TypeString.ofIdentifier("exemplar_" + fileIndex, "user");
+      definitionKeeper.add(
+          new MethodDefinition(
+              location,
+              Instant.ofEpochSecond(1700000000L + fileIndex),
+              "module_" + fileIndex / 100,
+              "Method " + i + ".",
+              null,
+              typeString,
+              "method_" + i % methodsPerFile + "()",
+              Collections.emptySet(),
+              List.of(
+                  new ParameterDefinition(
+                      location,
+                      null,
+                      "module_" + fileIndex / 100,
+                      null,
+                      null,
+                      "param1",
+                      ParameterDefinition.Modifier.NONE,
+                      TypeString.ofIdentifier("integer", "sw"))),
+              null,
+              Collections.emptySet(),
+              new ExpressionResultString(TypeString.ofIdentifier("symbol", "sw")),
+              ExpressionResultString.UNDEFINED,
+              Set.of(new GlobalUsage(TypeString.ofIdentifier("tab_char", "sw"), location, null)),
+              Set.of(
+                  new MethodUsage(TypeString.ofIdentifier("rope", "sw"), "size", location, null),
+                  new MethodUsage(
+                      typeString, "method_" + (i + 1) % methodsPerFile + "()", location, null)),
+              Collections.emptySet(),
+              Collections.emptySet()));
+    }
+    return definitionKeeper;
+  }
+}
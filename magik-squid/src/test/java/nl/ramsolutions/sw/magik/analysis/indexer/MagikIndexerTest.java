@@ -4,11 +4,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import nl.ramsolutions.sw.IgnoreHandler;
 import nl.ramsolutions.sw.MagikToolsProperties;
@@ -22,6 +26,7 @@ import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
 import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.GlobalDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.MagikFileDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.ParameterDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.ProcedureDefinition;
@@ -29,6 +34,7 @@ import nl.ramsolutions.sw.magik.analysis.definitions.SlotDefinition;
 import nl.ramsolutions.sw.magik.analysis.typing.ExpressionResultString;
 import nl.ramsolutions.sw.magik.analysis.typing.TypeString;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /** Test MagikIndexer. */
 class MagikIndexerTest {
@@ -379,4 +385,116 @@ class MagikIndexerTest {
         definitionKeeper.getExemplarDefinitions(typeString);
     assertThat(postExemplarDefs).isEmpty();
   }
+
+  @Test
+  void testDirectoryDeleted() throws IOException {
+    // Read first.
+    final Path path = Path.of("magik-squid/src/test/resources/test_magik_indexer.magik");
+    final URI uri = this.getPath(path).toUri();
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final IgnoreHandler ignoreHandler = new IgnoreHandler();
+    final MagikIndexer magikIndexer =
+        new MagikIndexer(definitionKeeper, MagikToolsProperties.DEFAULT_PROPERTIES, ignoreHandler);
+    final FileEvent createdFileEvent = new FileEvent(uri, FileChangeType.CREATED);
+    magikIndexer.handleFileEvent(createdFileEvent);
+    assertThat(definitionKeeper.getDefinitions(uri)).isNotEmpty();
+
+    // Pretend delete of directory.
+    final URI directoryUri = this.getPath(path).getParent().toUri();
+    final FileEvent deletedFileEvent = new FileEvent(directoryUri, FileChangeType.DELETED);
+    magikIndexer.handleFileEvent(deletedFileEvent);
+
+    // Test type.
+    final TypeString typeString = TypeString.ofIdentifier("test_exemplar", "user");
+    assertThat(definitionKeeper.getExemplarDefinitions(typeString)).isEmpty();
+    assertThat(definitionKeeper.getMethodDefinitions(typeString)).isEmpty();
+    assertThat(definitionKeeper.getDefinitions(uri)).isEmpty();
+  }
+
+  @Test
+  void testFileEventsParallel() throws IOException {
+    final Path path = Path.of("magik-squid/src/test/resources/test_magik_indexer.magik");
+    final URI uri = this.getPath(path).toUri();
+    final Path pathWithTypeDoc =
+        Path.of("magik-squid/src/test/resources/test_magik_indexer_with_type_doc.magik");
+    final URI uriWithTypeDoc = this.getPath(pathWithTypeDoc).toUri();
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final IgnoreHandler ignoreHandler = new IgnoreHandler();
+    final MagikIndexer magikIndexer =
+        new MagikIndexer(definitionKeeper, MagikToolsProperties.DEFAULT_PROPERTIES, ignoreHandler);
+    final List<FileEvent> fileEvents =
+        List.of(
+            new FileEvent(uri, FileChangeType.CREATED),
+            new FileEvent(uriWithTypeDoc, FileChangeType.CREATED));
+    final AtomicInteger progressCount = new AtomicInteger();
+    magikIndexer.handleFileEvents(
+        fileEvents, 2, (indexedCount, totalCount) -> progressCount.incrementAndGet());
+
+    assertThat(progressCount.get()).isEqualTo(2);
+    assertThat(definitionKeeper.getMagikFileDefinitions(uri)).hasSize(1);
+    assertThat(definitionKeeper.getMagikFileDefinitions(uriWithTypeDoc)).hasSize(1);
+
+    // Both files define the same exemplar.
+    final TypeString typeString = TypeString.ofIdentifier("test_exemplar", "user");
+    final Collection<ExemplarDefinition> exemplarDefs =
+        definitionKeeper.getExemplarDefinitions(typeString);
+    assertThat(exemplarDefs).hasSize(2);
+
+    // Pretend delete.
+    magikIndexer.handleFileEvents(
+        List.of(new FileEvent(uri, FileChangeType.DELETED)),
+        2,
+        IndexerProgressListener.NULL_LISTENER);
+    assertThat(definitionKeeper.getExemplarDefinitions(typeString)).hasSize(1);
+  }
+
+  @Test
+  void testFileChangedContentUnchanged(final @TempDir Path directory) throws IOException {
+    final Path path = directory.resolve("test.magik");
+    Files.writeString(path, "_package sw\n_method object.test _endmethod\n");
+    final URI uri = path.toUri();
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final IgnoreHandler ignoreHandler = new IgnoreHandler();
+    final MagikIndexer magikIndexer =
+        new MagikIndexer(definitionKeeper, MagikToolsProperties.DEFAULT_PROPERTIES, ignoreHandler);
+    magikIndexer.handleFileEvent(new FileEvent(uri, FileChangeType.CREATED));
+
+    // Touch file, without changing content.
+    final Instant timestamp = Instant.parse("2024-01-01T00:00:00Z");
+    Files.setLastModifiedTime(path, FileTime.from(timestamp));
+    magikIndexer.handleFileEvents(
+        List.of(new FileEvent(uri, FileChangeType.CHANGED)),
+        1,
+        IndexerProgressListener.NULL_LISTENER);
+
+    assertThat(magikIndexer.getIndexedFileCount()).isEqualTo(1);
+    assertThat(magikIndexer.getSkippedFileCount()).isEqualTo(1);
+    assertThat(definitionKeeper.getMethodDefinitions(TypeString.SW_OBJECT)).hasSize(1);
+    final Collection<MagikFileDefinition> magikFileDefs =
+        definitionKeeper.getMagikFileDefinitions(uri);
+    assertThat(magikFileDefs).hasSize(1);
+    assertThat(magikFileDefs.iterator().next().getTimestamp()).isEqualTo(timestamp);
+  }
+
+  @Test
+  void testFileChangedContentChanged(final @TempDir Path directory) throws IOException {
+    final Path path = directory.resolve("test.magik");
+    Files.writeString(path, "_package sw\n_method object.test _endmethod\n");
+    final URI uri = path.toUri();
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final IgnoreHandler ignoreHandler = new IgnoreHandler();
+    final MagikIndexer magikIndexer =
+        new MagikIndexer(definitionKeeper, MagikToolsProperties.DEFAULT_PROPERTIES, ignoreHandler);
+    magikIndexer.handleFileEvent(new FileEvent(uri, FileChangeType.CREATED));
+
+    Files.writeString(path, "_package sw\n_method object.test2 _endmethod\n");
+    magikIndexer.handleFileEvent(new FileEvent(uri, FileChangeType.CHANGED));
+
+    assertThat(magikIndexer.getIndexedFileCount()).isEqualTo(2);
+    assertThat(magikIndexer.getSkippedFileCount()).isZero();
+    assertThat(definitionKeeper.getMethodDefinitions(TypeString.SW_OBJECT))
+        .extracting(MethodDefinition::getMethodName)
+        .containsExactly("test2");
+    assertThat(definitionKeeper.getMagikFileDefinitions(uri)).hasSize(1);
+  }
 }
@@ -0,0 +1,38 @@
+package nl.ramsolutions.sw.magik.analysis.indexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ParallelIndexRunner}. */
+class ParallelIndexRunnerTest {
+
+  @Test
+  void testRunAll() throws InterruptedIOException {
+    final Set<Integer> indexed = ConcurrentHashMap.newKeySet();
+    ParallelIndexRunner.run(
+        List.of(1, 2, 3, 4), 2, item -> indexed.add(item), IndexerProgressListener.NULL_LISTENER);
+
+    assertThat(indexed).containsExactlyInAnyOrder(1, 2, 3, 4);
+  }
+
+  @Test
+  void testInterrupted() {
+    Thread.currentThread().interrupt();
+    try {
+      assertThatThrownBy(
+              () ->
+                  ParallelIndexRunner.run(
+                      List.of(1, 2), 2, item -> {}, IndexerProgressListener.NULL_LISTENER))
+          .isInstanceOf(InterruptedIOException.class);
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
+    }
+  }
+}
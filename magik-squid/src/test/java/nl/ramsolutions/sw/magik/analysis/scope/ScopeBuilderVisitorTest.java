@@ -568,4 +568,31 @@ class ScopeBuilderVisitorTest {
     final ScopeEntry loopXEntry = loopScope.getScopeEntry("x");
     assertThat(bodyXEntry).isEqualTo(loopXEntry);
   }
+
+  @Test
+  void testScopeForLineColumn() {
+    final String code =
+        """
+        _method a.m1
+          _block
+            show(1)
+          _endblock
+        _endmethod
+        _method a.m2
+          show(2)
+        _endmethod""";
+    final ScopeBuilderVisitor visitor = this.buildCode(code);
+    final GlobalScope globalScope = visitor.getGlobalScope();
+    final Scope method1Scope = globalScope.getSelfAndDescendantScopes().get(1);
+    final Scope blockScope = globalScope.getSelfAndDescendantScopes().get(2);
+    final Scope method2Scope = globalScope.getSelfAndDescendantScopes().get(3);
+
+    assertThat(globalScope.getScopeForLineColumn(1, 2)).isSameAs(globalScope);
+    assertThat(globalScope.getScopeForLineColumn(2, 0)).isSameAs(method1Scope);
+    assertThat(globalScope.getScopeForLineColumn(3, 4)).isSameAs(blockScope);
+    assertThat(globalScope.getScopeForLineColumn(4, 4)).isSameAs(method1Scope);
+    assertThat(globalScope.getScopeForLineColumn(5, 5)).isSameAs(globalScope);
+    assertThat(globalScope.getScopeForLineColumn(7, 2)).isSameAs(method2Scope);
+    assertThat(globalScope.getScopeForLineColumn(0, 0)).isNull();
+  }
 }
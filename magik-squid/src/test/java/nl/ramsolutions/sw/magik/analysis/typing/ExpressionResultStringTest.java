@@ -0,0 +1,31 @@
+package nl.ramsolutions.sw.magik.analysis.typing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ExpressionResultString}. */
+class ExpressionResultStringTest {
+
+  @Test
+  void testUndefinedHashCode() {
+    final ExpressionResultString undefined =
+        new ExpressionResultString(
+            Collections.nCopies(ExpressionResultString.MAX_ITEMS, TypeString.UNDEFINED));
+
+    assertThat(undefined).isEqualTo(ExpressionResultString.UNDEFINED);
+    assertThat(undefined.hashCode()).isEqualTo(ExpressionResultString.UNDEFINED.hashCode());
+  }
+
+  @Test
+  void testHashCode() {
+    final ExpressionResultString result1 =
+        new ExpressionResultString(TypeString.SW_INTEGER, TypeString.SW_UNSET);
+    final ExpressionResultString result2 =
+        new ExpressionResultString(TypeString.SW_INTEGER, TypeString.SW_UNSET);
+
+    assertThat(result1).isEqualTo(result2);
+    assertThat(result1.hashCode()).isEqualTo(result2.hashCode());
+  }
+}
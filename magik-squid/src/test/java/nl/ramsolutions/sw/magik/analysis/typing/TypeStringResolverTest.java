@@ -0,0 +1,255 @@
+package nl.ramsolutions.sw.magik.analysis.typing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import nl.ramsolutions.sw.magik.Location;
+import nl.ramsolutions.sw.magik.Position;
+import nl.ramsolutions.sw.magik.Range;
+import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.ExemplarDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
+import nl.ramsolutions.sw.magik.analysis.definitions.MethodDefinition;
+import nl.ramsolutions.sw.magik.analysis.definitions.PackageDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Tests for {@link TypeStringResolver}. */
+class TypeStringResolverTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TypeStringResolverTest.class);
+
+  private static final URI TEST_URI = Path.of("/tmp/module/source/a.magik").toUri();
+  private static final Location TEST_LOCATION =
+      new Location(TEST_URI, new Range(new Position(1, 0), new Position(1, 10)));
+
+  private PackageDefinition createPackageDefinition(final String name) {
+    return new PackageDefinition(TEST_LOCATION, null, null, null, null, name, List.of());
+  }
+
+  private ExemplarDefinition createExemplarDefinition(final TypeString typeString) {
+    return this.createExemplarDefinition(typeString, Collections.emptyList());
+  }
+
+  private ExemplarDefinition createExemplarDefinition(
+      final TypeString typeString, final List<TypeString> parents) {
+    return new ExemplarDefinition(
+        TEST_LOCATION,
+        null,
+        null,
+        null,
+        null,
+        ExemplarDefinition.Sort.SLOTTED,
+        typeString,
+        Collections.emptyList(),
+        parents,
+        Collections.emptySet());
+  }
+
+  private MethodDefinition createMethodDefinition(
+      final TypeString typeString, final String methodName) {
+    return new MethodDefinition(
+        TEST_LOCATION,
+        null,
+        null,
+        null,
+        null,
+        typeString,
+        methodName,
+        Collections.emptySet(),
+        Collections.emptyList(),
+        null,
+        Collections.emptySet(),
+        ExpressionResultString.UNDEFINED,
+        ExpressionResultString.EMPTY,
+        Collections.emptySet(),
+        Collections.emptySet(),
+        Collections.emptySet(),
+        Collections.emptySet());
+  }
+
+  @Test
+  void testCacheSharedBetweenResolvers() {
+    final TypeString typeString = TypeString.ofIdentifier("a", "user");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(this.createPackageDefinition("user"));
+    definitionKeeper.add(this.createExemplarDefinition(typeString));
+
+    final TypeStringResolver resolver1 = new TypeStringResolver(definitionKeeper);
+    final TypeStringResolver resolver2 = new TypeStringResolver(definitionKeeper);
+    assertThat(resolver1.getCache()).isSameAs(resolver2.getCache());
+
+    assertThat(resolver1.resolve(typeString)).hasSize(1);
+    final long hitCount = resolver1.getCache().getHitCount();
+    assertThat(resolver2.resolve(typeString)).hasSize(1);
+    assertThat(resolver2.getCache().getHitCount()).isGreaterThan(hitCount);
+  }
+
+  @Test
+  void testCacheInvalidatedOnChange() {
+    final TypeString typeString = TypeString.ofIdentifier("a", "user");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(this.createExemplarDefinition(typeString));
+
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    assertThat(resolver.getMethodDefinitions(typeString, "m1")).isEmpty();
+
+    final MethodDefinition methodDefinition = this.createMethodDefinition(typeString, "m1");
+    definitionKeeper.add(methodDefinition);
+    assertThat(resolver.getMethodDefinitions(typeString, "m1")).containsExactly(methodDefinition);
+
+    definitionKeeper.remove(methodDefinition);
+    assertThat(resolver.getMethodDefinitions(typeString, "m1")).isEmpty();
+  }
+
+  @Test
+  void testTypeCacheKeptOnMethodChange() {
+    final TypeString typeString = TypeString.ofIdentifier("a", "user");
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(this.createPackageDefinition("user"));
+    definitionKeeper.add(this.createExemplarDefinition(typeString));
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    assertThat(resolver.resolve(typeString)).hasSize(1);
+    final long missCount = resolver.getCache().getMissCount();
+
+    definitionKeeper.add(this.createMethodDefinition(typeString, "m1"));
+    assertThat(resolver.resolve(typeString)).hasSize(1);
+    assertThat(resolver.getCache().getMissCount()).isEqualTo(missCount);
+
+    definitionKeeper.add(this.createExemplarDefinition(TypeString.ofIdentifier("b", "user")));
+    assertThat(resolver.resolve(typeString)).hasSize(1);
+    assertThat(resolver.getCache().getMissCount()).isGreaterThan(missCount);
+  }
+
+  @Test
+  void testGetChildrenResolvesParent() {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(this.createPackageDefinition("sw"));
+    definitionKeeper.add(
+        new PackageDefinition(TEST_LOCATION, null, null, null, null, "user", List.of("sw")));
+    final TypeString ropeTypeString = TypeString.ofIdentifier("rope", "sw");
+    definitionKeeper.add(this.createExemplarDefinition(ropeTypeString));
+    // Parent `:rope` in package `user`, resolving to `sw:rope`.
+    final TypeString childTypeString = TypeString.ofIdentifier("my_rope", "user");
+    final ExemplarDefinition childDefinition =
+        this.createExemplarDefinition(
+            childTypeString, List.of(TypeString.ofIdentifier("rope", "user")));
+    definitionKeeper.add(childDefinition);
+    final ExemplarDefinition grandChildDefinition =
+        this.createExemplarDefinition(
+            TypeString.ofIdentifier("my_sub_rope", "user"), List.of(childTypeString));
+    definitionKeeper.add(grandChildDefinition);
+
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    assertThat(resolver.getChildren(ropeTypeString)).containsExactly(childDefinition);
+    assertThat(resolver.getAllDescendants(ropeTypeString))
+        .containsExactlyInAnyOrder(childDefinition, grandChildDefinition);
+  }
+
+  @Test
+  void testGetChildrenAfterChange() {
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(this.createPackageDefinition("user"));
+    final TypeString aTypeString = TypeString.ofIdentifier("a", "user");
+    final ExemplarDefinition aDefinition = this.createExemplarDefinition(aTypeString);
+    definitionKeeper.add(aDefinition);
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    assertThat(resolver.getChildren(aTypeString)).isEmpty();
+
+    final ExemplarDefinition bDefinition =
+        this.createExemplarDefinition(TypeString.ofIdentifier("b", "user"), List.of(aTypeString));
+    definitionKeeper.add(bDefinition);
+    assertThat(resolver.getChildren(aTypeString)).containsExactly(bDefinition);
+
+    definitionKeeper.remove(bDefinition);
+    assertThat(resolver.getChildren(aTypeString)).isEmpty();
+  }
+
+  @Test
+  void testGetChildrenIncludesImplicitParent() {
+    // Default types, for the format mixins.
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final ExemplarDefinition aDefinition =
+        this.createExemplarDefinition(TypeString.ofIdentifier("a", "user"));
+    definitionKeeper.add(aDefinition);
+
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    assertThat(resolver.getChildren(TypeString.SW_SLOTTED_FORMAT_MIXIN)).contains(aDefinition);
+  }
+
+  @Test
+  void testIsKindOfExcludesImplicitParent() {
+    // Default types, for the format mixins.
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final TypeString aTypeString = TypeString.ofIdentifier("a", "user");
+    definitionKeeper.add(this.createExemplarDefinition(aTypeString));
+    final TypeString bTypeString = TypeString.ofIdentifier("b", "user");
+    definitionKeeper.add(this.createExemplarDefinition(bTypeString, List.of(aTypeString)));
+
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    assertThat(resolver.isKindOf(bTypeString, aTypeString)).isTrue();
+    assertThat(resolver.isKindOf(aTypeString, TypeString.SW_SLOTTED_FORMAT_MIXIN)).isFalse();
+    assertThat(resolver.isKindOf(bTypeString, TypeString.SW_SLOTTED_FORMAT_MIXIN)).isFalse();
+    assertThat(resolver.getParents(aTypeString))
+        .containsExactly(TypeString.SW_SLOTTED_FORMAT_MIXIN);
+  }
+
+  /**
+   * Lookup benchmark over a hierarchy of exemplars, run with {@code -Dmagik.benchmark=true}. The
+   * number of iterations defaults to 1M, set {@code -Dmagik.benchmark.iterations} to change it.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "magik.benchmark", matches = "true")
+  void benchmarkLookups() {
+    final int depth = 20;
+    final int methodsPerExemplar = 50;
+    final int iterations = Integer.getInteger("magik.benchmark.iterations", 1_000_000);
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper(false);
+    definitionKeeper.add(this.createPackageDefinition("user"));
+    for (int i = 0; i < depth; ++i) {
+      final TypeString typeString = TypeString.ofIdentifier("exemplar_" + i, "user");
+      final List<TypeString> parents =
+          i != 0 ? List.of(TypeString.ofIdentifier("exemplar_" + (i - 1), "user")) : List.of();
+      definitionKeeper.add(this.createExemplarDefinition(typeString, parents));
+      for (int j = 0; j < methodsPerExemplar; ++j) {
+        definitionKeeper.add(this.createMethodDefinition(typeString, "method_" + j + "()"));
+      }
+    }
+
+    // Query with separately created type strings, as when parsed from source.
+    final TypeString[] queries = new TypeString[depth];
+    for (int i = 0; i < depth; ++i) {
+      queries[i] = TypeString.ofIdentifier("user:exemplar_" + i, "sw");
+    }
+
+    final TypeStringResolver resolver = new TypeStringResolver(definitionKeeper);
+    int found = 0;
+    final long methodsStart = System.nanoTime();
+    for (int i = 0; i < iterations; ++i) {
+      found += definitionKeeper.getMethodDefinitions(queries[i % depth]).size();
+    }
+    final long methodsEnd = System.nanoTime();
+
+    int kindOfs = 0;
+    final long kindOfStart = System.nanoTime();
+    for (int i = 0; i < iterations; ++i) {
+      if (resolver.isKindOf(queries[i % depth], queries[i % (depth / 2)])) {
+        kindOfs += 1;
+      }
+    }
+    final long kindOfEnd = System.nanoTime();
+
+    LOGGER.info(
+        "Lookups, {} iterations, getMethodDefinitions: {} ns/op, isKindOf: {} ns/op",
+        iterations,
+        (methodsEnd - methodsStart) / iterations,
+        (kindOfEnd - kindOfStart) / iterations);
+    assertThat(found).isEqualTo(iterations * methodsPerExemplar);
+    assertThat(kindOfs).isPositive();
+  }
+}
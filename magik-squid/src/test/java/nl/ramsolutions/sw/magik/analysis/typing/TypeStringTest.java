@@ -0,0 +1,97 @@
+package nl.ramsolutions.sw.magik.analysis.typing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link TypeString}. */
+class TypeStringTest {
+
+  @Test
+  void testOfIdentifierCanonical() {
+    final TypeString typeString1 = TypeString.ofIdentifier("rope", "sw");
+    final TypeString typeString2 = TypeString.ofIdentifier("sw:rope", "user");
+
+    assertThat(typeString1).isSameAs(typeString2);
+    assertThat(typeString1).isSameAs(TypeString.ofIdentifier("rope", "sw"));
+  }
+
+  @Test
+  void testOfGenericsCanonical() {
+    final TypeString typeString1 =
+        TypeString.ofIdentifier(
+            "rope", "sw", TypeString.ofGenericDefinition("E", TypeString.SW_INTEGER));
+    final TypeString typeString2 =
+        TypeString.ofIdentifier(
+            "rope", "sw", TypeString.ofGenericDefinition("E", TypeString.SW_INTEGER));
+
+    assertThat(typeString1).isSameAs(typeString2);
+    assertThat(typeString1.getWithoutGenerics()).isSameAs(TypeString.ofIdentifier("rope", "sw"));
+    assertThat(TypeString.ofGenericReference("E")).isSameAs(TypeString.ofGenericReference("E"));
+    assertThat(TypeString.ofParameterRef("p1")).isSameAs(TypeString.ofParameterRef("p1"));
+  }
+
+  @Test
+  void testOfCombinationCanonical() {
+    final TypeString typeString1 =
+        TypeString.ofCombination(TypeString.SW_INTEGER, TypeString.SW_UNSET);
+    final TypeString typeString2 =
+        TypeString.ofCombination(TypeString.SW_UNSET, TypeString.SW_INTEGER);
+
+    assertThat(typeString1).isSameAs(typeString2);
+    assertThat(typeString1.hashCode()).isEqualTo(typeString2.hashCode());
+    assertThat(typeString1.getFullString()).isEqualTo("sw:integer|sw:unset");
+  }
+
+  @Test
+  void testConstants() {
+    assertThat(TypeString.UNDEFINED.isUndefined()).isTrue();
+    assertThat(TypeString.SELF.isSelf()).isTrue();
+    assertThat(TypeString.ofIdentifier("_undefined", TypeString.ANONYMOUS_PACKAGE))
+        .isSameAs(TypeString.UNDEFINED);
+  }
+
+  @Test
+  void testSingleCombinationIsSingle() {
+    final TypeString intersection =
+        TypeString.intersection(
+            TypeString.ofCombination(TypeString.SW_INTEGER, TypeString.SW_UNSET),
+            TypeString.SW_INTEGER);
+
+    assertThat(intersection).isSameAs(TypeString.SW_INTEGER);
+    assertThat(intersection.isSingle()).isTrue();
+    assertThat(TypeString.ofIdentifier("integer", "sw").getIdentifier()).isEqualTo("integer");
+  }
+
+  @Test
+  void testSelfKeepsPackage() {
+    final TypeString self = TypeString.ofIdentifier("_self", "user");
+    final TypeString undefined = TypeString.ofIdentifier("_undefined", "user");
+
+    assertThat(self.getPakkage()).isEqualTo("user");
+    assertThat(self.isAnonymous()).isFalse();
+    assertThat(undefined.getPakkage()).isEqualTo("user");
+    assertThat(TypeString.SELF.getPakkage()).isEqualTo(TypeString.ANONYMOUS_PACKAGE);
+  }
+
+  @Test
+  void testEqualsHashCodeAcrossPackages() {
+    final TypeString swRope = TypeString.ofIdentifier("rope", "sw");
+    final TypeString userRope = TypeString.ofIdentifier("rope", "user");
+    assertThat(swRope).isNotEqualTo(userRope);
+    assertThat(swRope.hashCode()).isNotEqualTo(userRope.hashCode());
+
+    // Qualified identifier in another current package is the same type.
+    final TypeString qualifiedRope = TypeString.ofIdentifier("sw:rope", "user");
+    assertThat(qualifiedRope).isSameAs(swRope);
+
+    // `_self` is kept per package, but equal and with equal hash codes.
+    final TypeString userSelf = TypeString.ofIdentifier("_self", "user");
+    final TypeString swSelf = TypeString.ofIdentifier("_self", "sw");
+    assertThat(userSelf).isNotSameAs(swSelf);
+    assertThat(userSelf).isEqualTo(swSelf);
+    assertThat(userSelf.hashCode()).isEqualTo(swSelf.hashCode());
+    assertThat(userSelf).isEqualTo(TypeString.SELF);
+    assertThat(userSelf.hashCode()).isEqualTo(TypeString.SELF.hashCode());
+  }
+}
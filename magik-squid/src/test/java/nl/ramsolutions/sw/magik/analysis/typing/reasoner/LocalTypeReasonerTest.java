@@ -1,6 +1,7 @@
 package nl.ramsolutions.sw.magik.analysis.typing.reasoner;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.sonar.sslr.api.AstNode;
 import java.io.IOException;
@@ -8,6 +9,8 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import nl.ramsolutions.sw.MagikToolsProperties;
 import nl.ramsolutions.sw.magik.MagikTypedFile;
 import nl.ramsolutions.sw.magik.analysis.definitions.BinaryOperatorDefinition;
 import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
@@ -2000,4 +2003,103 @@ class LocalTypeReasonerTest {
                     TypeString.ofGenericDefinition(
                         "E", TypeString.combine(TypeString.SW_INTEGER, TypeString.SW_SYMBOL)))));
   }
+
+  @Test
+  void testReasonInterrupted() {
+    final String code =
+        """
+        _method object.test
+            _return 1
+        _endmethod
+        """;
+
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final MagikTypedFile magikFile = this.createMagikFile(code, definitionKeeper);
+    final LocalTypeReasoner reasoner = new LocalTypeReasoner(magikFile);
+    Thread.currentThread().interrupt();
+    try {
+      assertThatThrownBy(reasoner::run).isInstanceOf(CancellationException.class);
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void testReasonReusesUnchangedMethods() {
+    final String code0 =
+        """
+        _method object.test1
+            _return 1
+        _endmethod
+        _method object.test2
+            _return 2
+        _endmethod
+        """;
+    final String code1 =
+        """
+        _method object.test1
+            _return 1
+        _endmethod
+        _method object.test2
+            _return 2.0
+        _endmethod
+        """;
+
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final MagikTypedFile magikFile0 = this.createMagikFile(code0, definitionKeeper);
+    final LocalTypeReasonerState state0 = magikFile0.getTypeReasonerState();
+    final MagikTypedFile magikFile1 =
+        new MagikTypedFile(
+            MagikToolsProperties.DEFAULT_PROPERTIES,
+            DEFAULT_URI,
+            code1,
+            definitionKeeper,
+            magikFile0);
+    final LocalTypeReasonerState state1 = magikFile1.getTypeReasonerState();
+
+    // Unchanged method is reused, changed method is reasoned again.
+    final List<AstNode> methodNodes0 =
+        magikFile0.getTopNode().getChildren(MagikGrammar.METHOD_DEFINITION);
+    final List<AstNode> methodNodes1 =
+        magikFile1.getTopNode().getChildren(MagikGrammar.METHOD_DEFINITION);
+    assertThat(state1.getNodeType(methodNodes1.get(0)))
+        .isSameAs(state0.getNodeType(methodNodes0.get(0)));
+    assertThat(state1.getNodeType(methodNodes1.get(1)))
+        .isEqualTo(new ExpressionResultString(TypeString.SW_FLOAT));
+  }
+
+  @Test
+  void testReasonNotReusesMethodsUsingFileVariables() {
+    final String code0 =
+        """
+        _local a << 1
+        _method object.test
+            _return a
+        _endmethod
+        """;
+    final String code1 =
+        """
+        _local a << 1.0
+        _method object.test
+            _return a
+        _endmethod
+        """;
+
+    final IDefinitionKeeper definitionKeeper = new DefinitionKeeper();
+    final MagikTypedFile magikFile0 = this.createMagikFile(code0, definitionKeeper);
+    magikFile0.getTypeReasonerState();
+    final MagikTypedFile magikFile1 =
+        new MagikTypedFile(
+            MagikToolsProperties.DEFAULT_PROPERTIES,
+            DEFAULT_URI,
+            code1,
+            definitionKeeper,
+            magikFile0);
+    final LocalTypeReasonerState state1 = magikFile1.getTypeReasonerState();
+
+    final AstNode methodNode =
+        magikFile1.getTopNode().getFirstChild(MagikGrammar.METHOD_DEFINITION);
+    assertThat(state1.getNodeType(methodNode))
+        .isEqualTo(new ExpressionResultString(TypeString.SW_FLOAT));
+  }
 }
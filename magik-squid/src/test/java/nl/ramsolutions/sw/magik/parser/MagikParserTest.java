@@ -6,14 +6,29 @@ import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.ast.AstXmlPrinter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import nl.ramsolutions.sw.magik.MagikFile;
 import nl.ramsolutions.sw.magik.api.MagikGrammar;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.sslr.parser.ParseRunner;
 
 /** Test MagikParser. */
 @SuppressWarnings("checkstyle:MagicNumber")
 class MagikParserTest {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(MagikParserTest.class);
+
   private AstNode parseMagik(final String code) {
     final MagikParser parser = new MagikParser();
     return parser.parseSafe(code);
@@ -340,4 +355,179 @@ class MagikParserTest {
     assertThat(trivia6.getToken().getType()).isEqualTo(GenericTokenType.EOL);
     assertThat(trivia6.getToken().getOriginalValue()).isEqualTo("\n");
   }
+
+  @Test
+  void testIdentifierSymbolValues() {
+    final String code = "Abc|DEF| << :Sym|BOL|";
+    final AstNode node = this.parseMagik(code);
+
+    final AstNode identifierNode = node.getFirstDescendant(MagikGrammar.IDENTIFIER);
+    assertThat(identifierNode.getTokenValue()).isEqualTo("abcDEF");
+    assertThat(identifierNode.getTokenOriginalValue()).isEqualTo("Abc|DEF|");
+
+    final AstNode symbolNode = node.getFirstDescendant(MagikGrammar.SYMBOL);
+    assertThat(symbolNode.getTokenValue()).isEqualTo(":symBOL");
+    assertThat(symbolNode.getTokenOriginalValue()).isEqualTo(":Sym|BOL|");
+  }
+
+  @Test
+  void testParseConcurrently() {
+    final String code =
+        """
+        _method a.b(p1)
+        	write(p1)
+        _endmethod""";
+    final String expected = AstXmlPrinter.print(this.parseMagik(code));
+
+    final List<String> results =
+        IntStream.range(0, 16)
+            .parallel()
+            .mapToObj(i -> AstXmlPrinter.print(this.parseMagik(code)))
+            .toList();
+
+    assertThat(results).hasSize(16).allMatch(expected::equals);
+  }
+
+  @Test
+  void testParseIncremental() {
+    final String previousCode =
+        """
+        _method a.b
+        \t# Comment.
+        \twrite(1)
+        _endmethod
+        $
+
+        _method a.c
+        \twrite(2)
+        _endmethod
+        $
+        """;
+    final String code = previousCode.replace("write(2)", "write(3, :Sym)");
+    final MagikParser parser = new MagikParser();
+    final AstNode previousNode = parser.parseSafe(previousCode);
+    final AstNode firstMethodNode = previousNode.getFirstChild(MagikGrammar.METHOD_DEFINITION);
+
+    final AstNode node =
+        parser.parseIncremental(code, MagikFile.DEFAULT_URI, previousCode, previousNode);
+
+    final AstNode expectedNode = parser.parseSafe(code);
+    assertThat(AstXmlPrinter.print(node)).isEqualTo(AstXmlPrinter.print(expectedNode));
+    final AstNode reusedMethodNode = node.getFirstChild(MagikGrammar.METHOD_DEFINITION);
+    assertThat(reusedMethodNode).isNotSameAs(firstMethodNode);
+    assertThat(reusedMethodNode.getToken()).isSameAs(firstMethodNode.getToken());
+    final AstNode symbolNode = node.getFirstDescendant(MagikGrammar.SYMBOL);
+    final AstNode expectedSymbolNode = expectedNode.getFirstDescendant(MagikGrammar.SYMBOL);
+    assertThat(symbolNode.getTokenValue()).isEqualTo(":sym");
+    assertThat(symbolNode.getToken().getLine()).isEqualTo(8);
+    assertThat(symbolNode.getFromIndex()).isEqualTo(expectedSymbolNode.getFromIndex());
+    assertThat(symbolNode.getToIndex()).isEqualTo(expectedSymbolNode.getToIndex());
+
+    // The previous tree is left intact.
+    assertThat(firstMethodNode.getParent()).isSameAs(previousNode);
+    assertThat(AstXmlPrinter.print(previousNode))
+        .isEqualTo(AstXmlPrinter.print(parser.parseSafe(previousCode)));
+  }
+
+  @Test
+  void testParseIncrementalChangeInFirstSection() {
+    final String previousCode =
+        """
+        _method a.b
+        \twrite(1)
+        _endmethod
+        $
+        """;
+    final String code = previousCode.replace("write(1)", "write(2)");
+    final MagikParser parser = new MagikParser();
+    final AstNode previousNode = parser.parseSafe(previousCode);
+
+    final AstNode node =
+        parser.parseIncremental(code, MagikFile.DEFAULT_URI, previousCode, previousNode);
+
+    assertThat(AstXmlPrinter.print(node)).isEqualTo(AstXmlPrinter.print(parser.parseSafe(code)));
+    assertThat(node.getFirstChild(MagikGrammar.METHOD_DEFINITION))
+        .isNotSameAs(previousNode.getFirstChild(MagikGrammar.METHOD_DEFINITION));
+  }
+
+  /**
+   * Parser reuse benchmark, run with {@code -Dmagik.benchmark=true}. Compares parsing with the
+   * shared parser to building the grammar and parser for each parse, as was done before. The corpus
+   * defaults to the Magik files in this repository, set {@code -Dmagik.benchmark.corpus} to use
+   * another directory.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "magik.benchmark", matches = "true")
+  void benchmarkParserReuse() throws IOException {
+    final List<String> sources = MagikParserTest.readCorpus();
+    final MagikParser parser = new MagikParser();
+    final int rounds = 5;
+
+    long sharedNanos = Long.MAX_VALUE;
+    long buildingNanos = Long.MAX_VALUE;
+    for (int round = 0; round < rounds; ++round) {
+      final long sharedStart = System.nanoTime();
+      sources.forEach(parser::parse);
+      sharedNanos = Math.min(sharedNanos, System.nanoTime() - sharedStart);
+
+      final long buildingStart = System.nanoTime();
+      for (final String source : sources) {
+        new ParseRunner(MagikGrammar.create().getRootRule());
+        parser.parse(source);
+      }
+      buildingNanos = Math.min(buildingNanos, System.nanoTime() - buildingStart);
+    }
+
+    LOGGER.info(
+        "Parse throughput, {} files, shared parser: {} files/s, grammar per parse: {} files/s",
+        sources.size(),
+        sources.size() * 1_000_000_000L / sharedNanos,
+        sources.size() * 1_000_000_000L / buildingNanos);
+  }
+
+  /**
+   * Parse throughput benchmark, run with {@code -Dmagik.benchmark=true}. Parses the corpus {@code
+   * -Dmagik.benchmark.rounds} times, the corpus defaults to the Magik files in this repository, set
+   * {@code -Dmagik.benchmark.corpus} to use another directory.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "magik.benchmark", matches = "true")
+  void benchmarkParseThroughput() throws IOException {
+    final List<String> sources = MagikParserTest.readCorpus();
+    final long corpusBytes = sources.stream().mapToLong(String::length).sum();
+    final int rounds = Integer.getInteger("magik.benchmark.rounds", 20);
+    final MagikParser parser = new MagikParser();
+    sources.forEach(parser::parse);
+
+    final long start = System.nanoTime();
+    for (int round = 0; round < rounds; ++round) {
+      sources.forEach(parser::parse);
+    }
+    final long nanos = System.nanoTime() - start;
+
+    final double seconds = nanos / 1_000_000_000.0;
+    LOGGER.info(
+        "Parse throughput, {} files, {} bytes, {} rounds: {} MB/s, {} files/s",
+        sources.size(),
+        corpusBytes,
+        rounds,
+        String.format("%.2f", corpusBytes * rounds / seconds / 1_000_000),
+        String.format("%.0f", sources.size() * rounds / seconds));
+  }
+
+  private static List<String> readCorpus() throws IOException {
+    final Path corpusPath = Path.of(System.getProperty("magik.benchmark.corpus", ".."));
+    try (Stream<Path> paths = Files.walk(corpusPath)) {
+      final List<Path> magikPaths =
+          paths
+              .filter(path -> path.toString().endsWith(".magik"))
+              .filter(path -> !path.toString().contains("target"))
+              .toList();
+      final List<String> sources = new ArrayList<>();
+      for (final Path path : magikPaths) {
+        sources.add(Files.readString(path, StandardCharsets.ISO_8859_1));
+      }
+      return sources;
+    }
+  }
 }
@@ -4,13 +4,13 @@ import java.io.IOException;
 import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.ObjLongConsumer;
 import nl.ramsolutions.sw.ConfigurationReader;
 import nl.ramsolutions.sw.FileCharsetDeterminer;
 import nl.ramsolutions.sw.MagikToolsProperties;
@@ -22,6 +22,7 @@ import nl.ramsolutions.sw.magik.checks.MagikCheck;
 import nl.ramsolutions.sw.magik.checks.MagikCheckHolder;
 import nl.ramsolutions.sw.magik.checks.MagikCheckMetadata;
 import nl.ramsolutions.sw.magik.checks.MagikChecksConfiguration;
+import nl.ramsolutions.sw.magik.checks.MagikChecksProfiler;
 import nl.ramsolutions.sw.magik.checks.MagikIssue;
 import nl.ramsolutions.sw.magik.checks.MagikIssueDisabledChecker;
 import nl.ramsolutions.sw.magik.typedchecks.CheckList;
@@ -42,6 +43,7 @@ public class MagikTypedLint {
   private final IDefinitionKeeper definitionKeeper;
   private final MagikToolsProperties properties;
   private final Reporter reporter;
+  private final MagikChecksProfiler profiler;
 
   /**
    * Constructor, parses command line and reads configuration.
@@ -54,9 +56,26 @@ public class MagikTypedLint {
       final IDefinitionKeeper definitionKeeper,
       final MagikToolsProperties properties,
       final Reporter reporter) {
+    this(definitionKeeper, properties, reporter, MagikChecksProfiler.NULL_PROFILER);
+  }
+
+  /**
+   * Constructor, parses command line and reads configuration.
+   *
+   * @param definitionKeeper {@link IDefinitionKeeper} to use.
+   * @param properties Properites.
+   * @param reporter Reporter.
+   * @param profiler Profiler to record checking of files.
+   */
+  public MagikTypedLint(
+      final IDefinitionKeeper definitionKeeper,
+      final MagikToolsProperties properties,
+      final Reporter reporter,
+      final MagikChecksProfiler profiler) {
     this.definitionKeeper = definitionKeeper;
     this.properties = properties;
     this.reporter = reporter;
+    this.profiler = profiler;
   }
 
   /**
@@ -79,21 +98,6 @@ public class MagikTypedLint {
     }
   }
 
-  /**
-   * Run a single check on context.
-   *
-   * @param magikFile File to run check on.
-   * @param holder MagikCheckHolder Check to run.
-   * @return Issues/infractions found.
-   * @throws ReflectiveOperationException -
-   */
-  private List<MagikIssue> runCheckOnFile(
-      final MagikTypedFile magikFile, final MagikCheckHolder holder)
-      throws ReflectiveOperationException {
-    final MagikCheck check = holder.createCheck();
-    return check.scanFileForIssues(magikFile);
-  }
-
   /**
    * Show checks active and inactive checks.
    *
@@ -111,7 +115,7 @@ public class MagikTypedLint {
             ? new MagikToolsProperties(overrideConfigPath)
             : MagikToolsProperties.DEFAULT_PROPERTIES;
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), checksProperties);
+        MagikChecksConfiguration.of(CheckList.getChecks(), checksProperties);
     final Iterable<MagikCheckHolder> holders = checksConfig.getAllChecks();
     for (final MagikCheckHolder holder : holders) {
       final MagikCheckMetadata metadata = holder.getMetadata();
@@ -171,9 +175,7 @@ public class MagikTypedLint {
     final Location.LocationRangeComparator locationCompare = new Location.LocationRangeComparator();
     paths.stream()
         .parallel()
-        .map(this::buildMagikFile)
-        .filter(magikFile -> !this.isFileIgnored(magikFile))
-        .map(this::runChecksOnFile)
+        .map(this::checkFile)
         .flatMap(List::stream)
         .sorted((issue0, issue1) -> locationCompare.compare(issue0.location(), issue1.location()))
         .sequential()
@@ -181,18 +183,34 @@ public class MagikTypedLint {
         .forEach(this.reporter::reportIssue);
   }
 
+  /**
+   * Check a single file.
+   *
+   * @param path Path to file.
+   * @return Issues for the file.
+   */
+  private List<MagikIssue> checkFile(final Path path) {
+    final MagikChecksProfiler.FileRecorder recorder = this.profiler.startFile(path.toUri());
+    final MagikTypedFile magikFile =
+        recorder.measure(MagikChecksProfiler.Phase.READ, () -> this.buildMagikFile(path));
+    if (this.isFileIgnored(magikFile)) {
+      recorder.finish();
+      return Collections.emptyList();
+    }
+
+    final List<MagikIssue> issues = this.runChecksOnFile(magikFile, recorder);
+    recorder.finish();
+    return issues;
+  }
+
   private boolean isFileIgnored(final MagikFile magikFile) {
     // TODO: Is this still current?
     final MagikToolsProperties fileProperties = magikFile.getProperties();
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), fileProperties);
+        MagikChecksConfiguration.of(CheckList.getChecks(), fileProperties);
     final URI uri = magikFile.getUri();
     final Path path = Path.of(uri);
-    final FileSystem fs = FileSystems.getDefault();
-    final boolean isIgnored =
-        checksConfig.getIgnores().stream()
-            .map(fs::getPathMatcher)
-            .anyMatch(matcher -> matcher.matches(path));
+    final boolean isIgnored = checksConfig.isIgnored(path);
     if (isIgnored) {
       LOGGER.trace("Thread: {}, ignoring file: {}", Thread.currentThread().getName(), path);
     }
@@ -203,36 +221,59 @@ public class MagikTypedLint {
    * Run {@link MagikCheckHolder}s on {@link MagikTypedFile}.
    *
    * @param magikFile File to run on.
-   * @param holders {@link MagikCheckHolder}s to run.
+   * @param recorder Recorder for profiling.
    * @return List of {@link MagikIssue}s for the given file.
    */
-  private List<MagikIssue> runChecksOnFile(final MagikTypedFile magikFile) {
+  private List<MagikIssue> runChecksOnFile(
+      final MagikTypedFile magikFile, final MagikChecksProfiler.FileRecorder recorder) {
     LOGGER.trace("Thread: {}, checking file: {}", Thread.currentThread().getName(), magikFile);
 
-    final List<MagikIssue> magikIssues = new ArrayList<>();
+    // Parse, build scopes and reason types up front, to measure these separately from the checks.
+    recorder.measure(MagikChecksProfiler.Phase.PARSE, () -> magikFile.getTopNode());
+    recorder.measure(MagikChecksProfiler.Phase.SCOPE, () -> magikFile.getGlobalScope());
+    recorder.measure(
+        MagikChecksProfiler.Phase.TYPE_REASONING, () -> magikFile.getTypeReasonerState());
 
-    // Run checks on files.
+    // Run checks on file, walking the tree only once.
     final MagikToolsProperties fileProperties = magikFile.getProperties();
     final MagikChecksConfiguration checksConfig =
-        new MagikChecksConfiguration(CheckList.getChecks(), fileProperties);
-    final Iterable<MagikCheckHolder> holders = checksConfig.getAllChecks();
+        MagikChecksConfiguration.of(CheckList.getChecks(), fileProperties);
+    final List<MagikCheck> checks = this.createChecks(checksConfig.getAllChecks());
+    final ObjLongConsumer<MagikCheck> checkTimeConsumer =
+        this.profiler.isEnabled() ? recorder::recordCheck : null;
+    final List<MagikIssue> issues =
+        recorder.measure(
+            MagikChecksProfiler.Phase.CHECKS,
+            () -> MagikCheck.scanFileForIssues(magikFile, checks, checkTimeConsumer));
+    return recorder.measure(
+        MagikChecksProfiler.Phase.SUPPRESSION,
+        () ->
+            issues.stream()
+                .filter(
+                    magikIssue -> !MagikIssueDisabledChecker.issueDisabled(magikFile, magikIssue))
+                .toList());
+  }
+
+  /**
+   * Create the enabled checks from {@link MagikCheckHolder}s.
+   *
+   * @param holders {@link MagikCheckHolder}s to create checks from.
+   * @return Created checks.
+   */
+  private List<MagikCheck> createChecks(final Iterable<MagikCheckHolder> holders) {
+    final List<MagikCheck> checks = new ArrayList<>();
     for (final MagikCheckHolder holder : holders) {
       if (!holder.isEnabled()) {
         continue;
       }
 
       try {
-        final List<MagikIssue> issues =
-            this.runCheckOnFile(magikFile, holder).stream()
-                .filter(
-                    magikIssue -> !MagikIssueDisabledChecker.issueDisabled(magikFile, magikIssue))
-                .toList();
-        magikIssues.addAll(issues);
+        checks.add(holder.createCheck());
       } catch (final ReflectiveOperationException exception) {
         LOGGER.error(exception.getMessage(), exception);
       }
     }
 
-    return magikIssues;
+    return checks;
   }
 }
@@ -19,10 +19,13 @@ import nl.ramsolutions.sw.IgnoreHandler;
 import nl.ramsolutions.sw.MagikToolsProperties;
 import nl.ramsolutions.sw.magik.FileEvent;
 import nl.ramsolutions.sw.magik.MagikFileScanner;
+import nl.ramsolutions.sw.magik.analysis.MagikAnalysisSettings;
 import nl.ramsolutions.sw.magik.analysis.definitions.DefinitionKeeper;
 import nl.ramsolutions.sw.magik.analysis.definitions.IDefinitionKeeper;
-import nl.ramsolutions.sw.magik.analysis.definitions.io.JsonDefinitionReader;
+import nl.ramsolutions.sw.magik.analysis.definitions.io.TypesDatabaseReader;
+import nl.ramsolutions.sw.magik.analysis.indexer.IndexerProgressListener;
 import nl.ramsolutions.sw.magik.analysis.indexer.MagikIndexer;
+import nl.ramsolutions.sw.magik.checks.MagikChecksProfiler;
 import nl.ramsolutions.sw.magik.typedlint.output.MessageFormatReporter;
 import nl.ramsolutions.sw.magik.typedlint.output.NullReporter;
 import nl.ramsolutions.sw.magik.typedlint.output.Reporter;
@@ -84,6 +87,13 @@ public final class Main {
           .hasArg()
           .type(PatternOptionBuilder.FILE_VALUE)
           .build();
+  private static final Option OPTION_PROFILE =
+      Option.builder()
+          .longOpt("profile")
+          .desc("Profile checking, write JSON report to file and show summary")
+          .hasArg()
+          .type(PatternOptionBuilder.FILE_VALUE)
+          .build();
   private static final Option OPTION_DEBUG =
       Option.builder().longOpt("debug").desc("Enable showing of debug information").build();
   private static final Option OPTION_VERSION =
@@ -101,6 +111,7 @@ public final class Main {
     OPTIONS.addOption(OPTION_MAX_INFRACTIONS);
     OPTIONS.addOption(OPTION_TYPE_DATABASE);
     OPTIONS.addOption(OPTION_PRE_INDEX_DIR);
+    OPTIONS.addOption(OPTION_PROFILE);
     OPTIONS.addOption(OPTION_DEBUG);
     OPTIONS.addOption(OPTION_VERSION);
   }
@@ -175,7 +186,7 @@ public final class Main {
       throws IOException {
     for (final String typeDatabasePath : typeDatabasePaths) {
       final Path path = Path.of(typeDatabasePath);
-      JsonDefinitionReader.readTypes(path, definitionKeeper);
+      TypesDatabaseReader.readTypes(path, definitionKeeper);
     }
   }
 
@@ -186,12 +197,17 @@ public final class Main {
       throws IOException {
     final IgnoreHandler ignoreHandler = new IgnoreHandler();
     final MagikIndexer magikIndexer = new MagikIndexer(definitionKeeper, properties, ignoreHandler);
+    final List<FileEvent> fileEvents = new ArrayList<>();
     for (final String indexDir : indexDirs) {
       final Path path = Path.of(indexDir).toAbsolutePath();
       final URI uri = path.toUri();
       final FileEvent fileEvent = new FileEvent(uri, FileEvent.FileChangeType.CREATED);
-      magikIndexer.handleFileEvent(fileEvent);
+      fileEvents.add(fileEvent);
     }
+
+    final MagikAnalysisSettings settings = new MagikAnalysisSettings(properties);
+    final int parallelism = settings.getTypingIndexParallelism();
+    magikIndexer.handleFileEvents(fileEvents, parallelism, IndexerProgressListener.NULL_LISTENER);
   }
 
   /**
@@ -288,9 +304,15 @@ public final class Main {
     // Lint files from command line.
     final Collection<Path> paths = Main.getFilesFromArgs(leftOverArgs);
     final Reporter reporter = Main.createReporter(properties);
-    final MagikTypedLint lint = new MagikTypedLint(definitionKeeper, properties, reporter);
+    final MagikChecksProfiler profiler =
+        new MagikChecksProfiler(commandLine.hasOption(OPTION_PROFILE));
+    final MagikTypedLint lint =
+        new MagikTypedLint(definitionKeeper, properties, reporter, profiler);
     lint.run(paths);
 
+    // Write profile.
+    Main.writeProfile(commandLine, profiler);
+
     final int exitCode =
         reporter.reportedSeverities().stream()
             .map(Main.SEVERITY_EXIT_CODE_MAPPING::get)
@@ -298,6 +320,20 @@ public final class Main {
     System.exit(exitCode);
   }
 
+  private static void writeProfile(
+      final CommandLine commandLine, final MagikChecksProfiler profiler)
+      throws ParseException, IOException {
+    if (!profiler.isEnabled()) {
+      return;
+    }
+
+    final File profileFile = (File) commandLine.getParsedOptionValue(OPTION_PROFILE);
+    profiler.writeJson(profileFile.toPath());
+
+    final PrintStream errStream = Main.getErrStream();
+    profiler.writeSummary(new PrintWriter(errStream));
+  }
+
   private static void copyOptionsToConfig(
       final CommandLine commandLine, final MagikToolsProperties properties) {
     if (commandLine.hasOption(OPTION_MAX_INFRACTIONS)) {
@@ -111,9 +111,10 @@ public class MagikSensor implements Sensor {
         checkFactory
             .<MagikCheck>create(CheckList.REPOSITORY_KEY)
             .addAnnotatedChecks(CheckList.getChecks());
-    for (final MagikCheck check : checks.all()) {
-      LOGGER.debug("Running check: {}", check);
-      final List<MagikIssue> issues = check.scanFileForIssues(magikFile);
+    final List<MagikCheck> allChecks = List.copyOf(checks.all());
+    MagikVisitor.scanFile(magikFile, allChecks);
+    for (final MagikCheck check : allChecks) {
+      final List<MagikIssue> issues = check.getIssues();
       final RuleKey ruleKey = checks.ruleKey(check);
       if (ruleKey == null) {
         continue;